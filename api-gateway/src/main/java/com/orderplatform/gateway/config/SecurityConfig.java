@@ -34,6 +34,7 @@ public class SecurityConfig {
                 .pathMatchers(HttpMethod.POST, "/api/v1/orders/**").hasAnyRole("admin", "ops")
                 .pathMatchers(HttpMethod.PUT, "/api/v1/orders/**").hasAnyRole("admin", "ops")
                 .pathMatchers(HttpMethod.DELETE, "/api/v1/orders/**").hasAnyRole("admin", "ops")
+                .pathMatchers(HttpMethod.GET, "/api/v1/commands/**").hasAnyRole("admin", "ops")
                 
                 // Query endpoints - require any authenticated role
                 .pathMatchers(HttpMethod.GET, "/api/v1/orders/**").hasAnyRole("admin", "ops", "analyst")
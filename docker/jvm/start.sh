@@ -0,0 +1,26 @@
+#!/bin/sh
+# Starts the unpacked service with the OpenTelemetry agent, using its Spring AOT initializers and
+# AppCDS archive when the image has them. STARTUP_OPTIMIZATIONS=off starts without either, which
+# is the baseline for startup measurements.
+#
+# The agent appends to the bootstrap class path, after which the JVM only shares the JDK's own
+# classes from the archive. OTEL_JAVAAGENT_ENABLED=false starts without the agent, and so without
+# tracing, but loads the application and library classes from the archive too.
+set -eu
+
+STARTUP_OPTS=""
+if [ "${STARTUP_OPTIMIZATIONS:-on}" != "off" ]; then
+    if [ -f /app/aot ]; then
+        STARTUP_OPTS="$STARTUP_OPTS -Dspring.aot.enabled=true"
+    fi
+    if [ -f /app/application.jsa ]; then
+        STARTUP_OPTS="$STARTUP_OPTS -XX:SharedArchiveFile=/app/application.jsa"
+    fi
+fi
+
+if [ "${OTEL_JAVAAGENT_ENABLED:-true}" != "false" ]; then
+    STARTUP_OPTS="$STARTUP_OPTS -javaagent:/app/opentelemetry-javaagent.jar"
+fi
+
+exec java ${JAVA_OPTS:-} $STARTUP_OPTS \
+    -cp "/app/application.jar:/app/lib/*" "$(cat /app/main-class)" "$@"
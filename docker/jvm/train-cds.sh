@@ -0,0 +1,26 @@
+#!/bin/sh
+# Training run for the AppCDS archive: starts the service until its application context has been
+# refreshed, then exits and archives every class loaded by then to /app/application.jsa.
+#
+# Runs without the OpenTelemetry agent: the JVM refuses to dump an archive with an agent attached,
+# and cannot share classes outside the JDK once the agent is on the bootstrap class path anyway.
+#
+# Beans connect to their databases and brokers while the context refreshes, so these must be
+# reachable from the build (see "Fast Startup" in the README). When they are not, the image is
+# still built, only without the archive.
+set -u
+
+STARTUP_OPTS=""
+if [ -f /app/aot ]; then
+    STARTUP_OPTS="-Dspring.aot.enabled=true"
+fi
+
+if java ${JAVA_OPTS:-} $STARTUP_OPTS \
+        -XX:ArchiveClassesAtExit=/app/application.jsa \
+        -Dspring.context.exit=onRefresh \
+        -cp "/app/application.jar:/app/lib/*" "$(cat /app/main-class)"; then
+    echo "Created AppCDS archive /app/application.jsa ($(du -h /app/application.jsa | cut -f1))"
+else
+    rm -f /app/application.jsa
+    echo "Training run failed; the image starts without an AppCDS archive"
+fi
@@ -0,0 +1,26 @@
+#!/bin/sh
+# Unpacks a Spring Boot jar into <target>/application.jar and <target>/lib/ for the JVM to load
+# directly. An AppCDS archive cannot hold classes loaded from jars nested in the Boot jar.
+#
+# Usage: unpack.sh <absolute path of the Boot jar> <target directory>
+set -eu
+
+JAR="$1"
+TARGET="$2"
+WORK=$(mktemp -d)
+
+cd "$WORK"
+jar -xf "$JAR"
+
+mkdir -p "$TARGET/lib"
+cp BOOT-INF/lib/*.jar "$TARGET/lib/"
+jar -cf "$TARGET/application.jar" -C BOOT-INF/classes .
+sed -n 's/^Start-Class: *//p' META-INF/MANIFEST.MF | tr -d '\r' > "$TARGET/main-class"
+
+# Jars built with -P aot carry the generated context initializers
+if find BOOT-INF/classes -name '*__ApplicationContextInitializer.class' | grep -q .; then
+    touch "$TARGET/aot"
+fi
+
+cd /
+rm -rf "$WORK"
@@ -0,0 +1,199 @@
+package com.orderplatform.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.orderplatform.command.application.OrderCommandService;
+import com.orderplatform.command.config.SegmentLogConfig;
+import com.orderplatform.command.config.ShardingProperties;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.CommandStageMetrics;
+import com.orderplatform.command.infrastructure.idempotency.CommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyStore;
+import com.orderplatform.command.infrastructure.memory.InMemoryCommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.memory.InMemoryEventStoreRepository;
+import com.orderplatform.command.infrastructure.memory.InMemorySnapshotRepository;
+import com.orderplatform.command.infrastructure.segmentlog.SegmentLogEventStoreRepository;
+import com.orderplatform.command.infrastructure.segmentlog.SegmentLogSnapshotRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The production command path — {@link OrderCommandService}, {@link AggregateLoader} and
+ * {@link IdempotencyStore} — wired in a plain Spring context on the in-memory or the segment-log
+ * event store backend. No web layer, database, Kafka or Spring Boot auto-configuration is started,
+ * so benchmarks measure the domain, serialization and framework work of a command, plus the log
+ * writes and fsyncs on the segment-log backend, and nothing else.
+ */
+public final class CommandPipeline implements AutoCloseable {
+
+    public static final String IN_MEMORY = "in-memory";
+    public static final String SEGMENT_LOG = "segment-log";
+
+    private static final String BACKEND = "app.event-store.backend";
+    private static final String SEGMENT_LOG_DIRECTORY = "app.event-store.segment-log.directory";
+
+    private final AnnotationConfigApplicationContext context;
+    private final Path temporaryDirectory;
+
+    private CommandPipeline(AnnotationConfigApplicationContext context, Path temporaryDirectory) {
+        this.context = context;
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * Starts a pipeline with the given application properties on top of the in-memory backend,
+     * or the backend named by {@code app.event-store.backend}. Unless a directory is given, the
+     * segment log is written to a temporary directory that is deleted on {@link #close()}.
+     */
+    public static CommandPipeline start(Map<String, Object> properties) {
+        Map<String, Object> merged = new HashMap<>();
+        merged.put(BACKEND, IN_MEMORY);
+        merged.putAll(properties);
+
+        String backend = merged.get(BACKEND).toString();
+        Path temporaryDirectory = null;
+        if (SEGMENT_LOG.equals(backend) && !merged.containsKey(SEGMENT_LOG_DIRECTORY)) {
+            try {
+                temporaryDirectory = Files.createTempDirectory("segment-log-benchmark");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create segment log directory", e);
+            }
+            merged.put(SEGMENT_LOG_DIRECTORY, temporaryDirectory.toString());
+        }
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        if (IN_MEMORY.equals(backend)) {
+            context.getEnvironment().setActiveProfiles("in-memory");
+        }
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", merged));
+        context.register(PipelineConfig.class);
+        context.refresh();
+        return new CommandPipeline(context, temporaryDirectory);
+    }
+
+    public OrderCommandService commandService() {
+        return context.getBean(OrderCommandService.class);
+    }
+
+    public AggregateLoader aggregateLoader() {
+        return context.getBean(AggregateLoader.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        if (temporaryDirectory != null) {
+            try {
+                FileSystemUtils.deleteRecursively(temporaryDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete " + temporaryDirectory, e);
+            }
+        }
+    }
+
+    @Configuration
+    @Import({
+            OrderCommandService.class,
+            AggregateLoader.class,
+            CommandStageMetrics.class,
+            IdempotencyStore.class,
+            ShardRouter.class,
+            InMemoryEventStoreRepository.class,
+            InMemorySnapshotRepository.class,
+            InMemoryCommandDeduplicationRepository.class,
+            SegmentLogConfig.class,
+            SegmentLogEventStoreRepository.class,
+            SegmentLogSnapshotRepository.class
+    })
+    static class PipelineConfig {
+
+        // The service keeps idempotency keys of the segment-log backend in PostgreSQL, which is not started here
+        @Bean
+        @ConditionalOnProperty(name = "app.event-store.backend", havingValue = "segment-log")
+        CommandDeduplicationRepository segmentLogDeduplicationRepository(ObjectMapper objectMapper) {
+            return new InMemoryCommandDeduplicationRepository(objectMapper);
+        }
+
+        // Same settings Spring Boot applies to the service's ObjectMapper
+        @Bean
+        ObjectMapper objectMapper() {
+            return JsonMapper.builder()
+                    .findAndAddModules()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .build();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ShardingProperties shardingProperties() {
+            return new ShardingProperties();
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new ResourcelessTransactionManager();
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+
+    /**
+     * Runs transaction synchronization callbacks without any resource behind the transaction,
+     * so after-commit work such as idempotency caching still happens.
+     */
+    private static final class ResourcelessTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
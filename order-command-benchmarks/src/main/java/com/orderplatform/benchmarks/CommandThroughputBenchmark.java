@@ -0,0 +1,146 @@
+package com.orderplatform.benchmarks;
+
+import com.orderplatform.command.application.OrderCommandService;
+import com.orderplatform.domain.commands.AddItemCommand;
+import com.orderplatform.domain.commands.ApproveOrderCommand;
+import com.orderplatform.domain.commands.CreateOrderCommand;
+import com.orderplatform.domain.commands.OrderItemDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of single commands through {@link OrderCommandService} on the in-memory and the
+ * segment-log backends. On the segment log every command waits for its events to be forced to disk.
+ * Run with {@code -prof gc} to get the allocation per command ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CommandThroughputBenchmark {
+
+    private static final UUID CUSTOMER_ID = UUID.fromString("6f1c2a7e-3b0d-4c55-9a4e-1d2f3b4c5d6e");
+    private static final UUID APPROVER_ID = UUID.fromString("0b8e6d4c-2a19-4f37-8e5d-6c7b8a9f0e1d");
+    private static final List<OrderItemDto> ITEMS = List.of(
+            new OrderItemDto("SKU-1", "Keyboard", 1, new BigDecimal("49.90")),
+            new OrderItemDto("SKU-2", "Mouse", 2, new BigDecimal("19.90")));
+
+    @Param({CommandPipeline.IN_MEMORY, CommandPipeline.SEGMENT_LOG})
+    public String backend;
+
+    @Param({"50"})
+    public int snapshotInterval;
+
+    /**
+     * Items added to an order before the benchmark moves on to a fresh one, so the order being
+     * changed stays a realistic size.
+     */
+    @Param({"20"})
+    public int itemsPerOrder;
+
+    private CommandPipeline pipeline;
+    private OrderCommandService commandService;
+
+    private UUID currentOrder;
+    private int itemsOnCurrentOrder;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void startPipeline() {
+        pipeline = CommandPipeline.start(Map.of(
+                "app.event-store.backend", backend,
+                "app.snapshot.interval", snapshotInterval));
+        commandService = pipeline.commandService();
+        currentOrder = createOrderNow();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPipeline() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    public Object createOrder() {
+        return commandService.createOrder(new CreateOrderCommand(CUSTOMER_ID, ITEMS, "USD", null));
+    }
+
+    @Benchmark
+    public Object addItem() {
+        if (itemsOnCurrentOrder == itemsPerOrder) {
+            // Amortized over itemsPerOrder calls
+            currentOrder = createOrderNow();
+            itemsOnCurrentOrder = 0;
+        }
+        itemsOnCurrentOrder++;
+        return commandService.addItem(new AddItemCommand(
+                currentOrder, "SKU-X" + sequence++, "Cable", 1, new BigDecimal("9.90"), null));
+    }
+
+    @Benchmark
+    public Object approveOrder(ApprovableOrders approvable) {
+        UUID orderId = approvable.orders.poll();
+        if (orderId == null) {
+            // The iteration outran the orders prepared for it; the extra creates show up in the score
+            orderId = createOrderNow();
+        }
+        return commandService.approveOrder(new ApproveOrderCommand(orderId, APPROVER_ID, "benchmark", null));
+    }
+
+    /**
+     * The same command with a fresh idempotency key each time, so the key lookup and the
+     * record of the response are part of the measured work.
+     */
+    @Benchmark
+    public Object createOrderIdempotent() {
+        return commandService.createOrder(
+                new CreateOrderCommand(CUSTOMER_ID, ITEMS, "USD", "benchmark-" + sequence++));
+    }
+
+    private UUID createOrderNow() {
+        return commandService.createOrder(new CreateOrderCommand(CUSTOMER_ID, ITEMS, "USD", null)).orderId();
+    }
+
+    /**
+     * Orders created ahead of every iteration of {@link #approveOrder}, which needs a new order per call.
+     */
+    @State(Scope.Benchmark)
+    public static class ApprovableOrders {
+
+        @Param({"200000"})
+        public int ordersPerIteration;
+
+        private final ArrayDeque<UUID> orders = new ArrayDeque<>();
+
+        @Setup(Level.Iteration)
+        public void createOrders(CommandThroughputBenchmark benchmark) {
+            orders.clear();
+            // Commands wait for an fsync on the segment log, so an iteration gets through far fewer of them
+            int count = CommandPipeline.SEGMENT_LOG.equals(benchmark.backend)
+                    ? ordersPerIteration / 100
+                    : ordersPerIteration;
+            for (int index = 0; index < count; index++) {
+                orders.add(benchmark.createOrderNow());
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.orderplatform.benchmarks;
+
+import com.orderplatform.command.application.OrderCommandService;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.domain.Order;
+import com.orderplatform.domain.commands.AddItemCommand;
+import com.orderplatform.domain.commands.CreateOrderCommand;
+import com.orderplatform.domain.commands.OrderItemDto;
+import com.orderplatform.domain.commands.RemoveItemCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of loading an aggregate from its latest snapshot plus the events after it, by snapshot
+ * interval and event store backend. Orders alternate between adding and removing an item, so the state stays small and
+ * the score follows the number of events replayed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReplayBenchmark {
+
+    @Param({CommandPipeline.IN_MEMORY, CommandPipeline.SEGMENT_LOG})
+    public String backend;
+
+    @Param({"10", "50", "200", "1000"})
+    public int snapshotInterval;
+
+    /**
+     * Events per order; loads replay {@code eventsPerOrder % snapshotInterval} of them.
+     */
+    @Param({"999"})
+    public int eventsPerOrder;
+
+    private CommandPipeline pipeline;
+    private AggregateLoader aggregateLoader;
+    private UUID orderId;
+
+    @Setup(Level.Trial)
+    public void createOrder() {
+        pipeline = CommandPipeline.start(Map.of(
+                "app.event-store.backend", backend,
+                "app.snapshot.interval", snapshotInterval));
+        aggregateLoader = pipeline.aggregateLoader();
+        OrderCommandService commandService = pipeline.commandService();
+
+        orderId = commandService.createOrder(new CreateOrderCommand(UUID.randomUUID(),
+                List.of(new OrderItemDto("SKU-1", "Keyboard", 1, new BigDecimal("49.90"))), "USD", null)).orderId();
+        for (int version = 2; version <= eventsPerOrder; version++) {
+            if (version % 2 == 0) {
+                commandService.addItem(new AddItemCommand(orderId, "SKU-2", "Mouse", 1, new BigDecimal("19.90"), null));
+            } else {
+                commandService.removeItem(new RemoveItemCommand(orderId, "SKU-2", null));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPipeline() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    public Order loadAggregate() {
+        return aggregateLoader.loadAggregate(orderId).orElseThrow();
+    }
+}
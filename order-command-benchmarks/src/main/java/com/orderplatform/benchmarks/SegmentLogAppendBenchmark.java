@@ -0,0 +1,76 @@
+package com.orderplatform.benchmarks;
+
+import com.orderplatform.command.infrastructure.segmentlog.SegmentLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable appends to the {@link SegmentLog} from concurrent writers, by fsync interval. Every call
+ * appends one record and waits until it is on disk, as an event store append does; the log shares
+ * each fsync among the writers waiting at the time. Compare {@code appends} against the fsyncs
+ * printed at teardown for the group size, and vary the writers with {@code -t}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class SegmentLogAppendBenchmark {
+
+    @Param({"0", "2"})
+    public int fsyncIntervalMillis;
+
+    /**
+     * Typical size of an event record: header, event type and JSON payload.
+     */
+    @Param({"512"})
+    public int recordBytes;
+
+    private Path directory;
+    private SegmentLog segmentLog;
+    private byte[] record;
+
+    @Setup(Level.Trial)
+    public void openLog() throws IOException {
+        directory = Files.createTempDirectory("segment-log-benchmark");
+        segmentLog = SegmentLog.open(directory, 64 * 1024 * 1024, Duration.ofMillis(fsyncIntervalMillis));
+        record = new byte[recordBytes];
+        ThreadLocalRandom.current().nextBytes(record);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeLog() throws IOException {
+        System.out.printf("%n%d appends in %d fsyncs%n", segmentLog.recordCount(), segmentLog.fsyncCount());
+        segmentLog.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long appends() {
+        long address = segmentLog.append(record);
+        segmentLog.awaitDurable(address);
+        return address;
+    }
+}
@@ -0,0 +1,226 @@
+package com.orderplatform.command.grpc;
+
+import com.orderplatform.command.grpc.v1.ApproveOrderRequest;
+import com.orderplatform.command.grpc.v1.CommandAck;
+import com.orderplatform.command.grpc.v1.CommandEnvelope;
+import com.orderplatform.command.grpc.v1.OrderReply;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Commands for one order apply in the order they were sent, whatever happened to the ones before
+ * them, and commands are read from the client only as fast as their acks are taken.
+ */
+class CommandStreamTest {
+
+    private static final String ORDER_ID = "00000000-0000-0000-0000-0000000000aa";
+
+    private final GrpcCommandDispatcher dispatcher = mock(GrpcCommandDispatcher.class);
+    private final RecordingResponses responses = new RecordingResponses();
+    private final List<String> dispatched = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void commandsForTheSameOrderRunInTheOrderTheyWereSent() throws InterruptedException {
+        when(dispatcher.dispatch(any(), any(), eq("stream"))).thenAnswer(invocation -> {
+            CommandEnvelope envelope = invocation.getArgument(0);
+            // Give later commands every chance to overtake
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ThreadLocalRandom.current().nextInt(500)));
+            dispatched.add(envelope.getCorrelationId());
+            return ok(envelope);
+        });
+        CommandStream stream = new CommandStream(dispatcher, executor, responses, null, 50);
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sent.add("c" + i);
+            stream.onNext(approve("c" + i));
+        }
+        stream.onCompleted();
+
+        assertThat(responses.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatched).containsExactlyElementsOf(sent);
+    }
+
+    @Test
+    void failedCommandDoesNotStallTheCommandsQueuedBehindIt() throws InterruptedException {
+        when(dispatcher.dispatch(any(), any(), eq("stream"))).thenAnswer(invocation -> {
+            CommandEnvelope envelope = invocation.getArgument(0);
+            dispatched.add(envelope.getCorrelationId());
+            if (envelope.getCorrelationId().equals("c1")) {
+                throw new NoClassDefFoundError("com/example/Missing");
+            }
+            return ok(envelope);
+        });
+        CommandStream stream = new CommandStream(dispatcher, executor, responses, null, 10);
+
+        stream.onNext(approve("c0"));
+        stream.onNext(approve("c1"));
+        stream.onNext(approve("c2"));
+        stream.onCompleted();
+
+        assertThat(responses.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatched).containsExactly("c0", "c1", "c2");
+        assertThat(responses.acks).extracting(CommandAck::getCorrelationId).containsExactly("c0", "c1", "c2");
+        assertThat(responses.acks.get(1).getError().getCode()).isEqualTo(Status.Code.INTERNAL.name());
+        assertThat(responses.acks.get(2).hasOrder()).isTrue();
+    }
+
+    @Test
+    void onlyMaxInFlightCommandsAreRequestedAheadOfTheirAcks() {
+        when(dispatcher.dispatch(any(), any(), eq("stream")))
+                .thenAnswer(invocation -> ok(invocation.getArgument(0)));
+        CommandStream stream = new CommandStream(dispatcher, Runnable::run, responses, null, 3);
+
+        assertThat(responses.autoRequestDisabled).isTrue();
+        assertThat(responses.requested).isEqualTo(3);
+
+        stream.onNext(approve("c0"));
+        stream.onNext(approve("c1"));
+
+        // Each ack lets one more command in
+        assertThat(responses.acks).hasSize(2);
+        assertThat(responses.requested).isEqualTo(5);
+    }
+
+    @Test
+    void readingPausesWhileTheClientIsNotTakingAcks() {
+        when(dispatcher.dispatch(any(), any(), eq("stream")))
+                .thenAnswer(invocation -> ok(invocation.getArgument(0)));
+        CommandStream stream = new CommandStream(dispatcher, Runnable::run, responses, null, 3);
+        responses.ready = false;
+
+        stream.onNext(approve("c0"));
+        stream.onNext(approve("c1"));
+
+        assertThat(responses.acks).hasSize(2);
+        assertThat(responses.requested).isEqualTo(3);
+
+        responses.ready = true;
+        responses.onReadyHandler.run();
+
+        assertThat(responses.requested).isEqualTo(5);
+    }
+
+    @Test
+    void cancelledStreamIsNotWrittenTo() {
+        when(dispatcher.dispatch(any(), any(), eq("stream")))
+                .thenAnswer(invocation -> ok(invocation.getArgument(0)));
+        CommandStream stream = new CommandStream(dispatcher, Runnable::run, responses, null, 3);
+
+        responses.onCancelHandler.run();
+        stream.onNext(approve("c0"));
+        stream.onCompleted();
+
+        assertThat(responses.acks).isEmpty();
+        assertThat(responses.completion.getCount()).isOne();
+    }
+
+    private static CommandEnvelope approve(String correlationId) {
+        return CommandEnvelope.newBuilder()
+                .setCorrelationId(correlationId)
+                .setApproveOrder(ApproveOrderRequest.newBuilder().setOrderId(ORDER_ID))
+                .build();
+    }
+
+    private static CommandAck ok(CommandEnvelope envelope) {
+        return CommandAck.newBuilder()
+                .setCorrelationId(envelope.getCorrelationId())
+                .setOrder(OrderReply.newBuilder().setOrderId(ORDER_ID))
+                .build();
+    }
+
+    /**
+     * Records what the stream writes and requests; readiness is set by the test.
+     */
+    private static final class RecordingResponses extends ServerCallStreamObserver<CommandAck> {
+
+        private final List<CommandAck> acks = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private volatile int requested;
+        private volatile boolean ready = true;
+        private volatile boolean autoRequestDisabled;
+        private Runnable onReadyHandler;
+        private Runnable onCancelHandler;
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            this.onCancelHandler = onCancelHandler;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+            autoRequestDisabled = true;
+        }
+
+        @Override
+        public void disableAutoRequest() {
+            autoRequestDisabled = true;
+        }
+
+        @Override
+        public synchronized void request(int count) {
+            requested += count;
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(CommandAck ack) {
+            acks.add(ack);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completion.countDown();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.orderplatform.command.grpc;
+
+import com.orderplatform.command.grpc.v1.CommandAck;
+import com.orderplatform.command.grpc.v1.CommandEnvelope;
+import com.orderplatform.command.grpc.v1.CommandError;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * One {@code StreamCommands} call. Commands are run as they arrive, up to {@code maxInFlight}
+ * without an ack; commands for the same order are chained so they apply in the order they were
+ * sent, while commands for different orders run concurrently.
+ * <p>
+ * Flow control is explicit in both directions: the next command is only requested from the client
+ * once a command has been acked, and only while the transport accepts more acks. A client that
+ * stops reading acks therefore stops being read from, instead of having acks buffered without bound.
+ */
+@Slf4j
+class CommandStream implements StreamObserver<CommandEnvelope> {
+
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final GrpcCommandDispatcher dispatcher;
+    private final Executor executor;
+    private final ServerCallStreamObserver<CommandAck> responses;
+    private final Authentication authentication;
+
+    // Last command queued per order; removed once it has run, unless a newer one was chained
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    // Guarded by this; acks are written from the threads the commands ran on
+    private int inFlight;
+    private int deferredRequests;
+    private boolean halfClosed;
+    private boolean finished;
+
+    CommandStream(GrpcCommandDispatcher dispatcher, Executor executor,
+                  ServerCallStreamObserver<CommandAck> responses, Authentication authentication, int maxInFlight) {
+        this.dispatcher = dispatcher;
+        this.executor = executor;
+        this.responses = responses;
+        this.authentication = authentication;
+
+        responses.disableAutoRequest();
+        responses.setOnReadyHandler(this::requestDeferred);
+        responses.setOnCancelHandler(this::cancelled);
+        responses.request(maxInFlight);
+    }
+
+    @Override
+    public void onNext(CommandEnvelope envelope) {
+        synchronized (this) {
+            inFlight++;
+        }
+
+        String orderKey = GrpcCommandDispatcher.orderKey(envelope);
+        if (orderKey == null || orderKey.isEmpty()) {
+            CompletableFuture.runAsync(() -> process(envelope), executor);
+            return;
+        }
+        // onNext is never called concurrently, so nothing else chains onto this order meanwhile.
+        // handleAsync runs the command however the previous one ended, so one failure cannot stall the order
+        CompletableFuture<Void> tail = tails.getOrDefault(orderKey, IDLE)
+                .handleAsync((ignored, error) -> {
+                    process(envelope);
+                    return null;
+                }, executor);
+        tails.put(orderKey, tail);
+        tail.whenComplete((ignored, error) -> tails.remove(orderKey, tail));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.debug("Command stream ended by the client: {}", t.getMessage());
+        cancelled();
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+        halfClosed = true;
+        completeIfDrained();
+    }
+
+    /**
+     * Runs a command and acks it. Never throws: a command that fails outside of what the dispatcher
+     * maps is acked as {@code INTERNAL}, so its slot in flight is always given back.
+     */
+    private void process(CommandEnvelope envelope) {
+        CommandAck ack;
+        try {
+            ack = dispatcher.dispatch(envelope, authentication, "stream");
+        } catch (Throwable t) {
+            log.error("Failed to dispatch streamed command {}", envelope.getCorrelationId(), t);
+            ack = CommandAck.newBuilder()
+                    .setCorrelationId(envelope.getCorrelationId())
+                    .setError(CommandError.newBuilder()
+                            .setCode(Status.Code.INTERNAL.name())
+                            .setMessage("An unexpected error occurred. Please try again later."))
+                    .build();
+        }
+        acknowledge(ack);
+    }
+
+    private synchronized void acknowledge(CommandAck ack) {
+        inFlight--;
+        if (finished) {
+            // The client is gone; the command has been applied but nobody is left to tell
+            return;
+        }
+        try {
+            responses.onNext(ack);
+            if (responses.isReady()) {
+                responses.request(1);
+            } else {
+                deferredRequests++;
+            }
+            completeIfDrained();
+        } catch (RuntimeException e) {
+            // The call was closed under us, e.g. cancelled between the check above and the write
+            log.debug("Could not ack command {}: {}", ack.getCorrelationId(), e.getMessage());
+            finished = true;
+        }
+    }
+
+    private synchronized void requestDeferred() {
+        if (deferredRequests > 0 && !finished) {
+            responses.request(deferredRequests);
+            deferredRequests = 0;
+        }
+    }
+
+    private synchronized void cancelled() {
+        finished = true;
+    }
+
+    private void completeIfDrained() {
+        if (halfClosed && inFlight == 0 && !finished) {
+            finished = true;
+            responses.onCompleted();
+        }
+    }
+}
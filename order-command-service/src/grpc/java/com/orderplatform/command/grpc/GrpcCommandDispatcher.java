@@ -0,0 +1,309 @@
+package com.orderplatform.command.grpc;
+
+import com.google.protobuf.Timestamp;
+import com.orderplatform.command.application.OrderCommandService;
+import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.grpc.v1.AddItemRequest;
+import com.orderplatform.command.grpc.v1.AddItemsRequest;
+import com.orderplatform.command.grpc.v1.ApproveOrderRequest;
+import com.orderplatform.command.grpc.v1.CancelOrderRequest;
+import com.orderplatform.command.grpc.v1.CommandAck;
+import com.orderplatform.command.grpc.v1.CommandEnvelope;
+import com.orderplatform.command.grpc.v1.CommandError;
+import com.orderplatform.command.grpc.v1.CreateOrderRequest;
+import com.orderplatform.command.grpc.v1.FieldViolation;
+import com.orderplatform.command.grpc.v1.OrderItem;
+import com.orderplatform.command.grpc.v1.OrderReply;
+import com.orderplatform.command.grpc.v1.RejectOrderRequest;
+import com.orderplatform.command.grpc.v1.RemoveItemRequest;
+import com.orderplatform.command.grpc.v1.RemoveItemsRequest;
+import com.orderplatform.command.grpc.v1.ShipOrderRequest;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyKeyReusedException;
+import com.orderplatform.command.infrastructure.limiter.AdaptiveConcurrencyLimiter;
+import com.orderplatform.command.infrastructure.limiter.ConcurrencyLimitExceededException;
+import com.orderplatform.domain.InvalidOrderStateException;
+import com.orderplatform.domain.commands.*;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.protobuf.ProtoUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Turns gRPC commands into the domain commands of the REST API and runs them through the same
+ * {@link OrderCommandService} methods, behind the same {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Every command ends in a {@link CommandAck}: failures are mapped to the gRPC status a unary call
+ * fails with, following the HTTP statuses of {@code GlobalExceptionHandler}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GrpcCommandDispatcher {
+
+    /**
+     * Trailer carrying the {@link CommandError} of a failed unary call, with its field violations.
+     */
+    static final Metadata.Key<CommandError> ERROR_DETAILS = ProtoUtils.keyForProto(CommandError.getDefaultInstance());
+
+    private final OrderCommandService commandService;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Runs the command as the given caller and acks it with the updated order or the error.
+     *
+     * @param transport {@code unary} or {@code stream}, for metrics
+     */
+    public CommandAck dispatch(CommandEnvelope envelope, Authentication authentication, String transport) {
+        long startNanos = System.nanoTime();
+        CommandAck.Builder ack = CommandAck.newBuilder().setCorrelationId(envelope.getCorrelationId());
+        try {
+            ack.setOrder(toReply(runAs(authentication, () -> execute(envelope))));
+        } catch (RuntimeException e) {
+            ack.setError(toError(e));
+        }
+
+        Timer.builder("grpc.commands")
+                .description("Commands received over gRPC")
+                .tag("command", envelope.getCommandCase().name().toLowerCase())
+                .tag("transport", transport)
+                .tag("status", ack.hasError() ? ack.getError().getCode() : Status.Code.OK.name())
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return ack.build();
+    }
+
+    /**
+     * The key commands must be ordered by within a stream, or {@code null} for commands that
+     * create a new order.
+     */
+    static String orderKey(CommandEnvelope envelope) {
+        return switch (envelope.getCommandCase()) {
+            case APPROVE_ORDER -> envelope.getApproveOrder().getOrderId();
+            case REJECT_ORDER -> envelope.getRejectOrder().getOrderId();
+            case CANCEL_ORDER -> envelope.getCancelOrder().getOrderId();
+            case SHIP_ORDER -> envelope.getShipOrder().getOrderId();
+            case ADD_ITEM -> envelope.getAddItem().getOrderId();
+            case REMOVE_ITEM -> envelope.getRemoveItem().getOrderId();
+            case ADD_ITEMS -> envelope.getAddItems().getOrderId();
+            case REMOVE_ITEMS -> envelope.getRemoveItems().getOrderId();
+            case CREATE_ORDER, COMMAND_NOT_SET -> null;
+        };
+    }
+
+    static StatusRuntimeException toStatusException(CommandError error) {
+        Metadata trailers = new Metadata();
+        trailers.put(ERROR_DETAILS, error);
+        return Status.fromCode(Status.Code.valueOf(error.getCode()))
+                .withDescription(error.getMessage())
+                .asRuntimeException(trailers);
+    }
+
+    private OrderResponse execute(CommandEnvelope envelope) {
+        return switch (envelope.getCommandCase()) {
+            case CREATE_ORDER -> run(toCommand(envelope.getCreateOrder()), commandService::createOrder);
+            case APPROVE_ORDER -> run(toCommand(envelope.getApproveOrder()), commandService::approveOrder);
+            case REJECT_ORDER -> run(toCommand(envelope.getRejectOrder()), commandService::rejectOrder);
+            case CANCEL_ORDER -> run(toCommand(envelope.getCancelOrder()), commandService::cancelOrder);
+            case SHIP_ORDER -> run(toCommand(envelope.getShipOrder()), commandService::shipOrder);
+            case ADD_ITEM -> run(toCommand(envelope.getAddItem()), commandService::addItem);
+            case REMOVE_ITEM -> run(toCommand(envelope.getRemoveItem()), commandService::removeItem);
+            case ADD_ITEMS -> run(toCommand(envelope.getAddItems()), commandService::addItems);
+            case REMOVE_ITEMS -> run(toCommand(envelope.getRemoveItems()), commandService::removeItems);
+            case COMMAND_NOT_SET -> throw new IllegalArgumentException("Command is required");
+        };
+    }
+
+    private <C> OrderResponse run(C command, Function<C, OrderResponse> handler) {
+        Set<ConstraintViolation<C>> violations = validator.validate(command);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return concurrencyLimiter.execute(() -> handler.apply(command));
+    }
+
+    private static <T> T runAs(Authentication authentication, Supplier<T> work) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            return work.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private CommandError toError(RuntimeException e) {
+        CommandError.Builder error = CommandError.newBuilder();
+        if (e instanceof ConstraintViolationException violations) {
+            log.warn("Constraint violation: {}", e.getMessage());
+            error.setCode(Status.Code.INVALID_ARGUMENT.name()).setMessage("Validation failed for one or more fields");
+            for (ConstraintViolation<?> violation : violations.getConstraintViolations()) {
+                error.addViolations(FieldViolation.newBuilder()
+                        .setField(violation.getPropertyPath().toString())
+                        .setDescription(violation.getMessage()));
+            }
+        } else if (e instanceof InvalidOrderStateException || e instanceof IllegalArgumentException) {
+            log.warn("Rejected command: {}", e.getMessage());
+            error.setCode(Status.Code.INVALID_ARGUMENT.name()).setMessage(String.valueOf(e.getMessage()));
+        } else if (e instanceof IdempotencyKeyReusedException) {
+            log.warn("Idempotency key reused: {}", e.getMessage());
+            error.setCode(Status.Code.FAILED_PRECONDITION.name()).setMessage(e.getMessage());
+        } else if (e instanceof ConcurrencyConflictException || e instanceof OptimisticLockException) {
+            log.warn("Optimistic lock exception: {}", e.getMessage());
+            error.setCode(Status.Code.ABORTED.name())
+                    .setMessage("The resource was modified by another request. Please retry with the latest version.");
+        } else if (e instanceof ConcurrencyLimitExceededException limitExceeded) {
+            log.debug("Rejected command at concurrency limit {}", limitExceeded.getLimit());
+            error.setCode(Status.Code.RESOURCE_EXHAUSTED.name())
+                    .setMessage(e.getMessage())
+                    .setRetryAfterMs(limitExceeded.getRetryAfter().toMillis());
+        } else {
+            log.error("Unexpected error occurred", e);
+            error.setCode(Status.Code.INTERNAL.name()).setMessage("An unexpected error occurred. Please try again later.");
+        }
+        return error.build();
+    }
+
+    private static CreateOrderCommand toCommand(CreateOrderRequest request) {
+        return new CreateOrderCommand(
+                uuid(request.getCustomerId()),
+                toItems(request.getItemsList()),
+                optional(request.getCurrency()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static ApproveOrderCommand toCommand(ApproveOrderRequest request) {
+        return new ApproveOrderCommand(
+                uuid(request.getOrderId()),
+                uuid(request.getApprovedBy()),
+                optional(request.getReason()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static RejectOrderCommand toCommand(RejectOrderRequest request) {
+        return new RejectOrderCommand(
+                uuid(request.getOrderId()),
+                uuid(request.getRejectedBy()),
+                optional(request.getReason()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static CancelOrderCommand toCommand(CancelOrderRequest request) {
+        return new CancelOrderCommand(
+                uuid(request.getOrderId()),
+                uuid(request.getCanceledBy()),
+                optional(request.getReason()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static ShipOrderCommand toCommand(ShipOrderRequest request) {
+        return new ShipOrderCommand(
+                uuid(request.getOrderId()),
+                optional(request.getTrackingNumber()),
+                optional(request.getCarrier()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static AddItemCommand toCommand(AddItemRequest request) {
+        OrderItem item = request.getItem();
+        return new AddItemCommand(
+                uuid(request.getOrderId()),
+                optional(item.getSku()),
+                optional(item.getProductName()),
+                item.getQuantity(),
+                decimal(item.getUnitPrice()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static RemoveItemCommand toCommand(RemoveItemRequest request) {
+        return new RemoveItemCommand(
+                uuid(request.getOrderId()),
+                optional(request.getSku()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static AddItemsCommand toCommand(AddItemsRequest request) {
+        return new AddItemsCommand(
+                uuid(request.getOrderId()),
+                toItems(request.getItemsList()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static RemoveItemsCommand toCommand(RemoveItemsRequest request) {
+        return new RemoveItemsCommand(
+                uuid(request.getOrderId()),
+                List.copyOf(request.getSkusList()),
+                optional(request.getIdempotencyKey()));
+    }
+
+    private static List<OrderItemDto> toItems(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> new OrderItemDto(
+                        optional(item.getSku()),
+                        optional(item.getProductName()),
+                        item.getQuantity(),
+                        decimal(item.getUnitPrice())))
+                .toList();
+    }
+
+    private static OrderReply toReply(OrderResponse response) {
+        OrderReply.Builder reply = OrderReply.newBuilder()
+                .setOrderId(response.orderId().toString())
+                .setStatus(response.status().name());
+        if (response.version() != null) {
+            reply.setVersion(response.version());
+        }
+        if (response.createdAt() != null) {
+            reply.setCreatedAt(timestamp(response.createdAt()));
+        }
+        if (response.updatedAt() != null) {
+            reply.setUpdatedAt(timestamp(response.updatedAt()));
+        }
+        return reply.build();
+    }
+
+    // proto3 strings are never null; unset fields are left to the commands' @NotNull/@NotBlank checks
+
+    private static String optional(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static UUID uuid(String value) {
+        return value.isEmpty() ? null : UUID.fromString(value);
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value.isEmpty() ? null : new BigDecimal(value);
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
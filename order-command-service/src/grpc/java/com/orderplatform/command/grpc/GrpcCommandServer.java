@@ -0,0 +1,93 @@
+package com.orderplatform.command.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the {@code OrderCommands} gRPC service on its own port, next to the REST API.
+ * <p>
+ * Calls and streamed commands run on virtual threads when the service runs on virtual threads
+ * ({@code spring.threads.virtual.enabled=true}), otherwise on a fixed pool the size of Tomcat's
+ * default; either way the adaptive concurrency limiter decides how many commands reach the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GrpcCommandServer {
+
+    private final GrpcCommandDispatcher dispatcher;
+    private final JwtAuthenticationInterceptor authenticationInterceptor;
+
+    @Value("${app.grpc.port:9091}")
+    private int port;
+
+    @Value("${app.grpc.max-inbound-message-size:4MB}")
+    private DataSize maxInboundMessageSize;
+
+    @Value("${app.grpc.max-concurrent-calls-per-connection:100}")
+    private int maxConcurrentCallsPerConnection;
+
+    @Value("${app.grpc.executor-threads:200}")
+    private int executorThreads;
+
+    @Value("${app.grpc.shutdown-grace-period:10s}")
+    private Duration shutdownGracePeriod;
+
+    @Value("${app.grpc.stream.max-in-flight:64}")
+    private int streamMaxInFlight;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+    private Server server;
+
+    @PostConstruct
+    public void start() {
+        executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-", 0).factory())
+                : Executors.newFixedThreadPool(executorThreads, Thread.ofPlatform().name("grpc-", 0).daemon().factory());
+
+        OrderCommandsGrpcService service = new OrderCommandsGrpcService(dispatcher, executor, streamMaxInFlight);
+        server = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .maxInboundMessageSize((int) maxInboundMessageSize.toBytes())
+                .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                .addService(ServerInterceptors.intercept(service, authenticationInterceptor))
+                .build();
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+        log.info("gRPC command server listening on port {}", port);
+    }
+
+    /**
+     * Stops taking calls and gives open streams the grace period to finish their in-flight commands.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        server.shutdown();
+        if (!server.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("gRPC calls still open after {}; cancelling them", shutdownGracePeriod);
+            server.shutdownNow();
+        }
+        executor.shutdown();
+    }
+}
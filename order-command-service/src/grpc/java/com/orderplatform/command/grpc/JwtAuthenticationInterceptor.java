@@ -0,0 +1,62 @@
+package com.orderplatform.command.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates gRPC calls with the bearer token in their {@code authorization} metadata, using
+ * the same decoder and role mapping as the REST API. Calls without a valid token are closed with
+ * {@code UNAUTHENTICATED}; the authentication of the others is available from {@link #AUTHENTICATION}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthenticationInterceptor implements ServerInterceptor {
+
+    static final Context.Key<Authentication> AUTHENTICATION = Context.key("authentication");
+
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtDecoder jwtDecoder;
+    private final JwtAuthenticationConverter jwtAuthenticationConverter;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        String authorization = headers.get(AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return reject(call, "Bearer token is required");
+        }
+
+        Authentication authentication;
+        try {
+            authentication = jwtAuthenticationConverter.convert(
+                    jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length()).trim()));
+        } catch (JwtException e) {
+            log.debug("Rejected gRPC call to {}: {}", call.getMethodDescriptor().getFullMethodName(), e.getMessage());
+            return reject(call, "Invalid bearer token");
+        }
+
+        return Contexts.interceptCall(Context.current().withValue(AUTHENTICATION, authentication), call, headers, next);
+    }
+
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, String description) {
+        call.close(Status.UNAUTHENTICATED.withDescription(description), new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.orderplatform.command.grpc;
+
+import com.orderplatform.command.grpc.v1.AddItemRequest;
+import com.orderplatform.command.grpc.v1.AddItemsRequest;
+import com.orderplatform.command.grpc.v1.ApproveOrderRequest;
+import com.orderplatform.command.grpc.v1.CancelOrderRequest;
+import com.orderplatform.command.grpc.v1.CommandAck;
+import com.orderplatform.command.grpc.v1.CommandEnvelope;
+import com.orderplatform.command.grpc.v1.CreateOrderRequest;
+import com.orderplatform.command.grpc.v1.OrderCommandsGrpc;
+import com.orderplatform.command.grpc.v1.OrderReply;
+import com.orderplatform.command.grpc.v1.RejectOrderRequest;
+import com.orderplatform.command.grpc.v1.RemoveItemRequest;
+import com.orderplatform.command.grpc.v1.RemoveItemsRequest;
+import com.orderplatform.command.grpc.v1.ShipOrderRequest;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The {@code OrderCommands} service. Unary calls are handled as a stream of one command, so both
+ * go through {@link GrpcCommandDispatcher} the same way.
+ */
+@RequiredArgsConstructor
+class OrderCommandsGrpcService extends OrderCommandsGrpc.OrderCommandsImplBase {
+
+    private final GrpcCommandDispatcher dispatcher;
+    private final Executor executor;
+    private final int streamMaxInFlight;
+
+    @Override
+    public void createOrder(CreateOrderRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setCreateOrder(request), responseObserver);
+    }
+
+    @Override
+    public void approveOrder(ApproveOrderRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setApproveOrder(request), responseObserver);
+    }
+
+    @Override
+    public void rejectOrder(RejectOrderRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setRejectOrder(request), responseObserver);
+    }
+
+    @Override
+    public void cancelOrder(CancelOrderRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setCancelOrder(request), responseObserver);
+    }
+
+    @Override
+    public void shipOrder(ShipOrderRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setShipOrder(request), responseObserver);
+    }
+
+    @Override
+    public void addItem(AddItemRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setAddItem(request), responseObserver);
+    }
+
+    @Override
+    public void removeItem(RemoveItemRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setRemoveItem(request), responseObserver);
+    }
+
+    @Override
+    public void addItems(AddItemsRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setAddItems(request), responseObserver);
+    }
+
+    @Override
+    public void removeItems(RemoveItemsRequest request, StreamObserver<OrderReply> responseObserver) {
+        unary(CommandEnvelope.newBuilder().setRemoveItems(request), responseObserver);
+    }
+
+    @Override
+    public StreamObserver<CommandEnvelope> streamCommands(StreamObserver<CommandAck> responseObserver) {
+        return new CommandStream(dispatcher, executor, (ServerCallStreamObserver<CommandAck>) responseObserver,
+                JwtAuthenticationInterceptor.AUTHENTICATION.get(), streamMaxInFlight);
+    }
+
+    private void unary(CommandEnvelope.Builder envelope, StreamObserver<OrderReply> responseObserver) {
+        CommandAck ack = dispatcher.dispatch(envelope.build(), JwtAuthenticationInterceptor.AUTHENTICATION.get(), "unary");
+        if (ack.hasError()) {
+            responseObserver.onError(GrpcCommandDispatcher.toStatusException(ack.getError()));
+            return;
+        }
+        responseObserver.onNext(ack.getOrder());
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,35 @@
+package com.orderplatform.command.api;
+
+import com.orderplatform.command.application.AsyncCommandService;
+import com.orderplatform.command.application.dto.CommandStatusResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping(CommandStatusController.COMMANDS_PATH)
+@RequiredArgsConstructor
+public class CommandStatusController {
+
+    static final String COMMANDS_PATH = "/api/v1/commands";
+
+    private final AsyncCommandService asyncCommandService;
+
+    /**
+     * Returns the status of an asynchronously accepted command. With {@code waitMs} the request
+     * is held until the command completes or the wait elapses (long polling).
+     */
+    @GetMapping("/{commandId}")
+    public CompletableFuture<ResponseEntity<CommandStatusResponse>> getCommandStatus(
+            @PathVariable UUID commandId,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        return asyncCommandService.awaitCompletion(commandId, Duration.ofMillis(waitMs))
+                .thenApply(status -> status
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
+    }
+}
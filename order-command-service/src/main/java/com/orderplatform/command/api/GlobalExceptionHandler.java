@@ -1,12 +1,19 @@
 package com.orderplatform.command.api;
 
+import com.orderplatform.command.application.JobConflictException;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyKeyReusedException;
+import com.orderplatform.command.infrastructure.limiter.ConcurrencyLimitExceededException;
 import com.orderplatform.domain.InvalidOrderStateException;
 import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -110,8 +117,83 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
-    @ExceptionHandler(OptimisticLockException.class)
-    public ProblemDetail handleOptimisticLockException(OptimisticLockException ex, WebRequest request) {
+    @ExceptionHandler(JobConflictException.class)
+    public ProblemDetail handleJobConflictException(JobConflictException ex, WebRequest request) {
+        log.warn("Job conflict: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.CONFLICT,
+                ex.getMessage()
+        );
+
+        problemDetail.setType(URI.create("https://api.orderplatform.com/problems/conflict"));
+        problemDetail.setTitle("Conflict");
+        problemDetail.setProperty("instance", request.getDescription(false).replace("uri=", ""));
+
+        addTraceId(problemDetail);
+
+        return problemDetail;
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ProblemDetail handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex, WebRequest request) {
+        log.warn("Idempotency key reused: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.CONFLICT,
+                ex.getMessage()
+        );
+
+        problemDetail.setType(URI.create("https://api.orderplatform.com/problems/idempotency-key-reused"));
+        problemDetail.setTitle("Idempotency Key Reused");
+        problemDetail.setProperty("instance", request.getDescription(false).replace("uri=", ""));
+
+        addTraceId(problemDetail);
+
+        return problemDetail;
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ProblemDetail handleAccessDeniedException(AccessDeniedException ex, WebRequest request) {
+        log.warn("Access denied: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.FORBIDDEN,
+                "You do not have permission to perform this operation"
+        );
+
+        problemDetail.setType(URI.create("https://api.orderplatform.com/problems/forbidden"));
+        problemDetail.setTitle("Forbidden");
+        problemDetail.setProperty("instance", request.getDescription(false).replace("uri=", ""));
+
+        addTraceId(problemDetail);
+
+        return problemDetail;
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException ex, WebRequest request) {
+        log.debug("Rejected command at concurrency limit {}", ex.getLimit());
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage()
+        );
+
+        problemDetail.setType(URI.create("https://api.orderplatform.com/problems/overloaded"));
+        problemDetail.setTitle("Service Overloaded");
+        problemDetail.setProperty("instance", request.getDescription(false).replace("uri=", ""));
+
+        addTraceId(problemDetail);
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler({OptimisticLockException.class, ConcurrencyConflictException.class})
+    public ProblemDetail handleOptimisticLockException(RuntimeException ex, WebRequest request) {
         log.warn("Optimistic lock exception: {}", ex.getMessage());
 
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
@@ -1,9 +1,13 @@
 package com.orderplatform.command.api;
 
+import com.orderplatform.command.application.AsyncCommandService;
 import com.orderplatform.command.application.OrderCommandService;
+import com.orderplatform.command.application.dto.CommandStatusResponse;
 import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.infrastructure.limiter.AdaptiveConcurrencyLimiter;
 import com.orderplatform.domain.commands.*;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -11,7 +15,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -20,106 +27,211 @@ import java.util.UUID;
 @Slf4j
 public class OrderCommandController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final OrderCommandService commandService;
+    private final AsyncCommandService asyncCommandService;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderCommand command) {
-        log.info("Received CreateOrder request for customer {}", command.customerId());
-        OrderResponse response = commandService.createOrder(command);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody CreateOrderCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received CreateOrder request for customer {}", command.customerId());
+        
+        CreateOrderCommand updatedCommand = new CreateOrderCommand(
+                command.customerId(),
+                command.items(),
+                command.currency(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
+        );
+        
+        return execute(prefer, "CreateOrder", null, updatedCommand, HttpStatus.CREATED,
+                () -> commandService.createOrder(updatedCommand));
     }
 
     @PostMapping("/{orderId}/approve")
-    public ResponseEntity<OrderResponse> approveOrder(
+    public ResponseEntity<?> approveOrder(
             @PathVariable UUID orderId,
-            @Valid @RequestBody ApproveOrderCommand command) {
-        log.info("Received ApproveOrder request for order {}", orderId);
+            @Valid @RequestBody ApproveOrderCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received ApproveOrder request for order {}", orderId);
         
         // Ensure orderId in path matches command
         ApproveOrderCommand updatedCommand = new ApproveOrderCommand(
                 orderId,
                 command.approvedBy(),
-                command.reason()
+                command.reason(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
         );
         
-        OrderResponse response = commandService.approveOrder(updatedCommand);
-        return ResponseEntity.ok(response);
+        return execute(prefer, "ApproveOrder", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.approveOrder(updatedCommand));
     }
 
     @PostMapping("/{orderId}/reject")
-    public ResponseEntity<OrderResponse> rejectOrder(
+    public ResponseEntity<?> rejectOrder(
             @PathVariable UUID orderId,
-            @Valid @RequestBody RejectOrderCommand command) {
-        log.info("Received RejectOrder request for order {}", orderId);
+            @Valid @RequestBody RejectOrderCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received RejectOrder request for order {}", orderId);
         
         RejectOrderCommand updatedCommand = new RejectOrderCommand(
                 orderId,
                 command.rejectedBy(),
-                command.reason()
+                command.reason(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
         );
         
-        OrderResponse response = commandService.rejectOrder(updatedCommand);
-        return ResponseEntity.ok(response);
+        return execute(prefer, "RejectOrder", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.rejectOrder(updatedCommand));
     }
 
     @PostMapping("/{orderId}/cancel")
-    public ResponseEntity<OrderResponse> cancelOrder(
+    public ResponseEntity<?> cancelOrder(
             @PathVariable UUID orderId,
-            @Valid @RequestBody CancelOrderCommand command) {
-        log.info("Received CancelOrder request for order {}", orderId);
+            @Valid @RequestBody CancelOrderCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received CancelOrder request for order {}", orderId);
         
         CancelOrderCommand updatedCommand = new CancelOrderCommand(
                 orderId,
                 command.canceledBy(),
-                command.reason()
+                command.reason(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
         );
         
-        OrderResponse response = commandService.cancelOrder(updatedCommand);
-        return ResponseEntity.ok(response);
+        return execute(prefer, "CancelOrder", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.cancelOrder(updatedCommand));
     }
 
     @PostMapping("/{orderId}/ship")
-    public ResponseEntity<OrderResponse> shipOrder(
+    public ResponseEntity<?> shipOrder(
             @PathVariable UUID orderId,
-            @Valid @RequestBody ShipOrderCommand command) {
-        log.info("Received ShipOrder request for order {}", orderId);
+            @Valid @RequestBody ShipOrderCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received ShipOrder request for order {}", orderId);
         
         ShipOrderCommand updatedCommand = new ShipOrderCommand(
                 orderId,
                 command.trackingNumber(),
-                command.carrier()
+                command.carrier(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
         );
         
-        OrderResponse response = commandService.shipOrder(updatedCommand);
-        return ResponseEntity.ok(response);
+        return execute(prefer, "ShipOrder", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.shipOrder(updatedCommand));
     }
 
     @PostMapping("/{orderId}/items")
-    public ResponseEntity<OrderResponse> addItem(
+    public ResponseEntity<?> addItem(
             @PathVariable UUID orderId,
-            @Valid @RequestBody AddItemCommand command) {
-        log.info("Received AddItem request for order {}", orderId);
+            @Valid @RequestBody AddItemCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received AddItem request for order {}", orderId);
         
         AddItemCommand updatedCommand = new AddItemCommand(
                 orderId,
                 command.sku(),
                 command.productName(),
                 command.quantity(),
-                command.unitPrice()
+                command.unitPrice(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
         );
         
-        OrderResponse response = commandService.addItem(updatedCommand);
-        return ResponseEntity.ok(response);
+        return execute(prefer, "AddItem", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.addItem(updatedCommand));
     }
 
     @DeleteMapping("/{orderId}/items/{sku}")
-    public ResponseEntity<OrderResponse> removeItem(
+    public ResponseEntity<?> removeItem(
+            @PathVariable UUID orderId,
+            @PathVariable String sku,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received RemoveItem request for order {} and sku {}", orderId, sku);
+        
+        RemoveItemCommand command = new RemoveItemCommand(orderId, sku, idempotencyKey);
+        return execute(prefer, "RemoveItem", orderId, command, HttpStatus.OK,
+                () -> commandService.removeItem(command));
+    }
+
+    @PostMapping("/{orderId}/items/batch")
+    public ResponseEntity<?> addItems(
+            @PathVariable UUID orderId,
+            @Valid @RequestBody AddItemsCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received AddItems request for order {} with {} items", orderId, command.items().size());
+        
+        AddItemsCommand updatedCommand = new AddItemsCommand(
+                orderId,
+                command.items(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
+        );
+        
+        return execute(prefer, "AddItems", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.addItems(updatedCommand));
+    }
+
+    @PostMapping("/{orderId}/items/batch-remove")
+    public ResponseEntity<?> removeItems(
             @PathVariable UUID orderId,
-            @PathVariable String sku) {
-        log.info("Received RemoveItem request for order {} and sku {}", orderId, sku);
+            @Valid @RequestBody RemoveItemsCommand command,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        log.debug("Received RemoveItems request for order {} with {} items", orderId, command.skus().size());
         
-        RemoveItemCommand command = new RemoveItemCommand(orderId, sku);
-        OrderResponse response = commandService.removeItem(command);
-        return ResponseEntity.ok(response);
+        RemoveItemsCommand updatedCommand = new RemoveItemsCommand(
+                orderId,
+                command.skus(),
+                resolveIdempotencyKey(command.idempotencyKey(), idempotencyKey)
+        );
+        
+        return execute(prefer, "RemoveItems", orderId, updatedCommand, HttpStatus.OK,
+                () -> commandService.removeItems(updatedCommand));
+    }
+
+    /**
+     * Idempotency keys may be sent in the request body or in the {@code Idempotency-Key} header;
+     * the body takes precedence for backwards compatibility.
+     */
+    private String resolveIdempotencyKey(String bodyKey, String headerKey) {
+        return bodyKey != null ? bodyKey : headerKey;
+    }
+
+    /**
+     * Executes a command in the request thread, or enqueues it and answers 202 with a
+     * command-status location when the client sent {@code Prefer: respond-async}.
+     * Both paths commit to the database and are admitted by the adaptive concurrency limiter.
+     */
+    private ResponseEntity<?> execute(String prefer, String commandType, UUID orderId, Object command,
+                                      HttpStatus status, Supplier<OrderResponse> handler) {
+        return concurrencyLimiter.execute(() -> prefersAsync(prefer)
+                ? submitAsync(commandType, orderId, command)
+                : ResponseEntity.status(status).body(handler.get()));
+    }
+
+    private ResponseEntity<?> submitAsync(String commandType, UUID orderId, Object command) {
+        CommandStatusResponse accepted = asyncCommandService.submit(commandType, orderId, command);
+        return ResponseEntity.accepted()
+                .location(URI.create(CommandStatusController.COMMANDS_PATH + "/" + accepted.commandId()))
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(accepted);
+    }
+
+    private boolean prefersAsync(String prefer) {
+        return prefer != null && Arrays.stream(prefer.split(","))
+                .map(String::trim)
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
     }
 }
@@ -0,0 +1,61 @@
+package com.orderplatform.command.api;
+
+import com.orderplatform.command.application.OrderHistoryService;
+import com.orderplatform.command.application.dto.OrderStateResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/orders")
+@RequiredArgsConstructor
+public class OrderHistoryController {
+
+    private final OrderHistoryService orderHistoryService;
+
+    /**
+     * Returns the state of an order as of a version or an ISO-8601 point in time, rebuilt from the
+     * nearest earlier snapshot. Without either parameter the current state is returned.
+     */
+    @GetMapping("/{orderId}/history")
+    public ResponseEntity<OrderStateResponse> getOrderAt(
+            @PathVariable UUID orderId,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        return orderHistoryService.getOrderAt(orderId, version, asOf)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Returns the current state of an order as the command side sees it, so a client can read its
+     * own writes without waiting for the query service to catch up. The ETag is the order's version;
+     * a matching {@code If-None-Match} is answered with 304 after a version lookup, without loading the order.
+     */
+    @GetMapping("/{orderId}/state")
+    public ResponseEntity<OrderStateResponse> getOrderState(@PathVariable UUID orderId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            long currentVersion = orderHistoryService.getCurrentVersion(orderId);
+            if (currentVersion > 0 && request.checkNotModified(eTag(currentVersion))) {
+                return null;
+            }
+        }
+        return orderHistoryService.getCurrentOrder(orderId)
+                .map(state -> ResponseEntity.ok()
+                        .eTag(eTag(state.version()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(state))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+}
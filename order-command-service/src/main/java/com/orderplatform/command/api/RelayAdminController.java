@@ -0,0 +1,35 @@
+package com.orderplatform.command.api;
+
+import com.orderplatform.command.application.RelayFailureService;
+import com.orderplatform.command.application.dto.RelayFailureResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/relay/failures")
+@PreAuthorize("hasAnyRole('admin', 'ops')")
+@RequiredArgsConstructor
+@Slf4j
+public class RelayAdminController {
+
+    private final RelayFailureService relayFailureService;
+
+    @GetMapping
+    public ResponseEntity<List<RelayFailureResponse>> getFailures() {
+        return ResponseEntity.ok(relayFailureService.listFailures());
+    }
+
+    @PostMapping("/retry")
+    public ResponseEntity<Map<String, Integer>> retryFailures() {
+        log.info("Received request to relay the skipped events again");
+        int requested = relayFailureService.requestRetry();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("retryRequested", requested));
+    }
+}
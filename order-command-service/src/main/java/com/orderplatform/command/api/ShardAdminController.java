@@ -0,0 +1,32 @@
+package com.orderplatform.command.api;
+
+import com.orderplatform.command.application.ReshardingService;
+import com.orderplatform.command.application.dto.ReshardingProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/shards")
+@PreAuthorize("hasAnyRole('admin', 'ops')")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardAdminController {
+
+    private final ReshardingService reshardingService;
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<ReshardingProgress> startRebalance() {
+        log.info("Received request to move aggregates to their owning shards");
+        ReshardingProgress progress = reshardingService.startRebalance();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+    }
+
+    @GetMapping("/rebalance")
+    public ResponseEntity<ReshardingProgress> getProgress() {
+        return ResponseEntity.ok(reshardingService.getProgress());
+    }
+}
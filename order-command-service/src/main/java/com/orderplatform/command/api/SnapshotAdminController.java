@@ -0,0 +1,49 @@
+package com.orderplatform.command.api;
+
+import com.orderplatform.command.application.SnapshotRebuildService;
+import com.orderplatform.command.application.dto.SnapshotRebuildProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/snapshots/rebuild")
+@PreAuthorize("hasAnyRole('admin', 'ops')")
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotAdminController {
+
+    private final SnapshotRebuildService rebuildService;
+
+    @PostMapping
+    public ResponseEntity<SnapshotRebuildProgress> startRebuild() {
+        log.info("Received request to rebuild all snapshots");
+        SnapshotRebuildProgress progress = rebuildService.startJob();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<SnapshotRebuildProgress> getProgress(@PathVariable UUID jobId) {
+        return rebuildService.getProgress(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<SnapshotRebuildProgress> resumeRebuild(@PathVariable UUID jobId) {
+        log.info("Received request to resume snapshot rebuild job {}", jobId);
+        SnapshotRebuildProgress progress = rebuildService.resumeJob(jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<SnapshotRebuildProgress> cancelRebuild(@PathVariable UUID jobId) {
+        log.info("Received request to cancel snapshot rebuild job {}", jobId);
+        return ResponseEntity.ok(rebuildService.cancelJob(jobId));
+    }
+}
@@ -0,0 +1,206 @@
+package com.orderplatform.command.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.application.dto.CommandStatusResponse;
+import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.config.UserContextHolder;
+import com.orderplatform.command.infrastructure.persistence.CommandLogEntity;
+import com.orderplatform.command.infrastructure.persistence.CommandLogJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.infrastructure.tracing.EventOrigin;
+import com.orderplatform.domain.commands.CreateOrderCommand;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts commands for asynchronous execution and tracks their completion.
+ * Commands are durably written to the {@code command_log} table and executed by
+ * {@link AsyncCommandWorker}; clients poll or long-poll the command status.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncCommandService {
+
+    static final String STATUS_PENDING = "PENDING";
+    static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    static final String STATUS_FAILED = "FAILED";
+
+    private final CommandLogJpaRepository commandLogRepository;
+    private final UserContextHolder userContextHolder;
+    private final EventOrigin eventOrigin;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, CompletionWaiter> completionWaiters = new ConcurrentHashMap<>();
+    private final ExecutorService statusReader = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("command-status-", 0).factory());
+
+    @Value("${app.commands.async.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    /**
+     * Durably enqueues a validated command. The entry is stored on the shard of the targeted order,
+     * and its ID is chosen to route to that shard, so status reads need no lookup.
+     *
+     * @param commandType The type of the command (CreateOrder, ApproveOrder, etc.)
+     * @param aggregateId The targeted order, or null for commands creating a new order
+     * @param command     The command to execute
+     * @return Status of the accepted command
+     */
+    public CommandStatusResponse submit(String commandType, UUID aggregateId, Object command) {
+        if (!AsyncCommandWorker.supports(commandType)) {
+            throw new IllegalArgumentException("Command type cannot be executed asynchronously: " + commandType);
+        }
+
+        // Creates go where their idempotency key routes, which is where the worker will create the order
+        String shardId = aggregateId != null
+                ? shardRouter.shardFor(aggregateId)
+                : shardRouter.shardForNewAggregate(
+                        command instanceof CreateOrderCommand create ? create.idempotencyKey() : null);
+        return ShardContext.callOn(shardId, () -> transactionTemplate.execute(
+                status -> enqueue(shardId, commandType, aggregateId, command)));
+    }
+
+    public Optional<CommandStatusResponse> getStatus(UUID commandId) {
+        return ShardContext.callOn(shardRouter.shardFor(commandId), () -> commandLogRepository.findById(commandId))
+                .map(this::toStatus);
+    }
+
+    private CommandStatusResponse enqueue(String shardId, String commandType, UUID aggregateId, Object command) {
+        CommandLogEntity entry = CommandLogEntity.builder()
+                .commandId(shardRouter.newIdOnShard(shardId))
+                .aggregateId(aggregateId)
+                .commandType(commandType)
+                .payload(objectMapper.convertValue(command, Map.class))
+                .status(STATUS_PENDING)
+                .submittedBy(userContextHolder.getUserId().orElse(null))
+                .traceContext(eventOrigin.traceContext())
+                .createdAt(Instant.now())
+                .build();
+        commandLogRepository.save(entry);
+
+        // Delivered to listeners once the transaction has committed
+        eventPublisher.publishEvent(new CommandEnqueuedEvent(entry.getCommandId()));
+
+        log.debug("Accepted {} command {} for asynchronous execution", commandType, entry.getCommandId());
+        return toStatus(entry);
+    }
+
+    /**
+     * Waits until a command has completed or the wait time elapses, whichever comes first.
+     * The returned future never completes exceptionally on timeout; it yields the latest status instead.
+     *
+     * @param commandId The ID of the command
+     * @param wait      How long to wait; capped at {@code app.commands.async.max-wait-ms}
+     * @return Future of the command status, empty if the command does not exist
+     */
+    public CompletableFuture<Optional<CommandStatusResponse>> awaitCompletion(UUID commandId, Duration wait) {
+        long waitMs = Math.min(Math.max(wait.toMillis(), 0), maxWaitMs);
+        if (waitMs == 0) {
+            return CompletableFuture.completedFuture(getStatus(commandId));
+        }
+
+        // Register before reading the status so a completion in between is not missed
+        CompletionWaiter waiter = completionWaiters.computeIfAbsent(commandId, id -> new CompletionWaiter());
+        waiter.extendTo(System.currentTimeMillis() + waitMs);
+
+        Optional<CommandStatusResponse> current = getStatus(commandId);
+        if (current.isEmpty() || current.get().isCompleted()) {
+            return CompletableFuture.completedFuture(current);
+        }
+
+        // Each request times out on its own copy; the status is re-read off the timer thread
+        return waiter.completion.copy()
+                .completeOnTimeout(null, waitMs, TimeUnit.MILLISECONDS)
+                .thenApplyAsync(ignored -> getStatus(commandId), statusReader);
+    }
+
+    /**
+     * Wakes up requests waiting for the given command.
+     */
+    void notifyCompleted(UUID commandId) {
+        CompletionWaiter waiter = completionWaiters.remove(commandId);
+        if (waiter != null) {
+            waiter.completion.complete(null);
+        }
+    }
+
+    /**
+     * Completes waiters for commands that were executed by other instances and
+     * drops waiters whose requests have all timed out.
+     */
+    @Scheduled(fixedDelayString = "${app.commands.async.waiter-sync-interval:500}")
+    public void syncCompletionWaiters() {
+        if (completionWaiters.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<UUID>> waitingByShard = completionWaiters.keySet().stream()
+                .collect(Collectors.groupingBy(shardRouter::shardFor));
+        waitingByShard.forEach((shardId, commandIds) ->
+                ShardContext.callOn(shardId, () -> commandLogRepository.findAllById(commandIds)).stream()
+                        .filter(entry -> STATUS_SUCCEEDED.equals(entry.getStatus()) || STATUS_FAILED.equals(entry.getStatus()))
+                        .forEach(entry -> notifyCompleted(entry.getCommandId())));
+
+        long now = System.currentTimeMillis();
+        completionWaiters.values().removeIf(waiter -> waiter.expiresAt.get() < now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        statusReader.shutdown();
+    }
+
+    private CommandStatusResponse toStatus(CommandLogEntity entry) {
+        OrderResponse result = entry.getResult() == null
+                ? null
+                : objectMapper.convertValue(entry.getResult(), OrderResponse.class);
+        UUID aggregateId = entry.getAggregateId() != null
+                ? entry.getAggregateId()
+                : result != null ? result.orderId() : null;
+
+        return new CommandStatusResponse(
+                entry.getCommandId(),
+                entry.getCommandType(),
+                aggregateId,
+                entry.getStatus(),
+                result,
+                entry.getErrorMessage(),
+                entry.getCreatedAt(),
+                entry.getCompletedAt()
+        );
+    }
+
+    private static final class CompletionWaiter {
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private final AtomicLong expiresAt = new AtomicLong();
+
+        private void extendTo(long epochMillis) {
+            expiresAt.accumulateAndGet(epochMillis, Math::max);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.orderplatform.command.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.infrastructure.persistence.CommandLogEntity;
+import com.orderplatform.command.infrastructure.persistence.CommandLogJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.infrastructure.tracing.EventOrigin;
+import com.orderplatform.domain.commands.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Executes commands accepted by {@link AsyncCommandService}.
+ * Pending commands are claimed from the {@code command_log} table in enqueue order, at most one
+ * per aggregate at a time, and run on a bounded pool of virtual threads.
+ * <p>
+ * A command runs in its own transaction, as it would for a synchronous request, so a failure inside
+ * it can still resolve to the response recorded for its idempotency key. Its SUCCEEDED or FAILED
+ * status is written in a short transaction afterwards. A command interrupted by a crash is claimed
+ * again once its claim has gone stale; one that had already committed is then run a second time,
+ * which with an idempotency key returns the recorded response.
+ */
+@Component
+@ConditionalOnProperty(name = "app.commands.async.worker.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncCommandWorker {
+
+    private static final Map<String, CommandHandler<?>> HANDLERS = Map.of(
+            "CreateOrder", new CommandHandler<>(CreateOrderCommand.class, OrderCommandService::createOrder),
+            "ApproveOrder", new CommandHandler<>(ApproveOrderCommand.class, OrderCommandService::approveOrder),
+            "RejectOrder", new CommandHandler<>(RejectOrderCommand.class, OrderCommandService::rejectOrder),
+            "CancelOrder", new CommandHandler<>(CancelOrderCommand.class, OrderCommandService::cancelOrder),
+            "ShipOrder", new CommandHandler<>(ShipOrderCommand.class, OrderCommandService::shipOrder),
+            "AddItem", new CommandHandler<>(AddItemCommand.class, OrderCommandService::addItem),
+            "RemoveItem", new CommandHandler<>(RemoveItemCommand.class, OrderCommandService::removeItem),
+            "AddItems", new CommandHandler<>(AddItemsCommand.class, OrderCommandService::addItems),
+            "RemoveItems", new CommandHandler<>(RemoveItemsCommand.class, OrderCommandService::removeItems)
+    );
+
+    private final CommandLogJpaRepository commandLogRepository;
+    private final OrderCommandService commandService;
+    private final AsyncCommandService asyncCommandService;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+    private final EventOrigin eventOrigin;
+
+    @Value("${app.commands.async.worker.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.commands.async.worker.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.commands.async.retention-hours:24}")
+    private long retentionHours;
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    private ExecutorService executor;
+    private Semaphore capacity;
+    private TransactionTemplate transactionTemplate;
+    private Counter succeededCommands;
+    private Counter failedCommands;
+    private Timer queueTime;
+
+    public static boolean supports(String commandType) {
+        return HANDLERS.containsKey(commandType);
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().name("async-command-", 0).factory());
+        capacity = new Semaphore(concurrency);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        succeededCommands = outcomeCounter("succeeded");
+        failedCommands = outcomeCounter("failed");
+        queueTime = Timer.builder("commands.async.queue.time")
+                .description("Time commands spent in the command log before a worker picked them up")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onCommandEnqueued(CommandEnqueuedEvent event) {
+        Thread.startVirtualThread(this::poll);
+    }
+
+    /**
+     * Claims as many pending commands as there are idle workers and hands them to the pool.
+     */
+    @Scheduled(fixedDelayString = "${app.commands.async.worker.poll-interval:200}")
+    public void poll() {
+        // Overlapping polls would only contend for the same rows
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Each shard keeps its own command log; claims stay within one database
+            for (String shardId : shardRouter.shardIds()) {
+                int available = capacity.availablePermits();
+                if (available == 0) {
+                    return;
+                }
+                claimOn(shardId, available);
+            }
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.commands.async.worker.maintenance-interval:60000}")
+    public void releaseStaleClaimsAndPurge() {
+        for (String shardId : shardRouter.shardIds()) {
+            ShardContext.runOn(shardId, () -> {
+                int released = commandLogRepository.releaseStaleClaims(Instant.now().minusMillis(claimTimeoutMs));
+                if (released > 0) {
+                    log.warn("Returned {} commands with stale claims to the queue on shard {}", released, shardId);
+                }
+
+                int purged = commandLogRepository.deleteCompletedBefore(
+                        Instant.now().minus(Duration.ofHours(retentionHours)));
+                if (purged > 0) {
+                    log.info("Purged {} completed commands from the command log on shard {}", purged, shardId);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Commands cut off here roll back and are claimed again after the claim timeout
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void claimOn(String shardId, int limit) {
+        Instant now = Instant.now();
+        List<CommandLogEntity> claimed = ShardContext.callOn(shardId, () -> transactionTemplate.execute(
+                status -> commandLogRepository.claimPending(now, limit)));
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+
+        log.debug("Claimed {} pending commands on shard {}", claimed.size(), shardId);
+        for (CommandLogEntity entry : claimed) {
+            capacity.acquireUninterruptibly();
+            queueTime.record(Duration.between(entry.getCreatedAt(), now));
+            executor.execute(() -> ShardContext.runOn(shardId, () -> execute(entry)));
+        }
+    }
+
+    /**
+     * Runs a claimed command as the user that submitted it, in a span continuing the trace of the
+     * request that enqueued it.
+     */
+    private void execute(CommandLogEntity entry) {
+        Span span = eventOrigin.startSpan("AsyncCommand " + entry.getCommandType(), entry.getTraceContext());
+        try (Scope ignored = span.makeCurrent()) {
+            eventOrigin.runAs(entry.getSubmittedBy(), () -> executeClaimed(entry));
+        } finally {
+            span.end();
+        }
+    }
+
+    private void executeClaimed(CommandLogEntity entry) {
+        try {
+            OrderResponse response;
+            try {
+                // Outside any worker transaction, so the command's own transaction does not join one
+                response = dispatch(entry);
+            } catch (Exception e) {
+                log.warn("{} command {} failed: {}", entry.getCommandType(), entry.getCommandId(), e.getMessage());
+                Span.current().recordException(e).setStatus(StatusCode.ERROR);
+                markFailed(entry, e);
+                return;
+            }
+            markSucceeded(entry, response);
+            log.debug("Executed {} command {}", entry.getCommandType(), entry.getCommandId());
+        } finally {
+            capacity.release();
+            asyncCommandService.notifyCompleted(entry.getCommandId());
+            // Later commands for the same aggregate have just become eligible
+            Thread.startVirtualThread(this::poll);
+        }
+    }
+
+    private OrderResponse dispatch(CommandLogEntity entry) {
+        CommandHandler<?> handler = HANDLERS.get(entry.getCommandType());
+        if (handler == null) {
+            throw new IllegalArgumentException("Unsupported command type: " + entry.getCommandType());
+        }
+        return handler.handle(commandService, objectMapper, entry.getPayload());
+    }
+
+    private void markSucceeded(CommandLogEntity entry, OrderResponse response) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                CommandLogEntity current = commandLogRepository.findById(entry.getCommandId()).orElseThrow();
+                current.setStatus(AsyncCommandService.STATUS_SUCCEEDED);
+                current.setResult(objectMapper.convertValue(response, Map.class));
+                current.setCompletedAt(Instant.now());
+            });
+            succeededCommands.increment();
+        } catch (Exception e) {
+            // The command has committed; its claim goes stale and it runs again
+            log.error("Failed to record success of command {}", entry.getCommandId(), e);
+        }
+    }
+
+    private void markFailed(CommandLogEntity entry, Exception cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    commandLogRepository.findById(entry.getCommandId()).ifPresent(current -> {
+                        current.setStatus(AsyncCommandService.STATUS_FAILED);
+                        current.setErrorMessage(cause.getMessage());
+                        current.setCompletedAt(Instant.now());
+                    }));
+            failedCommands.increment();
+        } catch (Exception e) {
+            // The claim goes stale and the command is retried later
+            log.error("Failed to record failure of command {}", entry.getCommandId(), e);
+        }
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("commands.async.completed")
+                .description("Asynchronously executed commands by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record CommandHandler<C>(Class<C> commandClass, BiFunction<OrderCommandService, C, OrderResponse> handler) {
+
+        OrderResponse handle(OrderCommandService commandService, ObjectMapper objectMapper, Map<String, Object> payload) {
+            return handler.apply(commandService, objectMapper.convertValue(payload, commandClass));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.orderplatform.command.application;
+
+import java.util.UUID;
+
+/**
+ * Published when a command has been written to the command log, so local workers can
+ * pick it up without waiting for the next poll.
+ */
+public record CommandEnqueuedEvent(UUID commandId) {
+}
@@ -0,0 +1,192 @@
+package com.orderplatform.command.application;
+
+import com.orderplatform.command.domain.AggregateIdRange;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.SnapshotRepository;
+import com.orderplatform.command.infrastructure.archive.EventArchiveSegments;
+import com.orderplatform.command.infrastructure.kafka.EventStoreRelay;
+import com.orderplatform.command.infrastructure.maintenance.MaintenanceThrottle;
+import com.orderplatform.command.infrastructure.persistence.ArchivedAggregateEntity;
+import com.orderplatform.command.infrastructure.persistence.ArchivedAggregateJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentEntity;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import com.orderplatform.command.infrastructure.persistence.EventJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.SnapshotJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.domain.Order;
+import com.orderplatform.domain.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves the events of orders that reached a terminal status more than {@code app.archive.min-age} ago
+ * into compressed archive segments.
+ * <p>
+ * Per aggregate, in one transaction: a snapshot is taken at the final version, older snapshots are
+ * dropped, the events are written to {@code event_archive_segments}, a tombstone is left in
+ * {@code archived_aggregates}, and the events are deleted from the hot {@code events} table.
+ * Loads keep working from the final snapshot, history reads fall back to the archive, and appends
+ * continue from the tombstone's version. Only events every relay partition has published are archived.
+ */
+@Service
+@ConditionalOnExpression("${app.archive.enabled:false} && '${app.event-store.backend:jpa}' == 'jpa'")
+@RequiredArgsConstructor
+@Slf4j
+public class EventArchivalService {
+
+    private static final Set<OrderStatus> TERMINAL_STATUSES =
+            Set.of(OrderStatus.SHIPPED, OrderStatus.CANCELED, OrderStatus.REJECTED);
+
+    // Short names and the class names written by earlier versions
+    private static final List<String> TERMINAL_EVENT_TYPES = List.of(
+            "OrderShipped", "OrderShippedEvent",
+            "OrderCanceled", "OrderCanceledEvent",
+            "OrderRejected", "OrderRejectedEvent");
+
+    private final ShardRouter shardRouter;
+    private final AggregateLoader aggregateLoader;
+    private final SnapshotRepository snapshotRepository;
+    private final EventJpaRepository eventRepository;
+    private final SnapshotJpaRepository snapshotJpaRepository;
+    private final EventArchiveSegmentJpaRepository segmentRepository;
+    private final ArchivedAggregateJpaRepository archivedAggregateRepository;
+    private final EventArchiveSegments segments;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceThrottle maintenanceThrottle;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.archive.min-age:90d}")
+    private Duration minAge;
+
+    @Value("${app.archive.batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void archiveTerminalOrders() {
+        Instant cutoff = Instant.now().minus(minAge);
+        for (String shardId : shardRouter.shardIds()) {
+            try {
+                long archived = archiveShard(shardId, cutoff);
+                log.info("Archived {} terminal orders of shard {} that ended before {}", archived, shardId, cutoff);
+            } catch (Exception e) {
+                // A failing shard must not hold back the others; it is retried on the next run
+                log.error("Failed to archive terminal orders of shard {}", shardId, e);
+            }
+        }
+    }
+
+    private long archiveShard(String shardId, Instant cutoff) {
+        long archived = 0;
+        Optional<UUID> cursor = Optional.of(AggregateIdRange.MIN_ID);
+        while (cursor.isPresent()) {
+            UUID from = cursor.get();
+            List<UUID> candidates = ShardContext.callOn(shardId, () -> maintenanceThrottle.onPrimary(() ->
+                    eventRepository.findArchivalCandidates(TERMINAL_EVENT_TYPES, cutoff,
+                            EventStoreRelay.RELAY_NAME + "/%", from, batchSize)));
+            if (candidates.isEmpty()) {
+                break;
+            }
+
+            for (UUID aggregateId : candidates) {
+                try {
+                    int events = maintenanceThrottle.onPrimary(
+                            () -> ShardContext.callOn(shardId, () -> archiveAggregate(aggregateId, cutoff)));
+                    maintenanceThrottle.acquireRows(events);
+                    if (events > 0) {
+                        archived++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to archive aggregate {} on shard {}", aggregateId, shardId, e);
+                }
+            }
+            cursor = AggregateIdRange.successor(candidates.get(candidates.size() - 1));
+        }
+        return archived;
+    }
+
+    /**
+     * Archives the hot events of one aggregate.
+     *
+     * @return The number of events archived, or 0 if the aggregate no longer qualifies
+     */
+    private int archiveAggregate(UUID aggregateId, Instant cutoff) {
+        Integer archived = transactionTemplate.execute(status -> {
+            if (!archivedAggregateRepository.tryLockForArchival(aggregateId)) {
+                log.debug("Aggregate {} is being archived by another instance", aggregateId);
+                return 0;
+            }
+
+            // Re-check under the lock: a command may have moved the order on since it was selected
+            Optional<Order> loaded = aggregateLoader.loadAggregate(aggregateId);
+            if (loaded.isEmpty()
+                    || !TERMINAL_STATUSES.contains(loaded.get().getStatus())
+                    || loaded.get().getUpdatedAt() == null
+                    || loaded.get().getUpdatedAt().isAfter(cutoff)) {
+                return 0;
+            }
+            Order order = loaded.get();
+            List<EventEntity> events = eventRepository.findByAggregateIdAndVersionBetweenOrderByVersionAsc(
+                    aggregateId, 1, order.getVersion());
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            EventArchiveSegmentEntity segment = segments.encode(aggregateId, events);
+            segmentRepository.save(segment);
+
+            snapshotRepository.save(aggregateId, order);
+            snapshotJpaRepository.deleteByAggregateIdBeforeVersion(aggregateId, order.getVersion());
+
+            archivedAggregateRepository.save(ArchivedAggregateEntity.builder()
+                    .aggregateId(aggregateId)
+                    .archivedVersion(order.getVersion())
+                    .finalStatus(order.getStatus().name())
+                    .archivedAt(Instant.now())
+                    .build());
+            eventRepository.deleteByAggregateIdUpToVersion(aggregateId, order.getVersion());
+
+            recordArchived(segment);
+            log.debug("Archived {} events of aggregate {} up to version {} into {} of {} bytes",
+                    events.size(), aggregateId, order.getVersion(), segment.getData().length, segment.getOriginalBytes());
+            return events.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private void recordArchived(EventArchiveSegmentEntity segment) {
+        Counter.builder("event.archive.aggregates")
+                .description("Aggregates whose events were moved to the archive")
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("event.archive.events")
+                .description("Events moved to the archive")
+                .register(meterRegistry)
+                .increment(segment.getEventCount());
+        Counter.builder("event.archive.bytes")
+                .description("Archived event bytes before (original) and after (stored) compression")
+                .tag("form", "original")
+                .register(meterRegistry)
+                .increment(segment.getOriginalBytes());
+        Counter.builder("event.archive.bytes")
+                .description("Archived event bytes before (original) and after (stored) compression")
+                .tag("form", "stored")
+                .register(meterRegistry)
+                .increment(segment.getData().length);
+    }
+}
@@ -0,0 +1,12 @@
+package com.orderplatform.command.application;
+
+/**
+ * Thrown when an admin job, such as a snapshot rebuild or a resharding run, cannot be started,
+ * resumed or canceled in its current state.
+ */
+public class JobConflictException extends RuntimeException {
+
+    public JobConflictException(String message) {
+        super(message);
+    }
+}
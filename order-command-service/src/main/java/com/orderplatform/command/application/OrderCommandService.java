@@ -1,22 +1,32 @@
 package com.orderplatform.command.application;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orderplatform.command.application.dto.OrderResponse;
 import com.orderplatform.command.domain.AggregateLoader;
-import com.orderplatform.command.infrastructure.persistence.*;
+import com.orderplatform.command.domain.CommandStageMetrics;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyKeyReusedException;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyStore;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
 import com.orderplatform.domain.Order;
 import com.orderplatform.domain.commands.*;
 import com.orderplatform.domain.events.DomainEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -24,28 +34,81 @@ import java.util.UUID;
 public class OrderCommandService {
 
     private final AggregateLoader aggregateLoader;
-    private final CommandDeduplicationJpaRepository deduplicationRepository;
-    private final OutboxJpaRepository outboxRepository;
-    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CommandStageMetrics stageMetrics;
+
+    @Value("${app.commands.conflict-retry.max-attempts:4}")
+    private int conflictMaxAttempts;
+
+    @Value("${app.commands.conflict-retry.initial-backoff-ms:5}")
+    private long conflictInitialBackoffMs;
+
+    @Value("${app.commands.conflict-retry.max-backoff-ms:100}")
+    private long conflictMaxBackoffMs;
 
-    @Transactional
     public OrderResponse createOrder(CreateOrderCommand command) {
-        log.info("Processing CreateOrder command for customer {}", command.customerId());
+        log.debug("Processing CreateOrder command for customer {}", command.customerId());
+        String shardId = shardRouter.shardForNewAggregate(command.idempotencyKey());
+        return executeIdempotently(shardId, command.idempotencyKey(), "CreateOrder", null,
+                () -> handleCreateOrder(command, shardId));
+    }
 
-        // Check for idempotency
-        if (command.idempotencyKey() != null) {
-            Optional<CommandDeduplicationEntity> existing = 
-                    deduplicationRepository.findById(command.idempotencyKey());
-            if (existing.isPresent()) {
-                log.info("Duplicate command detected with idempotency key: {}", command.idempotencyKey());
-                return objectMapper.convertValue(existing.get().getResponse(), OrderResponse.class);
-            }
-        }
+    public OrderResponse approveOrder(ApproveOrderCommand command) {
+        log.debug("Processing ApproveOrder command for order {}", command.orderId());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "ApproveOrder", command.orderId(), () -> handleApproveOrder(command));
+    }
+
+    public OrderResponse rejectOrder(RejectOrderCommand command) {
+        log.debug("Processing RejectOrder command for order {}", command.orderId());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "RejectOrder", command.orderId(), () -> handleRejectOrder(command));
+    }
+
+    public OrderResponse cancelOrder(CancelOrderCommand command) {
+        log.debug("Processing CancelOrder command for order {}", command.orderId());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "CancelOrder", command.orderId(), () -> handleCancelOrder(command));
+    }
+
+    public OrderResponse shipOrder(ShipOrderCommand command) {
+        log.debug("Processing ShipOrder command for order {}", command.orderId());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "ShipOrder", command.orderId(), () -> handleShipOrder(command));
+    }
+
+    public OrderResponse addItem(AddItemCommand command) {
+        log.debug("Processing AddItem command for order {}", command.orderId());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "AddItem", command.orderId(), () -> handleAddItem(command));
+    }
+
+    public OrderResponse removeItem(RemoveItemCommand command) {
+        log.debug("Processing RemoveItem command for order {}", command.orderId());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "RemoveItem", command.orderId(), () -> handleRemoveItem(command));
+    }
+
+    public OrderResponse addItems(AddItemsCommand command) {
+        log.debug("Processing AddItems command for order {} with {} items", command.orderId(), command.items().size());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "AddItems", command.orderId(), () -> handleAddItems(command));
+    }
+
+    public OrderResponse removeItems(RemoveItemsCommand command) {
+        log.debug("Processing RemoveItems command for order {} with {} items", command.orderId(), command.skus().size());
+        return executeIdempotently(shardRouter.shardFor(command.orderId()), command.idempotencyKey(),
+                "RemoveItems", command.orderId(), () -> handleRemoveItems(command));
+    }
 
-        // Create new order aggregate
+    private OrderResponse handleCreateOrder(CreateOrderCommand command, String shardId) {
+        // Create new order aggregate with an ID that routes to the chosen shard
         Order order = new Order();
-        UUID orderId = UUID.randomUUID();
-        
+        UUID orderId = shardRouter.newIdOnShard(shardId);
+
         // Convert command items to domain OrderItems
         List<com.orderplatform.domain.OrderItem> orderItems = command.items().stream()
                 .map(item -> new com.orderplatform.domain.OrderItem(
@@ -59,168 +122,252 @@ public class OrderCommandService {
                         )
                 ))
                 .toList();
-        
-        DomainEvent event = order.create(orderId, command.customerId(), orderItems, command.currency());
-
-        // Save event and snapshot
-        aggregateLoader.saveEventAndSnapshot(event, order);
 
-        // Insert into outbox for Kafka publishing
-        insertIntoOutbox(event);
-
-        // Create response
-        OrderResponse response = new OrderResponse(
-                order.getOrderId(),
-                order.getStatus(),
-                order.getVersion(),
-                order.getCreatedAt(),
-                order.getUpdatedAt()
-        );
+        DomainEvent event = stageMetrics.time("decide",
+                () -> order.create(orderId, command.customerId(), orderItems, command.currency()));
 
-        // Save deduplication record
-        if (command.idempotencyKey() != null) {
-            saveDeduplicationRecord(command.idempotencyKey(), order.getOrderId(), 
-                    "CreateOrder", response);
-        }
+        // Save event and snapshot; the event store relay publishes the event to Kafka
+        aggregateLoader.saveEventAndSnapshot(event, order);
 
         log.info("Created order {} with version {}", order.getOrderId(), order.getVersion());
-        return response;
+        return toResponse(order);
     }
 
-    @Transactional
-    public OrderResponse approveOrder(ApproveOrderCommand command) {
-        log.info("Processing ApproveOrder command for order {}", command.orderId());
+    private OrderResponse handleApproveOrder(ApproveOrderCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> current.approve(command.approvedBy(), command.reason()));
 
-        // Load aggregate
-        Order order = loadAggregateOrThrow(command.orderId());
+        log.info("Approved order {} with version {}", order.getOrderId(), order.getVersion());
+        return toResponse(order);
+    }
 
-        // Execute business logic
-        DomainEvent event = order.approve(command.approvedBy(), command.reason());
+    private OrderResponse handleRejectOrder(RejectOrderCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> current.reject(command.rejectedBy(), command.reason()));
 
-        // Save event and snapshot
-        aggregateLoader.saveEventAndSnapshot(event, order);
+        log.info("Rejected order {} with version {}", order.getOrderId(), order.getVersion());
+        return toResponse(order);
+    }
 
-        // Insert into outbox
-        insertIntoOutbox(event);
+    private OrderResponse handleCancelOrder(CancelOrderCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> current.cancel(command.canceledBy(), command.reason()));
 
-        log.info("Approved order {} with version {}", order.getOrderId(), order.getVersion());
+        log.info("Canceled order {} with version {}", order.getOrderId(), order.getVersion());
         return toResponse(order);
     }
 
-    @Transactional
-    public OrderResponse rejectOrder(RejectOrderCommand command) {
-        log.info("Processing RejectOrder command for order {}", command.orderId());
+    private OrderResponse handleShipOrder(ShipOrderCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> current.ship(command.trackingNumber(), command.carrier()));
 
-        Order order = loadAggregateOrThrow(command.orderId());
-        DomainEvent event = order.reject(command.rejectedBy(), command.reason());
+        log.info("Shipped order {} with version {}", order.getOrderId(), order.getVersion());
+        return toResponse(order);
+    }
 
-        aggregateLoader.saveEventAndSnapshot(event, order);
-        insertIntoOutbox(event);
+    private OrderResponse handleAddItem(AddItemCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> {
+            // Convert command to OrderItem
+            com.orderplatform.domain.OrderItem orderItem = new com.orderplatform.domain.OrderItem(
+                    command.sku(),
+                    command.productName(),
+                    command.quantity(),
+                    new com.orderplatform.domain.Money(command.unitPrice(), current.getCurrency()),
+                    new com.orderplatform.domain.Money(
+                            command.unitPrice().multiply(java.math.BigDecimal.valueOf(command.quantity())),
+                            current.getCurrency()
+                    )
+            );
+            return current.addItem(orderItem);
+        });
 
-        log.info("Rejected order {} with version {}", order.getOrderId(), order.getVersion());
+        log.info("Added item to order {} with version {}", order.getOrderId(), order.getVersion());
         return toResponse(order);
     }
 
-    @Transactional
-    public OrderResponse cancelOrder(CancelOrderCommand command) {
-        log.info("Processing CancelOrder command for order {}", command.orderId());
-
-        Order order = loadAggregateOrThrow(command.orderId());
-        DomainEvent event = order.cancel(command.canceledBy(), command.reason());
+    private OrderResponse handleRemoveItem(RemoveItemCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> current.removeItem(command.sku()));
 
-        aggregateLoader.saveEventAndSnapshot(event, order);
-        insertIntoOutbox(event);
+        log.info("Removed item from order {} with version {}", order.getOrderId(), order.getVersion());
+        return toResponse(order);
+    }
 
-        log.info("Canceled order {} with version {}", order.getOrderId(), order.getVersion());
+    private OrderResponse handleAddItems(AddItemsCommand command) {
+        // One load, one decision and one appended event for the whole batch
+        Order order = decideAndSave(command.orderId(), current -> current.addItems(
+                command.items().stream()
+                        .map(item -> new com.orderplatform.domain.OrderItem(
+                                item.sku(),
+                                item.productName(),
+                                item.quantity(),
+                                new com.orderplatform.domain.Money(item.unitPrice(), current.getCurrency()),
+                                new com.orderplatform.domain.Money(
+                                        item.unitPrice().multiply(java.math.BigDecimal.valueOf(item.quantity())),
+                                        current.getCurrency()
+                                )
+                        ))
+                        .toList()));
+
+        log.info("Added {} items to order {} with version {}",
+                command.items().size(), order.getOrderId(), order.getVersion());
         return toResponse(order);
     }
 
-    @Transactional
-    public OrderResponse shipOrder(ShipOrderCommand command) {
-        log.info("Processing ShipOrder command for order {}", command.orderId());
+    private OrderResponse handleRemoveItems(RemoveItemsCommand command) {
+        Order order = decideAndSave(command.orderId(), current -> current.removeItems(command.skus()));
 
-        Order order = loadAggregateOrThrow(command.orderId());
-        DomainEvent event = order.ship(command.trackingNumber(), command.carrier());
+        log.info("Removed {} items from order {} with version {}",
+                command.skus().size(), order.getOrderId(), order.getVersion());
+        return toResponse(order);
+    }
 
+    /**
+     * Decides a command on the current state of the order and appends the resulting event. If another
+     * writer appended first, the append throws {@link ConcurrencyConflictException}, which rolls back
+     * the transaction; {@link #executeIdempotently} then runs the command again in a new one.
+     */
+    private Order decideAndSave(UUID orderId, Function<Order, DomainEvent> decision) {
+        Order order = loadAggregateOrThrow(orderId);
+        DomainEvent event = stageMetrics.time("decide", () -> decision.apply(order));
         aggregateLoader.saveEventAndSnapshot(event, order);
-        insertIntoOutbox(event);
-
-        log.info("Shipped order {} with version {}", order.getOrderId(), order.getVersion());
-        return toResponse(order);
+        return order;
     }
 
-    @Transactional
-    public OrderResponse addItem(AddItemCommand command) {
-        log.info("Processing AddItem command for order {}", command.orderId());
-
-        Order order = loadAggregateOrThrow(command.orderId());
-        
-        // Convert command to OrderItem
-        com.orderplatform.domain.OrderItem orderItem = new com.orderplatform.domain.OrderItem(
-                command.sku(),
-                command.productName(),
-                command.quantity(),
-                new com.orderplatform.domain.Money(command.unitPrice(), order.getCurrency()),
-                new com.orderplatform.domain.Money(
-                        command.unitPrice().multiply(java.math.BigDecimal.valueOf(command.quantity())),
-                        order.getCurrency()
-                )
-        );
-        
-        DomainEvent event = order.addItem(orderItem);
+    private Counter conflictCounter(String name, String commandType) {
+        return Counter.builder(name)
+                .description("Commands retried or abandoned after a concurrent append to the same order")
+                .tag("command", commandType)
+                .register(meterRegistry);
+    }
 
-        aggregateLoader.saveEventAndSnapshot(event, order);
-        insertIntoOutbox(event);
+    private static void sleepWithJitter(long backoffMs, ConcurrencyConflictException conflict) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs / 2, backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
 
-        log.info("Added item to order {} with version {}", order.getOrderId(), order.getVersion());
-        return toResponse(order);
+    /**
+     * Runs a command handler at most once per idempotency key, in a transaction on the given shard.
+     * Replays of a key return the response recorded for the first execution; commands without a key
+     * always execute. The stages of the command, including the commit that follows, are timed under its type.
+     * <p>
+     * A replay can get past the lookup while the first execution is still running, or when it ran on
+     * another instance. The replay then fails to record the key, or fails on the state the first execution
+     * left behind; either way it is rolled back and returns the recorded response instead.
+     * <p>
+     * A command that lost a race to append to its order is run again in a new transaction, on the state the
+     * other writer left, up to {@code app.commands.conflict-retry.max-attempts} times. The jittered backoff
+     * between attempts is slept with no transaction open, so it holds no connection or row locks.
+     */
+    private OrderResponse executeIdempotently(String shardId, String idempotencyKey, String commandType,
+                                              UUID aggregateId, Supplier<OrderResponse> handler) {
+        long backoffMs = conflictInitialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return executeInTransaction(shardId, idempotencyKey, commandType, aggregateId, handler);
+            } catch (ConcurrencyConflictException e) {
+                if (attempt >= conflictMaxAttempts) {
+                    conflictCounter("commands.conflict.exhausted", commandType).increment();
+                    log.warn("Giving up on {} for order {} after {} conflicting attempts",
+                            commandType, e.getAggregateId(), attempt);
+                    throw e;
+                }
+                conflictCounter("commands.conflict.retries", commandType).increment();
+                sleepWithJitter(backoffMs, e);
+                backoffMs = Math.min(backoffMs * 2, conflictMaxBackoffMs);
+                log.debug("Retrying {} for order {} after a concurrent append", commandType, e.getAggregateId());
+            }
+        }
     }
 
-    @Transactional
-    public OrderResponse removeItem(RemoveItemCommand command) {
-        log.info("Processing RemoveItem command for order {}", command.orderId());
+    private OrderResponse executeInTransaction(String shardId, String idempotencyKey, String commandType,
+                                               UUID aggregateId, Supplier<OrderResponse> handler) {
+        try {
+            return inTransactionOn(shardId, () -> executeOnce(idempotencyKey, commandType, aggregateId, handler));
+        } catch (RuntimeException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            Optional<OrderResponse> recorded = findRecordedResponse(shardId, idempotencyKey, commandType, aggregateId, e);
+            if (recorded.isEmpty()) {
+                throw e;
+            }
+            log.info("Duplicate command detected with idempotency key {} after running it concurrently", idempotencyKey);
+            return recorded.get();
+        }
+    }
 
-        Order order = loadAggregateOrThrow(command.orderId());
-        DomainEvent event = order.removeItem(command.sku());
+    private OrderResponse executeOnce(String idempotencyKey, String commandType, UUID aggregateId,
+                                      Supplier<OrderResponse> handler) {
+        timeCommit(commandType);
+        return stageMetrics.callAs(commandType, () -> {
+            if (idempotencyKey == null) {
+                return handler.get();
+            }
 
-        aggregateLoader.saveEventAndSnapshot(event, order);
-        insertIntoOutbox(event);
+            Optional<OrderResponse> existing = stageMetrics.time("dedup_lookup", () -> idempotencyStore.findResponse(
+                    idempotencyKey, commandType, aggregateId, OrderResponse.class));
+            if (existing.isPresent()) {
+                log.info("Duplicate command detected with idempotency key: {}", idempotencyKey);
+                return existing.get();
+            }
 
-        log.info("Removed item from order {} with version {}", order.getOrderId(), order.getVersion());
-        return toResponse(order);
+            OrderResponse response = handler.get();
+            boolean recorded = stageMetrics.time("dedup_record",
+                    () -> idempotencyStore.record(idempotencyKey, response.orderId(), commandType, response));
+            if (!recorded) {
+                throw new DuplicateCommandException(idempotencyKey);
+            }
+            return response;
+        });
     }
 
-    private Order loadAggregateOrThrow(UUID orderId) {
-        return aggregateLoader.loadAggregate(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+    /**
+     * Looks up the response recorded for a key after the command failed, keeping the failure when the
+     * lookup itself fails.
+     */
+    private Optional<OrderResponse> findRecordedResponse(String shardId, String idempotencyKey, String commandType,
+                                                         UUID aggregateId, RuntimeException failure) {
+        try {
+            return inTransactionOn(shardId, () -> idempotencyStore.findRecordedResponse(
+                    idempotencyKey, commandType, aggregateId, OrderResponse.class));
+        } catch (IdempotencyKeyReusedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+            return Optional.empty();
+        }
     }
 
-    private void insertIntoOutbox(DomainEvent event) {
-        OutboxEntity outboxEntity = OutboxEntity.builder()
-                .id(UUID.randomUUID())
-                .aggregateId(event.getAggregateId())
-                .eventType(event.getEventType())
-                .payload(objectMapper.convertValue(event, Map.class))
-                .createdAt(Instant.now())
-                .status("PENDING")
-                .build();
+    /**
+     * Times the commit of the current transaction, from the flush before it to its completion.
+     */
+    private void timeCommit(String commandType) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStartedAt;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStartedAt = System.nanoTime();
+            }
 
-        outboxRepository.save(outboxEntity);
-        log.debug("Inserted event {} into outbox", event.getEventId());
+            @Override
+            public void afterCommit() {
+                stageMetrics.record(commandType, "commit", System.nanoTime() - commitStartedAt);
+            }
+        });
     }
 
-    private void saveDeduplicationRecord(String idempotencyKey, UUID aggregateId, 
-                                        String commandType, OrderResponse response) {
-        CommandDeduplicationEntity entity = CommandDeduplicationEntity.builder()
-                .idempotencyKey(idempotencyKey)
-                .aggregateId(aggregateId)
-                .commandType(commandType)
-                .response(objectMapper.convertValue(response, Map.class))
-                .processedAt(Instant.now())
-                .build();
+    /**
+     * Runs a command in a transaction on the shard that owns the order. The shard is bound before
+     * the transaction starts, so every statement of the command goes to the same database.
+     */
+    private <T> T inTransactionOn(String shardId, Supplier<T> work) {
+        return ShardContext.callOn(shardId, () -> transactionTemplate.execute(status -> work.get()));
+    }
 
-        deduplicationRepository.save(entity);
-        log.debug("Saved deduplication record for key: {}", idempotencyKey);
+    private Order loadAggregateOrThrow(UUID orderId) {
+        return aggregateLoader.loadAggregate(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
     }
 
     private OrderResponse toResponse(Order order) {
@@ -232,4 +379,14 @@ public class OrderCommandService {
                 order.getUpdatedAt()
         );
     }
+
+    /**
+     * Rolls back a command whose idempotency key was recorded by a concurrent execution of it.
+     */
+    private static final class DuplicateCommandException extends RuntimeException {
+
+        private DuplicateCommandException(String idempotencyKey) {
+            super("Idempotency key " + idempotencyKey + " was recorded by a concurrent request");
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package com.orderplatform.command.application;
+
+import com.orderplatform.command.application.dto.OrderStateResponse;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.domain.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reconstructs the state of an order at an earlier version or point in time from the event store,
+ * and serves its current state straight from the command side.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderHistoryService {
+
+    private final AggregateLoader aggregateLoader;
+    private final EventStoreRepository eventStoreRepository;
+
+    /**
+     * Loads the current state of an order from its latest snapshot and the events after it.
+     * Unlike the query service this reflects every committed command.
+     */
+    public Optional<OrderStateResponse> getCurrentOrder(UUID orderId) {
+        return aggregateLoader.loadAggregate(orderId).map(this::toResponse);
+    }
+
+    /**
+     * Returns the current version of an order without loading it, or 0 if the order does not exist.
+     */
+    public long getCurrentVersion(UUID orderId) {
+        return eventStoreRepository.findCurrentVersion(orderId);
+    }
+
+    public Optional<OrderStateResponse> getOrderAt(UUID orderId, Long version, Instant asOf) {
+        if (version != null && asOf != null) {
+            throw new IllegalArgumentException("Specify either version or asOf, not both");
+        }
+        if (version != null && version < 1) {
+            throw new IllegalArgumentException("Version must be at least 1");
+        }
+
+        Optional<Order> order;
+        if (version != null) {
+            order = aggregateLoader.loadAggregateAt(orderId, version);
+        } else if (asOf != null) {
+            order = aggregateLoader.loadAggregateAt(orderId, asOf);
+        } else {
+            order = aggregateLoader.loadAggregate(orderId);
+        }
+        log.debug("Loaded order {} at version {} / as of {}", orderId, version, asOf);
+        return order.map(this::toResponse);
+    }
+
+    private OrderStateResponse toResponse(Order order) {
+        return new OrderStateResponse(
+                order.getOrderId(),
+                order.getCustomerId(),
+                order.getStatus(),
+                order.getItems(),
+                order.getTotalAmount(),
+                order.getCurrency(),
+                order.getVersion(),
+                order.getCreatedAt(),
+                order.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.orderplatform.command.application;
+
+import com.orderplatform.command.application.dto.RelayFailureResponse;
+import com.orderplatform.command.infrastructure.persistence.EventRelayFailureJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Events the Kafka relay left out of the stream because they could not be converted, across all
+ * shards. A retry request flags every recorded event; the owner of each event's relay partition
+ * publishes it on its next poll, after any later events of the same order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RelayFailureService {
+
+    private final EventRelayFailureJpaRepository failureRepository;
+    private final ShardRouter shardRouter;
+
+    public List<RelayFailureResponse> listFailures() {
+        List<RelayFailureResponse> failures = new ArrayList<>();
+        for (String shardId : shardRouter.shardIds()) {
+            ShardContext.runOn(shardId, () -> failureRepository.findAllByOrderByGlobalPositionAsc()
+                    .forEach(failure -> failures.add(new RelayFailureResponse(
+                            shardId,
+                            failure.getRelayName(),
+                            failure.getEventId(),
+                            failure.getGlobalPosition(),
+                            failure.getErrorMessage(),
+                            failure.getFailedAt(),
+                            failure.isRetryRequested()))));
+        }
+        return failures;
+    }
+
+    /**
+     * @return Number of events newly flagged for a retry
+     */
+    public int requestRetry() {
+        int requested = 0;
+        for (String shardId : shardRouter.shardIds()) {
+            requested += ShardContext.callOn(shardId, failureRepository::requestRetryOfAll);
+        }
+        log.info("Requested a retry of {} events the relay skipped", requested);
+        return requested;
+    }
+}
@@ -0,0 +1,234 @@
+package com.orderplatform.command.application;
+
+import com.orderplatform.command.application.dto.ReshardingProgress;
+import com.orderplatform.command.domain.AggregateIdRange;
+import com.orderplatform.command.infrastructure.maintenance.MaintenanceThrottle;
+import com.orderplatform.command.infrastructure.persistence.ArchivedAggregateEntity;
+import com.orderplatform.command.infrastructure.persistence.ArchivedAggregateJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.CommandDeduplicationEntity;
+import com.orderplatform.command.infrastructure.persistence.CommandDeduplicationJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentEntity;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import com.orderplatform.command.infrastructure.persistence.EventJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.SnapshotEntity;
+import com.orderplatform.command.infrastructure.persistence.SnapshotJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves aggregates to the shard the hash ring assigns them after shards were added or removed.
+ * <p>
+ * Every shard is scanned for aggregates owned by another shard. An aggregate's events, snapshots,
+ * archive segments, archive tombstone and deduplication records are copied to the owner in one transaction and then deleted from the old shard
+ * in another. Copied events are marked as already relayed, so they are not published to Kafka again.
+ * If a run is interrupted between the two steps, the next run finds the copy complete and only deletes.
+ * <p>
+ * Until an aggregate has been moved, commands for it fail with "not found" on its new shard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReshardingService {
+
+    private static final String STATUS_IDLE = "IDLE";
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    private final ShardRouter shardRouter;
+    private final EventJpaRepository eventRepository;
+    private final SnapshotJpaRepository snapshotRepository;
+    private final CommandDeduplicationJpaRepository deduplicationRepository;
+    private final EventArchiveSegmentJpaRepository archiveSegmentRepository;
+    private final ArchivedAggregateJpaRepository archivedAggregateRepository;
+    private final EventRelayCheckpointJpaRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceThrottle maintenanceThrottle;
+
+    @Value("${app.sharding.rebalance.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicReference<Run> currentRun = new AtomicReference<>(Run.idle());
+
+    /**
+     * Starts moving misplaced aggregates in the background.
+     *
+     * @return Progress of the newly started run
+     */
+    public ReshardingProgress startRebalance() {
+        Run run = new Run();
+        Run previous = currentRun.get();
+        if (STATUS_RUNNING.equals(previous.status) || !currentRun.compareAndSet(previous, run)) {
+            throw new JobConflictException("A resharding run is already in progress");
+        }
+
+        log.info("Starting resharding run over shards {}", shardRouter.shardIds());
+        Thread.ofVirtual().name("resharding").start(() -> {
+            try {
+                shardRouter.shardIds().forEach(shardId -> {
+                    rebalanceShard(shardId, run, eventRepository::findAggregateIdsBetween);
+                    // Archived aggregates may have no hot events left to find them by
+                    rebalanceShard(shardId, run, archivedAggregateRepository::findAggregateIdsBetween);
+                });
+                run.finish(STATUS_COMPLETED, null);
+                log.info("Resharding run completed: {} aggregates moved, {} failed", run.moved, run.failed);
+            } catch (Exception e) {
+                log.error("Resharding run failed", e);
+                run.finish(STATUS_FAILED, e.getMessage());
+            }
+        });
+        return toProgress(run);
+    }
+
+    public ReshardingProgress getProgress() {
+        return toProgress(currentRun.get());
+    }
+
+    private void rebalanceShard(String sourceShard, Run run, AggregateIdPageQuery aggregateIdsBetween) {
+        Optional<UUID> cursor = Optional.of(AggregateIdRange.MIN_ID);
+        while (cursor.isPresent()) {
+            UUID from = cursor.get();
+            List<UUID> aggregateIds = ShardContext.callOn(sourceShard, () -> aggregateIdsBetween.find(
+                    from, AggregateIdRange.MAX_ID, PageRequest.of(0, batchSize)));
+            if (aggregateIds.isEmpty()) {
+                return;
+            }
+
+            for (UUID aggregateId : aggregateIds) {
+                run.scanned.incrementAndGet();
+                String owner = shardRouter.shardFor(aggregateId);
+                if (owner.equals(sourceShard)) {
+                    continue;
+                }
+                try {
+                    int rows = maintenanceThrottle.onPrimary(() -> moveAggregate(aggregateId, sourceShard, owner));
+                    maintenanceThrottle.acquireRows(rows);
+                    run.moved.incrementAndGet();
+                } catch (Exception e) {
+                    log.error("Failed to move aggregate {} from shard {} to shard {}", aggregateId, sourceShard, owner, e);
+                    run.failed.incrementAndGet();
+                }
+            }
+            cursor = AggregateIdRange.successor(aggregateIds.get(aggregateIds.size() - 1));
+        }
+    }
+
+    private int moveAggregate(UUID aggregateId, String sourceShard, String targetShard) {
+        List<EventEntity> events = ShardContext.callOn(sourceShard,
+                () -> eventRepository.findByAggregateIdOrderByVersionAsc(aggregateId));
+        Optional<ArchivedAggregateEntity> tombstone = ShardContext.callOn(sourceShard,
+                () -> archivedAggregateRepository.findById(aggregateId));
+        if (events.isEmpty() && tombstone.isEmpty()) {
+            return 0;
+        }
+        long lastVersion = events.isEmpty()
+                ? tombstone.get().getArchivedVersion()
+                : events.get(events.size() - 1).getVersion();
+        List<EventArchiveSegmentEntity> archiveSegments = ShardContext.callOn(sourceShard,
+                () -> archiveSegmentRepository.findByAggregateIdOrderByFirstVersionAsc(aggregateId));
+        List<SnapshotEntity> snapshots = ShardContext.callOn(sourceShard,
+                () -> snapshotRepository.findByAggregateIdOrderByVersionAsc(aggregateId));
+        List<CommandDeduplicationEntity> deduplications = ShardContext.callOn(sourceShard,
+                () -> deduplicationRepository.findByAggregateId(aggregateId));
+
+        ShardContext.runOn(targetShard, () -> transactionTemplate.executeWithoutResult(status -> {
+            Long targetVersion = Optional.ofNullable(eventRepository.findMaxVersion(aggregateId))
+                    .or(() -> archivedAggregateRepository.findById(aggregateId).map(ArchivedAggregateEntity::getArchivedVersion))
+                    .orElse(null);
+            if (targetVersion != null) {
+                if (targetVersion < lastVersion) {
+                    throw new IllegalStateException(String.format(
+                            "Shard %s holds aggregate %s only up to version %d of %d",
+                            targetShard, aggregateId, targetVersion, lastVersion));
+                }
+                // Copied by an earlier, interrupted run
+                return;
+            }
+
+            eventRepository.saveAll(events);
+            eventRepository.flush();
+            eventRepository.markAsRelayed(aggregateId, lastVersion);
+            checkpointRepository.skipRelayedEvents(aggregateId);
+            snapshotRepository.saveAll(snapshots);
+            archiveSegmentRepository.saveAll(archiveSegments);
+            tombstone.ifPresent(archivedAggregateRepository::save);
+            deduplicationRepository.saveAll(deduplications);
+        }));
+
+        ShardContext.runOn(sourceShard, () -> transactionTemplate.executeWithoutResult(status -> {
+            deduplicationRepository.deleteByAggregateId(aggregateId);
+            snapshotRepository.deleteByAggregateId(aggregateId);
+            archiveSegmentRepository.deleteByAggregateId(aggregateId);
+            archivedAggregateRepository.deleteByAggregateId(aggregateId);
+            eventRepository.deleteByAggregateId(aggregateId);
+        }));
+
+        log.debug("Moved aggregate {} with {} events from shard {} to shard {}",
+                aggregateId, events.size(), sourceShard, targetShard);
+        return events.size();
+    }
+
+    private ReshardingProgress toProgress(Run run) {
+        return new ReshardingProgress(
+                run.status,
+                shardRouter.shardIds(),
+                run.scanned.get(),
+                run.moved.get(),
+                run.failed.get(),
+                run.startedAt,
+                run.completedAt,
+                run.errorMessage
+        );
+    }
+
+    @FunctionalInterface
+    private interface AggregateIdPageQuery {
+        List<UUID> find(UUID fromId, UUID toId, Pageable pageable);
+    }
+
+    private static final class Run {
+
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong moved = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Instant startedAt;
+        private volatile String status;
+        private volatile Instant completedAt;
+        private volatile String errorMessage;
+
+        private Run() {
+            this(STATUS_RUNNING, Instant.now());
+        }
+
+        private Run(String status, Instant startedAt) {
+            this.status = status;
+            this.startedAt = startedAt;
+        }
+
+        private static Run idle() {
+            return new Run(STATUS_IDLE, null);
+        }
+
+        private void finish(String finalStatus, String error) {
+            errorMessage = error;
+            completedAt = Instant.now();
+            status = finalStatus;
+        }
+    }
+}
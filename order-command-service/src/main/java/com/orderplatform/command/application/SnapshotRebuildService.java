@@ -0,0 +1,508 @@
+package com.orderplatform.command.application;
+
+import com.orderplatform.command.application.dto.SnapshotRebuildProgress;
+import com.orderplatform.command.domain.AggregateIdRange;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.command.infrastructure.maintenance.MaintenanceThrottle;
+import com.orderplatform.command.infrastructure.persistence.SnapshotRebuildJobEntity;
+import com.orderplatform.command.infrastructure.persistence.SnapshotRebuildJobJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.SnapshotRebuildPartitionEntity;
+import com.orderplatform.command.infrastructure.persistence.SnapshotRebuildPartitionJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rebuilds snapshots for every aggregate in the event store.
+ * The aggregate-id space is split into ranges that are processed in parallel on a
+ * bounded pool of virtual threads, with a per-range checkpoint persisted after every
+ * batch so an interrupted job can be resumed where it stopped.
+ * Job state is kept on the default shard; each aggregate is rebuilt on the shard that owns it.
+ * A job is leased to the instance running it, which renews the lease while it works and fences
+ * its checkpoints with it, so replicas never run the same job. One job runs at a time fleet-wide.
+ * Aggregates are listed from the read replica, and rebuilds share the maintenance bulkhead and
+ * row rate limit with other background jobs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotRebuildService {
+
+    private static final String STATUS_PENDING = "PENDING";
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_CANCELED = "CANCELED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    private final AggregateLoader aggregateLoader;
+    private final EventStoreRepository eventStoreRepository;
+    private final SnapshotRebuildJobJpaRepository jobRepository;
+    private final SnapshotRebuildPartitionJpaRepository partitionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ShardRouter shardRouter;
+    private final MaintenanceThrottle maintenanceThrottle;
+
+    private final Map<UUID, RunningJob> runningJobs = new ConcurrentHashMap<>();
+
+    @Value("${app.snapshot.rebuild.partitions:16}")
+    private int partitionCount;
+
+    @Value("${app.snapshot.rebuild.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.snapshot.rebuild.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.snapshot.rebuild.target-latency-ms:50}")
+    private long targetLatencyMs;
+
+    @Value("${app.snapshot.rebuild.max-pause-ms:2000}")
+    private long maxPauseMs;
+
+    @Value("${app.snapshot.rebuild.resume-on-startup:false}")
+    private boolean resumeOnStartup;
+
+    @Value("${app.snapshot.rebuild.lease-duration-ms:30000}")
+    private long leaseDurationMs;
+
+    @Value("${app.instance-id}")
+    private String instanceId;
+
+    /**
+     * Starts a new rebuild job covering all aggregates.
+     *
+     * @return Progress of the newly started job
+     */
+    public SnapshotRebuildProgress startJob() {
+        List<UUID> leasedJobs = jobRepository.findLeasedJobIds();
+        if (!leasedJobs.isEmpty()) {
+            throw new JobConflictException("A snapshot rebuild job is already running: " + leasedJobs);
+        }
+
+        Instant now = Instant.now();
+        SnapshotRebuildJobEntity job = SnapshotRebuildJobEntity.builder()
+                .jobId(UUID.randomUUID())
+                .status(STATUS_PENDING)
+                .partitionCount(partitionCount)
+                .estimatedAggregates(eventStoreRepository.countAggregates())
+                .createdAt(now)
+                .startedAt(now)
+                .cancelRequested(false)
+                .build();
+        jobRepository.save(job);
+
+        List<SnapshotRebuildPartitionEntity> partitions = new ArrayList<>();
+        List<AggregateIdRange> ranges = AggregateIdRange.partition(partitionCount);
+        for (int i = 0; i < ranges.size(); i++) {
+            partitions.add(SnapshotRebuildPartitionEntity.builder()
+                    .id(UUID.randomUUID())
+                    .jobId(job.getJobId())
+                    .partitionNo(i)
+                    .lowerBound(ranges.get(i).lowerBound())
+                    .upperBound(ranges.get(i).upperBound())
+                    .processedCount(0L)
+                    .failedCount(0L)
+                    .status(STATUS_PENDING)
+                    .updatedAt(now)
+                    .build());
+        }
+        partitionRepository.saveAll(partitions);
+
+        if (!claimLease(job.getJobId())) {
+            // Another instance started a job at the same time; this one stays pending and can be resumed
+            throw new JobConflictException("A snapshot rebuild job is already running: " + jobRepository.findLeasedJobIds());
+        }
+
+        log.info("Starting snapshot rebuild job {} over {} partitions for ~{} aggregates",
+                job.getJobId(), partitionCount, job.getEstimatedAggregates());
+        launch(job, partitions);
+        return buildProgress(findJobOrThrow(job.getJobId()));
+    }
+
+    /**
+     * Resumes an interrupted, canceled or failed job from its last checkpoints.
+     *
+     * @param jobId The ID of the job to resume
+     * @return Progress of the resumed job
+     */
+    public SnapshotRebuildProgress resumeJob(UUID jobId) {
+        SnapshotRebuildJobEntity job = findJobOrThrow(jobId);
+        if (STATUS_COMPLETED.equals(job.getStatus())) {
+            throw new JobConflictException("Snapshot rebuild job has already completed: " + jobId);
+        }
+        if (runningJobs.containsKey(jobId) || !claimLease(jobId)) {
+            throw new JobConflictException("A snapshot rebuild job is already running: " + jobRepository.findLeasedJobIds());
+        }
+        job = findJobOrThrow(jobId);
+
+        List<SnapshotRebuildPartitionEntity> partitions = partitionRepository.findByJobIdOrderByPartitionNoAsc(jobId)
+                .stream()
+                .filter(partition -> !STATUS_COMPLETED.equals(partition.getStatus()))
+                .toList();
+
+        log.info("Resuming snapshot rebuild job {} with {} unfinished partitions", jobId, partitions.size());
+        launch(job, partitions);
+        return buildProgress(job);
+    }
+
+    /**
+     * Requests cancellation of a running job, on whichever instance runs it. Its workers stop
+     * after the aggregate they are currently rebuilding, at the latest one lease renewal later;
+     * checkpoints are kept so the job can be resumed later. A running job that no instance is
+     * working on is canceled right away.
+     *
+     * @param jobId The ID of the job to cancel
+     * @return Progress of the job at the time of the request
+     */
+    public SnapshotRebuildProgress cancelJob(UUID jobId) {
+        findJobOrThrow(jobId);
+        if (jobRepository.requestCancel(jobId) == 0 && jobRepository.cancelAbandoned(jobId) == 0) {
+            throw new JobConflictException("Snapshot rebuild job is not running: " + jobId);
+        }
+
+        log.info("Cancellation requested for snapshot rebuild job {}", jobId);
+        RunningJob running = runningJobs.get(jobId);
+        if (running != null) {
+            running.cancelRequested.set(true);
+        }
+        return buildProgress(findJobOrThrow(jobId));
+    }
+
+    public Optional<SnapshotRebuildProgress> getProgress(UUID jobId) {
+        return jobRepository.findById(jobId).map(this::buildProgress);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        if (!resumeOnStartup || !runningJobs.isEmpty()) {
+            return;
+        }
+        jobRepository.findAbandonedJobIds().stream()
+                .findFirst()
+                .ifPresent(jobId -> {
+                    try {
+                        log.info("Resuming snapshot rebuild job {} interrupted by a restart", jobId);
+                        resumeJob(jobId);
+                    } catch (JobConflictException e) {
+                        log.debug("Snapshot rebuild job {} was resumed by another instance", jobId);
+                    }
+                });
+    }
+
+    /**
+     * Renews the leases on this instance's jobs and picks up cancel requests made on other instances.
+     * A job whose lease was lost is stopped without touching its state, which now belongs to the new owner.
+     * With resume-on-startup, also resumes jobs whose instance went away without restarting.
+     */
+    @Scheduled(fixedDelayString = "${app.snapshot.rebuild.lease-renew-interval:5000}")
+    public void renewLeases() {
+        try {
+            runningJobs.forEach((jobId, running) -> {
+                if (jobRepository.renewLease(jobId, instanceId, leaseUntil()) == 0) {
+                    stopOnLostLease(jobId, running);
+                } else if (jobRepository.findById(jobId).map(SnapshotRebuildJobEntity::getCancelRequested).orElse(false)) {
+                    running.cancelRequested.set(true);
+                }
+            });
+            resumeInterruptedJobs();
+        } catch (Exception e) {
+            log.error("Failed to renew snapshot rebuild job leases", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Leave the job in RUNNING state and give up the lease so it is picked up again after the restart
+        runningJobs.forEach((jobId, running) -> {
+            running.stopping.set(true);
+            running.executor.shutdownNow();
+            try {
+                // Let interrupted workers write their last checkpoints while the lease is still held
+                running.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jobRepository.releaseLease(jobId, instanceId);
+        });
+    }
+
+    private boolean claimLease(UUID jobId) {
+        return jobRepository.claimLease(jobId, instanceId, leaseUntil()) == 1;
+    }
+
+    private Instant leaseUntil() {
+        return Instant.now().plusMillis(leaseDurationMs);
+    }
+
+    private void stopOnLostLease(UUID jobId, RunningJob running) {
+        if (running.leaseLost.compareAndSet(false, true)) {
+            log.warn("Lost the lease on snapshot rebuild job {}; stopping its workers on this instance", jobId);
+        }
+    }
+
+    private void launch(SnapshotRebuildJobEntity job, List<SnapshotRebuildPartitionEntity> partitions) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                parallelism, Thread.ofVirtual().name("snapshot-rebuild-", 0).factory());
+        RunningJob running = new RunningJob(
+                job.getJobId(), executor, new LatencyThrottle(Duration.ofMillis(targetLatencyMs), Duration.ofMillis(maxPauseMs)));
+        runningJobs.put(job.getJobId(), running);
+
+        CompletableFuture<?>[] futures = partitions.stream()
+                .map(partition -> CompletableFuture.runAsync(() -> processPartition(partition, running), executor))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(futures).whenComplete((ignored, error) -> {
+            try {
+                finishJob(job.getJobId(), running, error);
+            } finally {
+                runningJobs.remove(job.getJobId());
+                executor.shutdown();
+            }
+        });
+    }
+
+    private void processPartition(SnapshotRebuildPartitionEntity partition, RunningJob running) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        partition.setStatus(STATUS_RUNNING);
+        checkpoint(partition, running);
+
+        Optional<UUID> cursor = partition.getLastAggregateId() == null
+                ? Optional.of(partition.getLowerBound())
+                : AggregateIdRange.successor(partition.getLastAggregateId());
+
+        try {
+            while (cursor.isPresent() && !running.isStopped()) {
+                List<UUID> aggregateIds = eventStoreRepository.findAggregateIds(
+                        cursor.get(), partition.getUpperBound(), batchSize);
+                if (aggregateIds.isEmpty()) {
+                    break;
+                }
+
+                for (UUID aggregateId : aggregateIds) {
+                    if (running.isStopped()) {
+                        break;
+                    }
+                    running.throttle.pause();
+
+                    long start = System.nanoTime();
+                    try {
+                        Integer replayed = maintenanceThrottle.onPrimary(() -> ShardContext.callOn(
+                                shardRouter.shardFor(aggregateId),
+                                () -> transactionTemplate.execute(status -> aggregateLoader.rebuildSnapshots(aggregateId))));
+                        maintenanceThrottle.acquireRows(replayed == null ? 0 : replayed);
+                        partition.setProcessedCount(partition.getProcessedCount() + 1);
+                    } catch (Exception e) {
+                        log.error("Failed to rebuild snapshots for aggregate {}", aggregateId, e);
+                        partition.setFailedCount(partition.getFailedCount() + 1);
+                    }
+                    running.throttle.record(System.nanoTime() - start);
+                    running.processedThisRun.incrementAndGet();
+                    partition.setLastAggregateId(aggregateId);
+                }
+
+                checkpoint(partition, running);
+                cursor = AggregateIdRange.successor(partition.getLastAggregateId());
+            }
+
+            if (!running.isStopped()) {
+                partition.setStatus(STATUS_COMPLETED);
+            }
+            checkpoint(partition, running);
+            log.debug("Partition {} of snapshot rebuild job {} stopped with status {} after {} aggregates",
+                    partition.getPartitionNo(), partition.getJobId(), partition.getStatus(), partition.getProcessedCount());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            checkpoint(partition, running);
+        } catch (Exception e) {
+            log.error("Partition {} of snapshot rebuild job {} failed", partition.getPartitionNo(), partition.getJobId(), e);
+            partition.setStatus(STATUS_FAILED);
+            checkpoint(partition, running);
+            throw e;
+        }
+    }
+
+    private void checkpoint(SnapshotRebuildPartitionEntity partition, RunningJob running) {
+        int saved = partitionRepository.checkpoint(partition.getId(), instanceId, partition.getLastAggregateId(),
+                partition.getProcessedCount(), partition.getFailedCount(), partition.getStatus());
+        if (saved == 0) {
+            stopOnLostLease(running.jobId, running);
+        }
+    }
+
+    private void finishJob(UUID jobId, RunningJob running, Throwable error) {
+        if (running.stopping.get()) {
+            log.info("Snapshot rebuild job {} interrupted by shutdown; it will resume from its checkpoints", jobId);
+            return;
+        }
+        if (running.leaseLost.get()) {
+            return;
+        }
+
+        String status;
+        if (error != null) {
+            status = STATUS_FAILED;
+        } else if (running.cancelRequested.get()) {
+            status = STATUS_CANCELED;
+        } else {
+            status = STATUS_COMPLETED;
+        }
+        if (jobRepository.finish(jobId, instanceId, status, error == null ? null : error.getMessage()) == 0) {
+            log.warn("Snapshot rebuild job {} was taken over by another instance before it finished", jobId);
+            return;
+        }
+
+        log.info("Snapshot rebuild job {} finished with status {}", jobId, status);
+    }
+
+    private SnapshotRebuildProgress buildProgress(SnapshotRebuildJobEntity job) {
+        List<SnapshotRebuildPartitionEntity> partitions = partitionRepository.findByJobIdOrderByPartitionNoAsc(job.getJobId());
+        long processed = partitions.stream().mapToLong(SnapshotRebuildPartitionEntity::getProcessedCount).sum();
+        long failed = partitions.stream().mapToLong(SnapshotRebuildPartitionEntity::getFailedCount).sum();
+        int completedPartitions = (int) partitions.stream()
+                .filter(partition -> STATUS_COMPLETED.equals(partition.getStatus()))
+                .count();
+
+        long done = processed + failed;
+        long estimated = Math.max(job.getEstimatedAggregates(), done);
+        double percentComplete = STATUS_COMPLETED.equals(job.getStatus()) || estimated == 0
+                ? 100.0
+                : Math.min(100.0, done * 100.0 / estimated);
+
+        double rate = 0.0;
+        long pauseMillis = 0;
+        Instant eta = null;
+        RunningJob running = runningJobs.get(job.getJobId());
+        if (running != null) {
+            double elapsedSeconds = Duration.between(running.runStartedAt, Instant.now()).toMillis() / 1000.0;
+            rate = elapsedSeconds > 0 ? running.processedThisRun.get() / elapsedSeconds : 0.0;
+            pauseMillis = running.throttle.currentPauseMillis();
+            if (rate > 0) {
+                long remaining = Math.max(0, estimated - done);
+                eta = Instant.now().plusMillis((long) (remaining / rate * 1000));
+            }
+        }
+
+        return new SnapshotRebuildProgress(
+                job.getJobId(),
+                job.getStatus(),
+                job.getPartitionCount(),
+                completedPartitions,
+                job.getEstimatedAggregates(),
+                processed,
+                failed,
+                percentComplete,
+                rate,
+                pauseMillis,
+                job.getStartedAt(),
+                job.getCompletedAt(),
+                eta,
+                job.getErrorMessage()
+        );
+    }
+
+    private SnapshotRebuildJobEntity findJobOrThrow(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Snapshot rebuild job not found: " + jobId));
+    }
+
+    private static final class RunningJob {
+
+        private final UUID jobId;
+        private final ExecutorService executor;
+        private final LatencyThrottle throttle;
+        private final Instant runStartedAt = Instant.now();
+        private final AtomicLong processedThisRun = new AtomicLong();
+        private final AtomicBoolean cancelRequested = new AtomicBoolean();
+        private final AtomicBoolean stopping = new AtomicBoolean();
+        private final AtomicBoolean leaseLost = new AtomicBoolean();
+
+        private RunningJob(UUID jobId, ExecutorService executor, LatencyThrottle throttle) {
+            this.jobId = jobId;
+            this.executor = executor;
+            this.throttle = throttle;
+        }
+
+        private boolean isStopped() {
+            return cancelRequested.get() || stopping.get() || leaseLost.get();
+        }
+    }
+
+    /**
+     * Backs off when the moving average of per-aggregate rebuild latency exceeds the target,
+     * so the job yields database capacity to live commands. The pause doubles while the
+     * database is slow and halves again once latency recovers.
+     */
+    static final class LatencyThrottle {
+
+        private static final double SMOOTHING = 0.2;
+        private static final long MIN_PAUSE_MILLIS = 10;
+
+        private final long targetNanos;
+        private final long maxPauseMillis;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private double averageNanos;
+        private volatile long pauseMillis;
+
+        LatencyThrottle(Duration targetLatency, Duration maxPause) {
+            this.targetNanos = targetLatency.toNanos();
+            this.maxPauseMillis = maxPause.toMillis();
+        }
+
+        void record(long latencyNanos) {
+            lock.lock();
+            try {
+                averageNanos = averageNanos == 0
+                        ? latencyNanos
+                        : (1 - SMOOTHING) * averageNanos + SMOOTHING * latencyNanos;
+
+                if (averageNanos > targetNanos) {
+                    pauseMillis = Math.min(maxPauseMillis, Math.max(MIN_PAUSE_MILLIS, pauseMillis * 2));
+                } else {
+                    pauseMillis = pauseMillis / 2;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void pause() throws InterruptedException {
+            long pause = pauseMillis;
+            if (pause > 0) {
+                Thread.sleep(pause);
+            }
+        }
+
+        long currentPauseMillis() {
+            return pauseMillis;
+        }
+    }
+}
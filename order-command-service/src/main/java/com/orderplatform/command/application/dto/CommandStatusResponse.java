@@ -0,0 +1,20 @@
+package com.orderplatform.command.application.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CommandStatusResponse(
+        UUID commandId,
+        String commandType,
+        UUID aggregateId,
+        String status,
+        OrderResponse result,
+        String errorMessage,
+        Instant createdAt,
+        Instant completedAt
+) {
+
+    public boolean isCompleted() {
+        return "SUCCEEDED".equals(status) || "FAILED".equals(status);
+    }
+}
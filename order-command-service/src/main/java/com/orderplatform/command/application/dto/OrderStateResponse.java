@@ -0,0 +1,22 @@
+package com.orderplatform.command.application.dto;
+
+import com.orderplatform.domain.Money;
+import com.orderplatform.domain.OrderItem;
+import com.orderplatform.domain.OrderStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record OrderStateResponse(
+        UUID orderId,
+        UUID customerId,
+        OrderStatus status,
+        List<OrderItem> items,
+        Money totalAmount,
+        String currency,
+        Long version,
+        Instant createdAt,
+        Instant updatedAt
+) {
+}
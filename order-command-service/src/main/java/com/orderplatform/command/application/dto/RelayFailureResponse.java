@@ -0,0 +1,15 @@
+package com.orderplatform.command.application.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record RelayFailureResponse(
+        String shardId,
+        String relayName,
+        UUID eventId,
+        long globalPosition,
+        String errorMessage,
+        Instant failedAt,
+        boolean retryRequested
+) {
+}
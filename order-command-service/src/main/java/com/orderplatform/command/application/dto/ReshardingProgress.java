@@ -0,0 +1,16 @@
+package com.orderplatform.command.application.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ReshardingProgress(
+        String status,
+        List<String> shards,
+        long scannedAggregates,
+        long movedAggregates,
+        long failedAggregates,
+        Instant startedAt,
+        Instant completedAt,
+        String errorMessage
+) {
+}
@@ -0,0 +1,22 @@
+package com.orderplatform.command.application.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record SnapshotRebuildProgress(
+        UUID jobId,
+        String status,
+        int partitions,
+        int completedPartitions,
+        long estimatedAggregates,
+        long processedAggregates,
+        long failedAggregates,
+        double percentComplete,
+        double aggregatesPerSecond,
+        long throttlePauseMillis,
+        Instant startedAt,
+        Instant completedAt,
+        Instant estimatedCompletion,
+        String errorMessage
+) {
+}
@@ -0,0 +1,67 @@
+package com.orderplatform.command.config;
+
+import com.orderplatform.command.infrastructure.maintenance.MaintenanceDataSources;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Creates the bounded, read-only pools that bulk reads use instead of the primary pool.
+ */
+@Configuration
+@EnableConfigurationProperties(MaintenanceProperties.class)
+@Slf4j
+public class MaintenanceDataSourceConfig {
+
+    @Bean
+    public MaintenanceDataSources maintenanceDataSources(MaintenanceProperties properties,
+                                                         ShardingProperties shardingProperties,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         MeterRegistry meterRegistry) {
+        Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+        if (shardingProperties.isEnabled() && !shardingProperties.getShards().isEmpty()) {
+            for (ShardingProperties.Shard shard : shardingProperties.getShards()) {
+                boolean hasReplica = StringUtils.hasText(shard.getReplicaUrl());
+                dataSources.put(shard.getId(), createPool(shard.getId(),
+                        hasReplica ? shard.getReplicaUrl() : shard.getUrl(),
+                        shard.getUsername(), shard.getPassword(), properties, meterRegistry));
+            }
+        } else {
+            MaintenanceProperties.Replica replica = properties.getReplica();
+            boolean hasReplica = StringUtils.hasText(replica.getUrl());
+            dataSources.put(ShardingProperties.DEFAULT_SHARD_ID, createPool(ShardingProperties.DEFAULT_SHARD_ID,
+                    hasReplica ? replica.getUrl() : dataSourceProperties.determineUrl(),
+                    hasReplica && replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername(),
+                    hasReplica && replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword(),
+                    properties, meterRegistry));
+        }
+        return new MaintenanceDataSources(dataSources);
+    }
+
+    private HikariDataSource createPool(String shardId, String url, String username, String password,
+                                        MaintenanceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("maintenance-" + shardId);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        // PostgreSQL only honours the fetch size outside auto-commit
+        dataSource.setAutoCommit(false);
+        dataSource.setMaximumPoolSize(properties.getPoolSize());
+        dataSource.setMinimumIdle(0);
+        // Connect on first use so the service starts while a replica is unavailable
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setMetricRegistry(meterRegistry);
+        log.info("Bulk reads for shard {} use {}", shardId, url);
+        return dataSource;
+    }
+}
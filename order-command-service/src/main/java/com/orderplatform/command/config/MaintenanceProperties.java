@@ -0,0 +1,45 @@
+package com.orderplatform.command.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Resources reserved for background work such as snapshot rebuilds, replays and resharding,
+ * kept apart from the pool that serves live commands.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.maintenance")
+public class MaintenanceProperties {
+
+    /**
+     * Size of the read-only pool used for bulk reads, per shard.
+     */
+    private int poolSize = 4;
+
+    /**
+     * Replicas lagging further behind than this are bypassed and bulk reads go to the primary.
+     */
+    private long maxReplicaLagMs = 10000;
+
+    /**
+     * Event rows background jobs may read or write per second on this instance.
+     */
+    private int rowsPerSecond = 5000;
+
+    /**
+     * Connections of the primary pool background jobs may hold at the same time.
+     */
+    private int maxPrimaryConnections = 2;
+
+    /**
+     * Read replica used when sharding is disabled. Without a URL bulk reads use the primary database.
+     */
+    private Replica replica = new Replica();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
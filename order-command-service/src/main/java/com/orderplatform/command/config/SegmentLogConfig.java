@@ -0,0 +1,32 @@
+package com.orderplatform.command.config;
+
+import com.orderplatform.command.infrastructure.segmentlog.SegmentLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opens the embedded segment log when {@code app.event-store.backend=segment-log}. The log lives on
+ * local disk, so it cannot be combined with a sharded event store.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "segment-log")
+@EnableConfigurationProperties(SegmentLogProperties.class)
+@Slf4j
+public class SegmentLogConfig {
+
+    @Bean(destroyMethod = "close")
+    public SegmentLog eventSegmentLog(SegmentLogProperties properties, ShardingProperties shardingProperties) {
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalStateException("The segment-log event store cannot be used with app.sharding.enabled");
+        }
+        long segmentSize = properties.getSegmentSize().toBytes();
+        if (segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("app.event-store.segment-log.segment-size must be below 2GB");
+        }
+        log.info("Opening segment log event store in {}", properties.getDirectory().toAbsolutePath());
+        return SegmentLog.open(properties.getDirectory().resolve("events"), (int) segmentSize, properties.getFsyncInterval());
+    }
+}
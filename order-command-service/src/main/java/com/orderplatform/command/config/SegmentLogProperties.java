@@ -0,0 +1,34 @@
+package com.orderplatform.command.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Embedded event store used when {@code app.event-store.backend=segment-log}: events in an append-only
+ * log of memory-mapped segment files and snapshots in files next to it, instead of PostgreSQL.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.event-store.segment-log")
+public class SegmentLogProperties {
+
+    /**
+     * Directory holding the {@code events} segments and the {@code snapshots} files.
+     */
+    private Path directory = Path.of("data", "event-log");
+
+    /**
+     * Size of each segment file; a new segment is started when the next event no longer fits.
+     * Fixed once the log has segments: the log refuses to open segment files of another size.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * How long the flusher waits for further appends before forcing the log to disk. Zero forces
+     * right away and still shares each fsync among the appends that arrived while the previous one ran.
+     */
+    private Duration fsyncInterval = Duration.ofMillis(2);
+}
@@ -0,0 +1,81 @@
+package com.orderplatform.command.config;
+
+import com.orderplatform.command.infrastructure.sharding.ShardDataSources;
+import com.orderplatform.command.infrastructure.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the event store across several PostgreSQL databases when {@code app.sharding.enabled=true}.
+ * Every shard gets its own Hikari pool and the full set of Flyway migrations; the primary
+ * {@link DataSource} routes each transaction to the shard bound in
+ * {@link com.orderplatform.command.infrastructure.sharding.ShardContext}.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+    public ShardDataSources shardDataSources(ShardingProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.enabled is set but no app.sharding.shards are configured");
+        }
+
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + shard.getId());
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSource.setMinimumIdle(shard.getMinimumIdle());
+            // Publishes hikaricp.* metrics tagged with pool=shard-<id>
+            dataSource.setMetricRegistry(meterRegistry);
+            dataSources.put(shard.getId(), dataSource);
+        }
+        log.info("Configured {} event store shards: {}", dataSources.size(), dataSources.keySet());
+        return new ShardDataSources(dataSources);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(new LinkedHashMap<>(shardDataSources.dataSources()));
+        routingDataSource.setDefaultTargetDataSource(shardDataSources.dataSources().values().iterator().next());
+        routingDataSource.afterPropertiesSet();
+
+        // Defers the physical connection to the first statement, after the shard has been bound
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardFlywayMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> shardDataSources.dataSources().forEach((shardId, dataSource) -> {
+            log.info("Applying migrations to shard {}", shardId);
+            Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(dataSource)
+                    .load()
+                    .migrate();
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.orderplatform.command.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event store shards. When sharding is disabled the service runs on {@code spring.datasource}
+ * as a single shard named {@value #DEFAULT_SHARD_ID}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    public static final String DEFAULT_SHARD_ID = "primary";
+
+    private boolean enabled;
+
+    /**
+     * Points per shard on the consistent-hash ring; more points give a more even spread.
+     */
+    private int virtualNodes = 128;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    public List<String> shardIds() {
+        if (!enabled || shards.isEmpty()) {
+            return List.of(DEFAULT_SHARD_ID);
+        }
+        return shards.stream().map(Shard::getId).toList();
+    }
+
+    @Data
+    public static class Shard {
+        private String id;
+        private String url;
+        /**
+         * Optional streaming replica of this shard, used for bulk reads.
+         */
+        private String replicaUrl;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+        private int minimumIdle = 5;
+    }
+}
@@ -0,0 +1,30 @@
+package com.orderplatform.command.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * Makes the JPA transaction manager the one that {@code @Transactional}, injected
+ * {@link org.springframework.transaction.PlatformTransactionManager}s and the auto-configured
+ * {@link org.springframework.transaction.support.TransactionTemplate} use.
+ * {@code spring.kafka.producer.transaction-id-prefix} also registers a {@code kafkaTransactionManager};
+ * with two candidates and neither primary, the context failed to start. The Kafka one is unused:
+ * producers run their own Kafka transactions.
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(available -> available.customize(transactionManager));
+        return transactionManager;
+    }
+}
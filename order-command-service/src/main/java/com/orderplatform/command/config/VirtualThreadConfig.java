@@ -0,0 +1,108 @@
+package com.orderplatform.command.config;
+
+import com.orderplatform.command.infrastructure.sharding.ShardDataSources;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings that only apply when the service runs request handling and scheduling on
+ * virtual threads ({@code spring.threads.virtual.enabled=true}).
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Wraps every Hikari pool so that the number of concurrent borrowers is bounded by that pool's
+     * own size: the primary pool when it is a bean, or each shard's pool when the event store is sharded.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        Duration acquireTimeout = Duration.ofMillis(
+                environment.getProperty("app.datasource.acquire-timeout-ms", Long.class, 5000L));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return limit(pool, acquireTimeout);
+                }
+                if (bean instanceof ShardDataSources shards) {
+                    Map<String, DataSource> limited = new LinkedHashMap<>();
+                    shards.dataSources().forEach((shardId, dataSource) ->
+                            limited.put(shardId, dataSource instanceof HikariDataSource pool
+                                    ? limit(pool, acquireTimeout)
+                                    : dataSource));
+                    return new ShardDataSources(limited);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static ConcurrencyLimitingDataSource limit(HikariDataSource pool, Duration acquireTimeout) {
+        return new ConcurrencyLimitingDataSource(pool, pool.getMaximumPoolSize(), acquireTimeout);
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitingDataSourceMetrics(DataSource dataSource,
+                                                            ObjectProvider<ShardDataSources> shardDataSources) {
+        return registry -> {
+            ShardDataSources shards = shardDataSources.getIfAvailable();
+            Collection<DataSource> pools = shards != null ? shards.dataSources().values() : List.of(dataSource);
+            for (DataSource pool : pools) {
+                ConcurrencyLimitingDataSource limiter = unwrapLimiter(pool);
+                if (limiter == null) {
+                    continue;
+                }
+                String poolName = poolName(limiter);
+                Gauge.builder("jdbc.connections.borrowers.active", limiter, ConcurrencyLimitingDataSource::getActiveBorrowers)
+                        .description("Threads currently holding a pooled connection")
+                        .tag("pool", poolName)
+                        .register(registry);
+                Gauge.builder("jdbc.connections.borrowers.waiting", limiter, ConcurrencyLimitingDataSource::getWaitingBorrowers)
+                        .description("Threads queued for a connection permit")
+                        .tag("pool", poolName)
+                        .register(registry);
+                Gauge.builder("jdbc.connections.borrowers.max", limiter, ConcurrencyLimitingDataSource::getMaxConcurrency)
+                        .description("Maximum number of concurrent connection borrowers")
+                        .tag("pool", poolName)
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * The Hikari pool name, matching the {@code pool} tag of the {@code hikaricp.*} metrics.
+     */
+    private static String poolName(ConcurrencyLimitingDataSource limiter) {
+        String poolName = limiter.getTargetDataSource() instanceof HikariDataSource pool ? pool.getPoolName() : null;
+        return poolName != null ? poolName : "default";
+    }
+
+    private static ConcurrencyLimitingDataSource unwrapLimiter(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class)
+                    ? dataSource.unwrap(ConcurrencyLimitingDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
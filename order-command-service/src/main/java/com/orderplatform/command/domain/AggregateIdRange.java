@@ -0,0 +1,50 @@
+package com.orderplatform.command.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Inclusive range of aggregate IDs, ordered the way PostgreSQL orders UUIDs
+ * (unsigned, most significant bits first).
+ */
+public record AggregateIdRange(UUID lowerBound, UUID upperBound) {
+
+    public static final UUID MIN_ID = new UUID(0L, 0L);
+    public static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    /**
+     * Splits the whole aggregate-id space into contiguous, non-overlapping ranges
+     * of (nearly) equal width.
+     *
+     * @param partitions Number of ranges to create
+     * @return The ranges, ordered by lower bound
+     */
+    public static List<AggregateIdRange> partition(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+
+        List<AggregateIdRange> ranges = new ArrayList<>(partitions);
+        long step = Long.divideUnsigned(-1L, partitions);
+        for (int i = 0; i < partitions; i++) {
+            long lowerMsb = step * i;
+            long upperMsb = i == partitions - 1 ? -1L : step * (i + 1) - 1;
+            ranges.add(new AggregateIdRange(new UUID(lowerMsb, 0L), new UUID(upperMsb, -1L)));
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the ID immediately following the given one, or empty if it is the largest possible ID.
+     */
+    public static Optional<UUID> successor(UUID id) {
+        if (id.equals(MAX_ID)) {
+            return Optional.empty();
+        }
+        long lsb = id.getLeastSignificantBits() + 1;
+        long msb = lsb == 0 ? id.getMostSignificantBits() + 1 : id.getMostSignificantBits();
+        return Optional.of(new UUID(msb, lsb));
+    }
+}
@@ -1,15 +1,21 @@
 package com.orderplatform.command.domain;
 
+import com.orderplatform.command.jfr.AggregateLoadEvent;
+import com.orderplatform.command.jfr.EventAppendEvent;
 import com.orderplatform.domain.Order;
 import com.orderplatform.domain.events.DomainEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.LongFunction;
 
 @Component
 @RequiredArgsConstructor
@@ -18,21 +24,73 @@ public class AggregateLoader {
 
     private final EventStoreRepository eventStoreRepository;
     private final SnapshotRepository snapshotRepository;
+    // Absent for event store backends that never archive
+    private final ObjectProvider<EventArchiveRepository> eventArchiveRepository;
+    private final CommandStageMetrics stageMetrics;
 
     @Value("${app.snapshot.interval:50}")
     private int snapshotInterval;
 
     /**
      * Loads an Order aggregate by replaying events from the event store.
-     * Uses snapshots for optimization when available.
+     * Uses snapshots for optimization when available, and reads archived events when the snapshot
+     * they were folded into is missing.
      *
      * @param aggregateId The ID of the aggregate to load
      * @return Optional containing the loaded Order, or empty if not found
      */
     public Optional<Order> loadAggregate(UUID aggregateId) {
-        // Try to load from snapshot first
-        Optional<Order> snapshotOpt = snapshotRepository.findByAggregateId(aggregateId);
-        
+        AggregateLoadEvent loadEvent = beginLoad();
+        return replayFrom(aggregateId, loadEvent,
+                stageMetrics.time("snapshot_read", () -> snapshotRepository.findByAggregateId(aggregateId)),
+                startVersion -> eventStoreRepository.findByAggregateId(aggregateId, startVersion, Long.MAX_VALUE),
+                startVersion -> findArchived(aggregateId, startVersion, Long.MAX_VALUE));
+    }
+
+    /**
+     * Loads an Order aggregate as it was at the given version, starting from the nearest earlier snapshot.
+     * A version beyond the latest one yields the current state. Versions that were archived are read
+     * from the archive.
+     *
+     * @param aggregateId The ID of the aggregate to load
+     * @param version     The version to load the aggregate at
+     * @return Optional containing the Order at that version, or empty if it did not exist yet
+     */
+    public Optional<Order> loadAggregateAt(UUID aggregateId, long version) {
+        AggregateLoadEvent loadEvent = beginLoad();
+        return replayFrom(aggregateId, loadEvent,
+                stageMetrics.time("snapshot_read", () -> snapshotRepository.findLatestAtOrBefore(aggregateId, version)),
+                startVersion -> eventStoreRepository.findByAggregateId(aggregateId, startVersion, version),
+                startVersion -> findArchived(aggregateId, startVersion, version));
+    }
+
+    /**
+     * Loads an Order aggregate as it was at the given point in time, starting from the nearest earlier snapshot.
+     * Events that were archived are read from the archive.
+     *
+     * @param aggregateId The ID of the aggregate to load
+     * @param asOf        The point in time to load the aggregate at
+     * @return Optional containing the Order as of that time, or empty if it did not exist yet
+     */
+    public Optional<Order> loadAggregateAt(UUID aggregateId, Instant asOf) {
+        AggregateLoadEvent loadEvent = beginLoad();
+        return replayFrom(aggregateId, loadEvent,
+                stageMetrics.time("snapshot_read", () -> snapshotRepository.findLatestAsOf(aggregateId, asOf)),
+                startVersion -> eventStoreRepository.findByAggregateIdOccurredUntil(aggregateId, startVersion, asOf),
+                startVersion -> findArchived(aggregateId, startVersion, Long.MAX_VALUE).stream()
+                        .filter(event -> !event.getOccurredAt().isAfter(asOf))
+                        .toList());
+    }
+
+    private static AggregateLoadEvent beginLoad() {
+        AggregateLoadEvent loadEvent = new AggregateLoadEvent();
+        loadEvent.begin();
+        return loadEvent;
+    }
+
+    private Optional<Order> replayFrom(UUID aggregateId, AggregateLoadEvent loadEvent, Optional<Order> snapshotOpt,
+                                       LongFunction<List<DomainEvent>> eventsFrom,
+                                       LongFunction<List<DomainEvent>> archivedEventsFrom) {
         Order order;
         long startVersion;
         
@@ -46,13 +104,27 @@ public class AggregateLoader {
             log.debug("No snapshot found for aggregate {}, starting from scratch", aggregateId);
         }
 
-        // Load events after the snapshot
-        List<DomainEvent> events = eventStoreRepository.findByAggregateId(aggregateId);
-        
-        // Filter events that come after the snapshot
-        List<DomainEvent> eventsToReplay = events.stream()
-                .filter(e -> e.getVersion() >= startVersion)
-                .toList();
+        // Load only the events after the snapshot
+        List<DomainEvent> eventsToReplay = stageMetrics.time("event_fetch", () -> eventsFrom.apply(startVersion));
+        int archivedEvents = 0;
+
+        // Hot events starting past the snapshot, or none at all without one, mean the events in
+        // between were moved to the archive
+        boolean gap = eventsToReplay.isEmpty()
+                ? snapshotOpt.isEmpty()
+                : eventsToReplay.get(0).getVersion() > startVersion;
+        if (gap) {
+            long firstHotVersion = eventsToReplay.isEmpty() ? Long.MAX_VALUE : eventsToReplay.get(0).getVersion();
+            List<DomainEvent> combined = new ArrayList<>(stageMetrics.time("archive_fetch",
+                    () -> archivedEventsFrom.apply(startVersion)).stream()
+                    .filter(event -> event.getVersion() < firstHotVersion)
+                    .toList());
+            log.debug("Read {} archived events for aggregate {} from version {}",
+                    combined.size(), aggregateId, startVersion);
+            archivedEvents = combined.size();
+            combined.addAll(eventsToReplay);
+            eventsToReplay = combined;
+        }
 
         if (eventsToReplay.isEmpty() && snapshotOpt.isEmpty()) {
             log.debug("No events found for aggregate {}", aggregateId);
@@ -60,13 +132,23 @@ public class AggregateLoader {
         }
 
         // Replay events to reconstruct state
-        for (DomainEvent event : eventsToReplay) {
-            order.apply(event);
-        }
+        List<DomainEvent> replayed = eventsToReplay;
+        stageMetrics.time("replay", () -> replayed.forEach(order::apply));
+        stageMetrics.recordLoad(replayed.size(), snapshotOpt.map(Order::getUpdatedAt).orElse(null));
 
         log.debug("Loaded aggregate {} with {} events replayed, final version: {}", 
                 aggregateId, eventsToReplay.size(), order.getVersion());
 
+        if (loadEvent.shouldCommit()) {
+            loadEvent.aggregateId = aggregateId.toString();
+            loadEvent.commandType = stageMetrics.currentCommand();
+            loadEvent.snapshotVersion = startVersion - 1;
+            loadEvent.eventsReplayed = replayed.size();
+            loadEvent.archivedEventsReplayed = archivedEvents;
+            loadEvent.version = order.getVersion();
+            loadEvent.commit();
+        }
+
         return Optional.of(order);
     }
 
@@ -77,15 +159,33 @@ public class AggregateLoader {
      * @param order The current state of the aggregate
      */
     public void saveEventAndSnapshot(DomainEvent event, Order order) {
+        EventAppendEvent appendEvent = new EventAppendEvent();
+        appendEvent.begin();
+
         // Append event to event store
-        eventStoreRepository.append(event);
+        stageMetrics.time("append", () -> eventStoreRepository.append(event));
 
         // Create snapshot if interval is reached
-        if (shouldCreateSnapshot(order.getVersion())) {
-            snapshotRepository.save(order.getOrderId(), order);
+        boolean snapshotDue = shouldCreateSnapshot(order.getVersion());
+        if (snapshotDue) {
+            stageMetrics.time("snapshot_write", () -> snapshotRepository.save(order.getOrderId(), order));
             log.info("Created snapshot for aggregate {} at version {}", 
                     order.getOrderId(), order.getVersion());
         }
+
+        if (appendEvent.shouldCommit()) {
+            appendEvent.aggregateId = order.getOrderId().toString();
+            appendEvent.commandType = stageMetrics.currentCommand();
+            appendEvent.eventType = event.getEventType();
+            appendEvent.version = event.getVersion();
+            appendEvent.snapshotWritten = snapshotDue;
+            appendEvent.commit();
+        }
+    }
+
+    private List<DomainEvent> findArchived(UUID aggregateId, long fromVersion, long toVersion) {
+        EventArchiveRepository archive = eventArchiveRepository.getIfAvailable();
+        return archive != null ? archive.findByAggregateId(aggregateId, fromVersion, toVersion) : List.of();
     }
 
     /**
@@ -103,19 +203,24 @@ public class AggregateLoader {
      * Used for maintenance and recovery operations.
      *
      * @param aggregateId The ID of the aggregate to rebuild snapshots for
+     * @return The number of events replayed
      */
-    public void rebuildSnapshots(UUID aggregateId) {
+    public int rebuildSnapshots(UUID aggregateId) {
         log.info("Rebuilding snapshots for aggregate {}", aggregateId);
         
-        // Delete existing snapshot
+        // Delete existing snapshots
         snapshotRepository.deleteByAggregateId(aggregateId);
 
-        // Load all events
-        List<DomainEvent> events = eventStoreRepository.findByAggregateId(aggregateId);
+        // Load all events, starting with those moved to the archive
+        Optional<Long> archivedVersion = Optional.ofNullable(eventArchiveRepository.getIfAvailable())
+                .flatMap(archive -> archive.findArchivedVersion(aggregateId));
+        List<DomainEvent> events = new ArrayList<>();
+        archivedVersion.ifPresent(version -> events.addAll(findArchived(aggregateId, 1, version)));
+        events.addAll(eventStoreRepository.findByAggregateId(aggregateId));
         
         if (events.isEmpty()) {
             log.warn("No events found for aggregate {}", aggregateId);
-            return;
+            return 0;
         }
 
         // Replay events and create snapshots at intervals
@@ -123,7 +228,8 @@ public class AggregateLoader {
         for (DomainEvent event : events) {
             order.apply(event);
             
-            if (shouldCreateSnapshot(order.getVersion())) {
+            // An archived aggregate must keep its final snapshot, since the hot store has no events before it
+            if (shouldCreateSnapshot(order.getVersion()) || archivedVersion.equals(Optional.of(order.getVersion()))) {
                 snapshotRepository.save(aggregateId, order);
                 log.debug("Created snapshot at version {}", order.getVersion());
             }
@@ -131,5 +237,6 @@ public class AggregateLoader {
 
         log.info("Completed rebuilding snapshots for aggregate {}, final version: {}", 
                 aggregateId, order.getVersion());
+        return events.size();
     }
 }
@@ -0,0 +1,103 @@
+package com.orderplatform.command.domain;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Latency of the stages a command goes through, from the idempotency lookup to the commit, as
+ * {@code commands.stage.duration{command,stage}} with percentile histograms.
+ * <p>
+ * The command being handled is bound to the thread for the duration of the command, so stages
+ * recorded further down, in {@link AggregateLoader}, carry its type. Loads outside a command,
+ * such as history queries or snapshot rebuilds, are tagged {@code none}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CommandStageMetrics {
+
+    public static final String NO_COMMAND = "none";
+
+    private static final ThreadLocal<String> CURRENT_COMMAND = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Runs the work with the given command type bound to the current thread.
+     */
+    public <T> T callAs(String commandType, Supplier<T> work) {
+        String previous = CURRENT_COMMAND.get();
+        CURRENT_COMMAND.set(commandType);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_COMMAND.remove();
+            } else {
+                CURRENT_COMMAND.set(previous);
+            }
+        }
+    }
+
+    /**
+     * The command type bound to the current thread, or {@link #NO_COMMAND}.
+     */
+    public String currentCommand() {
+        String commandType = CURRENT_COMMAND.get();
+        return commandType != null ? commandType : NO_COMMAND;
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        return stageTimer(currentCommand(), stage).record(work);
+    }
+
+    public void time(String stage, Runnable work) {
+        stageTimer(currentCommand(), stage).record(work);
+    }
+
+    /**
+     * Records a stage measured by the caller, for stages that end after the command has returned.
+     */
+    public void record(String commandType, String stage, long elapsedNanos) {
+        stageTimer(commandType, stage).record(Duration.ofNanos(elapsedNanos));
+    }
+
+    /**
+     * Records how much work a load took: the events replayed on top of the snapshot, and how old
+     * the snapshot was. Loads without a snapshot only count their events.
+     */
+    public void recordLoad(int eventsReplayed, Instant snapshotTakenAt) {
+        String commandType = currentCommand();
+        DistributionSummary.builder("aggregate.load.events.replayed")
+                .description("Events replayed on top of the snapshot per aggregate load")
+                .baseUnit("events")
+                .tag("command", commandType)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(eventsReplayed);
+        if (snapshotTakenAt != null) {
+            DistributionSummary.builder("aggregate.load.snapshot.age")
+                    .description("Age of the snapshot an aggregate load started from")
+                    .baseUnit("seconds")
+                    .tag("command", commandType)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Math.max(0, Duration.between(snapshotTakenAt, Instant.now()).toMillis() / 1000.0));
+        }
+    }
+
+    private Timer stageTimer(String commandType, String stage) {
+        return Timer.builder("commands.stage.duration")
+                .description("Time spent in each stage of handling a command")
+                .tag("command", commandType)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.orderplatform.command.domain;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Thrown when an event cannot be appended because another writer has already appended
+ * an event to the aggregate after the version the command was decided on.
+ */
+@Getter
+public class ConcurrencyConflictException extends RuntimeException {
+
+    private final UUID aggregateId;
+    private final long expectedVersion;
+
+    public ConcurrencyConflictException(UUID aggregateId, long expectedVersion) {
+        super(String.format("Aggregate %s has been modified after version %d", aggregateId, expectedVersion));
+        this.aggregateId = aggregateId;
+        this.expectedVersion = expectedVersion;
+    }
+}
@@ -0,0 +1,35 @@
+package com.orderplatform.command.domain;
+
+import com.orderplatform.domain.events.DomainEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cold tier of the event store. Events of orders that reached a terminal status long ago are moved
+ * here; the hot store keeps the final snapshot and a tombstone recording the last archived version.
+ */
+public interface EventArchiveRepository {
+
+    /**
+     * Returns the last version of the aggregate that was moved to the archive, if any.
+     */
+    Optional<Long> findArchivedVersion(UUID aggregateId);
+
+    /**
+     * Reads an aggregate's archived events with versions in an inclusive range, in version order.
+     */
+    List<DomainEvent> findByAggregateId(UUID aggregateId, long fromVersion, long toVersion);
+
+    /**
+     * Reads archived events of every aggregate that occurred at or after the given time, in occurrence order.
+     */
+    List<DomainEvent> findOccurredSince(Instant fromTime);
+
+    /**
+     * Reads archived events of every aggregate that occurred in an inclusive time range, in occurrence order.
+     */
+    List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime);
+}
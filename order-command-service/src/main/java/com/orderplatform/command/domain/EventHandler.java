@@ -0,0 +1,12 @@
+package com.orderplatform.command.domain;
+
+/**
+ * Handles events delivered by a catch-up subscription.
+ * Events are delivered in store order and at least once; a handler that throws receives the
+ * same event again after a backoff.
+ */
+@FunctionalInterface
+public interface EventHandler {
+
+    void handle(RecordedEvent event) throws Exception;
+}
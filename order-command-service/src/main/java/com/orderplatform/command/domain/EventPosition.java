@@ -0,0 +1,20 @@
+package com.orderplatform.command.domain;
+
+/**
+ * Position of an event in the global order of the event store.
+ * Events are ordered by the transaction that wrote them first and their global position second,
+ * which is the order in which they become safely readable.
+ */
+public record EventPosition(long transactionId, long globalPosition) implements Comparable<EventPosition> {
+
+    /**
+     * Position before the first event in the store.
+     */
+    public static final EventPosition START = new EventPosition(0, 0);
+
+    @Override
+    public int compareTo(EventPosition other) {
+        int byTransaction = Long.compare(transactionId, other.transactionId);
+        return byTransaction != 0 ? byTransaction : Long.compare(globalPosition, other.globalPosition);
+    }
+}
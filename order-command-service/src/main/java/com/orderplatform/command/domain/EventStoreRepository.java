@@ -8,11 +8,83 @@ import java.util.UUID;
 
 public interface EventStoreRepository {
 
+    /**
+     * Appends an event whose version directly follows the aggregate's current version.
+     *
+     * @throws ConcurrencyConflictException if another event has been appended to the aggregate since,
+     *                                      in which case the surrounding transaction remains usable
+     */
     void append(DomainEvent event);
 
     List<DomainEvent> findByAggregateId(UUID aggregateId);
 
-    List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime);
+    /**
+     * Reads an aggregate's events with versions in an inclusive range, in version order.
+     */
+    List<DomainEvent> findByAggregateId(UUID aggregateId, long fromVersion, long toVersion);
 
-    List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime);
+    /**
+     * Reads an aggregate's events from a version on that occurred at or before the given time, in version order.
+     */
+    List<DomainEvent> findByAggregateIdOccurredUntil(UUID aggregateId, long fromVersion, Instant occurredAt);
+
+    /**
+     * Returns the version of the aggregate's latest event, including events moved to the archive,
+     * or 0 if the aggregate has no events. Much cheaper than loading the aggregate.
+     */
+    long findCurrentVersion(UUID aggregateId);
+
+    default List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime) {
+        return findAllOrderByOccurredAt(fromTime, false);
+    }
+
+    /**
+     * Reads events of every aggregate that occurred at or after the given time, in occurrence order.
+     *
+     * @param includeArchived Whether to merge in events moved to the archive tier
+     */
+    List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime, boolean includeArchived);
+
+    default List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime) {
+        return findByOccurredAtBetween(fromTime, toTime, false);
+    }
+
+    /**
+     * Reads events of every aggregate that occurred in an inclusive time range, in occurrence order.
+     *
+     * @param includeArchived Whether to merge in events moved to the archive tier
+     */
+    List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime, boolean includeArchived);
+
+    /**
+     * Lists distinct aggregate IDs within an inclusive ID range, in ascending order.
+     * Used to enumerate aggregates for bulk maintenance operations.
+     */
+    List<UUID> findAggregateIds(UUID fromInclusive, UUID toInclusive, int limit);
+
+    long countAggregates();
+
+    /**
+     * Reads committed events after a position, in store order. Events of transactions that may still
+     * be in flight are withheld, so no event can later appear before the last one returned.
+     * Positions are local to a shard; this reads the shard bound to the current thread.
+     */
+    List<RecordedEvent> readCommittedAfter(EventPosition after, int limit);
+
+    /**
+     * Returns the position of the most recently appended event, or {@link EventPosition#START} if the store is empty.
+     * Reads the shard bound to the current thread.
+     */
+    EventPosition headPosition();
+
+    /**
+     * Starts a catch-up subscription. The subscription replays history in batches from the subscriber's
+     * persisted checkpoint, or from {@code fromPosition} for a new subscriber, then keeps tailing new events.
+     *
+     * @param subscriberName Unique name under which the checkpoint is stored
+     * @param fromPosition   Position to start after when the subscriber has no checkpoint yet
+     * @param handler        Handler invoked for every event
+     * @return The running subscription
+     */
+    EventSubscription subscribe(String subscriberName, EventPosition fromPosition, EventHandler handler);
 }
@@ -0,0 +1,29 @@
+package com.orderplatform.command.domain;
+
+import java.util.Map;
+
+/**
+ * A running catch-up subscription.
+ */
+public interface EventSubscription extends AutoCloseable {
+
+    String name();
+
+    /**
+     * Position of the last event handled by this subscription on this instance, per event store shard.
+     * Positions of different shards are unrelated.
+     */
+    Map<String, EventPosition> positions();
+
+    /**
+     * Whether the subscription has caught up with the head of the event store.
+     */
+    boolean isLive();
+
+    /**
+     * Stops delivering events. The persisted checkpoint is kept, so subscribing again
+     * under the same name resumes where this subscription stopped.
+     */
+    @Override
+    void close();
+}
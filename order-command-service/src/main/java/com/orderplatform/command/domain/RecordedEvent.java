@@ -0,0 +1,9 @@
+package com.orderplatform.command.domain;
+
+import com.orderplatform.domain.events.DomainEvent;
+
+/**
+ * A committed event together with its position in the event store.
+ */
+public record RecordedEvent(DomainEvent event, EventPosition position) {
+}
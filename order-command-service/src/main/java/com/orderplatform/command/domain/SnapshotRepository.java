@@ -2,14 +2,35 @@ package com.orderplatform.command.domain;
 
 import com.orderplatform.domain.Order;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface SnapshotRepository {
 
+    /**
+     * Stores a snapshot of the aggregate at its current version and thins the aggregate's
+     * older snapshots to the configured history.
+     */
     void save(UUID aggregateId, Order order);
 
+    /**
+     * Returns the most recent snapshot of the aggregate.
+     */
     Optional<Order> findByAggregateId(UUID aggregateId);
 
+    /**
+     * Returns the newest snapshot taken at or before the given version.
+     */
+    Optional<Order> findLatestAtOrBefore(UUID aggregateId, long version);
+
+    /**
+     * Returns the newest snapshot whose last event occurred at or before the given time.
+     */
+    Optional<Order> findLatestAsOf(UUID aggregateId, Instant asOf);
+
+    /**
+     * Deletes every snapshot of the aggregate.
+     */
     void deleteByAggregateId(UUID aggregateId);
 }
@@ -0,0 +1,28 @@
+package com.orderplatform.command.infrastructure;
+
+import com.orderplatform.domain.events.*;
+
+/**
+ * Maps the event type names stored with events to their classes. Both the short names and
+ * the class names written by earlier versions are accepted.
+ */
+public final class DomainEventTypes {
+
+    private DomainEventTypes() {
+    }
+
+    public static Class<? extends DomainEvent> classOf(String eventType) {
+        return switch (eventType) {
+            case "OrderCreated", "OrderCreatedEvent" -> OrderCreatedEvent.class;
+            case "OrderApproved", "OrderApprovedEvent" -> OrderApprovedEvent.class;
+            case "OrderRejected", "OrderRejectedEvent" -> OrderRejectedEvent.class;
+            case "OrderCanceled", "OrderCanceledEvent" -> OrderCanceledEvent.class;
+            case "OrderShipped", "OrderShippedEvent" -> OrderShippedEvent.class;
+            case "ItemAdded", "ItemAddedEvent" -> ItemAddedEvent.class;
+            case "ItemRemoved", "ItemRemovedEvent" -> ItemRemovedEvent.class;
+            case "ItemsAdded", "ItemsAddedEvent" -> ItemsAddedEvent.class;
+            case "ItemsRemoved", "ItemsRemovedEvent" -> ItemsRemovedEvent.class;
+            default -> throw new IllegalArgumentException("Unknown event type: " + eventType);
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.orderplatform.command.infrastructure;
+
+import com.orderplatform.command.domain.EventArchiveRepository;
+import com.orderplatform.command.infrastructure.archive.EventArchiveSegments;
+import com.orderplatform.command.infrastructure.maintenance.MaintenanceThrottle;
+import com.orderplatform.command.infrastructure.persistence.ArchivedAggregateEntity;
+import com.orderplatform.command.infrastructure.persistence.ArchivedAggregateJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentEntity;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.KWayMerge;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.domain.events.DomainEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reads archived event streams from {@code event_archive_segments}. Segments are decompressed on
+ * every read; archived streams are rarely asked for, so nothing is cached.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class EventArchiveRepositoryImpl implements EventArchiveRepository {
+
+    private static final Comparator<DomainEvent> BY_OCCURRED_AT = Comparator.comparing(DomainEvent::getOccurredAt);
+
+    private final EventArchiveSegmentJpaRepository segmentRepository;
+    private final ArchivedAggregateJpaRepository archivedAggregateRepository;
+    private final EventArchiveSegments segments;
+    private final ShardRouter shardRouter;
+    private final MaintenanceThrottle maintenanceThrottle;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public Optional<Long> findArchivedVersion(UUID aggregateId) {
+        return ShardContext.callOn(shardRouter.shardFor(aggregateId),
+                () -> archivedAggregateRepository.findById(aggregateId))
+                .map(ArchivedAggregateEntity::getArchivedVersion);
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateId(UUID aggregateId, long fromVersion, long toVersion) {
+        List<EventArchiveSegmentEntity> found = timed("load", () -> ShardContext.callOn(shardRouter.shardFor(aggregateId),
+                () -> segmentRepository.findOverlappingVersions(aggregateId, fromVersion, toVersion)));
+        List<DomainEvent> events = decode(found,
+                event -> event.getVersion() >= fromVersion && event.getVersion() <= toVersion);
+        log.debug("Read {} archived events of aggregate {} from {} segments", events.size(), aggregateId, found.size());
+        return events;
+    }
+
+    @Override
+    public List<DomainEvent> findOccurredSince(Instant fromTime) {
+        return readOnEveryShard(() -> segmentRepository.findOccurredSince(fromTime),
+                event -> !event.getOccurredAt().isBefore(fromTime));
+    }
+
+    @Override
+    public List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime) {
+        return readOnEveryShard(() -> segmentRepository.findOverlappingTimes(fromTime, toTime),
+                event -> !event.getOccurredAt().isBefore(fromTime) && !event.getOccurredAt().isAfter(toTime));
+    }
+
+    /**
+     * Reads matching segments shard by shard as throttled background work and merges their events by time.
+     */
+    private List<DomainEvent> readOnEveryShard(Supplier<List<EventArchiveSegmentEntity>> query,
+                                               Predicate<DomainEvent> filter) {
+        List<List<DomainEvent>> perShard = new ArrayList<>(shardRouter.shardIds().size());
+        for (String shardId : shardRouter.shardIds()) {
+            List<EventArchiveSegmentEntity> found = timed("replay",
+                    () -> maintenanceThrottle.onPrimary(() -> ShardContext.callOn(shardId, query::get)));
+            List<DomainEvent> events = new ArrayList<>(decode(found, filter));
+            events.sort(BY_OCCURRED_AT);
+            maintenanceThrottle.acquireRows(events.size());
+            perShard.add(events);
+        }
+        return KWayMerge.merge(perShard, BY_OCCURRED_AT);
+    }
+
+    private List<DomainEvent> decode(List<EventArchiveSegmentEntity> found, Predicate<DomainEvent> filter) {
+        return found.stream()
+                .flatMap(segment -> segments.decode(segment).stream())
+                .map(segments::toDomainEvent)
+                .filter(filter)
+                .toList();
+    }
+
+    private <T> T timed(String operation, Supplier<T> work) {
+        return Timer.builder("event.archive.reads")
+                .description("Reads of archived event segments")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(work);
+    }
+}
@@ -1,27 +1,71 @@
 package com.orderplatform.command.infrastructure;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.domain.EventArchiveRepository;
+import com.orderplatform.command.domain.EventHandler;
+import com.orderplatform.command.domain.EventPosition;
 import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.command.domain.EventSubscription;
+import com.orderplatform.command.domain.RecordedEvent;
+import com.orderplatform.command.infrastructure.compression.EventPayloadCodec;
+import com.orderplatform.command.infrastructure.compression.EventPayloadCodec.EncodedPayload;
 import com.orderplatform.command.infrastructure.persistence.EventEntity;
 import com.orderplatform.command.infrastructure.persistence.EventJpaRepository;
-import com.orderplatform.domain.events.*;
+import com.orderplatform.command.infrastructure.maintenance.BulkEventReader;
+import com.orderplatform.command.infrastructure.maintenance.MaintenanceThrottle;
+import com.orderplatform.command.infrastructure.maintenance.ReplicaLagMonitor;
+import com.orderplatform.command.infrastructure.sharding.KWayMerge;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.infrastructure.subscription.CatchUpSubscriptionManager;
+import com.orderplatform.command.infrastructure.subscription.EventsAppendedEvent;
+import com.orderplatform.command.infrastructure.tracing.EventOrigin;
+import com.orderplatform.domain.events.DomainEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.orderplatform.command.infrastructure.UuidOrdering.UNSIGNED_UUID_ORDER;
+
 @Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "jpa", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class EventStoreRepositoryImpl implements EventStoreRepository {
 
+    private static final Comparator<EventEntity> BY_OCCURRED_AT = Comparator.comparing(EventEntity::getOccurredAt);
+
     private final EventJpaRepository jpaRepository;
     private final ObjectMapper objectMapper;
+    private final CatchUpSubscriptionManager subscriptionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+    private final BulkEventReader bulkEventReader;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final MaintenanceThrottle maintenanceThrottle;
+    private final EventPayloadCodec payloadCodec;
+    private final EventArchiveRepository eventArchiveRepository;
+    private final EventOrigin eventOrigin;
 
     @Override
     public void append(DomainEvent event) {
@@ -31,51 +75,193 @@ public class EventStoreRepositoryImpl implements EventStoreRepository {
                 .eventType(event.getEventType())
                 .version(event.getVersion())
                 .payload(objectMapper.convertValue(event, Map.class))
-                .metadata(Map.of())
+                .metadata(eventOrigin.traceContext())
                 .occurredAt(event.getOccurredAt())
-                .traceId(null) // TODO: Extract from MDC or OpenTelemetry context
-                .actor(null) // TODO: Extract from security context
+                .traceId(eventOrigin.traceId())
+                .actor(eventOrigin.actor())
                 .build();
 
-        jpaRepository.save(entity);
+        EncodedPayload payload = payloadCodec.encode(
+                entity.getEventType(), toJson(entity.getPayload()).getBytes(StandardCharsets.UTF_8));
+
+        String shardId = shardRouter.shardFor(event.getAggregateId());
+        long expectedVersion = event.getVersion() - 1;
+        List<Long> inserted = timed("append", shardId, () -> jpaRepository.appendIfAtVersion(
+                entity.getEventId(),
+                entity.getAggregateId(),
+                entity.getEventType(),
+                entity.getVersion(),
+                payload.codec(),
+                payload.data(),
+                toJson(entity.getMetadata()),
+                entity.getOccurredAt(),
+                entity.getTraceId(),
+                entity.getActor(),
+                expectedVersion));
+        if (inserted.isEmpty()) {
+            Counter.builder("event.store.append.conflicts")
+                    .description("Appends rejected because the aggregate had moved past the expected version")
+                    .tag("shard", shardId)
+                    .register(meterRegistry)
+                    .increment();
+            throw new ConcurrencyConflictException(event.getAggregateId(), expectedVersion);
+        }
+        eventPublisher.publishEvent(new EventsAppendedEvent(event.getAggregateId()));
         log.debug("Appended event {} for aggregate {} at version {}", 
                 event.getEventType(), event.getAggregateId(), event.getVersion());
     }
 
     @Override
     public List<DomainEvent> findByAggregateId(UUID aggregateId) {
-        List<EventEntity> entities = jpaRepository.findByAggregateIdOrderByVersionAsc(aggregateId);
+        String shardId = shardRouter.shardFor(aggregateId);
+        List<EventEntity> entities = timed("load", shardId,
+                () -> jpaRepository.findByAggregateIdOrderByVersionAsc(aggregateId));
         return entities.stream()
                 .map(this::toDomainEvent)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime) {
-        List<EventEntity> entities = jpaRepository.findAllOrderByOccurredAt(fromTime);
+    public List<DomainEvent> findByAggregateId(UUID aggregateId, long fromVersion, long toVersion) {
+        String shardId = shardRouter.shardFor(aggregateId);
+        List<EventEntity> entities = timed("load", shardId,
+                () -> jpaRepository.findByAggregateIdAndVersionBetweenOrderByVersionAsc(aggregateId, fromVersion, toVersion));
         return entities.stream()
                 .map(this::toDomainEvent)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime) {
-        List<EventEntity> entities = jpaRepository.findByOccurredAtBetween(fromTime, toTime);
+    public List<DomainEvent> findByAggregateIdOccurredUntil(UUID aggregateId, long fromVersion, Instant occurredAt) {
+        String shardId = shardRouter.shardFor(aggregateId);
+        List<EventEntity> entities = timed("load", shardId,
+                () -> jpaRepository.findByAggregateIdAndVersionGreaterThanEqualAndOccurredAtLessThanEqualOrderByVersionAsc(
+                        aggregateId, fromVersion, occurredAt));
         return entities.stream()
                 .map(this::toDomainEvent)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long findCurrentVersion(UUID aggregateId) {
+        String shardId = shardRouter.shardFor(aggregateId);
+        return timed("version", shardId, () -> jpaRepository.findCurrentVersion(aggregateId));
+    }
+
+    @Override
+    public List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime, boolean includeArchived) {
+        List<EventEntity> entities = KWayMerge.merge(bulkReadOnEveryShard("replay",
+                shardId -> bulkEventReader.findOccurredSince(shardId, fromTime),
+                () -> jpaRepository.findAllOrderByOccurredAt(fromTime)), BY_OCCURRED_AT);
+        return withArchived(entities, includeArchived, () -> eventArchiveRepository.findOccurredSince(fromTime));
+    }
+
+    @Override
+    public List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime, boolean includeArchived) {
+        List<EventEntity> entities = KWayMerge.merge(bulkReadOnEveryShard("replay",
+                shardId -> bulkEventReader.findOccurredBetween(shardId, fromTime, toTime),
+                () -> jpaRepository.findByOccurredAtBetween(fromTime, toTime)), BY_OCCURRED_AT);
+        return withArchived(entities, includeArchived,
+                () -> eventArchiveRepository.findByOccurredAtBetween(fromTime, toTime));
+    }
+
+    @Override
+    public List<UUID> findAggregateIds(UUID fromInclusive, UUID toInclusive, int limit) {
+        return KWayMerge.merge(bulkReadOnEveryShard("scan",
+                shardId -> bulkEventReader.findAggregateIds(shardId, fromInclusive, toInclusive, limit),
+                () -> jpaRepository.findAggregateIdsBetween(fromInclusive, toInclusive, PageRequest.of(0, limit))),
+                UNSIGNED_UUID_ORDER, limit);
+    }
+
+    @Override
+    public long countAggregates() {
+        long total = 0;
+        for (String shardId : shardRouter.shardIds()) {
+            total += replicaLagMonitor.isReplicaUsable(shardId)
+                    ? timed("count", shardId, "replica", () -> bulkEventReader.countAggregates(shardId))
+                    : timed("count", shardId, "primary",
+                            () -> maintenanceThrottle.onPrimary(jpaRepository::countDistinctAggregateIds));
+        }
+        return total;
+    }
+
+    @Override
+    public List<RecordedEvent> readCommittedAfter(EventPosition after, int limit) {
+        return jpaRepository.findCommittedAfter(after.transactionId(), after.globalPosition(), limit).stream()
+                .map(entity -> new RecordedEvent(toDomainEvent(entity), positionOf(entity)))
+                .toList();
+    }
+
+    @Override
+    public EventPosition headPosition() {
+        return jpaRepository.findTopByOrderByGlobalPositionDesc()
+                .map(this::positionOf)
+                .orElse(EventPosition.START);
+    }
+
+    @Override
+    public EventSubscription subscribe(String subscriberName, EventPosition fromPosition, EventHandler handler) {
+        return subscriptionManager.start(subscriberName, fromPosition, handler, this::readCommittedAfter);
+    }
+
+    /**
+     * Runs a bulk query on every shard in turn, on the shard's replica unless it lags too far behind.
+     * The rows read count against the maintenance rate limit. Must not be called inside a transaction.
+     */
+    private <T> List<List<T>> bulkReadOnEveryShard(String operation, Function<String, List<T>> replicaQuery,
+                                                   Supplier<List<T>> primaryQuery) {
+        List<List<T>> results = new ArrayList<>(shardRouter.shardIds().size());
+        for (String shardId : shardRouter.shardIds()) {
+            List<T> rows = replicaLagMonitor.isReplicaUsable(shardId)
+                    ? timed(operation, shardId, "replica", () -> replicaQuery.apply(shardId))
+                    : timed(operation, shardId, "primary", () -> maintenanceThrottle.onPrimary(primaryQuery));
+            maintenanceThrottle.acquireRows(rows.size());
+            results.add(rows);
+        }
+        return results;
+    }
+
+    /**
+     * Converts hot events sorted by time, merging in archived events from the same range when asked.
+     */
+    private List<DomainEvent> withArchived(List<EventEntity> entities, boolean includeArchived,
+                                           Supplier<List<DomainEvent>> archived) {
+        List<DomainEvent> events = entities.stream()
+                .map(this::toDomainEvent)
+                .collect(Collectors.toList());
+        if (!includeArchived) {
+            return events;
+        }
+        return KWayMerge.merge(List.of(archived.get(), events), Comparator.comparing(DomainEvent::getOccurredAt));
+    }
+
+    private <T> T timed(String operation, String shardId, Supplier<T> work) {
+        return timed(operation, shardId, "primary", work);
+    }
+
+    private <T> T timed(String operation, String shardId, String source, Supplier<T> work) {
+        return ShardContext.callOn(shardId, () -> Timer.builder("event.store.operations")
+                .description("Event store operations per shard")
+                .tag("operation", operation)
+                .tag("shard", shardId)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(work));
+    }
+
+    private String toJson(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event", e);
+        }
+    }
+
+    private EventPosition positionOf(EventEntity entity) {
+        return new EventPosition(entity.getTransactionId(), entity.getGlobalPosition());
+    }
+
     private DomainEvent toDomainEvent(EventEntity entity) {
-        return switch (entity.getEventType()) {
-            case "OrderCreated" -> objectMapper.convertValue(entity.getPayload(), OrderCreatedEvent.class);
-            case "OrderApproved" -> objectMapper.convertValue(entity.getPayload(), OrderApprovedEvent.class);
-            case "OrderRejected" -> objectMapper.convertValue(entity.getPayload(), OrderRejectedEvent.class);
-            case "OrderCanceled" -> objectMapper.convertValue(entity.getPayload(), OrderCanceledEvent.class);
-            case "OrderShipped" -> objectMapper.convertValue(entity.getPayload(), OrderShippedEvent.class);
-            case "ItemAdded" -> objectMapper.convertValue(entity.getPayload(), ItemAddedEvent.class);
-            case "ItemRemoved" -> objectMapper.convertValue(entity.getPayload(), ItemRemovedEvent.class);
-            default -> throw new IllegalArgumentException("Unknown event type: " + entity.getEventType());
-        };
+        return payloadCodec.readPayload(entity, DomainEventTypes.classOf(entity.getEventType()));
     }
 }
@@ -4,23 +4,46 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orderplatform.command.domain.SnapshotRepository;
 import com.orderplatform.command.infrastructure.persistence.SnapshotEntity;
 import com.orderplatform.command.infrastructure.persistence.SnapshotJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
 import com.orderplatform.domain.Order;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+/**
+ * Keeps a bounded history of snapshots per aggregate: the newest {@code app.snapshot.history.keep-recent}
+ * snapshots are always kept, older ones are thinned to one every {@code app.snapshot.history.stride}
+ * versions, and at most {@code app.snapshot.history.max-snapshots} are retained.
+ */
 @Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "jpa", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class SnapshotRepositoryImpl implements SnapshotRepository {
 
     private final SnapshotJpaRepository jpaRepository;
     private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.snapshot.history.keep-recent:3}")
+    private int keepRecent;
+
+    @Value("${app.snapshot.history.stride:500}")
+    private long stride;
+
+    @Value("${app.snapshot.history.max-snapshots:20}")
+    private int maxSnapshots;
 
     @Override
     public void save(UUID aggregateId, Order order) {
@@ -31,26 +54,50 @@ public class SnapshotRepositoryImpl implements SnapshotRepository {
                 .aggregateType("Order")
                 .version(order.getVersion())
                 .state(state)
+                .asOf(order.getUpdatedAt() != null ? order.getUpdatedAt() : Instant.now())
                 .createdAt(Instant.now())
                 .build();
 
-        jpaRepository.save(entity);
-        log.debug("Saved snapshot for aggregate {} at version {}", aggregateId, order.getVersion());
+        int thinned = ShardContext.callOn(shardRouter.shardFor(aggregateId),
+                () -> transactionTemplate.execute(status -> {
+                    jpaRepository.save(entity);
+                    jpaRepository.flush();
+                    return jpaRepository.thin(aggregateId, keepRecent, stride, maxSnapshots);
+                }));
+        log.debug("Saved snapshot for aggregate {} at version {}, thinned {} older snapshots",
+                aggregateId, order.getVersion(), thinned);
     }
 
     @Override
     public Optional<Order> findByAggregateId(UUID aggregateId) {
-        return jpaRepository.findById(aggregateId)
+        return load(aggregateId, () -> jpaRepository.findTopByAggregateIdOrderByVersionDesc(aggregateId));
+    }
+
+    @Override
+    public Optional<Order> findLatestAtOrBefore(UUID aggregateId, long version) {
+        return load(aggregateId, () ->
+                jpaRepository.findTopByAggregateIdAndVersionLessThanEqualOrderByVersionDesc(aggregateId, version));
+    }
+
+    @Override
+    public Optional<Order> findLatestAsOf(UUID aggregateId, Instant asOf) {
+        return load(aggregateId, () ->
+                jpaRepository.findTopByAggregateIdAndAsOfLessThanEqualOrderByVersionDesc(aggregateId, asOf));
+    }
+
+    @Override
+    public void deleteByAggregateId(UUID aggregateId) {
+        ShardContext.runOn(shardRouter.shardFor(aggregateId),
+                () -> transactionTemplate.executeWithoutResult(status -> jpaRepository.deleteByAggregateId(aggregateId)));
+        log.debug("Deleted snapshots for aggregate {}", aggregateId);
+    }
+
+    private Optional<Order> load(UUID aggregateId, Supplier<Optional<SnapshotEntity>> query) {
+        return ShardContext.callOn(shardRouter.shardFor(aggregateId), query)
                 .map(entity -> {
                     Order order = objectMapper.convertValue(entity.getState(), Order.class);
                     log.debug("Loaded snapshot for aggregate {} at version {}", aggregateId, order.getVersion());
                     return order;
                 });
     }
-
-    @Override
-    public void deleteByAggregateId(UUID aggregateId) {
-        jpaRepository.deleteById(aggregateId);
-        log.debug("Deleted snapshot for aggregate {}", aggregateId);
-    }
 }
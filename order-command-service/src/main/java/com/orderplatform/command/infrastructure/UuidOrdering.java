@@ -0,0 +1,21 @@
+package com.orderplatform.command.infrastructure;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * UUID orderings shared by the event store backends.
+ */
+public final class UuidOrdering {
+
+    /**
+     * The order PostgreSQL uses for UUIDs: by their unsigned bytes, unlike {@link UUID#compareTo}.
+     * Every backend and the cross-shard merge use it, so aggregate ID range scans agree.
+     */
+    public static final Comparator<UUID> UNSIGNED_UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private UuidOrdering() {
+    }
+}
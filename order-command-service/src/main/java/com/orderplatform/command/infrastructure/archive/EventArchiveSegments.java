@@ -0,0 +1,117 @@
+package com.orderplatform.command.infrastructure.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.infrastructure.DomainEventTypes;
+import com.orderplatform.command.infrastructure.compression.EventPayloadCodec;
+import com.orderplatform.command.infrastructure.persistence.EventArchiveSegmentEntity;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import com.orderplatform.domain.events.DomainEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes archive segments: the aggregate's event rows as a JSON array, compressed with the same
+ * LZ4 framing as large event payloads. Every column of the hot row is kept, so an archived stream
+ * can be restored exactly.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventArchiveSegments {
+
+    private static final TypeReference<List<ArchivedEvent>> EVENT_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final EventPayloadCodec payloadCodec;
+
+    /**
+     * Builds a segment from consecutive events of one aggregate, in version order.
+     */
+    public EventArchiveSegmentEntity encode(UUID aggregateId, List<EventEntity> events) {
+        List<ArchivedEvent> archived = events.stream()
+                .map(this::toArchivedEvent)
+                .toList();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(archived);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode archive segment of aggregate " + aggregateId, e);
+        }
+
+        EventEntity first = events.get(0);
+        EventEntity last = events.get(events.size() - 1);
+        return EventArchiveSegmentEntity.builder()
+                .aggregateId(aggregateId)
+                .firstVersion(first.getVersion())
+                .lastVersion(last.getVersion())
+                .firstOccurredAt(first.getOccurredAt())
+                .lastOccurredAt(last.getOccurredAt())
+                .eventCount(events.size())
+                .codec(EventPayloadCodec.LZ4)
+                .originalBytes(json.length)
+                .data(payloadCodec.compressBlock(json))
+                .archivedAt(Instant.now())
+                .build();
+    }
+
+    public List<ArchivedEvent> decode(EventArchiveSegmentEntity segment) {
+        if (!EventPayloadCodec.LZ4.equals(segment.getCodec())) {
+            throw new IllegalArgumentException("Unknown codec " + segment.getCodec() + " of archive segment "
+                    + segment.getAggregateId() + "/" + segment.getFirstVersion());
+        }
+        try {
+            return objectMapper.readValue(payloadCodec.decompressBlock(segment.getData()), EVENT_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid archive segment " + segment.getAggregateId() + "/"
+                    + segment.getFirstVersion(), e);
+        }
+    }
+
+    public DomainEvent toDomainEvent(ArchivedEvent event) {
+        try {
+            return objectMapper.treeToValue(event.payload(), DomainEventTypes.classOf(event.eventType()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid payload of archived event " + event.eventId(), e);
+        }
+    }
+
+    private ArchivedEvent toArchivedEvent(EventEntity event) {
+        try {
+            return new ArchivedEvent(
+                    event.getEventId(),
+                    event.getEventType(),
+                    event.getVersion(),
+                    objectMapper.readTree(payloadCodec.payloadJson(event)),
+                    event.getMetadata(),
+                    event.getOccurredAt(),
+                    event.getTraceId(),
+                    event.getActor(),
+                    event.getGlobalPosition());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid payload of event " + event.getEventId(), e);
+        }
+    }
+
+    /**
+     * An event row as stored in an archive segment.
+     */
+    public record ArchivedEvent(UUID eventId,
+                                String eventType,
+                                long version,
+                                JsonNode payload,
+                                Map<String, Object> metadata,
+                                Instant occurredAt,
+                                String traceId,
+                                String actor,
+                                Long globalPosition) {
+    }
+}
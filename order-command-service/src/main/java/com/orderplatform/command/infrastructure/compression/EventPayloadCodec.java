@@ -0,0 +1,161 @@
+package com.orderplatform.command.infrastructure.compression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes event payloads for the {@code events} table. Payloads of at least
+ * {@code app.event-store.compression.threshold-bytes} are LZ4-compressed into {@code payload_compressed}
+ * when that saves at least {@code min-savings}; everything else stays JSONB in {@code payload}.
+ * The {@code payload_codec} column records which, so readers decode transparently.
+ * <p>
+ * Per event type it records payload sizes before and after encoding, the compression ratio and the
+ * time spent compressing and decompressing.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventPayloadCodec {
+
+    public static final String JSON = "json";
+    public static final String LZ4 = "lz4";
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4_FACTORY.fastDecompressor();
+
+    @Value("${app.event-store.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.event-store.compression.threshold-bytes:1024}")
+    private int thresholdBytes;
+
+    @Value("${app.event-store.compression.min-savings:0.2}")
+    private double minSavings;
+
+    /**
+     * Encodes a JSON payload for storage.
+     */
+    public EncodedPayload encode(String eventType, byte[] json) {
+        payloadBytes(eventType, "original").increment(json.length);
+        if (!enabled || json.length < thresholdBytes) {
+            payloadBytes(eventType, "stored").increment(json.length);
+            return new EncodedPayload(JSON, json);
+        }
+
+        byte[] compressed = codecTimer(eventType, "compress").record(() -> compress(json));
+        if (compressed.length > json.length * (1 - minSavings)) {
+            payloadBytes(eventType, "stored").increment(json.length);
+            return new EncodedPayload(JSON, json);
+        }
+
+        payloadBytes(eventType, "stored").increment(compressed.length);
+        DistributionSummary.builder("event.payload.compression.ratio")
+                .description("Original size divided by compressed size of compressed event payloads")
+                .tag("event_type", eventType)
+                .register(meterRegistry)
+                .record(json.length / (double) compressed.length);
+        return new EncodedPayload(LZ4, compressed);
+    }
+
+    /**
+     * Returns the payload of a stored event as JSON, decompressing it if needed.
+     */
+    public String payloadJson(EventEntity event) {
+        if (JSON.equals(codecOf(event))) {
+            try {
+                return objectMapper.writeValueAsString(event.getPayload());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to serialize payload of event " + event.getEventId(), e);
+            }
+        }
+        return new String(decode(event), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the payload of a stored event as the given type, decompressing it if needed.
+     */
+    public <T> T readPayload(EventEntity event, Class<T> type) {
+        if (JSON.equals(codecOf(event))) {
+            return objectMapper.convertValue(event.getPayload(), type);
+        }
+        try {
+            return objectMapper.readValue(decode(event), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid payload of event " + event.getEventId(), e);
+        }
+    }
+
+    /**
+     * Compresses arbitrary data into the same form as compressed payloads. Used for archive segments.
+     */
+    public byte[] compressBlock(byte[] data) {
+        return compress(data);
+    }
+
+    public byte[] decompressBlock(byte[] block) {
+        int originalLength = ByteBuffer.wrap(block).getInt();
+        return decompressor.decompress(block, Integer.BYTES, originalLength);
+    }
+
+    private byte[] decode(EventEntity event) {
+        String codec = codecOf(event);
+        if (!LZ4.equals(codec)) {
+            throw new IllegalArgumentException("Unknown payload codec " + codec + " of event " + event.getEventId());
+        }
+        byte[] stored = event.getPayloadCompressed();
+        return codecTimer(event.getEventType(), "decompress").record(() -> decompressBlock(stored));
+    }
+
+    /**
+     * Compressed form: the original length as a 4-byte big-endian int followed by an LZ4 block.
+     */
+    private byte[] compress(byte[] json) {
+        byte[] target = new byte[Integer.BYTES + compressor.maxCompressedLength(json.length)];
+        ByteBuffer.wrap(target).putInt(json.length);
+        int length = compressor.compress(json, 0, json.length, target, Integer.BYTES);
+        return Arrays.copyOf(target, Integer.BYTES + length);
+    }
+
+    private static String codecOf(EventEntity event) {
+        return event.getPayloadCodec() != null ? event.getPayloadCodec() : JSON;
+    }
+
+    private Counter payloadBytes(String eventType, String form) {
+        return Counter.builder("event.payload.bytes")
+                .description("Event payload bytes before (original) and after (stored) compression")
+                .tag("event_type", eventType)
+                .tag("form", form)
+                .register(meterRegistry);
+    }
+
+    private Timer codecTimer(String eventType, String operation) {
+        return Timer.builder("event.payload.compression.time")
+                .description("CPU time spent compressing and decompressing event payloads")
+                .tag("event_type", eventType)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public record EncodedPayload(String codec, byte[] data) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.orderplatform.command.infrastructure.idempotency;
+
+import com.orderplatform.command.infrastructure.persistence.CommandDeduplicationEntity;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Storage of processed idempotency keys behind {@link IdempotencyStore}. Implemented by the
+ * {@code command_deduplication} table, or in memory with the in-memory event store backend.
+ */
+public interface CommandDeduplicationRepository {
+
+    Optional<CommandDeduplicationEntity> findById(String idempotencyKey);
+
+    /**
+     * Records a processed key unless it has already been recorded. A record written by a concurrent
+     * transaction that has not committed yet counts once that transaction commits.
+     *
+     * @return true if the key was recorded, false if it had already been recorded
+     */
+    boolean insertIfAbsent(String idempotencyKey, UUID aggregateId, String commandType, String response, Instant processedAt);
+
+    /**
+     * Streams the keys processed after the given time. The stream must be closed.
+     */
+    Stream<String> streamKeysProcessedSince(Instant since);
+
+    /**
+     * Deletes up to {@code batchSize} keys processed before the cutoff.
+     *
+     * @return The number of keys deleted
+     */
+    int deleteProcessedBefore(Instant cutoff, int batchSize);
+}
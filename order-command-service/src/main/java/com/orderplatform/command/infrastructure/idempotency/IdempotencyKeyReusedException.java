@@ -0,0 +1,21 @@
+package com.orderplatform.command.infrastructure.idempotency;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Thrown when an idempotency key that was already used for one command is sent with a different
+ * command or for a different order.
+ */
+@Getter
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReusedException(String idempotencyKey, String commandType, UUID aggregateId) {
+        super(String.format("Idempotency key %s was already used for %s on order %s",
+                idempotencyKey, commandType, aggregateId));
+        this.idempotencyKey = idempotencyKey;
+    }
+}
@@ -0,0 +1,317 @@
+package com.orderplatform.command.infrastructure.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.infrastructure.persistence.CommandDeduplicationEntity;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Two-level idempotency store in front of the {@code command_deduplication} table.
+ * <p>
+ * A pair of rotating Bloom filters answers "definitely new" for the vast majority of keys
+ * without touching PostgreSQL, and a bounded LRU cache keeps the serialized responses of
+ * recently processed commands. Only keys the filter reports as possibly seen and that are
+ * not cached fall through to the database. Rows older than the TTL are purged in batches.
+ * <p>
+ * The filter only knows the keys of other instances once {@link #syncRecentKeys} has run, and two
+ * concurrent requests with the same key both see it as new, so a lookup can miss a key that is
+ * already taken. {@link #record} is the authoritative check: it reports when the key was recorded
+ * first by someone else, and the caller then rolls back its work and returns the recorded response.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyStore {
+
+    private final CommandDeduplicationRepository repository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.idempotency.bloom.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${app.idempotency.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.idempotency.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final AtomicLong lastSyncEpochMillis = new AtomicLong();
+
+    private Map<String, CachedResponse> recentResponses;
+    private volatile BloomFilter currentFilter;
+    private volatile BloomFilter previousFilter;
+
+    private Counter filteredLookups;
+    private Counter cachedLookups;
+    private Counter databaseHits;
+    private Counter databaseMisses;
+
+    @PostConstruct
+    public void init() {
+        recentResponses = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        currentFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        previousFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+
+        filteredLookups = lookupCounter("filtered");
+        cachedLookups = lookupCounter("cached");
+        databaseHits = lookupCounter("database_hit");
+        databaseMisses = lookupCounter("database_miss");
+
+        Instant since = Instant.now().minus(ttl());
+        long loaded = loadKeysProcessedSince(since);
+        log.info("Loaded {} idempotency keys processed since {} into the Bloom filter", loaded, since);
+    }
+
+    /**
+     * Looks up the response previously returned for an idempotency key.
+     *
+     * @param idempotencyKey The client-supplied idempotency key
+     * @param commandType    The type of the command being executed
+     * @param aggregateId    The targeted aggregate, or null if not known yet (create commands)
+     * @param responseType   The type to deserialize the stored response into
+     * @return The stored response, or empty if the key has not been processed
+     * @throws IdempotencyKeyReusedException if the key was already used for a different command or aggregate
+     */
+    public <T> Optional<T> findResponse(String idempotencyKey, String commandType, UUID aggregateId, Class<T> responseType) {
+        if (!currentFilter.mightContain(idempotencyKey) && !previousFilter.mightContain(idempotencyKey)) {
+            filteredLookups.increment();
+            return Optional.empty();
+        }
+
+        return findRecordedResponse(idempotencyKey, commandType, aggregateId, responseType);
+    }
+
+    /**
+     * Looks up the response recorded for an idempotency key without consulting the Bloom filter,
+     * for keys that may have been recorded since the filter was last synchronized.
+     *
+     * @see #findResponse
+     */
+    public <T> Optional<T> findRecordedResponse(String idempotencyKey, String commandType, UUID aggregateId,
+                                                Class<T> responseType) {
+        CachedResponse cached = getCached(idempotencyKey);
+        if (cached != null) {
+            cachedLookups.increment();
+            verifySameCommand(idempotencyKey, cached, commandType, aggregateId);
+            return Optional.of(deserialize(cached.response(), responseType));
+        }
+
+        Optional<CommandDeduplicationEntity> stored = repository.findById(idempotencyKey);
+        if (stored.isEmpty()) {
+            databaseMisses.increment();
+            return Optional.empty();
+        }
+
+        databaseHits.increment();
+        CommandDeduplicationEntity entity = stored.get();
+        CachedResponse response = new CachedResponse(
+                entity.getAggregateId(), entity.getCommandType(), serialize(entity.getResponse()));
+        putCached(idempotencyKey, response);
+        verifySameCommand(idempotencyKey, response, commandType, aggregateId);
+        return Optional.of(deserialize(response.response(), responseType));
+    }
+
+    /**
+     * Records the response of a processed command. Must be called inside the command's transaction,
+     * so the record lands on the order's shard; the response is only cached once that transaction commits.
+     *
+     * @return false if the key had already been recorded, by another instance or a concurrent request;
+     *         the caller must then roll back its transaction and return the response found by
+     *         {@link #findResponse} instead
+     */
+    public boolean record(String idempotencyKey, UUID aggregateId, String commandType, Object response) {
+        byte[] serialized = serialize(response);
+        boolean recorded = repository.insertIfAbsent(idempotencyKey, aggregateId, commandType,
+                new String(serialized, StandardCharsets.UTF_8), Instant.now());
+        currentFilter.put(idempotencyKey);
+        if (!recorded) {
+            log.info("Idempotency key {} was recorded concurrently by another request", idempotencyKey);
+            return false;
+        }
+
+        CachedResponse cached = new CachedResponse(aggregateId, commandType, serialized);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putCached(idempotencyKey, cached);
+                }
+            });
+        } else {
+            putCached(idempotencyKey, cached);
+        }
+        log.debug("Saved deduplication record for key: {}", idempotencyKey);
+        return true;
+    }
+
+    /**
+     * Adds keys written by other instances to the local filter so they are not reported as new.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.sync-interval:5000}")
+    public void syncRecentKeys() {
+        // Overlap with the previous window to tolerate commits that were in flight during the last sync
+        Instant since = Instant.ofEpochMilli(lastSyncEpochMillis.get()).minusSeconds(30);
+        long loaded = loadKeysProcessedSince(since);
+        log.debug("Synchronized {} idempotency keys processed since {}", loaded, since);
+    }
+
+    /**
+     * Starts a fresh filter generation. Keys stay in the filters for between one and two TTLs,
+     * which keeps the false-positive rate bounded without ever forgetting a live key.
+     */
+    @Scheduled(fixedRateString = "${app.idempotency.ttl-hours:24}",
+            initialDelayString = "${app.idempotency.ttl-hours:24}",
+            timeUnit = TimeUnit.HOURS)
+    public void rotateFilters() {
+        previousFilter = currentFilter;
+        currentFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        log.info("Rotated idempotency Bloom filter generation");
+    }
+
+    /**
+     * Deletes expired deduplication rows in small batches to keep lock times and WAL bursts short.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:300000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl());
+        long total = 0;
+        for (String shardId : shardRouter.shardIds()) {
+            total += ShardContext.callOn(shardId, () -> purgeExpiredOnCurrentShard(cutoff));
+        }
+
+        if (total > 0) {
+            log.info("Purged {} deduplication records processed before {}", total, cutoff);
+        }
+    }
+
+    private long purgeExpiredOnCurrentShard(Instant cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteProcessedBefore(cutoff, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        return total;
+    }
+
+    private long loadKeysProcessedSince(Instant since) {
+        long syncStartedAt = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        long loaded = 0;
+        for (String shardId : shardRouter.shardIds()) {
+            Long loadedFromShard = ShardContext.callOn(shardId, () -> transactionTemplate.execute(status -> {
+                try (Stream<String> keys = repository.streamKeysProcessedSince(since)) {
+                    BloomFilter filter = currentFilter;
+                    return keys.mapToLong(key -> {
+                        filter.put(key);
+                        return 1;
+                    }).sum();
+                }
+            }));
+            loaded += loadedFromShard == null ? 0 : loadedFromShard;
+        }
+        lastSyncEpochMillis.set(syncStartedAt);
+        return loaded;
+    }
+
+    private void verifySameCommand(String idempotencyKey, CachedResponse stored, String commandType, UUID aggregateId) {
+        boolean sameType = stored.commandType().equals(commandType);
+        boolean sameAggregate = aggregateId == null || Objects.equals(stored.aggregateId(), aggregateId);
+        if (!sameType || !sameAggregate) {
+            throw new IdempotencyKeyReusedException(idempotencyKey, stored.commandType(), stored.aggregateId());
+        }
+    }
+
+    private CachedResponse getCached(String idempotencyKey) {
+        cacheLock.lock();
+        try {
+            return recentResponses.get(idempotencyKey);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void putCached(String idempotencyKey, CachedResponse response) {
+        cacheLock.lock();
+        try {
+            recentResponses.put(idempotencyKey, response);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private <T> T deserialize(byte[] response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize idempotent response", e);
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofHours(ttlHours);
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("idempotency.lookups")
+                .description("Idempotency key lookups by how they were resolved")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedResponse(UUID aggregateId, String commandType, byte[] response) {
+    }
+}
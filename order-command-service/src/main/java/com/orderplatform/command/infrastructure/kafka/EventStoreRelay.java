@@ -0,0 +1,428 @@
+package com.orderplatform.command.infrastructure.kafka;
+
+import com.orderplatform.command.infrastructure.compression.EventPayloadCodec;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import com.orderplatform.command.infrastructure.persistence.EventJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointEntity;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayFailureEntity;
+import com.orderplatform.command.infrastructure.persistence.EventRelayFailureJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayMemberJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.infrastructure.tracing.EventOrigin;
+import com.orderplatform.command.jfr.RelayBatchEvent;
+import com.orderplatform.events.avro.OrderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes events to Kafka by tailing the {@code events} table.
+ * Events are read in (transaction id, global position) order after a checkpoint persisted in
+ * {@code event_relay_checkpoints}; only transactions older than the oldest in-flight one are read,
+ * so events that commit late are never skipped.
+ * <p>
+ * The event stream is split into {@code app.event-relay.partitions} partitions by a hash of the
+ * aggregate ID, each with its own checkpoint. Instances lease partitions and share them evenly, so
+ * publishing scales with the number of replicas while the events of an order stay in one partition
+ * and keep their order. Each partition publishes through a producer whose transactional id names
+ * the partition, which fences a previous owner that lost its lease but is still running.
+ * <p>
+ * With a sharded event store every shard is partitioned and leased independently.
+ * <p>
+ * An event that cannot be converted for Kafka is left out of the stream, so it does not stop its
+ * partition, and recorded in {@code event_relay_failures}. Once the cause is fixed, a retry request
+ * ({@code POST /api/v1/admin/relay/failures/retry}) has the partition's owner publish it on its next
+ * poll, after any later events of the same order.
+ * <p>
+ * Each poll records the backlog of the partitions this instance owns: the events waiting, counted
+ * up to {@code app.event-relay.backlog-count-limit}, and when the oldest of them occurred. The
+ * oldest-pending age keeps growing while a partition is stuck, so it is the one to alert on.
+ */
+@Component
+@ConditionalOnProperty(name = "app.event-relay.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class EventStoreRelay {
+
+    public static final String RELAY_NAME = "kafka-order-events";
+
+    private final EventJpaRepository eventRepository;
+    private final EventRelayCheckpointJpaRepository checkpointRepository;
+    private final EventRelayMemberJpaRepository memberRepository;
+    private final EventRelayFailureJpaRepository failureRepository;
+    private final RelayProducers relayProducers;
+    private final EventPayloadCodec payloadCodec;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.kafka.topics.order-events}")
+    private String orderEventsTopic;
+
+    @Value("${app.event-relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.event-relay.partitions:8}")
+    private int partitions;
+
+    @Value("${app.event-relay.lease-duration-ms:15000}")
+    private long leaseDurationMs;
+
+    @Value("${app.instance-id}")
+    private String instanceId;
+
+    @Value("${spring.kafka.producer.transaction-id-prefix}")
+    private String transactionIdPrefix;
+
+    @Value("${app.event-relay.backlog-count-limit:100000}")
+    private int backlogCountLimit;
+
+    private final Map<String, Set<Integer>> ownedPartitions = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, PartitionBacklog>> backlogs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String shardId : shardRouter.shardIds()) {
+            // New partitions start where the single relay of earlier versions stopped
+            ShardContext.runOn(shardId, () -> {
+                for (int partition = 0; partition < partitions; partition++) {
+                    checkpointRepository.insertFromIfAbsent(partitionName(partition), RELAY_NAME);
+                }
+            });
+            ownedPartitions.put(shardId, new TreeSet<>());
+            Gauge.builder("event.relay.partitions.owned", ownedPartitions, owned -> owned.get(shardId).size())
+                    .description("Relay partitions leased by this instance")
+                    .tag("shard", shardId)
+                    .register(meterRegistry);
+
+            backlogs.put(shardId, new ConcurrentHashMap<>());
+            Gauge.builder("event.relay.backlog.pending", backlogs, all -> all.get(shardId).values().stream()
+                            .mapToLong(PartitionBacklog::pending)
+                            .sum())
+                    .description("Events waiting to be relayed in the partitions leased by this instance")
+                    .tag("shard", shardId)
+                    .register(meterRegistry);
+            Gauge.builder("event.relay.backlog.oldest.age", backlogs, all -> all.get(shardId).values().stream()
+                            .map(PartitionBacklog::oldestPending)
+                            .filter(Objects::nonNull)
+                            .min(Instant::compareTo)
+                            .map(oldest -> Duration.between(oldest, Instant.now()).toMillis() / 1000.0)
+                            .orElse(0.0))
+                    .description("Age of the oldest event waiting to be relayed in the partitions leased by this instance")
+                    .baseUnit("seconds")
+                    .tag("shard", shardId)
+                    .register(meterRegistry);
+        }
+        log.info("Relaying events as instance {} over {} partitions per shard", instanceId, partitions);
+    }
+
+    @Scheduled(fixedDelayString = "${app.event-relay.poll-interval:1000}")
+    public void relayEvents() {
+        for (String shardId : shardRouter.shardIds()) {
+            try {
+                ShardContext.runOn(shardId, () -> {
+                    Set<Integer> owned = transactionTemplate.execute(status -> rebalanceLeases(shardId));
+                    Map<Integer, List<EventRelayFailureEntity>> retries = failureRepository
+                            .findByRetryRequestedTrueOrderByGlobalPositionAsc().stream()
+                            .collect(Collectors.groupingBy(failure -> partitionOf(failure.getRelayName())));
+                    for (int partition : owned) {
+                        List<EventRelayFailureEntity> failures = retries.get(partition);
+                        if (failures != null) {
+                            transactionTemplate.executeWithoutResult(status -> relayFailures(shardId, partition, failures));
+                        }
+                        transactionTemplate.executeWithoutResult(status -> relayBatch(shardId, partition));
+                    }
+                });
+            } catch (Exception e) {
+                // A failing shard must not hold back the others; its batch is retried on the next run
+                log.error("Failed to relay events from shard {}", shardId, e);
+            }
+        }
+    }
+
+    /**
+     * Renews this instance's leases and moves towards an even share of the partitions:
+     * claims free partitions while below its share and gives partitions back while above it.
+     */
+    private Set<Integer> rebalanceLeases(String shardId) {
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plusMillis(leaseDurationMs);
+
+        memberRepository.heartbeat(instanceId);
+        memberRepository.deleteInactiveBefore(now.minusMillis(leaseDurationMs));
+        long members = Math.max(1, memberRepository.countByHeartbeatAtAfter(now.minusMillis(leaseDurationMs)));
+        int fairShare = (int) Math.ceil(partitions / (double) members);
+
+        TreeSet<Integer> owned = new TreeSet<>();
+        checkpointRepository.renewLeases(instanceId, RELAY_NAME + "/%", leaseUntil)
+                .forEach(name -> owned.add(partitionOf(name)));
+
+        if (owned.size() < fairShare) {
+            checkpointRepository.claimLeases(instanceId, RELAY_NAME + "/%", leaseUntil, fairShare - owned.size())
+                    .forEach(name -> owned.add(partitionOf(name)));
+        }
+        while (owned.size() > fairShare) {
+            int released = owned.pollLast();
+            checkpointRepository.releaseLease(partitionName(released), instanceId);
+        }
+
+        Set<Integer> previous = ownedPartitions.put(shardId, owned);
+        previous.stream()
+                .filter(partition -> !owned.contains(partition))
+                .forEach(partition -> {
+                    relayProducers.close(transactionalId(shardId, partition));
+                    backlogs.get(shardId).remove(partition);
+                    log.info("Released relay partition {} of shard {}", partition, shardId);
+                });
+        owned.stream()
+                .filter(partition -> !previous.contains(partition))
+                .forEach(partition -> log.info("Acquired relay partition {} of shard {}", partition, shardId));
+        return owned;
+    }
+
+    private void relayBatch(String shardId, int partition) {
+        long claimedAt = System.nanoTime();
+        RelayBatchEvent batchEvent = new RelayBatchEvent();
+        batchEvent.begin();
+        Optional<EventRelayCheckpointEntity> locked = checkpointRepository.lockByRelayName(partitionName(partition));
+        if (locked.isEmpty() || !instanceId.equals(locked.get().getOwnerId())) {
+            log.debug("Relay partition {} of shard {} is no longer owned by this instance", partition, shardId);
+            return;
+        }
+
+        EventRelayCheckpointEntity checkpoint = locked.get();
+        List<EventEntity> batch = eventRepository.findCommittedAfterInPartition(
+                checkpoint.getLastTransactionId(), checkpoint.getLastPosition(), partitions, partition, batchSize);
+        Map<Integer, PartitionBacklog> shardBacklog = backlogs.get(shardId);
+        if (batch.isEmpty()) {
+            shardBacklog.put(partition, PartitionBacklog.NONE);
+            return;
+        }
+
+        // Only a full batch leaves events behind, so only then is the rest of the backlog counted
+        long pending = batch.size() < batchSize ? batch.size() : eventRepository.countCommittedAfterInPartition(
+                checkpoint.getLastTransactionId(), checkpoint.getLastPosition(), partitions, partition, backlogCountLimit);
+        shardBacklog.put(partition, new PartitionBacklog(pending, batch.get(0).getOccurredAt()));
+
+        log.debug("Relaying {} events from partition {} of shard {} after position {}",
+                batch.size(), partition, shardId, checkpoint.getLastPosition());
+
+        List<RelayedEvent> relayed = new ArrayList<>(batch.size());
+        for (EventEntity event : batch) {
+            try {
+                relayed.add(new RelayedEvent(convertToAvroEvent(event), event.getMetadata()));
+            } catch (Exception e) {
+                // Conversion failures are permanent; record the event for a retry instead of blocking the stream
+                log.error("Skipping event {} at position {} that cannot be converted",
+                        event.getEventId(), event.getGlobalPosition(), e);
+                failureRepository.save(EventRelayFailureEntity.builder()
+                        .eventId(event.getEventId())
+                        .relayName(partitionName(partition))
+                        .globalPosition(event.getGlobalPosition())
+                        .errorMessage(e.toString())
+                        .failedAt(Instant.now())
+                        .build());
+                Counter.builder("event.relay.events.skipped")
+                        .description("Events left out of the relay because they cannot be converted")
+                        .tag("shard", shardId)
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+
+        // Publish the whole batch atomically; on failure the checkpoint stays put and the batch is retried
+        relayTimer("event.relay.publish.duration", "Time to send a batch to Kafka and commit its transaction", shardId)
+                .record(() -> publish(shardId, transactionalId(shardId, partition), relayed));
+        relayTimer("event.relay.batch.duration", "Time from reading a batch to its acknowledgement by Kafka", shardId)
+                .record(Duration.ofNanos(System.nanoTime() - claimedAt));
+        DistributionSummary.builder("event.relay.batch.size")
+                .description("Events published per relay batch")
+                .baseUnit("events")
+                .tag("shard", shardId)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(relayed.size());
+
+        EventEntity last = batch.get(batch.size() - 1);
+        checkpoint.setLastTransactionId(last.getTransactionId());
+        checkpoint.setLastPosition(last.getGlobalPosition());
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        if (batch.size() < batchSize) {
+            shardBacklog.put(partition, PartitionBacklog.NONE);
+        }
+
+        if (batchEvent.shouldCommit()) {
+            batchEvent.shard = shardId;
+            batchEvent.partition = partition;
+            batchEvent.eventCount = relayed.size();
+            batchEvent.skippedEvents = batch.size() - relayed.size();
+            batchEvent.payloadBytes = relayed.stream().mapToLong(event -> event.avroEvent().getPayload().length()).sum();
+            batchEvent.lastPosition = last.getGlobalPosition();
+            batchEvent.commit();
+        }
+
+        log.info("Relayed {} events from partition {} of shard {} up to position {}",
+                relayed.size(), partition, shardId, last.getGlobalPosition());
+    }
+
+    /**
+     * Publishes skipped events whose retry was requested in one Kafka transaction, and forgets them.
+     * Events that still fail keep their record with the new error and wait for another request.
+     */
+    private void relayFailures(String shardId, int partition, List<EventRelayFailureEntity> failures) {
+        Optional<EventRelayCheckpointEntity> locked = checkpointRepository.lockByRelayName(partitionName(partition));
+        if (locked.isEmpty() || !instanceId.equals(locked.get().getOwnerId())) {
+            return;
+        }
+
+        List<RelayedEvent> relayed = new ArrayList<>(failures.size());
+        for (EventRelayFailureEntity failure : failures) {
+            try {
+                EventEntity event = eventRepository.findById(failure.getEventId())
+                        .orElseThrow(() -> new IllegalStateException("Event is no longer in the events table"));
+                relayed.add(new RelayedEvent(convertToAvroEvent(event), event.getMetadata()));
+                failureRepository.delete(failure);
+            } catch (Exception e) {
+                log.error("Skipped event {} at position {} still cannot be relayed",
+                        failure.getEventId(), failure.getGlobalPosition(), e);
+                failure.setErrorMessage(e.toString());
+                failure.setFailedAt(Instant.now());
+                failure.setRetryRequested(false);
+                failureRepository.save(failure);
+            }
+        }
+
+        // On failure the records roll back with the transaction and are retried on the next poll
+        if (!relayed.isEmpty()) {
+            publish(shardId, transactionalId(shardId, partition), relayed);
+        }
+        log.info("Relayed {} of {} skipped events from partition {} of shard {}",
+                relayed.size(), failures.size(), partition, shardId);
+    }
+
+    private void publish(String shardId, String transactionalId, List<RelayedEvent> events) {
+        Producer<String, Object> producer = relayProducers.get(transactionalId);
+        try {
+            producer.beginTransaction();
+            events.forEach(event -> send(producer, event));
+            producer.commitTransaction();
+        } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+            publishFailureCounter(shardId, e).increment();
+            // The producer cannot be used any more; another instance may have taken over the partition
+            relayProducers.close(transactionalId);
+            throw e;
+        } catch (KafkaException e) {
+            publishFailureCounter(shardId, e).increment();
+            try {
+                producer.abortTransaction();
+            } catch (KafkaException abortFailure) {
+                relayProducers.close(transactionalId);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sends an event with the W3C trace context of the command that produced it, both as record
+     * headers and as the current context, so Kafka instrumentation continues the command's trace
+     * rather than the relay's.
+     */
+    private void send(Producer<String, Object> producer, RelayedEvent event) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(
+                orderEventsTopic, event.avroEvent().getAggregateId().toString(), event.avroEvent());
+        if (event.metadata() != null) {
+            for (String header : List.of(EventOrigin.TRACEPARENT, EventOrigin.TRACESTATE)) {
+                if (event.metadata().get(header) instanceof String value) {
+                    record.headers().add(header, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        try (Scope ignored = EventOrigin.extract(event.metadata()).makeCurrent()) {
+            producer.send(record);
+        }
+    }
+
+    private Timer relayTimer(String name, String description, String shardId) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("shard", shardId)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter publishFailureCounter(String shardId, KafkaException failure) {
+        return Counter.builder("event.relay.publish.failures")
+                .description("Relay batches whose Kafka transaction failed and will be retried")
+                .tag("shard", shardId)
+                .tag("exception", failure.getClass().getSimpleName())
+                .register(meterRegistry);
+    }
+
+    private String transactionalId(String shardId, int partition) {
+        return transactionIdPrefix + "relay-" + shardId + "-" + partition;
+    }
+
+    private static String partitionName(int partition) {
+        return RELAY_NAME + "/" + partition;
+    }
+
+    private static int partitionOf(String relayName) {
+        return Integer.parseInt(relayName.substring(relayName.lastIndexOf('/') + 1));
+    }
+
+    private OrderEvent convertToAvroEvent(EventEntity event) {
+        return OrderEvent.newBuilder()
+                .setEventId(event.getEventId().toString())
+                .setAggregateId(event.getAggregateId().toString())
+                .setEventType(event.getEventType())
+                .setVersion(event.getVersion())
+                .setOccurredAt(event.getOccurredAt())
+                .setActor(event.getActor())
+                .setTraceId(event.getTraceId())
+                .setPayload(payloadCodec.payloadJson(event))
+                .build();
+    }
+
+    private record RelayedEvent(OrderEvent avroEvent, Map<String, Object> metadata) {
+    }
+
+    /**
+     * What a partition had left to relay when it was last polled.
+     */
+    private record PartitionBacklog(long pending, Instant oldestPending) {
+        static final PartitionBacklog NONE = new PartitionBacklog(0, null);
+    }
+}
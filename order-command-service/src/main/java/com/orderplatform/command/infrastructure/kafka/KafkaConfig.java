@@ -24,6 +24,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.producer.transaction-id-prefix}")
     private String transactionIdPrefix;
 
+    @Value("${app.instance-id}")
+    private String instanceId;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -38,9 +41,11 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
-        configProps.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionIdPrefix + "0");
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps);
+        // Unique per instance so replicas do not fence each other; the relay uses its own per-partition ids
+        factory.setTransactionIdPrefix(transactionIdPrefix + instanceId + "-");
+        return factory;
     }
 
     @Bean
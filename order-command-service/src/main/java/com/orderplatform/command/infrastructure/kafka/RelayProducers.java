@@ -0,0 +1,66 @@
+package com.orderplatform.command.infrastructure.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transactional producers with fixed transactional ids, one per relay partition this instance owns.
+ * <p>
+ * The id names the partition, not the instance, so when a partition moves to another instance the
+ * new owner's {@code initTransactions()} fences whatever producer the previous owner still has open.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RelayProducers implements DisposableBean {
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ProducerFactory<String, Object> producerFactory;
+
+    private final Map<String, Producer<String, Object>> producers = new ConcurrentHashMap<>();
+
+    public Producer<String, Object> get(String transactionalId) {
+        return producers.computeIfAbsent(transactionalId, id -> {
+            Map<String, Object> config = new HashMap<>(producerFactory.getConfigurationProperties());
+            config.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, id);
+            config.put(ProducerConfig.CLIENT_ID_CONFIG, id);
+
+            KafkaProducer<String, Object> producer = new KafkaProducer<>(config);
+            producer.initTransactions();
+            log.info("Initialized relay producer {}", id);
+            return producer;
+        });
+    }
+
+    /**
+     * Closes the producer of a partition this instance no longer owns or whose producer was fenced.
+     */
+    public void close(String transactionalId) {
+        Producer<String, Object> producer = producers.remove(transactionalId);
+        if (producer != null) {
+            try {
+                producer.close(CLOSE_TIMEOUT);
+            } catch (Exception e) {
+                log.warn("Failed to close relay producer {}: {}", transactionalId, e.getMessage());
+            }
+            log.info("Closed relay producer {}", transactionalId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        producers.keySet().forEach(this::close);
+    }
+}
@@ -0,0 +1,251 @@
+package com.orderplatform.command.infrastructure.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Gradient-based adaptive concurrency limit for command execution.
+ * <p>
+ * The limit follows the ratio between the long-term average command latency and the latest
+ * sample: while latency stays near its baseline the limit grows by a small queue allowance, and
+ * once commits slow down (a database slowdown or a saturated connection pool) it shrinks in
+ * proportion. Requests beyond the limit are rejected immediately instead of queueing for a
+ * connection until the pool's connection timeout fires.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.commands.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.commands.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${app.commands.limiter.min-limit:4}")
+    private int minLimit;
+
+    @Value("${app.commands.limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${app.commands.limiter.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${app.commands.limiter.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${app.commands.limiter.long-window:600}")
+    private int longWindow;
+
+    @Value("${app.commands.limiter.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private Counter rejected;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        limit = initialLimit;
+
+        Gauge.builder("commands.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for commands")
+                .register(meterRegistry);
+        Gauge.builder("commands.limiter.inflight", inFlight, AtomicInteger::get)
+                .description("Commands currently executing")
+                .register(meterRegistry);
+        rejected = Counter.builder("commands.limiter.rejected")
+                .description("Commands rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+        dropped = Counter.builder("commands.limiter.dropped")
+                .description("Commands that failed on an overloaded dependency and lowered the limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a command if the number of commands in flight is below the current limit.
+     *
+     * @return A permit that must be completed exactly once, or empty if the command is rejected
+     */
+    public Optional<Permit> tryAcquire() {
+        if (!enabled) {
+            return Optional.of(new Permit(System.nanoTime(), false));
+        }
+
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return Optional.empty();
+        }
+        return Optional.of(new Permit(System.nanoTime(), true));
+    }
+
+    /**
+     * Runs a command under a permit and completes the permit from the outcome: failures on an
+     * overloaded dependency lower the limit, other failures leave it alone. The permit is completed
+     * however the command ends, so an {@link Error} cannot leak a slot.
+     *
+     * @throws ConcurrencyLimitExceededException if the command is rejected
+     */
+    public <T> T execute(Supplier<T> command) {
+        Permit permit = tryAcquire()
+                .orElseThrow(() -> new ConcurrencyLimitExceededException(getLimit(), getRetryAfter()));
+        try {
+            T result = command.get();
+            permit.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isOverload(e)) {
+                permit.onDropped();
+            }
+            throw e;
+        } finally {
+            // Does nothing if the permit was completed above
+            permit.onIgnore();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public Duration getRetryAfter() {
+        return Duration.ofSeconds(retryAfterSeconds);
+    }
+
+    /**
+     * Connection pool and statement timeouts signal an overloaded database. Optimistic and pessimistic
+     * locking failures are contention on a few rows, which a lower limit does not relieve.
+     */
+    private static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException) {
+                return false;
+            }
+            if (cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void onSample(long rttNanos, int inFlightAtStart) {
+        lock.lock();
+        try {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+                return;
+            }
+            longRttNanos += (rttNanos - longRttNanos) / longWindow;
+
+            // Let the baseline follow quickly once a slowdown is over
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            // Callers are not using the current limit, so latency says nothing about it
+            if (inFlightAtStart < limit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+            double queueSize = Math.sqrt(limit);
+            double newLimit = limit * gradient + queueSize;
+            newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onDropped() {
+        dropped.increment();
+        lock.lock();
+        try {
+            limit = Math.max(minLimit, limit * 0.9);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An admitted command. Report how it ended so the limiter can learn from its latency.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final boolean counted;
+        private boolean completed;
+
+        private Permit(long startNanos, boolean counted) {
+            this.startNanos = startNanos;
+            this.counted = counted;
+            this.inFlightAtStart = inFlight.get();
+        }
+
+        /**
+         * The command committed; its latency is a valid sample.
+         */
+        public void onSuccess() {
+            if (complete()) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+
+        /**
+         * The command failed because a dependency was overloaded, e.g. a connection pool or statement timeout.
+         */
+        public void onDropped() {
+            if (complete()) {
+                AdaptiveConcurrencyLimiter.this.onDropped();
+            }
+        }
+
+        /**
+         * The command failed for a reason unrelated to load, such as a validation error.
+         */
+        public void onIgnore() {
+            complete();
+        }
+
+        private boolean complete() {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            if (counted) {
+                inFlight.decrementAndGet();
+            }
+            return counted;
+        }
+    }
+}
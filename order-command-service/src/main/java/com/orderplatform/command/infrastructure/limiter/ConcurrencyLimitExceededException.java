@@ -0,0 +1,21 @@
+package com.orderplatform.command.infrastructure.limiter;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a command is rejected because the adaptive concurrency limit has been reached.
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final int limit;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(int limit, Duration retryAfter) {
+        super("The command service is at its concurrency limit of " + limit + "; retry later");
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+}
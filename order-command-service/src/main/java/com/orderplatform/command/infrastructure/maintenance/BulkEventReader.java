@@ -0,0 +1,104 @@
+package com.orderplatform.command.infrastructure.maintenance;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the event store through the maintenance pools, off the pool that serves live commands.
+ * Results may trail the primary by the replica's replication lag.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkEventReader {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private final MaintenanceDataSources maintenanceDataSources;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, NamedParameterJdbcTemplate> templates = new ConcurrentHashMap<>();
+
+    public List<EventEntity> findOccurredSince(String shardId, Instant fromTime) {
+        return template(shardId).query(
+                "SELECT * FROM events WHERE occurred_at >= :fromTime ORDER BY occurred_at",
+                Map.of("fromTime", Timestamp.from(fromTime)), eventMapper());
+    }
+
+    public List<EventEntity> findOccurredBetween(String shardId, Instant fromTime, Instant toTime) {
+        return template(shardId).query(
+                "SELECT * FROM events WHERE occurred_at BETWEEN :fromTime AND :toTime ORDER BY occurred_at",
+                Map.of("fromTime", Timestamp.from(fromTime), "toTime", Timestamp.from(toTime)), eventMapper());
+    }
+
+    public List<UUID> findAggregateIds(String shardId, UUID fromInclusive, UUID toInclusive, int limit) {
+        return template(shardId).queryForList(
+                "SELECT DISTINCT aggregate_id FROM events WHERE aggregate_id BETWEEN :fromId AND :toId " +
+                        "ORDER BY aggregate_id LIMIT :limit",
+                Map.of("fromId", fromInclusive, "toId", toInclusive, "limit", limit), UUID.class);
+    }
+
+    public long countAggregates(String shardId) {
+        Long count = template(shardId).getJdbcTemplate()
+                .queryForObject("SELECT COUNT(DISTINCT aggregate_id) FROM events", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private NamedParameterJdbcTemplate template(String shardId) {
+        return templates.computeIfAbsent(shardId, id -> {
+            var dataSource = maintenanceDataSources.dataSources().get(id);
+            if (dataSource == null) {
+                throw new IllegalArgumentException("No maintenance pool for shard: " + id);
+            }
+            NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(dataSource);
+            // Fetch large scans in chunks instead of one driver-side buffer
+            template.getJdbcTemplate().setFetchSize(1000);
+            return template;
+        });
+    }
+
+    private RowMapper<EventEntity> eventMapper() {
+        return (rs, rowNum) -> EventEntity.builder()
+                .eventId(rs.getObject("event_id", UUID.class))
+                .aggregateId(rs.getObject("aggregate_id", UUID.class))
+                .eventType(rs.getString("event_type"))
+                .version(rs.getLong("version"))
+                .payload(readJson(rs, "payload"))
+                .payloadCodec(rs.getString("payload_codec"))
+                .payloadCompressed(rs.getBytes("payload_compressed"))
+                .metadata(readJson(rs, "metadata"))
+                .occurredAt(rs.getTimestamp("occurred_at").toInstant())
+                .traceId(rs.getString("trace_id"))
+                .actor(rs.getString("actor"))
+                .globalPosition(rs.getLong("global_position"))
+                .transactionId(rs.getLong("transaction_id"))
+                .build();
+    }
+
+    private Map<String, Object> readJson(ResultSet rs, String column) throws SQLException {
+        String json = rs.getString(column);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, JSON_OBJECT);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Invalid JSON in column " + column, e);
+        }
+    }
+}
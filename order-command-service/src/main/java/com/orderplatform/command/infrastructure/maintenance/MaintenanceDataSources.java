@@ -0,0 +1,17 @@
+package com.orderplatform.command.infrastructure.maintenance;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.Map;
+
+/**
+ * Read-only pools for bulk reads, keyed by shard ID. Each points at the shard's replica if one is
+ * configured and at the shard's primary otherwise.
+ */
+public record MaintenanceDataSources(Map<String, HikariDataSource> dataSources) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+}
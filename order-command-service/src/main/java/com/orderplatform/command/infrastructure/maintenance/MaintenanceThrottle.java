@@ -0,0 +1,100 @@
+package com.orderplatform.command.infrastructure.maintenance;
+
+import com.orderplatform.command.config.MaintenanceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead and rate limiter for background jobs. Jobs hold at most
+ * {@code app.maintenance.max-primary-connections} connections of the primary pool at a time,
+ * and together process at most {@code app.maintenance.rows-per-second} event rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class MaintenanceThrottle {
+
+    private final MaintenanceProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Semaphore primaryConnections;
+    private Timer bulkheadWait;
+    private Timer rateLimitWait;
+    private long nextFreeNanos;
+
+    @PostConstruct
+    public void init() {
+        primaryConnections = new Semaphore(properties.getMaxPrimaryConnections(), true);
+        bulkheadWait = waitTimer("bulkhead");
+        rateLimitWait = waitTimer("rate_limit");
+    }
+
+    /**
+     * Runs background work that needs the primary database once a bulkhead slot is free.
+     */
+    public <T> T onPrimary(Supplier<T> work) {
+        long start = System.nanoTime();
+        primaryConnections.acquireUninterruptibly();
+        bulkheadWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        try {
+            return work.get();
+        } finally {
+            primaryConnections.release();
+        }
+    }
+
+    public void runOnPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Blocks until the given number of rows fits into the configured rate. Rows are paid for after
+     * they were processed, so a large batch delays the next one instead of being rejected.
+     */
+    public void acquireRows(int rows) {
+        if (rows <= 0) {
+            return;
+        }
+        long costNanos = TimeUnit.SECONDS.toNanos(rows) / properties.getRowsPerSecond();
+
+        long waitNanos;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            // No credit is banked while idle beyond one second's worth of rows
+            long startNanos = Math.max(nextFreeNanos, now - TimeUnit.SECONDS.toNanos(1));
+            nextFreeNanos = startNanos + costNanos;
+            waitNanos = Math.max(0, nextFreeNanos - now);
+        } finally {
+            lock.unlock();
+        }
+
+        if (waitNanos > 0) {
+            rateLimitWait.record(waitNanos, TimeUnit.NANOSECONDS);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Timer waitTimer(String reason) {
+        return Timer.builder("maintenance.throttle.wait")
+                .description("Time background jobs waited to protect live traffic")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.orderplatform.command.infrastructure.maintenance;
+
+import com.orderplatform.command.config.MaintenanceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks how far each bulk-read database lags behind its primary. A database that is not a
+ * replica always reports zero lag.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Zero once all received WAL has been replayed, so an idle primary does not look like lag
+    private static final String LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final long UNKNOWN = -1;
+
+    private final MaintenanceDataSources maintenanceDataSources;
+    private final MaintenanceProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        maintenanceDataSources.dataSources().keySet().forEach(shardId -> {
+            lagMillis.put(shardId, UNKNOWN);
+            Gauge.builder("event.store.replica.lag", () -> lagMillis.getOrDefault(shardId, UNKNOWN) / 1000.0)
+                    .description("Replication lag of the database used for bulk reads; negative while unknown")
+                    .baseUnit("seconds")
+                    .tag("shard", shardId)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.maintenance.lag-check-interval:5000}")
+    public void refreshLag() {
+        maintenanceDataSources.dataSources().forEach((shardId, dataSource) -> {
+            try {
+                Number lag = new JdbcTemplate(dataSource).queryForObject(LAG_QUERY, Number.class);
+                lagMillis.put(shardId, lag == null ? 0 : lag.longValue());
+            } catch (Exception e) {
+                log.warn("Failed to read replication lag for shard {}: {}", shardId, e.getMessage());
+                lagMillis.put(shardId, UNKNOWN);
+            }
+        });
+    }
+
+    /**
+     * Whether bulk reads for the shard may use its replica. Unreachable replicas and replicas
+     * lagging beyond {@code app.maintenance.max-replica-lag-ms} are bypassed.
+     */
+    public boolean isReplicaUsable(String shardId) {
+        long lag = lagMillis.getOrDefault(shardId, UNKNOWN);
+        return lag != UNKNOWN && lag <= properties.getMaxReplicaLagMs();
+    }
+}
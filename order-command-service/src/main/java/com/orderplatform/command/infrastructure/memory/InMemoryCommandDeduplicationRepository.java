@@ -0,0 +1,82 @@
+package com.orderplatform.command.infrastructure.memory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.infrastructure.idempotency.CommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.persistence.CommandDeduplicationEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Processed idempotency keys for the in-memory event store backend. Preferred over the
+ * {@code command_deduplication} table, which stays available to resharding.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "in-memory")
+@RequiredArgsConstructor
+public class InMemoryCommandDeduplicationRepository implements CommandDeduplicationRepository {
+
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CommandDeduplicationEntity> records = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<CommandDeduplicationEntity> findById(String idempotencyKey) {
+        return Optional.ofNullable(records.get(idempotencyKey));
+    }
+
+    @Override
+    public boolean insertIfAbsent(String idempotencyKey, UUID aggregateId, String commandType, String response,
+                                  Instant processedAt) {
+        CommandDeduplicationEntity entity;
+        try {
+            entity = CommandDeduplicationEntity.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .aggregateId(aggregateId)
+                    .commandType(commandType)
+                    .response(objectMapper.readValue(response, RESPONSE_TYPE))
+                    .processedAt(processedAt)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid idempotent response for key " + idempotencyKey, e);
+        }
+        return records.putIfAbsent(idempotencyKey, entity) == null;
+    }
+
+    @Override
+    public Stream<String> streamKeysProcessedSince(Instant since) {
+        return records.values().stream()
+                .filter(entity -> entity.getProcessedAt().isAfter(since))
+                .map(CommandDeduplicationEntity::getIdempotencyKey)
+                .toList()
+                .stream();
+    }
+
+    @Override
+    public int deleteProcessedBefore(Instant cutoff, int batchSize) {
+        int deleted = 0;
+        for (CommandDeduplicationEntity entity : records.values()) {
+            if (deleted == batchSize) {
+                break;
+            }
+            if (entity.getProcessedAt().isBefore(cutoff) && records.remove(entity.getIdempotencyKey(), entity)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
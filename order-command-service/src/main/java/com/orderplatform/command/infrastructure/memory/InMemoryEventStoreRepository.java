@@ -0,0 +1,248 @@
+package com.orderplatform.command.infrastructure.memory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.domain.EventHandler;
+import com.orderplatform.command.domain.EventPosition;
+import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.command.domain.EventSubscription;
+import com.orderplatform.command.domain.RecordedEvent;
+import com.orderplatform.command.infrastructure.DomainEventTypes;
+import com.orderplatform.command.infrastructure.subscription.CatchUpSubscriptionManager;
+import com.orderplatform.command.infrastructure.subscription.EventsAppendedEvent;
+import com.orderplatform.domain.events.DomainEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.orderplatform.command.infrastructure.UuidOrdering.UNSIGNED_UUID_ORDER;
+
+/**
+ * Event store held entirely in memory, for benchmarks and local profiling of the command pipeline
+ * without PostgreSQL. Nothing survives a restart.
+ * <p>
+ * Events are kept as their JSON payloads in append order, with an index of global positions by
+ * aggregate, so loads still pay for deserialization like the other backends and only the I/O is
+ * left out. Appends check the expected version under a write lock; reads share a read lock.
+ * Positions are global positions with a transaction id of 0.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryEventStoreRepository implements EventStoreRepository {
+
+    private static final String SHARD = "local";
+    private static final String SOURCE = "in-memory";
+
+    private final ObjectMapper objectMapper;
+    // Subscriptions keep their checkpoints in PostgreSQL; absent when the pipeline runs without it
+    private final ObjectProvider<CatchUpSubscriptionManager> subscriptionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<StoredEvent> eventsByPosition = new ArrayList<>();
+    private final ConcurrentSkipListMap<UUID, List<StoredEvent>> eventsByAggregate =
+            new ConcurrentSkipListMap<>(UNSIGNED_UUID_ORDER);
+
+    @Override
+    public void append(DomainEvent event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event", e);
+        }
+
+        timed("append", () -> {
+            lock.writeLock().lock();
+            try {
+                List<StoredEvent> stream = eventsByAggregate.get(event.getAggregateId());
+                long expectedVersion = event.getVersion() - 1;
+                if ((stream == null ? 0 : stream.size()) != expectedVersion) {
+                    Counter.builder("event.store.append.conflicts")
+                            .description("Appends rejected because the aggregate had moved past the expected version")
+                            .tag("shard", SHARD)
+                            .register(meterRegistry)
+                            .increment();
+                    throw new ConcurrencyConflictException(event.getAggregateId(), expectedVersion);
+                }
+
+                StoredEvent stored = new StoredEvent(eventsByPosition.size() + 1L, event.getAggregateId(),
+                        event.getVersion(), event.getOccurredAt(), event.getEventType(), payload);
+                eventsByPosition.add(stored);
+                eventsByAggregate.computeIfAbsent(event.getAggregateId(), id -> new ArrayList<>(8)).add(stored);
+                return null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+
+        eventPublisher.publishEvent(new EventsAppendedEvent(event.getAggregateId()));
+        log.debug("Appended event {} for aggregate {} at version {}",
+                event.getEventType(), event.getAggregateId(), event.getVersion());
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateId(UUID aggregateId) {
+        return findByAggregateId(aggregateId, 1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateId(UUID aggregateId, long fromVersion, long toVersion) {
+        return timed("load", () -> readAggregate(aggregateId, fromVersion, toVersion, stored -> true));
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateIdOccurredUntil(UUID aggregateId, long fromVersion, Instant occurredAt) {
+        return timed("load", () -> readAggregate(aggregateId, fromVersion, Long.MAX_VALUE,
+                stored -> !stored.occurredAt().isAfter(occurredAt)));
+    }
+
+    @Override
+    public long findCurrentVersion(UUID aggregateId) {
+        lock.readLock().lock();
+        try {
+            List<StoredEvent> stream = eventsByAggregate.get(aggregateId);
+            return stream == null ? 0 : stream.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Nothing is archived from this backend, so includeArchived makes no difference
+
+    @Override
+    public List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime, boolean includeArchived) {
+        return timed("replay", () -> scanOrderedByOccurredAt(stored -> !stored.occurredAt().isBefore(fromTime)));
+    }
+
+    @Override
+    public List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime, boolean includeArchived) {
+        return timed("replay", () -> scanOrderedByOccurredAt(stored ->
+                !stored.occurredAt().isBefore(fromTime) && !stored.occurredAt().isAfter(toTime)));
+    }
+
+    @Override
+    public List<UUID> findAggregateIds(UUID fromInclusive, UUID toInclusive, int limit) {
+        return eventsByAggregate.subMap(fromInclusive, true, toInclusive, true).keySet().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public long countAggregates() {
+        return eventsByAggregate.size();
+    }
+
+    @Override
+    public List<RecordedEvent> readCommittedAfter(EventPosition after, int limit) {
+        lock.readLock().lock();
+        try {
+            int size = eventsByPosition.size();
+            List<RecordedEvent> events = new ArrayList<>(Math.min(limit, Math.max(0, size - (int) after.globalPosition())));
+            for (long position = after.globalPosition() + 1; position <= size && events.size() < limit; position++) {
+                StoredEvent stored = eventsByPosition.get((int) position - 1);
+                events.add(new RecordedEvent(decode(stored), new EventPosition(0, position)));
+            }
+            return events;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public EventPosition headPosition() {
+        lock.readLock().lock();
+        try {
+            int size = eventsByPosition.size();
+            return size == 0 ? EventPosition.START : new EventPosition(0, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public EventSubscription subscribe(String subscriberName, EventPosition fromPosition, EventHandler handler) {
+        return subscriptionManager.getObject().start(subscriberName, fromPosition, handler, this::readCommittedAfter);
+    }
+
+    private List<DomainEvent> readAggregate(UUID aggregateId, long fromVersion, long toVersion,
+                                            Predicate<StoredEvent> filter) {
+        lock.readLock().lock();
+        try {
+            List<StoredEvent> stream = eventsByAggregate.get(aggregateId);
+            if (stream == null) {
+                return List.of();
+            }
+            long last = Math.min(toVersion, stream.size());
+            List<DomainEvent> events = new ArrayList<>((int) Math.max(0, last - fromVersion + 1));
+            for (long version = Math.max(1, fromVersion); version <= last; version++) {
+                StoredEvent stored = stream.get((int) version - 1);
+                if (filter.test(stored)) {
+                    events.add(decode(stored));
+                }
+            }
+            return events;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<DomainEvent> scanOrderedByOccurredAt(Predicate<StoredEvent> filter) {
+        List<StoredEvent> matches;
+        lock.readLock().lock();
+        try {
+            matches = eventsByPosition.stream().filter(filter).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Append order is kept for events with the same timestamp, since the sort is stable
+        return matches.stream()
+                .sorted(Comparator.comparing(StoredEvent::occurredAt))
+                .map(this::decode)
+                .toList();
+    }
+
+    private DomainEvent decode(StoredEvent stored) {
+        try {
+            return objectMapper.readValue(stored.payload(), DomainEventTypes.classOf(stored.eventType()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid event payload at position " + stored.position(), e);
+        }
+    }
+
+    private <T> T timed(String operation, Supplier<T> work) {
+        return Timer.builder("event.store.operations")
+                .description("Event store operations per shard")
+                .tag("operation", operation)
+                .tag("shard", SHARD)
+                .tag("source", SOURCE)
+                .register(meterRegistry)
+                .record(work);
+    }
+
+    private record StoredEvent(long position, UUID aggregateId, long version, Instant occurredAt,
+                               String eventType, byte[] payload) {
+    }
+}
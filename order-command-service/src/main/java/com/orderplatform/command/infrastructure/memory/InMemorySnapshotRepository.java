@@ -0,0 +1,146 @@
+package com.orderplatform.command.infrastructure.memory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.domain.SnapshotRepository;
+import com.orderplatform.domain.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Snapshots for the in-memory event store, kept as JSON per aggregate and version.
+ * <p>
+ * History is thinned with the same {@code app.snapshot.history.*} policy as the PostgreSQL backend.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemorySnapshotRepository implements SnapshotRepository {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.snapshot.history.keep-recent:3}")
+    private int keepRecent;
+
+    @Value("${app.snapshot.history.stride:500}")
+    private long stride;
+
+    @Value("${app.snapshot.history.max-snapshots:20}")
+    private int maxSnapshots;
+
+    private final Map<UUID, NavigableMap<Long, StoredSnapshot>> snapshots = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(UUID aggregateId, Order order) {
+        Instant asOf = order.getUpdatedAt() != null ? order.getUpdatedAt() : Instant.now();
+        byte[] state;
+        try {
+            state = objectMapper.writeValueAsBytes(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize snapshot of aggregate " + aggregateId, e);
+        }
+
+        snapshots.compute(aggregateId, (id, versions) -> {
+            NavigableMap<Long, StoredSnapshot> updated = versions != null ? versions : new TreeMap<>();
+            updated.put(order.getVersion(), new StoredSnapshot(asOf, state));
+            return updated;
+        });
+
+        int thinned = thin(aggregateId);
+        log.debug("Saved snapshot for aggregate {} at version {}, thinned {} older snapshots",
+                aggregateId, order.getVersion(), thinned);
+    }
+
+    @Override
+    public Optional<Order> findByAggregateId(UUID aggregateId) {
+        return findNewest(aggregateId, version -> true, asOf -> true);
+    }
+
+    @Override
+    public Optional<Order> findLatestAtOrBefore(UUID aggregateId, long version) {
+        return findNewest(aggregateId, snapshotVersion -> snapshotVersion <= version, asOf -> true);
+    }
+
+    @Override
+    public Optional<Order> findLatestAsOf(UUID aggregateId, Instant asOf) {
+        return findNewest(aggregateId, version -> true, snapshotAsOf -> !snapshotAsOf.isAfter(asOf));
+    }
+
+    @Override
+    public void deleteByAggregateId(UUID aggregateId) {
+        snapshots.remove(aggregateId);
+        log.debug("Deleted snapshots for aggregate {}", aggregateId);
+    }
+
+    private Optional<Order> findNewest(UUID aggregateId, Predicate<Long> versionFilter, Predicate<Instant> asOfFilter) {
+        List<Map.Entry<Long, StoredSnapshot>> newestFirst = new ArrayList<>();
+        snapshots.computeIfPresent(aggregateId, (id, versions) -> {
+            newestFirst.addAll(versions.descendingMap().entrySet());
+            return versions;
+        });
+        for (Map.Entry<Long, StoredSnapshot> entry : newestFirst) {
+            if (!versionFilter.test(entry.getKey()) || !asOfFilter.test(entry.getValue().asOf())) {
+                continue;
+            }
+            try {
+                Order order = objectMapper.readValue(entry.getValue().state(), Order.class);
+                log.debug("Loaded snapshot for aggregate {} at version {}", aggregateId, order.getVersion());
+                return Optional.of(order);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid snapshot of aggregate " + aggregateId, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Applies the same policy as the PostgreSQL backend: the newest {@code keepRecent} snapshots are
+     * kept, older ones are reduced to the oldest in every {@code stride} versions, and nothing beyond
+     * the newest {@code maxSnapshots} survives.
+     */
+    private int thin(UUID aggregateId) {
+        int[] deleted = {0};
+        snapshots.computeIfPresent(aggregateId, (id, versions) -> {
+            List<Long> ordered = new ArrayList<>(versions.keySet());
+            Set<Long> seenStrides = new HashSet<>();
+            Set<Long> firstInStride = new HashSet<>();
+            for (long version : ordered) {
+                if (seenStrides.add(version / stride)) {
+                    firstInStride.add(version);
+                }
+            }
+            for (int index = 0; index < ordered.size(); index++) {
+                long version = ordered.get(index);
+                int age = ordered.size() - index;
+                if (age > maxSnapshots || (age > keepRecent && !firstInStride.contains(version))) {
+                    versions.remove(version);
+                    deleted[0]++;
+                }
+            }
+            return versions;
+        });
+        return deleted[0];
+    }
+
+    private record StoredSnapshot(Instant asOf, byte[] state) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "archived_aggregates")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAggregateEntity {
+
+    @Id
+    @Column(name = "aggregate_id")
+    private UUID aggregateId;
+
+    @Column(name = "archived_version", nullable = false)
+    private Long archivedVersion;
+
+    @Column(name = "final_status", nullable = false, length = 20)
+    private String finalStatus;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+}
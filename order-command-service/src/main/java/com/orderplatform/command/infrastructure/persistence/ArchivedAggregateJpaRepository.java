@@ -0,0 +1,29 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedAggregateJpaRepository extends JpaRepository<ArchivedAggregateEntity, UUID> {
+
+    @Query("SELECT a.aggregateId FROM ArchivedAggregateEntity a WHERE a.aggregateId BETWEEN :fromId AND :toId ORDER BY a.aggregateId ASC")
+    List<UUID> findAggregateIdsBetween(@Param("fromId") UUID fromId, @Param("toId") UUID toId, Pageable pageable);
+
+    /**
+     * Takes a transaction-scoped lock on an aggregate for archival, so two instances never archive
+     * the same aggregate at once. Returns false if another transaction holds it.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext(CAST(:aggregateId AS text)))", nativeQuery = true)
+    boolean tryLockForArchival(@Param("aggregateId") UUID aggregateId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedAggregateEntity a WHERE a.aggregateId = :aggregateId")
+    int deleteByAggregateId(@Param("aggregateId") UUID aggregateId);
+}
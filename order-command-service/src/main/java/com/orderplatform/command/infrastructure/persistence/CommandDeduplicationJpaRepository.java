@@ -1,8 +1,64 @@
 package com.orderplatform.command.infrastructure.persistence;
 
+import com.orderplatform.command.infrastructure.idempotency.CommandDeduplicationRepository;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface CommandDeduplicationJpaRepository extends JpaRepository<CommandDeduplicationEntity, String> {
+public interface CommandDeduplicationJpaRepository extends JpaRepository<CommandDeduplicationEntity, String>,
+        CommandDeduplicationRepository {
+
+    @Override
+    default boolean insertIfAbsent(String idempotencyKey, UUID aggregateId, String commandType, String response,
+                                   Instant processedAt) {
+        return !insertReturningKey(idempotencyKey, aggregateId, commandType, response, processedAt).isEmpty();
+    }
+
+    /**
+     * Inserts a processed key, or nothing if it exists. A conflicting insert of an uncommitted
+     * transaction blocks until that transaction ends, so the result reflects the committed state.
+     *
+     * @return The inserted key, or an empty list if the key was already recorded
+     */
+    @Query(value = "INSERT INTO command_deduplication (idempotency_key, aggregate_id, command_type, response, processed_at) " +
+            "VALUES (:idempotencyKey, :aggregateId, :commandType, CAST(:response AS jsonb), :processedAt) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING RETURNING idempotency_key",
+            nativeQuery = true)
+    List<String> insertReturningKey(@Param("idempotencyKey") String idempotencyKey,
+                                    @Param("aggregateId") UUID aggregateId,
+                                    @Param("commandType") String commandType,
+                                    @Param("response") String response,
+                                    @Param("processedAt") Instant processedAt);
+
+    List<CommandDeduplicationEntity> findByAggregateId(UUID aggregateId);
+
+    @Modifying
+    @Query("DELETE FROM CommandDeduplicationEntity d WHERE d.aggregateId = :aggregateId")
+    int deleteByAggregateId(@Param("aggregateId") UUID aggregateId);
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.idempotencyKey FROM CommandDeduplicationEntity d WHERE d.processedAt > :since")
+    Stream<String> streamKeysProcessedSince(@Param("since") Instant since);
+
+    @Override
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM command_deduplication WHERE idempotency_key IN (" +
+            "SELECT idempotency_key FROM command_deduplication WHERE processed_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,65 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Entity
+@Table(name = "command_log")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommandLogEntity {
+
+    @Id
+    @Column(name = "command_id")
+    private UUID commandId;
+
+    @Column(name = "sequence_no", insertable = false, updatable = false)
+    private Long sequenceNo;
+
+    @Column(name = "aggregate_id")
+    private UUID aggregateId;
+
+    @Column(name = "command_type", nullable = false, length = 100)
+    private String commandType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false, columnDefinition = "jsonb")
+    private Map<String, Object> payload;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "result", columnDefinition = "jsonb")
+    private Map<String, Object> result;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "submitted_by")
+    private String submittedBy;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "trace_context", columnDefinition = "jsonb")
+    private Map<String, Object> traceContext;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
@@ -0,0 +1,46 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CommandLogJpaRepository extends JpaRepository<CommandLogEntity, UUID> {
+
+    /**
+     * Claims pending commands that are next in line for their aggregate. A command is only
+     * eligible once every earlier command for the same aggregate has finished, which keeps
+     * per-aggregate execution order across all instances. Rows locked by another claimer are skipped.
+     * Must run inside a read-write transaction.
+     */
+    @Query(value = "UPDATE command_log SET status = 'RUNNING', claimed_at = :now WHERE command_id IN (" +
+            "SELECT c.command_id FROM command_log c WHERE c.status = 'PENDING' " +
+            "AND NOT EXISTS (SELECT 1 FROM command_log p WHERE p.aggregate_id = c.aggregate_id " +
+            "AND p.status IN ('PENDING', 'RUNNING') AND p.sequence_no < c.sequence_no) " +
+            "ORDER BY c.sequence_no LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *",
+            nativeQuery = true)
+    List<CommandLogEntity> claimPending(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Returns commands whose worker died mid-execution to the queue. Execution and the status
+     * update commit atomically, so a RUNNING row never has committed side effects.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CommandLogEntity c SET c.status = 'PENDING', c.claimedAt = NULL " +
+            "WHERE c.status = 'RUNNING' AND c.claimedAt < :claimedBefore")
+    int releaseStaleClaims(@Param("claimedBefore") Instant claimedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CommandLogEntity c WHERE c.status IN ('SUCCEEDED', 'FAILED') AND c.completedAt < :completedBefore")
+    int deleteCompletedBefore(@Param("completedBefore") Instant completedBefore);
+}
@@ -0,0 +1,61 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "event_archive_segments")
+@IdClass(EventArchiveSegmentEntity.SegmentId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventArchiveSegmentEntity {
+
+    @Id
+    @Column(name = "aggregate_id")
+    private UUID aggregateId;
+
+    @Id
+    @Column(name = "first_version")
+    private Long firstVersion;
+
+    @Column(name = "last_version", nullable = false)
+    private Long lastVersion;
+
+    @Column(name = "first_occurred_at", nullable = false)
+    private Instant firstOccurredAt;
+
+    @Column(name = "last_occurred_at", nullable = false)
+    private Instant lastOccurredAt;
+
+    @Column(name = "event_count", nullable = false)
+    private Integer eventCount;
+
+    @Column(name = "codec", nullable = false, length = 16)
+    private String codec;
+
+    @Column(name = "original_bytes", nullable = false)
+    private Integer originalBytes;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SegmentId implements Serializable {
+        private UUID aggregateId;
+        private Long firstVersion;
+    }
+}
@@ -0,0 +1,42 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EventArchiveSegmentJpaRepository
+        extends JpaRepository<EventArchiveSegmentEntity, EventArchiveSegmentEntity.SegmentId> {
+
+    List<EventArchiveSegmentEntity> findByAggregateIdOrderByFirstVersionAsc(UUID aggregateId);
+
+    /**
+     * Finds the segments of an aggregate overlapping an inclusive version range.
+     */
+    @Query("SELECT s FROM EventArchiveSegmentEntity s WHERE s.aggregateId = :aggregateId " +
+            "AND s.lastVersion >= :fromVersion AND s.firstVersion <= :toVersion ORDER BY s.firstVersion ASC")
+    List<EventArchiveSegmentEntity> findOverlappingVersions(@Param("aggregateId") UUID aggregateId,
+                                                            @Param("fromVersion") long fromVersion,
+                                                            @Param("toVersion") long toVersion);
+
+    /**
+     * Finds the segments holding events that occurred in an inclusive time range.
+     */
+    @Query("SELECT s FROM EventArchiveSegmentEntity s " +
+            "WHERE s.lastOccurredAt >= :fromTime AND s.firstOccurredAt <= :toTime")
+    List<EventArchiveSegmentEntity> findOverlappingTimes(@Param("fromTime") Instant fromTime,
+                                                         @Param("toTime") Instant toTime);
+
+    @Query("SELECT s FROM EventArchiveSegmentEntity s WHERE s.lastOccurredAt >= :fromTime")
+    List<EventArchiveSegmentEntity> findOccurredSince(@Param("fromTime") Instant fromTime);
+
+    @Modifying
+    @Query("DELETE FROM EventArchiveSegmentEntity s WHERE s.aggregateId = :aggregateId")
+    int deleteByAggregateId(@Param("aggregateId") UUID aggregateId);
+}
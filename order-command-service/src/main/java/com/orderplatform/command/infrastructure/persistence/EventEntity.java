@@ -34,9 +34,16 @@ public class EventEntity {
     private Long version;
 
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "payload", nullable = false, columnDefinition = "jsonb")
+    @Column(name = "payload", columnDefinition = "jsonb")
     private Map<String, Object> payload;
 
+    @Column(name = "payload_codec", nullable = false, length = 16)
+    @Builder.Default
+    private String payloadCodec = "json";
+
+    @Column(name = "payload_compressed")
+    private byte[] payloadCompressed;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata", columnDefinition = "jsonb")
     private Map<String, Object> metadata;
@@ -49,4 +56,10 @@ public class EventEntity {
 
     @Column(name = "actor")
     private String actor;
+
+    @Column(name = "global_position", insertable = false, updatable = false)
+    private Long globalPosition;
+
+    @Column(name = "transaction_id", insertable = false, updatable = false)
+    private Long transactionId;
 }
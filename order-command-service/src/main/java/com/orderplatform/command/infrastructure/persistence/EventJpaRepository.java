@@ -1,12 +1,15 @@
 package com.orderplatform.command.infrastructure.persistence;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -14,9 +17,144 @@ public interface EventJpaRepository extends JpaRepository<EventEntity, UUID> {
 
     List<EventEntity> findByAggregateIdOrderByVersionAsc(UUID aggregateId);
 
+    List<EventEntity> findByAggregateIdAndVersionBetweenOrderByVersionAsc(UUID aggregateId, long fromVersion, long toVersion);
+
+    List<EventEntity> findByAggregateIdAndVersionGreaterThanEqualAndOccurredAtLessThanEqualOrderByVersionAsc(
+            UUID aggregateId, long fromVersion, Instant occurredAt);
+
     @Query("SELECT e FROM EventEntity e WHERE e.occurredAt >= :fromTime ORDER BY e.occurredAt ASC")
     List<EventEntity> findAllOrderByOccurredAt(@Param("fromTime") Instant fromTime);
 
     @Query("SELECT e FROM EventEntity e WHERE e.occurredAt BETWEEN :fromTime AND :toTime ORDER BY e.occurredAt ASC")
     List<EventEntity> findByOccurredAtBetween(@Param("fromTime") Instant fromTime, @Param("toTime") Instant toTime);
+
+    @Query("SELECT DISTINCT e.aggregateId FROM EventEntity e WHERE e.aggregateId BETWEEN :fromId AND :toId ORDER BY e.aggregateId ASC")
+    List<UUID> findAggregateIdsBetween(@Param("fromId") UUID fromId, @Param("toId") UUID toId, Pageable pageable);
+
+    @Query("SELECT COUNT(DISTINCT e.aggregateId) FROM EventEntity e")
+    long countDistinctAggregateIds();
+
+    /**
+     * Same as {@link #findCommittedAfter} restricted to the aggregates hashing to one relay partition.
+     */
+    @Query(value = "SELECT * FROM events " +
+            "WHERE (transaction_id, global_position) > (:afterTransactionId, :afterPosition) " +
+            "AND transaction_id < (pg_snapshot_xmin(pg_current_snapshot())::text)::bigint " +
+            "AND (hashtext(aggregate_id::text) & 2147483647) % :partitions = :partition " +
+            "ORDER BY transaction_id, global_position LIMIT :limit",
+            nativeQuery = true)
+    List<EventEntity> findCommittedAfterInPartition(@Param("afterTransactionId") long afterTransactionId,
+                                                    @Param("afterPosition") long afterPosition,
+                                                    @Param("partitions") int partitions,
+                                                    @Param("partition") int partition,
+                                                    @Param("limit") int limit);
+
+    /**
+     * Counts the events {@link #findCommittedAfterInPartition} has yet to return, stopping at {@code limit}.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM events " +
+            "WHERE (transaction_id, global_position) > (:afterTransactionId, :afterPosition) " +
+            "AND transaction_id < (pg_snapshot_xmin(pg_current_snapshot())::text)::bigint " +
+            "AND (hashtext(aggregate_id::text) & 2147483647) % :partitions = :partition " +
+            "LIMIT :limit) pending",
+            nativeQuery = true)
+    long countCommittedAfterInPartition(@Param("afterTransactionId") long afterTransactionId,
+                                        @Param("afterPosition") long afterPosition,
+                                        @Param("partitions") int partitions,
+                                        @Param("partition") int partition,
+                                        @Param("limit") int limit);
+
+    /**
+     * Inserts an event only if the aggregate is still at {@code expectedVersion}. A concurrent writer
+     * that got there first makes the insert a no-op instead of failing the transaction, so the caller
+     * can catch up and retry. Returns the global position of the inserted event, or nothing on conflict.
+     * The payload is JSON for codec {@code json} and goes to {@code payload_compressed} otherwise.
+     * An aggregate without hot events continues from its archive tombstone, if it has one.
+     */
+    @Query(value = "INSERT INTO events (event_id, aggregate_id, event_type, version, payload, payload_codec, " +
+            "                    payload_compressed, metadata, occurred_at, trace_id, actor) " +
+            "SELECT :eventId, :aggregateId, :eventType, :version, " +
+            "       CASE WHEN :payloadCodec = 'json' THEN CAST(convert_from(:payloadData, 'UTF8') AS jsonb) END, " +
+            "       :payloadCodec, " +
+            "       CASE WHEN :payloadCodec <> 'json' THEN :payloadData END, " +
+            "       CAST(:metadata AS jsonb), :occurredAt, CAST(:traceId AS varchar), CAST(:actor AS varchar) " +
+            "WHERE COALESCE((SELECT MAX(version) FROM events WHERE aggregate_id = :aggregateId), " +
+            "               (SELECT archived_version FROM archived_aggregates WHERE aggregate_id = :aggregateId), " +
+            "               0) = :expectedVersion " +
+            "ON CONFLICT DO NOTHING " +
+            "RETURNING global_position",
+            nativeQuery = true)
+    List<Long> appendIfAtVersion(@Param("eventId") UUID eventId,
+                                 @Param("aggregateId") UUID aggregateId,
+                                 @Param("eventType") String eventType,
+                                 @Param("version") long version,
+                                 @Param("payloadCodec") String payloadCodec,
+                                 @Param("payloadData") byte[] payloadData,
+                                 @Param("metadata") String metadata,
+                                 @Param("occurredAt") Instant occurredAt,
+                                 @Param("traceId") String traceId,
+                                 @Param("actor") String actor,
+                                 @Param("expectedVersion") long expectedVersion);
+
+    Optional<EventEntity> findTopByOrderByGlobalPositionDesc();
+
+    @Query("SELECT MAX(e.version) FROM EventEntity e WHERE e.aggregateId = :aggregateId")
+    Long findMaxVersion(@Param("aggregateId") UUID aggregateId);
+
+    // Same current-version expression the conditional append checks against
+    @Query(value = "SELECT COALESCE((SELECT MAX(version) FROM events WHERE aggregate_id = :aggregateId), " +
+            "                (SELECT archived_version FROM archived_aggregates WHERE aggregate_id = :aggregateId), " +
+            "                0)",
+            nativeQuery = true)
+    long findCurrentVersion(@Param("aggregateId") UUID aggregateId);
+
+    @Modifying
+    @Query("DELETE FROM EventEntity e WHERE e.aggregateId = :aggregateId")
+    int deleteByAggregateId(@Param("aggregateId") UUID aggregateId);
+
+    @Modifying
+    @Query("DELETE FROM EventEntity e WHERE e.aggregateId = :aggregateId AND e.version <= :upToVersion")
+    int deleteByAggregateIdUpToVersion(@Param("aggregateId") UUID aggregateId, @Param("upToVersion") long upToVersion);
+
+    /**
+     * Finds aggregates whose latest event is one of the given terminal event types and occurred before
+     * the cutoff, in ascending ID order from {@code fromId}. Only aggregates whose events every relay
+     * partition has already published are returned, so archiving never hides an unpublished event.
+     */
+    @Query(value = "SELECT e.aggregate_id FROM events e " +
+            "WHERE e.event_type IN (:eventTypes) AND e.occurred_at < :cutoff AND e.aggregate_id >= :fromId " +
+            "AND NOT EXISTS (SELECT 1 FROM events later " +
+            "                WHERE later.aggregate_id = e.aggregate_id AND later.version > e.version) " +
+            "AND NOT EXISTS (SELECT 1 FROM event_relay_checkpoints c WHERE c.relay_name LIKE :relayPattern " +
+            "                AND (c.last_transaction_id, c.last_position) < (e.transaction_id, e.global_position)) " +
+            "ORDER BY e.aggregate_id LIMIT :limit",
+            nativeQuery = true)
+    List<UUID> findArchivalCandidates(@Param("eventTypes") List<String> eventTypes,
+                                      @Param("cutoff") Instant cutoff,
+                                      @Param("relayPattern") String relayPattern,
+                                      @Param("fromId") UUID fromId,
+                                      @Param("limit") int limit);
+
+    /**
+     * Moves an aggregate's events to the front of the relay order. Used for events copied from another
+     * shard, which have already been relayed and must not be published again.
+     */
+    @Modifying
+    @Query(value = "UPDATE events SET transaction_id = 0 WHERE aggregate_id = :aggregateId AND version <= :upToVersion",
+            nativeQuery = true)
+    int markAsRelayed(@Param("aggregateId") UUID aggregateId, @Param("upToVersion") long upToVersion);
+
+    /**
+     * Reads events after a relay checkpoint in (transaction, position) order. Only events written by
+     * transactions older than the oldest in-flight transaction are returned, so an event committed
+     * later can never sort before one that has already been read.
+     */
+    @Query(value = "SELECT * FROM events " +
+            "WHERE (transaction_id, global_position) > (:afterTransactionId, :afterPosition) " +
+            "AND transaction_id < (pg_snapshot_xmin(pg_current_snapshot())::text)::bigint " +
+            "ORDER BY transaction_id, global_position LIMIT :limit",
+            nativeQuery = true)
+    List<EventEntity> findCommittedAfter(@Param("afterTransactionId") long afterTransactionId,
+                                         @Param("afterPosition") long afterPosition,
+                                         @Param("limit") int limit);
 }
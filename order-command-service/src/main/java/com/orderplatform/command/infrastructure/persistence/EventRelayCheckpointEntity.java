@@ -0,0 +1,37 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "event_relay_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventRelayCheckpointEntity {
+
+    @Id
+    @Column(name = "relay_name", length = 100)
+    private String relayName;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId;
+
+    @Column(name = "last_position", nullable = false)
+    private Long lastPosition;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "owner_id")
+    private String ownerId;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+}
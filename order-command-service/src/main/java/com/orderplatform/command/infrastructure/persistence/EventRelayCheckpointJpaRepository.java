@@ -0,0 +1,86 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EventRelayCheckpointJpaRepository extends JpaRepository<EventRelayCheckpointEntity, String> {
+
+    /**
+     * Locks a relay's checkpoint for the rest of the transaction. Returns empty when another
+     * instance holds the lock, which keeps a single active relay per checkpoint.
+     */
+    @Query(value = "SELECT * FROM event_relay_checkpoints WHERE relay_name = :relayName FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<EventRelayCheckpointEntity> lockByRelayName(@Param("relayName") String relayName);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO event_relay_checkpoints (relay_name, last_transaction_id, last_position, updated_at) " +
+            "VALUES (:relayName, :lastTransactionId, :lastPosition, NOW()) ON CONFLICT (relay_name) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("relayName") String relayName,
+                       @Param("lastTransactionId") long lastTransactionId,
+                       @Param("lastPosition") long lastPosition);
+
+    /**
+     * Creates a checkpoint starting where another checkpoint currently stands, unless it already exists.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO event_relay_checkpoints (relay_name, last_transaction_id, last_position, updated_at) " +
+            "SELECT :relayName, last_transaction_id, last_position, NOW() FROM event_relay_checkpoints " +
+            "WHERE relay_name = :baseRelayName ON CONFLICT (relay_name) DO NOTHING",
+            nativeQuery = true)
+    int insertFromIfAbsent(@Param("relayName") String relayName, @Param("baseRelayName") String baseRelayName);
+
+    /**
+     * Extends the leases an instance holds and returns the checkpoints it still owns.
+     */
+    @Query(value = "UPDATE event_relay_checkpoints SET lease_expires_at = :leaseUntil " +
+            "WHERE owner_id = :ownerId AND relay_name LIKE :relayNamePattern AND lease_expires_at > NOW() " +
+            "RETURNING relay_name",
+            nativeQuery = true)
+    List<String> renewLeases(@Param("ownerId") String ownerId,
+                             @Param("relayNamePattern") String relayNamePattern,
+                             @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Leases up to {@code limit} checkpoints that are unowned or whose lease has expired.
+     */
+    @Query(value = "UPDATE event_relay_checkpoints SET owner_id = :ownerId, lease_expires_at = :leaseUntil " +
+            "WHERE relay_name IN (SELECT relay_name FROM event_relay_checkpoints " +
+            "WHERE relay_name LIKE :relayNamePattern AND (owner_id IS NULL OR lease_expires_at <= NOW()) " +
+            "ORDER BY relay_name LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING relay_name",
+            nativeQuery = true)
+    List<String> claimLeases(@Param("ownerId") String ownerId,
+                             @Param("relayNamePattern") String relayNamePattern,
+                             @Param("leaseUntil") Instant leaseUntil,
+                             @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE event_relay_checkpoints SET owner_id = NULL, lease_expires_at = NULL " +
+            "WHERE relay_name = :relayName AND owner_id = :ownerId",
+            nativeQuery = true)
+    int releaseLease(@Param("relayName") String relayName, @Param("ownerId") String ownerId);
+
+    /**
+     * Moves checkpoints that have not yet passed an aggregate's events marked as relayed beyond them.
+     */
+    @Modifying
+    @Query(value = "UPDATE event_relay_checkpoints SET last_position = GREATEST(last_position, " +
+            "(SELECT MAX(global_position) FROM events WHERE aggregate_id = :aggregateId AND transaction_id = 0)), " +
+            "updated_at = NOW() WHERE last_transaction_id = 0",
+            nativeQuery = true)
+    int skipRelayedEvents(@Param("aggregateId") UUID aggregateId);
+}
@@ -0,0 +1,38 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "event_relay_failures")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventRelayFailureEntity {
+
+    @Id
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Column(name = "relay_name", nullable = false, length = 100)
+    private String relayName;
+
+    @Column(name = "global_position", nullable = false)
+    private Long globalPosition;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "failed_at", nullable = false)
+    private Instant failedAt;
+
+    @Column(name = "retry_requested", nullable = false)
+    private boolean retryRequested;
+}
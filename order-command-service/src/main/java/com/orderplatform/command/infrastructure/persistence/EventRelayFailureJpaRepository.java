@@ -0,0 +1,23 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EventRelayFailureJpaRepository extends JpaRepository<EventRelayFailureEntity, UUID> {
+
+    List<EventRelayFailureEntity> findAllByOrderByGlobalPositionAsc();
+
+    List<EventRelayFailureEntity> findByRetryRequestedTrueOrderByGlobalPositionAsc();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventRelayFailureEntity f SET f.retryRequested = true WHERE f.retryRequested = false")
+    int requestRetryOfAll();
+}
@@ -0,0 +1,25 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "event_relay_members")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventRelayMemberEntity {
+
+    @Id
+    @Column(name = "instance_id")
+    private String instanceId;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private Instant heartbeatAt;
+}
@@ -0,0 +1,25 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface EventRelayMemberJpaRepository extends JpaRepository<EventRelayMemberEntity, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO event_relay_members (instance_id, heartbeat_at) VALUES (:instanceId, NOW()) " +
+            "ON CONFLICT (instance_id) DO UPDATE SET heartbeat_at = NOW()",
+            nativeQuery = true)
+    int heartbeat(@Param("instanceId") String instanceId);
+
+    long countByHeartbeatAtAfter(Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM EventRelayMemberEntity m WHERE m.heartbeatAt < :cutoff")
+    int deleteInactiveBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,44 +0,0 @@
-package com.orderplatform.command.infrastructure.persistence;
-
-import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
-
-import java.time.Instant;
-import java.util.Map;
-import java.util.UUID;
-
-@Entity
-@Table(name = "outbox")
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class OutboxEntity {
-
-    @Id
-    private UUID id;
-
-    @Column(name = "aggregate_id", nullable = false)
-    private UUID aggregateId;
-
-    @Column(name = "event_type", nullable = false, length = 100)
-    private String eventType;
-
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "payload", nullable = false, columnDefinition = "jsonb")
-    private Map<String, Object> payload;
-
-    @Column(name = "created_at", nullable = false)
-    private Instant createdAt;
-
-    @Column(name = "published_at")
-    private Instant publishedAt;
-
-    @Column(name = "status", nullable = false, length = 20)
-    private String status;
-}
@@ -1,13 +0,0 @@
-package com.orderplatform.command.infrastructure.persistence;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import java.util.List;
-import java.util.UUID;
-
-@Repository
-public interface OutboxJpaRepository extends JpaRepository<OutboxEntity, UUID> {
-
-    List<OutboxEntity> findByStatusOrderByCreatedAtAsc(String status);
-}
@@ -8,12 +8,14 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.io.Serializable;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 
 @Entity
 @Table(name = "snapshots")
+@IdClass(SnapshotEntity.SnapshotId.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,6 +29,7 @@ public class SnapshotEntity {
     @Column(name = "aggregate_type", nullable = false, length = 100)
     private String aggregateType;
 
+    @Id
     @Column(name = "version", nullable = false)
     private Long version;
 
@@ -34,6 +37,17 @@ public class SnapshotEntity {
     @Column(name = "state", nullable = false, columnDefinition = "jsonb")
     private Map<String, Object> state;
 
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SnapshotId implements Serializable {
+        private UUID aggregateId;
+        private Long version;
+    }
 }
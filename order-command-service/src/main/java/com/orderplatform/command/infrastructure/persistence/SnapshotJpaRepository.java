@@ -1,10 +1,50 @@
 package com.orderplatform.command.infrastructure.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface SnapshotJpaRepository extends JpaRepository<SnapshotEntity, UUID> {
+public interface SnapshotJpaRepository extends JpaRepository<SnapshotEntity, SnapshotEntity.SnapshotId> {
+
+    Optional<SnapshotEntity> findTopByAggregateIdOrderByVersionDesc(UUID aggregateId);
+
+    Optional<SnapshotEntity> findTopByAggregateIdAndVersionLessThanEqualOrderByVersionDesc(UUID aggregateId, long version);
+
+    Optional<SnapshotEntity> findTopByAggregateIdAndAsOfLessThanEqualOrderByVersionDesc(UUID aggregateId, Instant asOf);
+
+    List<SnapshotEntity> findByAggregateIdOrderByVersionAsc(UUID aggregateId);
+
+    @Modifying
+    @Query("DELETE FROM SnapshotEntity s WHERE s.aggregateId = :aggregateId")
+    int deleteByAggregateId(@Param("aggregateId") UUID aggregateId);
+
+    @Modifying
+    @Query("DELETE FROM SnapshotEntity s WHERE s.aggregateId = :aggregateId AND s.version < :version")
+    int deleteByAggregateIdBeforeVersion(@Param("aggregateId") UUID aggregateId, @Param("version") long version);
+
+    /**
+     * Thins the snapshots older than the {@code keepRecent} newest ones down to the oldest snapshot
+     * in every {@code stride} versions, and drops everything beyond the newest {@code maxSnapshots}.
+     */
+    @Modifying
+    @Query(value = "WITH ranked AS (" +
+            "  SELECT version, ROW_NUMBER() OVER (ORDER BY version DESC) AS age, " +
+            "         ROW_NUMBER() OVER (PARTITION BY version / :stride ORDER BY version) AS rank_in_stride " +
+            "  FROM snapshots WHERE aggregate_id = :aggregateId) " +
+            "DELETE FROM snapshots WHERE aggregate_id = :aggregateId AND version IN (" +
+            "  SELECT version FROM ranked " +
+            "  WHERE age > :maxSnapshots OR (age > :keepRecent AND rank_in_stride > 1))",
+            nativeQuery = true)
+    int thin(@Param("aggregateId") UUID aggregateId,
+             @Param("keepRecent") int keepRecent,
+             @Param("stride") long stride,
+             @Param("maxSnapshots") int maxSnapshots);
 }
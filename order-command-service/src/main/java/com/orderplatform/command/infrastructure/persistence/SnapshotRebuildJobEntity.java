@@ -0,0 +1,53 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "snapshot_rebuild_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotRebuildJobEntity {
+
+    @Id
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "partition_count", nullable = false)
+    private Integer partitionCount;
+
+    @Column(name = "estimated_aggregates", nullable = false)
+    private Long estimatedAggregates;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "owner_id")
+    private String ownerId;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private Boolean cancelRequested;
+}
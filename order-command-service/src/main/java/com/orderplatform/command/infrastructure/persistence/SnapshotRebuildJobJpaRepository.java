@@ -0,0 +1,113 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SnapshotRebuildJobJpaRepository extends JpaRepository<SnapshotRebuildJobEntity, UUID> {
+
+    /**
+     * Jobs currently leased by a live instance.
+     */
+    @Query("SELECT j.jobId FROM SnapshotRebuildJobEntity j " +
+            "WHERE j.ownerId IS NOT NULL AND j.leaseExpiresAt > CURRENT_TIMESTAMP")
+    List<UUID> findLeasedJobIds();
+
+    /**
+     * Running jobs whose owner has gone away without finishing them.
+     */
+    @Query("SELECT j.jobId FROM SnapshotRebuildJobEntity j WHERE j.status = 'RUNNING' " +
+            "AND (j.ownerId IS NULL OR j.leaseExpiresAt <= CURRENT_TIMESTAMP) ORDER BY j.createdAt")
+    List<UUID> findAbandonedJobIds();
+
+    /**
+     * Leases a job that has not completed and marks it running, unless a live instance holds it
+     * or any other job. Returns 0 when the job could not be leased.
+     * <p>
+     * Claims are serialized by a transaction-scoped advisory lock: without it, two instances
+     * claiming different jobs at once would each find no other live lease and both succeed.
+     */
+    @Transactional
+    default int claimLease(UUID jobId, String ownerId, Instant leaseUntil) {
+        lockLeaseClaims();
+        return updateLeaseIfNoneHeld(jobId, ownerId, leaseUntil);
+    }
+
+    /**
+     * Waits for the transaction-scoped lock that serializes lease claims.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('snapshot_rebuild_jobs'))", nativeQuery = true)
+    int lockLeaseClaims();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildJobEntity j SET j.ownerId = :ownerId, j.leaseExpiresAt = :leaseUntil, " +
+            "j.status = 'RUNNING', j.cancelRequested = false, j.completedAt = NULL, j.errorMessage = NULL " +
+            "WHERE j.jobId = :jobId AND j.status <> 'COMPLETED' " +
+            "AND (j.ownerId IS NULL OR j.leaseExpiresAt <= CURRENT_TIMESTAMP) " +
+            "AND NOT EXISTS (SELECT o FROM SnapshotRebuildJobEntity o WHERE o.jobId <> :jobId " +
+            "AND o.ownerId IS NOT NULL AND o.leaseExpiresAt > CURRENT_TIMESTAMP)")
+    int updateLeaseIfNoneHeld(@Param("jobId") UUID jobId,
+                              @Param("ownerId") String ownerId,
+                              @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Extends the lease on a job. Returns 0 when the instance no longer owns it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildJobEntity j SET j.leaseExpiresAt = :leaseUntil " +
+            "WHERE j.jobId = :jobId AND j.ownerId = :ownerId")
+    int renewLease(@Param("jobId") UUID jobId,
+                   @Param("ownerId") String ownerId,
+                   @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Gives up the lease on a job, leaving its status as it is so it can be resumed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildJobEntity j SET j.ownerId = NULL, j.leaseExpiresAt = NULL " +
+            "WHERE j.jobId = :jobId AND j.ownerId = :ownerId")
+    int releaseLease(@Param("jobId") UUID jobId, @Param("ownerId") String ownerId);
+
+    /**
+     * Records the final status of a job and releases its lease, if the instance still owns it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildJobEntity j SET j.status = :status, j.errorMessage = :errorMessage, " +
+            "j.completedAt = CURRENT_TIMESTAMP, j.ownerId = NULL, j.leaseExpiresAt = NULL, j.cancelRequested = false " +
+            "WHERE j.jobId = :jobId AND j.ownerId = :ownerId")
+    int finish(@Param("jobId") UUID jobId,
+               @Param("ownerId") String ownerId,
+               @Param("status") String status,
+               @Param("errorMessage") String errorMessage);
+
+    /**
+     * Asks the instance running a job to stop it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildJobEntity j SET j.cancelRequested = true WHERE j.jobId = :jobId " +
+            "AND j.status = 'RUNNING' AND j.ownerId IS NOT NULL AND j.leaseExpiresAt > CURRENT_TIMESTAMP")
+    int requestCancel(@Param("jobId") UUID jobId);
+
+    /**
+     * Cancels a running job that no instance is working on.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildJobEntity j SET j.status = 'CANCELED', j.completedAt = CURRENT_TIMESTAMP, " +
+            "j.ownerId = NULL, j.leaseExpiresAt = NULL WHERE j.jobId = :jobId AND j.status = 'RUNNING' " +
+            "AND (j.ownerId IS NULL OR j.leaseExpiresAt <= CURRENT_TIMESTAMP)")
+    int cancelAbandoned(@Param("jobId") UUID jobId);
+}
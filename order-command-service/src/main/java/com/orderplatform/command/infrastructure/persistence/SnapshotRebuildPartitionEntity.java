@@ -0,0 +1,49 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "snapshot_rebuild_partitions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotRebuildPartitionEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+
+    @Column(name = "lower_bound", nullable = false)
+    private UUID lowerBound;
+
+    @Column(name = "upper_bound", nullable = false)
+    private UUID upperBound;
+
+    @Column(name = "last_aggregate_id")
+    private UUID lastAggregateId;
+
+    @Column(name = "processed_count", nullable = false)
+    private Long processedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private Long failedCount;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.orderplatform.command.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SnapshotRebuildPartitionJpaRepository extends JpaRepository<SnapshotRebuildPartitionEntity, UUID> {
+
+    List<SnapshotRebuildPartitionEntity> findByJobIdOrderByPartitionNoAsc(UUID jobId);
+
+    /**
+     * Saves a partition's checkpoint if the instance still owns the job, so an instance that lost
+     * its lease cannot overwrite the progress of the new owner. Returns 0 when it does not.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SnapshotRebuildPartitionEntity p SET p.lastAggregateId = :lastAggregateId, " +
+            "p.processedCount = :processedCount, p.failedCount = :failedCount, p.status = :status, " +
+            "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id AND EXISTS (SELECT j FROM SnapshotRebuildJobEntity j " +
+            "WHERE j.jobId = p.jobId AND j.ownerId = :ownerId)")
+    int checkpoint(@Param("id") UUID id,
+                   @Param("ownerId") String ownerId,
+                   @Param("lastAggregateId") UUID lastAggregateId,
+                   @Param("processedCount") long processedCount,
+                   @Param("failedCount") long failedCount,
+                   @Param("status") String status);
+}
@@ -0,0 +1,42 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import java.util.Arrays;
+
+/**
+ * Append-only array of longs for a single writer and any number of readers. Readers see every
+ * element up to the size they read, because the size is published after the element is stored.
+ */
+final class LongIndex {
+
+    private volatile long[] values;
+    private volatile int size;
+
+    LongIndex(int initialCapacity) {
+        this.values = new long[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Adds a value. Callers must serialize calls to this method.
+     */
+    void add(long value) {
+        long[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            values = current;
+        }
+        current[size] = value;
+        size = size + 1;
+    }
+
+    long get(int index) {
+        int currentSize = size;
+        if (index < 0 || index >= currentSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + currentSize);
+        }
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+}
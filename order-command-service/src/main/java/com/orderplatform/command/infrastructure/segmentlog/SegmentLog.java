@@ -0,0 +1,397 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of CRC-checked records in memory-mapped segment files.
+ * <p>
+ * A record is framed as {@code [int length][int crc32c][body]}; the length is written last, so a
+ * record torn by a crash has a bad checksum and is cut off when the log is reopened. Segments are
+ * named by their sequence number and a new one is started when a record no longer fits.
+ * <p>
+ * Records are addressed by {@code segment << 32 | offset}, so addresses grow with the log. Appends
+ * return as soon as the record is in the page cache; {@link #awaitDurable(long)} blocks until a
+ * background thread has forced it to disk. That thread forces once for every appender waiting at the
+ * time (group fsync), optionally waiting {@code fsyncInterval} first to gather more of them.
+ */
+@Slf4j
+public final class SegmentLog implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalNanos;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private int writeOffset;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+    private boolean flushPending;
+
+    private volatile long appendedAddress = -1;
+    private volatile long durableAddress = -1;
+    private volatile Throwable failure;
+    private volatile boolean open = true;
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final Thread flusher;
+
+    private SegmentLog(Path directory, int segmentSize, Duration fsyncInterval) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segmentFiles = files
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+            for (Path file : segmentFiles) {
+                segments.add(Segment.map(file, segments.size(), segmentSize));
+            }
+            if (segments.isEmpty()) {
+                segments.add(Segment.map(segmentPath(0), 0, segmentSize));
+            }
+        } catch (RuntimeException e) {
+            closeSegments();
+            throw e;
+        }
+        recoverTail();
+
+        // Forcing a mapping is a blocking native call, so it gets a platform thread rather than a virtual one
+        this.flusher = Thread.ofPlatform()
+                .name("segment-log-flusher")
+                .daemon()
+                .start(this::runFlusher);
+    }
+
+    public static SegmentLog open(Path directory, int segmentSize, Duration fsyncInterval) {
+        try {
+            return new SegmentLog(directory, segmentSize, fsyncInterval);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open segment log in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a record and returns its address. The record is readable right away but only
+     * durable once {@link #awaitDurable(long)} returns for its address.
+     */
+    public long append(byte[] body) {
+        int recordSize = HEADER_BYTES + body.length;
+        if (body.length == 0 || recordSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + body.length + " bytes does not fit a segment");
+        }
+
+        appendLock.lock();
+        try {
+            ensureWritable();
+            if (writeOffset + recordSize > segmentSize) {
+                roll();
+            }
+            Segment segment = segments.get(segments.size() - 1);
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.put(writeOffset + HEADER_BYTES, body);
+            buffer.putInt(writeOffset + 4, checksum(body, 0, body.length));
+            buffer.putInt(writeOffset, body.length);
+
+            long address = address(segment.index, writeOffset);
+            writeOffset += recordSize;
+            appendedAddress = address;
+            records.incrementAndGet();
+            return address;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the record at the address, and every record before it, has been forced to disk.
+     */
+    public void awaitDurable(long address) {
+        if (durableAddress >= address) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushPending = true;
+            flushRequested.signal();
+            while (durableAddress < address) {
+                ensureWritable();
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public boolean isDurable(long address) {
+        return durableAddress >= address;
+    }
+
+    /**
+     * Returns the body of the record at the address as a read-only buffer.
+     */
+    public ByteBuffer read(long address) {
+        Segment segment = segments.get(segmentOf(address));
+        int offset = offsetOf(address);
+        ByteBuffer buffer = segment.buffer.asReadOnlyBuffer();
+        int length = buffer.getInt(offset);
+        return buffer.slice(offset + HEADER_BYTES, length);
+    }
+
+    /**
+     * Visits every valid record in log order. Used to rebuild indexes when the log is opened.
+     */
+    public void scan(BiConsumer<Long, ByteBuffer> visitor) {
+        for (Segment segment : segments) {
+            ByteBuffer buffer = segment.buffer.asReadOnlyBuffer();
+            int offset = 0;
+            int length;
+            while ((length = validRecordLength(buffer, offset)) > 0) {
+                visitor.accept(address(segment.index, offset), buffer.slice(offset + HEADER_BYTES, length));
+                offset += HEADER_BYTES + length;
+            }
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long recordCount() {
+        return records.get();
+    }
+
+    public long fsyncCount() {
+        return fsyncs.get();
+    }
+
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        long last = appendedAddress;
+        if (last >= 0 && failure == null) {
+            awaitDurable(last);
+        }
+        flushLock.lock();
+        try {
+            open = false;
+            flushRequested.signal();
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+        closeSegments();
+        log.info("Closed segment log in {} with {} segments", directory, segments.size());
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close segment {}", segment.index, e);
+            }
+        }
+    }
+
+    private void runFlusher() {
+        while (open) {
+            flushLock.lock();
+            try {
+                while (open && !flushPending) {
+                    flushRequested.awaitUninterruptibly();
+                }
+                flushPending = false;
+            } finally {
+                flushLock.unlock();
+            }
+            if (!open) {
+                return;
+            }
+            if (fsyncIntervalNanos > 0) {
+                // Let appenders arriving right behind this one share the fsync
+                LockSupport.parkNanos(fsyncIntervalNanos);
+            }
+
+            long target = appendedAddress;
+            long from = durableAddress;
+            try {
+                for (int segment = Math.max(0, segmentOf(from)); segment <= segmentOf(target); segment++) {
+                    segments.get(segment).buffer.force();
+                }
+                fsyncs.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.error("Failed to force segment log in {}; it no longer accepts appends", directory, e);
+                failure = e;
+            }
+
+            flushLock.lock();
+            try {
+                if (failure == null) {
+                    durableAddress = target;
+                }
+                flushed.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the last segment and clears anything after it, so the remains of a torn
+     * record cannot be mistaken for valid records once the space is written again.
+     */
+    private void recoverTail() {
+        Segment last = segments.get(segments.size() - 1);
+        MappedByteBuffer buffer = last.buffer;
+        int offset = 0;
+        int length;
+        while ((length = validRecordLength(buffer, offset)) > 0) {
+            offset += HEADER_BYTES + length;
+        }
+        writeOffset = offset;
+
+        if (!isZero(buffer, offset)) {
+            buffer.put(offset, new byte[segmentSize - offset]);
+            buffer.force();
+            log.warn("Truncated torn record at offset {} of segment {}", offset, last.index);
+        }
+
+        // Everything found on disk is durable; new records get higher addresses
+        if (writeOffset > 0) {
+            appendedAddress = address(last.index, writeOffset - 1);
+        } else if (last.index > 0) {
+            appendedAddress = address(last.index - 1, segmentSize - 1);
+        }
+        durableAddress = appendedAddress;
+    }
+
+    private boolean isZero(ByteBuffer buffer, int from) {
+        int position = from;
+        for (; position + Long.BYTES <= segmentSize; position += Long.BYTES) {
+            if (buffer.getLong(position) != 0) {
+                return false;
+            }
+        }
+        for (; position < segmentSize; position++) {
+            if (buffer.get(position) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int validRecordLength(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > segmentSize) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) {
+            return 0;
+        }
+        ByteBuffer body = buffer.slice(offset + HEADER_BYTES, length);
+        return checksum(body) == buffer.getInt(offset + 4) ? length : 0;
+    }
+
+    private void roll() {
+        Segment segment = Segment.map(segmentPath(segments.size()), segments.size(), segmentSize);
+        segments.add(segment);
+        writeOffset = 0;
+        log.info("Rolled segment log in {} to segment {}", directory, segment.index);
+    }
+
+    /**
+     * Fails if the log no longer accepts appends, because it is closed or failed to sync to disk.
+     */
+    public void ensureWritable() {
+        if (failure != null) {
+            throw new IllegalStateException("Segment log in " + directory + " failed to sync to disk", failure);
+        }
+        if (!open) {
+            throw new IllegalStateException("Segment log in " + directory + " is closed");
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%010d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static long address(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private record Segment(int index, FileChannel channel, MappedByteBuffer buffer) {
+
+        /**
+         * Maps a segment file, creating it at the segment size if it is new or empty. An existing file
+         * of another size was written with a different configuration; mapping it would grow or cut it
+         * and recovery would scan the wrong bounds, so it is rejected.
+         */
+        static Segment map(Path path, int index, int segmentSize) {
+            try {
+                FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                long fileSize = channel.size();
+                if (fileSize != 0 && fileSize != segmentSize) {
+                    channel.close();
+                    throw new IllegalStateException(String.format(
+                            "Segment %s is %d bytes but the configured segment size is %d bytes",
+                            path, fileSize, segmentSize));
+                }
+                return new Segment(index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map segment " + path, e);
+            }
+        }
+    }
+}
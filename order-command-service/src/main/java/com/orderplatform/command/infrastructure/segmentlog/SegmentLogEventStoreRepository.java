@@ -0,0 +1,415 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.domain.EventHandler;
+import com.orderplatform.command.domain.EventPosition;
+import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.command.domain.EventSubscription;
+import com.orderplatform.command.domain.RecordedEvent;
+import com.orderplatform.command.infrastructure.DomainEventTypes;
+import com.orderplatform.command.infrastructure.subscription.CatchUpSubscriptionManager;
+import com.orderplatform.command.infrastructure.subscription.EventsAppendedEvent;
+import com.orderplatform.domain.events.DomainEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.orderplatform.command.infrastructure.UuidOrdering.UNSIGNED_UUID_ORDER;
+
+/**
+ * Event store on an embedded {@link SegmentLog}, for edge and single-node deployments that do not
+ * run PostgreSQL for events.
+ * <p>
+ * Every event is one log record holding its global position, aggregate, version, occurrence time and
+ * type, followed by the JSON payload. Two in-memory indexes are rebuilt from the log on startup: log
+ * addresses by global position, and global positions by aggregate and version. Appends check the
+ * expected version under a lock, write the record and then wait for the group fsync outside the lock.
+ * <p>
+ * Inside a transaction an append only checks and reserves the aggregate's next version; the events
+ * are written when the transaction commits, so a rolled-back command leaves nothing in the log.
+ * Other appends to a reserved aggregate fail with a conflict until the reservation is committed or
+ * rolled back. The log is checked before the database commit, but an I/O failure while writing after
+ * it still fails the command with its database changes committed; the log then refuses all appends.
+ * Outside a transaction events are written and durable when the append returns.
+ * <p>
+ * Positions are global positions with a transaction id of 0, since records are readable in log order.
+ * The Kafka relay tails the PostgreSQL {@code events} table and publishes nothing with this backend;
+ * consumers use {@link #subscribe} instead.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "segment-log")
+@RequiredArgsConstructor
+@Slf4j
+public class SegmentLogEventStoreRepository implements EventStoreRepository {
+
+    private static final String SHARD = "local";
+    private static final String SOURCE = "segment-log";
+
+    private final SegmentLog segmentLog;
+    private final ObjectMapper objectMapper;
+    // Subscriptions keep their checkpoints in PostgreSQL; absent when the pipeline runs without it
+    private final ObjectProvider<CatchUpSubscriptionManager> subscriptionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final LongIndex addressesByPosition = new LongIndex(1024);
+    private final ConcurrentSkipListMap<UUID, LongIndex> positionsByAggregate = new ConcurrentSkipListMap<>(UNSIGNED_UUID_ORDER);
+    // Last version reserved by an uncommitted transaction, per aggregate; guarded by appendLock
+    private final Map<UUID, Long> reservedVersions = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        long started = System.nanoTime();
+        segmentLog.scan((address, body) -> {
+            RecordHeader header = RecordHeader.read(body);
+            if (header.position() != addressesByPosition.size() + 1) {
+                throw new IllegalStateException("Segment log is out of sequence at position " + header.position());
+            }
+            index(header.aggregateId(), header.position(), address);
+        });
+
+        Gauge.builder("event.store.segment-log.segments", segmentLog, SegmentLog::segmentCount)
+                .description("Segment files of the embedded event log")
+                .register(meterRegistry);
+        FunctionCounter.builder("event.store.segment-log.appends", segmentLog, SegmentLog::recordCount)
+                .description("Records appended to the embedded event log")
+                .register(meterRegistry);
+        FunctionCounter.builder("event.store.segment-log.fsyncs", segmentLog, SegmentLog::fsyncCount)
+                .description("Group fsyncs of the embedded event log; appends per fsync is the group size")
+                .register(meterRegistry);
+
+        log.info("Indexed {} events of {} aggregates from the segment log in {} ms",
+                addressesByPosition.size(), positionsByAggregate.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public void append(DomainEvent event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event", e);
+        }
+        PendingEvent pending = new PendingEvent(event, payload);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reserve(event);
+            try {
+                write(List.of(pending));
+            } finally {
+                release(List.of(pending));
+            }
+            return;
+        }
+
+        PendingAppends transaction = (PendingAppends) TransactionSynchronizationManager.getResource(this);
+        if (transaction == null) {
+            transaction = new PendingAppends();
+            TransactionSynchronizationManager.bindResource(this, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        reserve(event);
+        transaction.events.add(pending);
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateId(UUID aggregateId) {
+        return findByAggregateId(aggregateId, 1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateId(UUID aggregateId, long fromVersion, long toVersion) {
+        return timed("load", () -> readAggregate(aggregateId, fromVersion, toVersion, header -> true));
+    }
+
+    @Override
+    public List<DomainEvent> findByAggregateIdOccurredUntil(UUID aggregateId, long fromVersion, Instant occurredAt) {
+        return timed("load", () -> readAggregate(aggregateId, fromVersion, Long.MAX_VALUE,
+                header -> !header.occurredAt().isAfter(occurredAt)));
+    }
+
+    @Override
+    public long findCurrentVersion(UUID aggregateId) {
+        LongIndex versions = positionsByAggregate.get(aggregateId);
+        return versions == null ? 0 : versions.size();
+    }
+
+    // Nothing is archived from this backend, so includeArchived makes no difference
+
+    @Override
+    public List<DomainEvent> findAllOrderByOccurredAt(Instant fromTime, boolean includeArchived) {
+        return timed("replay", () -> scanOrderedByOccurredAt(header -> !header.occurredAt().isBefore(fromTime)));
+    }
+
+    @Override
+    public List<DomainEvent> findByOccurredAtBetween(Instant fromTime, Instant toTime, boolean includeArchived) {
+        return timed("replay", () -> scanOrderedByOccurredAt(header ->
+                !header.occurredAt().isBefore(fromTime) && !header.occurredAt().isAfter(toTime)));
+    }
+
+    @Override
+    public List<UUID> findAggregateIds(UUID fromInclusive, UUID toInclusive, int limit) {
+        return positionsByAggregate.subMap(fromInclusive, true, toInclusive, true).keySet().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public long countAggregates() {
+        return positionsByAggregate.size();
+    }
+
+    /**
+     * Reads events after a position in log order, up to the last one forced to disk.
+     */
+    @Override
+    public List<RecordedEvent> readCommittedAfter(EventPosition after, int limit) {
+        int size = addressesByPosition.size();
+        List<RecordedEvent> events = new ArrayList<>(Math.min(limit, Math.max(0, size - (int) after.globalPosition())));
+        for (long position = after.globalPosition() + 1; position <= size && events.size() < limit; position++) {
+            long address = addressesByPosition.get((int) position - 1);
+            if (!segmentLog.isDurable(address)) {
+                break;
+            }
+            events.add(new RecordedEvent(decode(segmentLog.read(address)), new EventPosition(0, position)));
+        }
+        return events;
+    }
+
+    @Override
+    public EventPosition headPosition() {
+        int size = addressesByPosition.size();
+        return size == 0 ? EventPosition.START : new EventPosition(0, size);
+    }
+
+    @Override
+    public EventSubscription subscribe(String subscriberName, EventPosition fromPosition, EventHandler handler) {
+        return subscriptionManager.getObject().start(subscriberName, fromPosition, handler, this::readCommittedAfter);
+    }
+
+    /**
+     * Checks the expected version against the committed events and any reservation, then reserves
+     * the event's version for the caller.
+     */
+    private void reserve(DomainEvent event) {
+        appendLock.lock();
+        try {
+            long expectedVersion = event.getVersion() - 1;
+            Long reserved = reservedVersions.get(event.getAggregateId());
+            long head = reserved != null ? reserved : findCurrentVersion(event.getAggregateId());
+            if (head != expectedVersion) {
+                Counter.builder("event.store.append.conflicts")
+                        .description("Appends rejected because the aggregate had moved past the expected version")
+                        .tag("shard", SHARD)
+                        .register(meterRegistry)
+                        .increment();
+                throw new ConcurrencyConflictException(event.getAggregateId(), expectedVersion);
+            }
+            reservedVersions.put(event.getAggregateId(), event.getVersion());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void release(List<PendingEvent> events) {
+        appendLock.lock();
+        try {
+            events.forEach(pending -> reservedVersions.remove(pending.event().getAggregateId()));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Writes reserved events in one go, so they get consecutive positions, and waits until they are durable.
+     */
+    private void write(List<PendingEvent> events) {
+        long address = timed("append", () -> {
+            appendLock.lock();
+            try {
+                long lastAddress = -1;
+                for (PendingEvent pending : events) {
+                    long position = addressesByPosition.size() + 1L;
+                    lastAddress = segmentLog.append(encode(position, pending.event(), pending.payload()));
+                    index(pending.event().getAggregateId(), position, lastAddress);
+                }
+                return lastAddress;
+            } finally {
+                appendLock.unlock();
+            }
+        });
+        timed("fsync", () -> {
+            segmentLog.awaitDurable(address);
+            return null;
+        });
+
+        events.stream()
+                .map(pending -> pending.event().getAggregateId())
+                .distinct()
+                .forEach(aggregateId -> eventPublisher.publishEvent(new EventsAppendedEvent(aggregateId)));
+        events.forEach(pending -> log.debug("Appended event {} for aggregate {} at version {}",
+                pending.event().getEventType(), pending.event().getAggregateId(), pending.event().getVersion()));
+    }
+
+    private void index(UUID aggregateId, long position, long address) {
+        addressesByPosition.add(address);
+        positionsByAggregate.computeIfAbsent(aggregateId, id -> new LongIndex(8)).add(position);
+    }
+
+    private List<DomainEvent> readAggregate(UUID aggregateId, long fromVersion, long toVersion,
+                                            Predicate<RecordHeader> filter) {
+        LongIndex versions = positionsByAggregate.get(aggregateId);
+        if (versions == null) {
+            return List.of();
+        }
+        long last = Math.min(toVersion, versions.size());
+        List<DomainEvent> events = new ArrayList<>((int) Math.max(0, last - fromVersion + 1));
+        for (long version = Math.max(1, fromVersion); version <= last; version++) {
+            long position = versions.get((int) version - 1);
+            ByteBuffer body = segmentLog.read(addressesByPosition.get((int) position - 1));
+            if (filter.test(RecordHeader.read(body))) {
+                events.add(decode(body));
+            }
+        }
+        return events;
+    }
+
+    private List<DomainEvent> scanOrderedByOccurredAt(Predicate<RecordHeader> filter) {
+        int size = addressesByPosition.size();
+        List<Match> matches = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            ByteBuffer body = segmentLog.read(addressesByPosition.get(index));
+            RecordHeader header = RecordHeader.read(body);
+            if (filter.test(header)) {
+                matches.add(new Match(header.occurredAt(), body));
+            }
+        }
+        // Log order is append order; the stable sort keeps it for events with the same timestamp
+        matches.sort(Comparator.comparing(Match::occurredAt));
+        return matches.stream().map(match -> decode(match.body())).toList();
+    }
+
+    private byte[] encode(long position, DomainEvent event, byte[] payload) {
+        byte[] eventType = event.getEventType().getBytes(StandardCharsets.UTF_8);
+        Instant occurredAt = event.getOccurredAt();
+        ByteBuffer buffer = ByteBuffer.allocate(RecordHeader.FIXED_BYTES + eventType.length + payload.length);
+        buffer.putLong(position)
+                .putLong(event.getAggregateId().getMostSignificantBits())
+                .putLong(event.getAggregateId().getLeastSignificantBits())
+                .putLong(event.getVersion())
+                .putLong(occurredAt.getEpochSecond())
+                .putInt(occurredAt.getNano())
+                .putShort((short) eventType.length)
+                .put(eventType)
+                .put(payload);
+        return buffer.array();
+    }
+
+    private DomainEvent decode(ByteBuffer body) {
+        RecordHeader header = RecordHeader.read(body);
+        ByteBuffer payload = body.slice(header.payloadOffset(), body.limit() - header.payloadOffset());
+        byte[] json = new byte[payload.remaining()];
+        payload.get(json);
+        try {
+            return objectMapper.readValue(json, DomainEventTypes.classOf(header.eventType()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid event payload at position " + header.position(), e);
+        }
+    }
+
+    private <T> T timed(String operation, Supplier<T> work) {
+        return Timer.builder("event.store.operations")
+                .description("Event store operations per shard")
+                .tag("operation", operation)
+                .tag("shard", SHARD)
+                .tag("source", SOURCE)
+                .register(meterRegistry)
+                .record(work);
+    }
+
+    private record Match(Instant occurredAt, ByteBuffer body) {
+    }
+
+    private record PendingEvent(DomainEvent event, byte[] payload) {
+    }
+
+    /**
+     * Events appended in the current transaction, written to the log once it commits.
+     */
+    private final class PendingAppends implements TransactionSynchronization {
+
+        private final List<PendingEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Roll the transaction back rather than commit a command whose events cannot be written
+            if (!events.isEmpty()) {
+                segmentLog.ensureWritable();
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!events.isEmpty()) {
+                write(events);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SegmentLogEventStoreRepository.this);
+            release(events);
+        }
+    }
+
+    /**
+     * Fixed fields at the start of every event record.
+     */
+    private record RecordHeader(long position, UUID aggregateId, long version, Instant occurredAt,
+                                String eventType, int payloadOffset) {
+
+        static final int FIXED_BYTES = 8 + 16 + 8 + 12 + 2;
+
+        static RecordHeader read(ByteBuffer body) {
+            long position = body.getLong(0);
+            UUID aggregateId = new UUID(body.getLong(8), body.getLong(16));
+            long version = body.getLong(24);
+            Instant occurredAt = Instant.ofEpochSecond(body.getLong(32), body.getInt(40));
+            int typeLength = body.getShort(44);
+            byte[] eventType = new byte[typeLength];
+            body.get(FIXED_BYTES, eventType);
+            return new RecordHeader(position, aggregateId, version, occurredAt,
+                    new String(eventType, StandardCharsets.UTF_8), FIXED_BYTES + typeLength);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderplatform.command.config.SegmentLogProperties;
+import com.orderplatform.command.domain.SnapshotRepository;
+import com.orderplatform.domain.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshots for the segment-log event store, one file per snapshot next to the event log:
+ * {@code snapshots/<first two hex digits>/<aggregate id>/<version>.snap}. A file holds a CRC32C,
+ * the time of the snapshot's last event and the order as JSON. Files are written to a temporary
+ * name, forced and renamed, so a crash never leaves a partial snapshot behind.
+ * <p>
+ * History is thinned with the same {@code app.snapshot.history.*} policy as the PostgreSQL backend.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.event-store.backend", havingValue = "segment-log")
+@RequiredArgsConstructor
+@Slf4j
+public class SegmentLogSnapshotRepository implements SnapshotRepository {
+
+    private static final String SUFFIX = ".snap";
+    private static final int HEADER_BYTES = 4 + 8 + 4;
+
+    private final SegmentLogProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.snapshot.history.keep-recent:3}")
+    private int keepRecent;
+
+    @Value("${app.snapshot.history.stride:500}")
+    private long stride;
+
+    @Value("${app.snapshot.history.max-snapshots:20}")
+    private int maxSnapshots;
+
+    /**
+     * Saves a snapshot. Inside a transaction the file is written once it commits, after the events it
+     * covers, so a snapshot is never ahead of the event log; a failure then is only logged, since the
+     * aggregate can still be replayed from its events.
+     */
+    @Override
+    public void save(UUID aggregateId, Order order) {
+        Instant asOf = order.getUpdatedAt() != null ? order.getUpdatedAt() : Instant.now();
+        byte[] state;
+        try {
+            state = objectMapper.writeValueAsBytes(order);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize snapshot of aggregate " + aggregateId, e);
+        }
+        ByteBuffer content = ByteBuffer.allocate(HEADER_BYTES + state.length);
+        content.position(4);
+        content.putLong(asOf.getEpochSecond()).putInt(asOf.getNano()).put(state);
+        content.putInt(0, checksum(content.array(), 4, content.capacity() - 4));
+        long version = order.getVersion();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(aggregateId, version, content.flip());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    write(aggregateId, version, content.flip());
+                } catch (RuntimeException e) {
+                    log.warn("Failed to save snapshot for aggregate {} at version {}", aggregateId, version, e);
+                }
+            }
+        });
+    }
+
+    private void write(UUID aggregateId, long version, ByteBuffer content) {
+        Path directory = directoryOf(aggregateId);
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(fileName(version));
+            Path temporary = directory.resolve(fileName(version) + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(content);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot of aggregate " + aggregateId, e);
+        }
+
+        int thinned = thin(aggregateId);
+        log.debug("Saved snapshot for aggregate {} at version {}, thinned {} older snapshots",
+                aggregateId, version, thinned);
+    }
+
+    @Override
+    public Optional<Order> findByAggregateId(UUID aggregateId) {
+        return findNewest(aggregateId, version -> true, asOf -> true);
+    }
+
+    @Override
+    public Optional<Order> findLatestAtOrBefore(UUID aggregateId, long version) {
+        return findNewest(aggregateId, snapshotVersion -> snapshotVersion <= version, asOf -> true);
+    }
+
+    @Override
+    public Optional<Order> findLatestAsOf(UUID aggregateId, Instant asOf) {
+        return findNewest(aggregateId, version -> true, snapshotAsOf -> !snapshotAsOf.isAfter(asOf));
+    }
+
+    @Override
+    public void deleteByAggregateId(UUID aggregateId) {
+        for (long version : versions(aggregateId)) {
+            delete(aggregateId, version);
+        }
+        log.debug("Deleted snapshots for aggregate {}", aggregateId);
+    }
+
+    private Optional<Order> findNewest(UUID aggregateId, Predicate<Long> versionFilter, Predicate<Instant> asOfFilter) {
+        List<Long> versions = versions(aggregateId);
+        for (int index = versions.size() - 1; index >= 0; index--) {
+            long version = versions.get(index);
+            if (!versionFilter.test(version)) {
+                continue;
+            }
+            Optional<ByteBuffer> content = readValid(aggregateId, version);
+            if (content.isEmpty()) {
+                continue;
+            }
+            ByteBuffer buffer = content.get();
+            Instant asOf = Instant.ofEpochSecond(buffer.getLong(4), buffer.getInt(12));
+            if (!asOfFilter.test(asOf)) {
+                continue;
+            }
+            try {
+                Order order = objectMapper.readValue(buffer.array(), HEADER_BYTES, buffer.capacity() - HEADER_BYTES, Order.class);
+                log.debug("Loaded snapshot for aggregate {} at version {}", aggregateId, order.getVersion());
+                return Optional.of(order);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable snapshot of aggregate {} at version {}", aggregateId, version, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ByteBuffer> readValid(UUID aggregateId, long version) {
+        try {
+            byte[] bytes = Files.readAllBytes(directoryOf(aggregateId).resolve(fileName(version)));
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (bytes.length < HEADER_BYTES || buffer.getInt(0) != checksum(bytes, 4, bytes.length - 4)) {
+                log.warn("Ignoring corrupt snapshot of aggregate {} at version {}", aggregateId, version);
+                return Optional.empty();
+            }
+            return Optional.of(buffer);
+        } catch (NoSuchFileException e) {
+            // Thinned by a concurrent save
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot of aggregate " + aggregateId, e);
+        }
+    }
+
+    /**
+     * Applies the same policy as the PostgreSQL backend: the newest {@code keepRecent} snapshots are
+     * kept, older ones are reduced to the oldest in every {@code stride} versions, and nothing beyond
+     * the newest {@code maxSnapshots} survives.
+     */
+    private int thin(UUID aggregateId) {
+        List<Long> versions = versions(aggregateId);
+        Set<Long> seenStrides = new HashSet<>();
+        List<Long> firstInStride = new ArrayList<>();
+        for (long version : versions) {
+            if (seenStrides.add(version / stride)) {
+                firstInStride.add(version);
+            }
+        }
+
+        int deleted = 0;
+        for (int index = 0; index < versions.size(); index++) {
+            long version = versions.get(index);
+            int age = versions.size() - index;
+            if (age > maxSnapshots || (age > keepRecent && !firstInStride.contains(version))) {
+                delete(aggregateId, version);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private List<Long> versions(UUID aggregateId) {
+        Path directory = directoryOf(aggregateId);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list snapshots of aggregate " + aggregateId, e);
+        }
+    }
+
+    private void delete(UUID aggregateId, long version) {
+        try {
+            Files.deleteIfExists(directoryOf(aggregateId).resolve(fileName(version)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete snapshot of aggregate " + aggregateId, e);
+        }
+    }
+
+    private Path directoryOf(UUID aggregateId) {
+        String id = aggregateId.toString();
+        return properties.getDirectory().resolve("snapshots").resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private static String fileName(long version) {
+        return String.format("%019d%s", version, SUFFIX);
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
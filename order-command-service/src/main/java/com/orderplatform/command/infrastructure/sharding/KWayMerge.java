@@ -0,0 +1,51 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges per-shard results that are each sorted into a single sorted list.
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    public static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator) {
+        return merge(sortedLists, comparator, Integer.MAX_VALUE);
+    }
+
+    public static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator, int limit) {
+        if (sortedLists.size() == 1) {
+            List<T> only = sortedLists.get(0);
+            return only.size() <= limit ? only : only.subList(0, limit);
+        }
+
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(
+                Math.max(1, sortedLists.size()), (a, b) -> comparator.compare(a.value, b.value));
+        int total = 0;
+        for (List<T> list : sortedLists) {
+            total += list.size();
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head<T> head = heads.poll();
+            merged.add(head.value);
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    private record Head<T>(T value, Iterator<T> rest) {
+    }
+}
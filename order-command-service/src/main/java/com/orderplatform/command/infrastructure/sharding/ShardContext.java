@@ -0,0 +1,54 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Binds the current thread to an event store shard. JDBC connections are obtained lazily, so the
+ * shard has to be bound before the first statement of a transaction and cannot change inside it.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Optional<String> currentShard() {
+        return Optional.ofNullable(CURRENT_SHARD.get());
+    }
+
+    /**
+     * Runs work against a shard and restores the previous binding afterwards.
+     *
+     * @throws IllegalStateException if a transaction bound to a different shard is active
+     */
+    public static <T> T callOn(String shardId, Supplier<T> work) {
+        String previous = CURRENT_SHARD.get();
+        if (previous != null && !previous.equals(shardId)
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(String.format(
+                    "Cannot switch to shard %s inside a transaction bound to shard %s", shardId, previous));
+        }
+
+        CURRENT_SHARD.set(shardId);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    public static void runOn(String shardId, Runnable work) {
+        callOn(shardId, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The physical data source of every shard, keyed by shard ID in configuration order.
+ */
+public record ShardDataSources(Map<String, DataSource> dataSources) {
+}
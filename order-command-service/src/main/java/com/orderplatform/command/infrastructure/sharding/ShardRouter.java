@@ -0,0 +1,102 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import com.orderplatform.command.config.ShardingProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Maps aggregates to event store shards with a consistent-hash ring, so adding a shard only
+ * moves the aggregates that fall into its share of the ring.
+ */
+@Component
+public class ShardRouter {
+
+    private final List<String> shardIds;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shardIds = properties.shardIds();
+        for (String shardId : shardIds) {
+            for (int node = 0; node < properties.getVirtualNodes(); node++) {
+                ring.put(hash(shardId + "#" + node), shardId);
+            }
+        }
+    }
+
+    public List<String> shardIds() {
+        return shardIds;
+    }
+
+    public boolean isSharded() {
+        return shardIds.size() > 1;
+    }
+
+    public String shardFor(UUID aggregateId) {
+        return lookup(mix(aggregateId.getMostSignificantBits()) ^ mix(aggregateId.getLeastSignificantBits()));
+    }
+
+    public String shardForKey(String key) {
+        return lookup(hash(key));
+    }
+
+    /**
+     * Chooses the shard for an aggregate that does not exist yet. Work already bound to a shard stays
+     * there; otherwise the idempotency key decides, so retries of the same create land on the shard
+     * holding its deduplication record.
+     */
+    public String shardForNewAggregate(String idempotencyKey) {
+        if (ShardContext.currentShard().isPresent()) {
+            return ShardContext.currentShard().get();
+        }
+        if (idempotencyKey != null) {
+            return shardForKey(idempotencyKey);
+        }
+        return shardIds.get(ThreadLocalRandom.current().nextInt(shardIds.size()));
+    }
+
+    /**
+     * Generates a random ID that routes to the given shard. Takes about as many attempts as there are shards.
+     */
+    public UUID newIdOnShard(String shardId) {
+        if (!shardIds.contains(shardId)) {
+            throw new IllegalArgumentException("Unknown shard: " + shardId);
+        }
+        UUID id = UUID.randomUUID();
+        while (!shardFor(id).equals(shardId)) {
+            id = UUID.randomUUID();
+        }
+        return id;
+    }
+
+    private String lookup(long hash) {
+        var entry = ring.ceilingEntry(hash);
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes followed by a murmur3 finalizer.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
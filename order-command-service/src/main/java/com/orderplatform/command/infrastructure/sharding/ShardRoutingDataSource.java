@@ -0,0 +1,14 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the shard bound in {@link ShardContext}, falling back to the first shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard().orElse(null);
+    }
+}
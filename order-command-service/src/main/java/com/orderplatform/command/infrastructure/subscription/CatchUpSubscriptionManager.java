@@ -0,0 +1,307 @@
+package com.orderplatform.command.infrastructure.subscription;
+
+import com.orderplatform.command.domain.EventHandler;
+import com.orderplatform.command.domain.EventPosition;
+import com.orderplatform.command.domain.EventSubscription;
+import com.orderplatform.command.domain.RecordedEvent;
+import com.orderplatform.command.infrastructure.persistence.EventJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointEntity;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardContext;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Runs catch-up subscriptions over the event store.
+ * Every subscription runs on its own virtual thread and repeatedly reads the next batch after its
+ * checkpoint. While behind it replays history batch by batch; once a read comes back empty it is
+ * live and parks until a local append commits or the idle poll interval elapses.
+ * <p>
+ * A batch is handled inside a transaction that holds a lock on the subscriber's checkpoint row,
+ * so handlers writing to PostgreSQL commit atomically with the checkpoint, and only one instance
+ * delivers a given subscription at a time.
+ * <p>
+ * With a sharded event store a subscription keeps one checkpoint per shard and reads the shards
+ * in turn. Events of one order are delivered in order; events of different shards interleave.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatchUpSubscriptionManager {
+
+    private final EventRelayCheckpointJpaRepository checkpointRepository;
+    private final EventJpaRepository eventRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.subscriptions.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.subscriptions.idle-poll-interval-ms:500}")
+    private long idlePollIntervalMs;
+
+    @Value("${app.subscriptions.max-retry-backoff-ms:30000}")
+    private long maxRetryBackoffMs;
+
+    private final Map<String, CatchUpSubscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> headPositions = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a subscription that reads events through the given reader. The reader is called with the
+     * shard being read bound to the thread.
+     */
+    public EventSubscription start(String subscriberName, EventPosition fromPosition, EventHandler handler,
+                                   BiFunction<EventPosition, Integer, List<RecordedEvent>> reader) {
+        for (String shardId : shardRouter.shardIds()) {
+            ShardContext.runOn(shardId, () -> checkpointRepository.insertIfAbsent(
+                    subscriberName, fromPosition.transactionId(), fromPosition.globalPosition()));
+        }
+
+        CatchUpSubscription subscription = new CatchUpSubscription(subscriberName, handler, reader);
+        if (subscriptions.putIfAbsent(subscriberName, subscription) != null) {
+            throw new IllegalStateException("Subscription is already running: " + subscriberName);
+        }
+
+        subscription.thread = Thread.ofVirtual()
+                .name("subscription-" + subscriberName)
+                .start(subscription::run);
+        log.info("Started catch-up subscription {}", subscriberName);
+        return subscription;
+    }
+
+    /**
+     * Wakes up live subscriptions once events appended on this instance have committed.
+     */
+    @TransactionalEventListener
+    public void onEventsAppended(EventsAppendedEvent event) {
+        subscriptions.values().forEach(CatchUpSubscription::wakeUp);
+    }
+
+    @Scheduled(fixedDelayString = "${app.subscriptions.lag-refresh-interval:5000}")
+    public void refreshHeadPosition() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        for (String shardId : shardRouter.shardIds()) {
+            ShardContext.callOn(shardId, eventRepository::findTopByOrderByGlobalPositionDesc)
+                    .ifPresent(head -> headPosition(shardId).set(head.getGlobalPosition()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(CatchUpSubscription::close);
+    }
+
+    private AtomicLong headPosition(String shardId) {
+        return headPositions.computeIfAbsent(shardId, id -> new AtomicLong());
+    }
+
+    private final class CatchUpSubscription implements EventSubscription {
+
+        private final String name;
+        private final EventHandler handler;
+        private final BiFunction<EventPosition, Integer, List<RecordedEvent>> reader;
+        private final TransactionTemplate transactionTemplate;
+        private final Counter handledEvents;
+        private final Counter failedBatches;
+        private final Map<String, ShardCursor> cursors = new LinkedHashMap<>();
+        private final List<Gauge> lagGauges = new ArrayList<>();
+
+        private volatile boolean running = true;
+        private volatile boolean live;
+        private volatile Thread thread;
+
+        private CatchUpSubscription(String name, EventHandler handler,
+                                    BiFunction<EventPosition, Integer, List<RecordedEvent>> reader) {
+            this.name = name;
+            this.handler = handler;
+            this.reader = reader;
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+            this.handledEvents = Counter.builder("event.subscription.events")
+                    .description("Events handled by the catch-up subscription")
+                    .tag("subscriber", name)
+                    .register(meterRegistry);
+            this.failedBatches = Counter.builder("event.subscription.errors")
+                    .description("Batches that failed and will be retried")
+                    .tag("subscriber", name)
+                    .register(meterRegistry);
+            for (String shardId : shardRouter.shardIds()) {
+                ShardCursor cursor = new ShardCursor(shardId);
+                cursors.put(shardId, cursor);
+                lagGauges.add(Gauge.builder("event.subscription.lag", cursor, this::lagEvents)
+                        .description("Events appended to the store but not yet handled by the subscription")
+                        .tag("subscriber", name)
+                        .tag("shard", shardId)
+                        .register(meterRegistry));
+                lagGauges.add(Gauge.builder("event.subscription.lag.seconds", cursor, this::lagSeconds)
+                        .description("Age of the last handled event while the subscription is catching up")
+                        .tag("subscriber", name)
+                        .tag("shard", shardId)
+                        .register(meterRegistry));
+            }
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Map<String, EventPosition> positions() {
+            Map<String, EventPosition> positions = new LinkedHashMap<>();
+            cursors.forEach((shardId, cursor) -> positions.put(shardId, cursor.position));
+            return positions;
+        }
+
+        @Override
+        public boolean isLive() {
+            return live;
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            subscriptions.remove(name, this);
+            lagGauges.forEach(meterRegistry::remove);
+            wakeUp();
+            log.info("Closed catch-up subscription {} at positions {}", name, positions());
+        }
+
+        private void wakeUp() {
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+
+        private void run() {
+            long backoffMs = idlePollIntervalMs;
+            while (running) {
+                try {
+                    boolean handled = false;
+                    boolean caughtUp = true;
+                    for (ShardCursor cursor : cursors.values()) {
+                        BatchResult result = ShardContext.callOn(cursor.shardId,
+                                () -> transactionTemplate.execute(status -> handleNextBatch(cursor)));
+                        handled |= result == BatchResult.HANDLED;
+                        caughtUp &= result == BatchResult.CAUGHT_UP;
+                    }
+                    backoffMs = idlePollIntervalMs;
+                    if (handled) {
+                        continue;
+                    }
+                    if (caughtUp && !live) {
+                        live = true;
+                        log.info("Subscription {} caught up at positions {}", name, positions());
+                    }
+                    LockSupport.parkNanos(Duration.ofMillis(idlePollIntervalMs).toNanos());
+                } catch (Exception e) {
+                    failedBatches.increment();
+                    log.warn("Subscription {} failed after positions {}, retrying in {} ms",
+                            name, positions(), backoffMs, e);
+                    LockSupport.parkNanos(Duration.ofMillis(backoffMs).toNanos());
+                    backoffMs = Math.min(backoffMs * 2, maxRetryBackoffMs);
+                }
+            }
+        }
+
+        private BatchResult handleNextBatch(ShardCursor cursor) {
+            Optional<EventRelayCheckpointEntity> locked = checkpointRepository.lockByRelayName(name);
+            if (locked.isEmpty()) {
+                return BatchResult.LOCKED_ELSEWHERE;
+            }
+
+            EventRelayCheckpointEntity checkpoint = locked.get();
+            cursor.position = new EventPosition(checkpoint.getLastTransactionId(), checkpoint.getLastPosition());
+
+            List<RecordedEvent> batch = reader.apply(cursor.position, batchSize);
+            if (batch.isEmpty()) {
+                return BatchResult.CAUGHT_UP;
+            }
+            if (batch.size() == batchSize) {
+                live = false;
+            }
+
+            for (RecordedEvent event : batch) {
+                try {
+                    handler.handle(event);
+                } catch (Exception e) {
+                    throw new SubscriptionHandlerException(name, event.position(), e);
+                }
+                handledEvents.increment();
+            }
+
+            RecordedEvent last = batch.get(batch.size() - 1);
+            checkpoint.setLastTransactionId(last.position().transactionId());
+            checkpoint.setLastPosition(last.position().globalPosition());
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+
+            cursor.position = last.position();
+            cursor.lastEventOccurredAt = last.event().getOccurredAt();
+            return BatchResult.HANDLED;
+        }
+
+        private double lagEvents(ShardCursor cursor) {
+            return Math.max(0, headPosition(cursor.shardId).get() - cursor.position.globalPosition());
+        }
+
+        private double lagSeconds(ShardCursor cursor) {
+            Instant occurredAt = cursor.lastEventOccurredAt;
+            if (live || occurredAt == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(occurredAt, Instant.now()).toMillis() / 1000.0);
+        }
+    }
+
+    private static final class ShardCursor {
+
+        private final String shardId;
+        private volatile EventPosition position = EventPosition.START;
+        private volatile Instant lastEventOccurredAt;
+
+        private ShardCursor(String shardId) {
+            this.shardId = shardId;
+        }
+    }
+
+    private enum BatchResult {
+        HANDLED,
+        CAUGHT_UP,
+        LOCKED_ELSEWHERE
+    }
+
+    private static final class SubscriptionHandlerException extends RuntimeException {
+
+        private SubscriptionHandlerException(String subscriberName, EventPosition position, Throwable cause) {
+            super("Subscriber " + subscriberName + " failed to handle event at position " + position.globalPosition(), cause);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.orderplatform.command.infrastructure.subscription;
+
+import java.util.UUID;
+
+/**
+ * Published when an event is appended, so live subscriptions can read it as soon as the
+ * appending transaction commits instead of waiting for their next poll.
+ */
+public record EventsAppendedEvent(UUID aggregateId) {
+}
@@ -0,0 +1,116 @@
+package com.orderplatform.command.infrastructure.tracing;
+
+import com.orderplatform.command.config.UserContextHolder;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Who and which request an appended event comes from: the user behind it and the W3C trace
+ * context ({@code traceparent}, {@code tracestate}) of the span that was current when it was decided.
+ * <p>
+ * The trace context is kept in the event's metadata so the relay can hand it on to Kafka after the
+ * request has finished. Work done for a user outside their request, such as asynchronous commands,
+ * binds the user with {@link #runAs} and continues the stored trace with {@link #startSpan}.
+ * Without the OpenTelemetry agent there is no current span and no trace context is recorded.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventOrigin {
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACESTATE = "tracestate";
+
+    private static final ThreadLocal<String> CURRENT_ACTOR = new ThreadLocal<>();
+
+    private static final TextMapSetter<Map<String, Object>> MAP_SETTER = Map::put;
+
+    private static final TextMapGetter<Map<String, ?>> MAP_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, ?> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, ?> carrier, String key) {
+            return carrier != null && carrier.get(key) instanceof String value ? value : null;
+        }
+    };
+
+    private final UserContextHolder userContextHolder;
+    private final Tracer tracer = GlobalOpenTelemetry.getTracer("com.orderplatform.command");
+
+    /**
+     * The user bound with {@link #runAs}, or else the subject of the request's token.
+     */
+    public String actor() {
+        String actor = CURRENT_ACTOR.get();
+        return actor != null ? actor : userContextHolder.getUserId().orElse(null);
+    }
+
+    /**
+     * Runs the work with events attributed to the given user.
+     */
+    public void runAs(String actor, Runnable work) {
+        String previous = CURRENT_ACTOR.get();
+        CURRENT_ACTOR.set(actor);
+        try {
+            work.run();
+        } finally {
+            if (previous == null) {
+                CURRENT_ACTOR.remove();
+            } else {
+                CURRENT_ACTOR.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Trace ID of the current span, or {@code null} outside a trace.
+     */
+    public String traceId() {
+        SpanContext spanContext = Span.current().getSpanContext();
+        return spanContext.isValid() ? spanContext.getTraceId() : null;
+    }
+
+    /**
+     * The current span as W3C trace context fields; empty outside a trace.
+     */
+    public Map<String, Object> traceContext() {
+        Map<String, Object> carrier = new HashMap<>(2);
+        W3CTraceContextPropagator.getInstance().inject(Context.current(), carrier, MAP_SETTER);
+        return carrier;
+    }
+
+    /**
+     * Starts a span continuing a trace context recorded by {@link #traceContext}, or a new trace
+     * when none was recorded. The caller makes it current and ends it.
+     */
+    public Span startSpan(String name, Map<String, ?> traceContext) {
+        return tracer.spanBuilder(name)
+                .setParent(extract(traceContext))
+                .setSpanKind(SpanKind.CONSUMER)
+                .startSpan();
+    }
+
+    /**
+     * The context of a recorded trace context, to make current while handing it on.
+     */
+    public static Context extract(Map<String, ?> traceContext) {
+        if (traceContext == null || traceContext.isEmpty()) {
+            return Context.root();
+        }
+        return W3CTraceContextPropagator.getInstance().extract(Context.root(), traceContext, MAP_GETTER);
+    }
+}
@@ -0,0 +1,44 @@
+package com.orderplatform.command.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * An aggregate loaded from its snapshot and the events after it, from the snapshot read to the
+ * last event applied. Recorded above the threshold only, which leaves out the cheap loads of
+ * orders with a recent snapshot.
+ */
+@Name("com.orderplatform.AggregateLoad")
+@Label("Aggregate Load")
+@Category({"Order Platform", "Command"})
+@Description("Order aggregate rebuilt from its snapshot and event tail")
+@StackTrace(false)
+@Threshold("5 ms")
+public class AggregateLoadEvent extends Event {
+
+    @Label("Aggregate Id")
+    public String aggregateId;
+
+    @Label("Command")
+    @Description("Command the aggregate was loaded for, or none")
+    public String commandType;
+
+    @Label("Snapshot Version")
+    @Description("Version of the snapshot the load started from, 0 without one")
+    public long snapshotVersion;
+
+    @Label("Events Replayed")
+    public int eventsReplayed;
+
+    @Label("Archived Events Replayed")
+    public int archivedEventsReplayed;
+
+    @Label("Version")
+    @Description("Version of the aggregate after the replay")
+    public long version;
+}
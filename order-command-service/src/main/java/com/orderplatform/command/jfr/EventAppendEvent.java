@@ -0,0 +1,37 @@
+package com.orderplatform.command.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * An event appended to the store, together with the snapshot written when the aggregate reached
+ * the snapshot interval.
+ */
+@Name("com.orderplatform.EventAppend")
+@Label("Event Append")
+@Category({"Order Platform", "Command"})
+@Description("Domain event appended to the event store, with its snapshot if one was due")
+@StackTrace(false)
+@Threshold("5 ms")
+public class EventAppendEvent extends Event {
+
+    @Label("Aggregate Id")
+    public String aggregateId;
+
+    @Label("Command")
+    public String commandType;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Version")
+    public long version;
+
+    @Label("Snapshot Written")
+    public boolean snapshotWritten;
+}
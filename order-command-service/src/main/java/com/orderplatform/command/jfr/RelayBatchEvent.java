@@ -0,0 +1,44 @@
+package com.orderplatform.command.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A batch published by the event store relay, from reading it after the checkpoint to saving the
+ * new checkpoint. Empty polls are not recorded.
+ */
+@Name("com.orderplatform.RelayBatch")
+@Label("Relay Batch")
+@Category({"Order Platform", "Command"})
+@Description("Batch of events published to Kafka by the event store relay")
+@StackTrace(false)
+@Threshold("20 ms")
+public class RelayBatchEvent extends Event {
+
+    @Label("Shard")
+    public String shard;
+
+    @Label("Partition")
+    public int partition;
+
+    @Label("Events")
+    public int eventCount;
+
+    @Label("Skipped Events")
+    @Description("Events left out because they cannot be converted")
+    public int skippedEvents;
+
+    @Label("Payload Size")
+    @Description("Size of the JSON payloads published, one byte per character")
+    @DataAmount
+    public long payloadBytes;
+
+    @Label("Last Position")
+    public long lastPosition;
+}
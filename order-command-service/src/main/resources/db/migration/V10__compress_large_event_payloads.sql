@@ -0,0 +1,16 @@
+-- Large event payloads are stored compressed in a separate column; payload_codec tells readers
+-- which column holds the payload and how to decode it
+ALTER TABLE events ADD COLUMN payload_codec VARCHAR(16) NOT NULL DEFAULT 'json';
+ALTER TABLE events ADD COLUMN payload_compressed BYTEA;
+ALTER TABLE events ALTER COLUMN payload DROP NOT NULL;
+
+-- Already compressed; keep PostgreSQL from trying pglz on it again when it is moved out of line
+ALTER TABLE events ALTER COLUMN payload_compressed SET STORAGE EXTERNAL;
+
+ALTER TABLE events ADD CONSTRAINT events_payload_encoding CHECK (
+    (payload_codec = 'json' AND payload IS NOT NULL AND payload_compressed IS NULL)
+    OR (payload_codec <> 'json' AND payload IS NULL AND payload_compressed IS NOT NULL)
+);
+
+COMMENT ON COLUMN events.payload_codec IS 'Encoding of the payload: json (in payload) or lz4 (in payload_compressed)';
+COMMENT ON COLUMN events.payload_compressed IS 'Compressed JSON payload: 4-byte big-endian original length followed by an LZ4 block';
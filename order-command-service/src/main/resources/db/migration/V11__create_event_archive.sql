@@ -0,0 +1,37 @@
+-- Cold tier for the events of orders that reached a terminal status long ago. Their events move
+-- into compressed segments; the hot store keeps the final snapshot and a tombstone per aggregate.
+CREATE TABLE event_archive_segments (
+    aggregate_id UUID NOT NULL,
+    first_version BIGINT NOT NULL,
+    last_version BIGINT NOT NULL,
+    first_occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_count INTEGER NOT NULL,
+    codec VARCHAR(16) NOT NULL,
+    original_bytes INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (aggregate_id, first_version)
+);
+
+-- Already compressed; keep PostgreSQL from trying pglz on it again when it is moved out of line
+ALTER TABLE event_archive_segments ALTER COLUMN data SET STORAGE EXTERNAL;
+
+CREATE INDEX idx_event_archive_segments_occurred ON event_archive_segments(last_occurred_at, first_occurred_at);
+
+COMMENT ON TABLE event_archive_segments IS 'Archived events of terminal aggregates, one compressed segment per archival run';
+COMMENT ON COLUMN event_archive_segments.first_version IS 'Version of the first event in the segment';
+COMMENT ON COLUMN event_archive_segments.last_version IS 'Version of the last event in the segment';
+COMMENT ON COLUMN event_archive_segments.codec IS 'Encoding of data: lz4 (4-byte big-endian original length followed by an LZ4 block)';
+COMMENT ON COLUMN event_archive_segments.data IS 'Compressed JSON array of the archived event rows';
+
+CREATE TABLE archived_aggregates (
+    aggregate_id UUID PRIMARY KEY,
+    archived_version BIGINT NOT NULL,
+    final_status VARCHAR(20) NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE archived_aggregates IS 'Tombstones of aggregates whose events up to archived_version were moved to event_archive_segments';
+COMMENT ON COLUMN archived_aggregates.archived_version IS 'Last archived version; the final snapshot is taken at this version';
+COMMENT ON COLUMN archived_aggregates.final_status IS 'Order status when the aggregate was archived';
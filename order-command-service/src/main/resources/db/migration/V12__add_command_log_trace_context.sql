@@ -0,0 +1,6 @@
+-- Keep the W3C trace context of the request that enqueued a command, so its asynchronous
+-- execution and the events it appends continue that request's trace.
+ALTER TABLE command_log ADD COLUMN trace_context JSONB;
+
+COMMENT ON COLUMN command_log.trace_context IS 'W3C trace context (traceparent, tracestate) of the submitting request';
+COMMENT ON COLUMN events.metadata IS 'Event metadata, including the W3C trace context (traceparent, tracestate) of the command';
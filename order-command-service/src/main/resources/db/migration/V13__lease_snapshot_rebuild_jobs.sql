@@ -0,0 +1,8 @@
+-- Lease snapshot rebuild jobs to one instance at a time so replicas do not run the same job
+ALTER TABLE snapshot_rebuild_jobs ADD COLUMN owner_id VARCHAR(255);
+ALTER TABLE snapshot_rebuild_jobs ADD COLUMN lease_expires_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE snapshot_rebuild_jobs ADD COLUMN cancel_requested BOOLEAN NOT NULL DEFAULT FALSE;
+
+COMMENT ON COLUMN snapshot_rebuild_jobs.owner_id IS 'Instance currently running the job, if any';
+COMMENT ON COLUMN snapshot_rebuild_jobs.lease_expires_at IS 'Time after which another instance may resume the job';
+COMMENT ON COLUMN snapshot_rebuild_jobs.cancel_requested IS 'Set by a cancel request; the owner stops the job on its next heartbeat';
@@ -0,0 +1,17 @@
+-- Record events the Kafka relay could not convert, so they can be relayed again once fixed
+CREATE TABLE event_relay_failures (
+    event_id UUID PRIMARY KEY,
+    relay_name VARCHAR(100) NOT NULL,
+    global_position BIGINT NOT NULL,
+    error_message TEXT,
+    failed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    retry_requested BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX idx_event_relay_failures_retry ON event_relay_failures (relay_name, global_position)
+    WHERE retry_requested;
+
+COMMENT ON TABLE event_relay_failures IS 'Events the relay left out of the Kafka stream; removed once relayed';
+COMMENT ON COLUMN event_relay_failures.relay_name IS 'Relay partition the event belongs to';
+COMMENT ON COLUMN event_relay_failures.error_message IS 'Why the event could not be converted on the last attempt';
+COMMENT ON COLUMN event_relay_failures.retry_requested IS 'Set by a retry request; the partition owner relays the event on its next poll';
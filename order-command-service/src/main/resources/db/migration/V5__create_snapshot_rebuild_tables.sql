@@ -0,0 +1,41 @@
+-- Create tables tracking fleet-wide snapshot rebuild jobs and their per-partition checkpoints
+CREATE TABLE snapshot_rebuild_jobs (
+    job_id UUID PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    partition_count INT NOT NULL,
+    estimated_aggregates BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    started_at TIMESTAMP WITH TIME ZONE,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    error_message TEXT
+);
+
+CREATE TABLE snapshot_rebuild_partitions (
+    id UUID PRIMARY KEY,
+    job_id UUID NOT NULL REFERENCES snapshot_rebuild_jobs(job_id) ON DELETE CASCADE,
+    partition_no INT NOT NULL,
+    lower_bound UUID NOT NULL,
+    upper_bound UUID NOT NULL,
+    last_aggregate_id UUID,
+    processed_count BIGINT NOT NULL DEFAULT 0,
+    failed_count BIGINT NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT unique_job_partition UNIQUE (job_id, partition_no)
+);
+
+-- Create indexes for efficient querying
+CREATE INDEX idx_rebuild_jobs_status ON snapshot_rebuild_jobs(status);
+CREATE INDEX idx_rebuild_partitions_job_id ON snapshot_rebuild_partitions(job_id);
+
+-- Add comments for documentation
+COMMENT ON TABLE snapshot_rebuild_jobs IS 'Fleet-wide snapshot rebuild jobs triggered through the admin API';
+COMMENT ON COLUMN snapshot_rebuild_jobs.status IS 'Status of the job (RUNNING, COMPLETED, CANCELED, FAILED)';
+COMMENT ON COLUMN snapshot_rebuild_jobs.partition_count IS 'Number of aggregate-id ranges the job was split into';
+COMMENT ON COLUMN snapshot_rebuild_jobs.estimated_aggregates IS 'Number of aggregates in the event store when the job started';
+COMMENT ON TABLE snapshot_rebuild_partitions IS 'Resumable checkpoints for each aggregate-id range of a rebuild job';
+COMMENT ON COLUMN snapshot_rebuild_partitions.lower_bound IS 'Inclusive lower bound of the aggregate-id range';
+COMMENT ON COLUMN snapshot_rebuild_partitions.upper_bound IS 'Inclusive upper bound of the aggregate-id range';
+COMMENT ON COLUMN snapshot_rebuild_partitions.last_aggregate_id IS 'Last aggregate whose snapshots were rebuilt; processing resumes after it';
+COMMENT ON COLUMN snapshot_rebuild_partitions.processed_count IS 'Number of aggregates rebuilt in this range so far';
+COMMENT ON COLUMN snapshot_rebuild_partitions.failed_count IS 'Number of aggregates in this range whose rebuild failed and was skipped';
@@ -0,0 +1,34 @@
+-- Create command log for asynchronously accepted commands
+CREATE TABLE command_log (
+    command_id UUID PRIMARY KEY,
+    sequence_no BIGSERIAL NOT NULL,
+    aggregate_id UUID,
+    command_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    result JSONB,
+    error_message TEXT,
+    submitted_by VARCHAR(255),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    claimed_at TIMESTAMP WITH TIME ZONE,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT unique_command_log_sequence UNIQUE (sequence_no)
+);
+
+-- Create indexes for efficient claiming of pending work
+CREATE INDEX idx_command_log_pending ON command_log(sequence_no) WHERE status = 'PENDING';
+CREATE INDEX idx_command_log_aggregate_open ON command_log(aggregate_id, sequence_no) WHERE status IN ('PENDING', 'RUNNING');
+CREATE INDEX idx_command_log_completed_at ON command_log(completed_at);
+
+-- Add comments for documentation
+COMMENT ON TABLE command_log IS 'Durable queue of commands accepted with 202 and executed asynchronously';
+COMMENT ON COLUMN command_log.command_id IS 'Identifier returned to the client for status polling';
+COMMENT ON COLUMN command_log.sequence_no IS 'Enqueue order; commands for one aggregate execute in this order';
+COMMENT ON COLUMN command_log.aggregate_id IS 'Target aggregate, or NULL for commands that create a new aggregate';
+COMMENT ON COLUMN command_log.command_type IS 'Type of command (CreateOrder, ApproveOrder, etc.)';
+COMMENT ON COLUMN command_log.payload IS 'JSON representation of the validated command';
+COMMENT ON COLUMN command_log.status IS 'Status of the command (PENDING, RUNNING, SUCCEEDED, FAILED)';
+COMMENT ON COLUMN command_log.result IS 'JSON response of the command once it succeeded';
+COMMENT ON COLUMN command_log.error_message IS 'Reason the command failed';
+COMMENT ON COLUMN command_log.submitted_by IS 'User that submitted the command';
+COMMENT ON COLUMN command_log.claimed_at IS 'Timestamp when a worker started executing the command';
@@ -0,0 +1,41 @@
+-- Give every event a global position and record the writing transaction, so the Kafka relay
+-- can tail the events table directly instead of reading a copy from the outbox
+ALTER TABLE events ADD COLUMN global_position BIGSERIAL;
+ALTER TABLE events ADD CONSTRAINT unique_events_global_position UNIQUE (global_position);
+
+-- Existing events predate the relay and sort before everything written from now on
+ALTER TABLE events ADD COLUMN transaction_id BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE events ALTER COLUMN transaction_id SET DEFAULT (pg_current_xact_id()::text)::bigint;
+
+-- Create index for tailing events in relay order
+CREATE INDEX idx_events_transaction_position ON events(transaction_id, global_position);
+
+COMMENT ON COLUMN events.global_position IS 'Monotonically increasing position across all aggregates, assigned on insert';
+COMMENT ON COLUMN events.transaction_id IS 'PostgreSQL transaction that wrote the event; relays only read below the oldest in-flight transaction';
+
+-- Create checkpoint table for event relays
+CREATE TABLE event_relay_checkpoints (
+    relay_name VARCHAR(100) PRIMARY KEY,
+    last_transaction_id BIGINT NOT NULL,
+    last_position BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE event_relay_checkpoints IS 'Position up to which each relay has published the event store';
+COMMENT ON COLUMN event_relay_checkpoints.relay_name IS 'Name of the relay owning the checkpoint';
+COMMENT ON COLUMN event_relay_checkpoints.last_transaction_id IS 'Transaction ID of the last published event';
+COMMENT ON COLUMN event_relay_checkpoints.last_position IS 'Global position of the last published event';
+COMMENT ON COLUMN event_relay_checkpoints.updated_at IS 'Timestamp when the checkpoint was last advanced';
+
+-- Start the Kafka relay right before the first event the outbox had not published yet
+INSERT INTO event_relay_checkpoints (relay_name, last_transaction_id, last_position, updated_at)
+SELECT 'kafka-order-events', 0, COALESCE(
+    (SELECT MIN(e.global_position) - 1
+       FROM events e
+       JOIN outbox o ON o.payload->>'eventId' = e.event_id::text
+      WHERE o.status <> 'PUBLISHED'),
+    (SELECT MAX(global_position) FROM events),
+    0), NOW();
+
+-- The outbox copy of every event is no longer needed
+DROP TABLE outbox;
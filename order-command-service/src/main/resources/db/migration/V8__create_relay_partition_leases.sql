@@ -0,0 +1,15 @@
+-- Split the Kafka relay into partitions by aggregate hash, each leased to one instance at a time
+ALTER TABLE event_relay_checkpoints ADD COLUMN owner_id VARCHAR(255);
+ALTER TABLE event_relay_checkpoints ADD COLUMN lease_expires_at TIMESTAMP WITH TIME ZONE;
+
+COMMENT ON COLUMN event_relay_checkpoints.owner_id IS 'Instance currently leasing the relay partition, if any';
+COMMENT ON COLUMN event_relay_checkpoints.lease_expires_at IS 'Time after which another instance may take over the partition';
+
+-- Create membership table so instances can share relay partitions evenly
+CREATE TABLE event_relay_members (
+    instance_id VARCHAR(255) PRIMARY KEY,
+    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+COMMENT ON TABLE event_relay_members IS 'Instances taking part in the partitioned Kafka relay';
+COMMENT ON COLUMN event_relay_members.heartbeat_at IS 'Last time the instance announced itself';
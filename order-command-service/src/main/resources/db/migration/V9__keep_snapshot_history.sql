@@ -0,0 +1,20 @@
+-- Keep a bounded history of snapshots per aggregate instead of only the latest one,
+-- so state as of an earlier version or point in time loads from the nearest snapshot.
+ALTER TABLE snapshots ADD COLUMN as_of TIMESTAMP WITH TIME ZONE;
+
+UPDATE snapshots s
+SET as_of = e.occurred_at
+FROM events e
+WHERE e.aggregate_id = s.aggregate_id AND e.version = s.version;
+
+UPDATE snapshots SET as_of = created_at WHERE as_of IS NULL;
+
+ALTER TABLE snapshots ALTER COLUMN as_of SET NOT NULL;
+
+ALTER TABLE snapshots DROP CONSTRAINT snapshots_pkey;
+ALTER TABLE snapshots ADD PRIMARY KEY (aggregate_id, version);
+
+CREATE INDEX idx_snapshots_aggregate_as_of ON snapshots(aggregate_id, as_of);
+
+COMMENT ON TABLE snapshots IS 'Aggregate snapshots for optimizing event replay, thinned to a bounded history per aggregate';
+COMMENT ON COLUMN snapshots.as_of IS 'Occurrence time of the last event included in the snapshot';
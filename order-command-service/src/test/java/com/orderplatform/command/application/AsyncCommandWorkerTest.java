@@ -0,0 +1,146 @@
+package com.orderplatform.command.application;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.config.ShardingProperties;
+import com.orderplatform.command.config.UserContextHolder;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.CommandStageMetrics;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyStore;
+import com.orderplatform.command.infrastructure.memory.InMemoryCommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.persistence.CommandLogEntity;
+import com.orderplatform.command.infrastructure.persistence.CommandLogJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.infrastructure.tracing.EventOrigin;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import com.orderplatform.domain.commands.CreateOrderCommand;
+import com.orderplatform.domain.commands.OrderItemDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A claimed command runs in its own transaction, so a failure inside it that resolves to a recorded
+ * response does not poison the transaction writing the command's status.
+ */
+class AsyncCommandWorkerTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+    private final ResourcelessTransactionManager transactionManager = new ResourcelessTransactionManager();
+    private final InMemoryCommandDeduplicationRepository deduplicationTable =
+            new InMemoryCommandDeduplicationRepository(objectMapper);
+    private final CommandLogJpaRepository commandLogRepository = mock(CommandLogJpaRepository.class);
+    private final AsyncCommandService asyncCommandService = mock(AsyncCommandService.class);
+
+    private AsyncCommandWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new AsyncCommandWorker(commandLogRepository, commandService(), asyncCommandService,
+                transactionManager, objectMapper, meterRegistry, shardRouter,
+                new EventOrigin(mock(UserContextHolder.class)));
+        ReflectionTestUtils.setField(worker, "concurrency", 1);
+        worker.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        worker.shutdown();
+    }
+
+    @Test
+    void commandRecordedElsewhereSucceedsWithTheRecordedResponse() {
+        // Another replica ran the command and recorded its key; this one has not synced the key yet
+        OrderResponse original = commandService().createOrder(createOrder("key-1"));
+        CommandLogEntity entry = claim("CreateOrder", createOrder("key-1"));
+
+        worker.poll();
+
+        verify(asyncCommandService, timeout(5000)).notifyCompleted(entry.getCommandId());
+        assertThat(entry.getStatus()).isEqualTo(AsyncCommandService.STATUS_SUCCEEDED);
+        assertThat(entry.getResult()).containsEntry("orderId", original.orderId().toString());
+        assertThat(entry.getErrorMessage()).isNull();
+    }
+
+    @Test
+    void failedCommandIsRecordedAsFailed() {
+        CommandLogEntity entry = claim("CreateOrder", new CreateOrderCommand(UUID.randomUUID(), List.of(), "USD", null));
+
+        worker.poll();
+
+        verify(asyncCommandService, timeout(5000)).notifyCompleted(entry.getCommandId());
+        assertThat(entry.getStatus()).isEqualTo(AsyncCommandService.STATUS_FAILED);
+        assertThat(entry.getErrorMessage()).isNotBlank();
+    }
+
+    @SuppressWarnings("unchecked")
+    private CommandLogEntity claim(String commandType, Object command) {
+        CommandLogEntity entry = CommandLogEntity.builder()
+                .commandId(UUID.randomUUID())
+                .commandType(commandType)
+                .payload(objectMapper.convertValue(command, Map.class))
+                .status(AsyncCommandService.STATUS_PENDING)
+                .createdAt(Instant.now())
+                .build();
+        when(commandLogRepository.claimPending(any(), anyInt())).thenReturn(List.of(entry), List.of());
+        when(commandLogRepository.findById(entry.getCommandId())).thenReturn(Optional.of(entry));
+        return entry;
+    }
+
+    /**
+     * A command service on its own idempotency store over the shared deduplication table, as on a
+     * separate replica.
+     */
+    private OrderCommandService commandService() {
+        IdempotencyStore store = new IdempotencyStore(deduplicationTable, objectMapper, transactionManager,
+                meterRegistry, shardRouter);
+        ReflectionTestUtils.setField(store, "ttlHours", 24L);
+        ReflectionTestUtils.setField(store, "cacheSize", 100);
+        ReflectionTestUtils.setField(store, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(store, "cleanupBatchSize", 100);
+        store.init();
+
+        OrderCommandService service = new OrderCommandService(mock(AggregateLoader.class), store, shardRouter,
+                new TransactionTemplate(transactionManager), meterRegistry, new CommandStageMetrics(meterRegistry));
+        ReflectionTestUtils.setField(service, "conflictMaxAttempts", 4);
+        return service;
+    }
+
+    private static CreateOrderCommand createOrder(String idempotencyKey) {
+        return new CreateOrderCommand(
+                UUID.fromString("00000000-0000-0000-0000-000000000001"),
+                List.of(new OrderItemDto("SKU-1", "Widget", 2, new BigDecimal("9.99"))),
+                "USD",
+                idempotencyKey);
+    }
+}
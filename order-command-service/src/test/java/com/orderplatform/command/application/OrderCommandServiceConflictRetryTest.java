@@ -0,0 +1,120 @@
+package com.orderplatform.command.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.config.ShardingProperties;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.CommandStageMetrics;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyStore;
+import com.orderplatform.command.infrastructure.memory.InMemoryCommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import com.orderplatform.domain.Money;
+import com.orderplatform.domain.Order;
+import com.orderplatform.domain.OrderItem;
+import com.orderplatform.domain.OrderStatus;
+import com.orderplatform.domain.commands.ApproveOrderCommand;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A command that loses a race to append to its order is rolled back and run again in a new
+ * transaction, on freshly loaded state.
+ */
+class OrderCommandServiceConflictRetryTest {
+
+    private static final UUID ORDER_ID = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResourcelessTransactionManager transactionManager = new ResourcelessTransactionManager();
+    private final AggregateLoader aggregateLoader = mock(AggregateLoader.class);
+
+    private OrderCommandService service;
+
+    @BeforeEach
+    void setUp() {
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+        IdempotencyStore store = new IdempotencyStore(new InMemoryCommandDeduplicationRepository(objectMapper),
+                objectMapper, transactionManager, meterRegistry, shardRouter);
+        ReflectionTestUtils.setField(store, "ttlHours", 24L);
+        ReflectionTestUtils.setField(store, "cacheSize", 100);
+        ReflectionTestUtils.setField(store, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(store, "cleanupBatchSize", 100);
+        store.init();
+
+        service = new OrderCommandService(aggregateLoader, store, shardRouter,
+                new TransactionTemplate(transactionManager), meterRegistry, new CommandStageMetrics(meterRegistry));
+        ReflectionTestUtils.setField(service, "conflictMaxAttempts", 3);
+        ReflectionTestUtils.setField(service, "conflictInitialBackoffMs", 1L);
+        ReflectionTestUtils.setField(service, "conflictMaxBackoffMs", 2L);
+
+        when(aggregateLoader.loadAggregate(ORDER_ID)).thenAnswer(invocation -> Optional.of(createdOrder()));
+    }
+
+    @Test
+    void conflictingCommandIsRetriedInANewTransactionOnReloadedState() {
+        AtomicInteger appends = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (appends.incrementAndGet() == 1) {
+                throw new ConcurrencyConflictException(ORDER_ID, 1);
+            }
+            return null;
+        }).when(aggregateLoader).saveEventAndSnapshot(any(), any());
+
+        OrderResponse response = service.approveOrder(approve());
+
+        assertThat(response.status()).isEqualTo(OrderStatus.APPROVED);
+        verify(aggregateLoader, times(2)).loadAggregate(ORDER_ID);
+        assertThat(transactionManager.rollbacks()).isEqualTo(1);
+        assertThat(transactionManager.commits()).isEqualTo(1);
+        assertThat(meterRegistry.counter("commands.conflict.retries", "command", "ApproveOrder").count()).isEqualTo(1);
+    }
+
+    @Test
+    void commandFailsOnceTheAttemptsRunOut() {
+        doAnswer(invocation -> {
+            throw new ConcurrencyConflictException(ORDER_ID, 1);
+        }).when(aggregateLoader).saveEventAndSnapshot(any(), any());
+
+        assertThatThrownBy(() -> service.approveOrder(approve())).isInstanceOf(ConcurrencyConflictException.class);
+
+        assertThat(transactionManager.rollbacks()).isEqualTo(3);
+        assertThat(transactionManager.commits()).isZero();
+        assertThat(meterRegistry.counter("commands.conflict.exhausted", "command", "ApproveOrder").count()).isEqualTo(1);
+    }
+
+    private static ApproveOrderCommand approve() {
+        return new ApproveOrderCommand(ORDER_ID, UUID.randomUUID(), "ok", null);
+    }
+
+    private static Order createdOrder() {
+        Order order = new Order();
+        Money price = new Money(new BigDecimal("9.99"), "USD");
+        order.create(ORDER_ID, UUID.randomUUID(), List.of(new OrderItem("SKU-1", "Widget", 1, price, price)), "USD");
+        return order;
+    }
+}
@@ -0,0 +1,154 @@
+package com.orderplatform.command.application;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.application.dto.OrderResponse;
+import com.orderplatform.command.config.ShardingProperties;
+import com.orderplatform.command.domain.AggregateLoader;
+import com.orderplatform.command.domain.CommandStageMetrics;
+import com.orderplatform.command.infrastructure.idempotency.IdempotencyStore;
+import com.orderplatform.command.infrastructure.memory.InMemoryCommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import com.orderplatform.domain.commands.CreateOrderCommand;
+import com.orderplatform.domain.commands.OrderItemDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Replays of an idempotency key that get past the Bloom filter, because the key was recorded on
+ * another replica or is being recorded concurrently, must roll back and return the recorded response.
+ * Both replicas share one {@code command_deduplication} table, played by the in-memory repository.
+ */
+class OrderCommandServiceIdempotencyTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private InMemoryCommandDeduplicationRepository sharedTable;
+    private ResourcelessTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        sharedTable = new InMemoryCommandDeduplicationRepository(objectMapper);
+        transactionManager = new ResourcelessTransactionManager();
+    }
+
+    @Test
+    void replayOnAnotherReplicaBeforeKeySyncReturnsRecordedResponse() {
+        Replica first = new Replica(mock(AggregateLoader.class));
+        Replica second = new Replica(mock(AggregateLoader.class));
+
+        OrderResponse original = first.service.createOrder(createOrder("key-1"));
+        OrderResponse replayed = second.service.createOrder(createOrder("key-1"));
+
+        assertThat(replayed).isEqualTo(original);
+        // The replay ran, because the second replica's filter had not seen the key, but was rolled back
+        verify(second.aggregateLoader).saveEventAndSnapshot(any(), any());
+        assertThat(transactionManager.commits()).isEqualTo(2);
+        assertThat(transactionManager.rollbacks()).isEqualTo(1);
+    }
+
+    @Test
+    void replayAfterKeySyncIsAnsweredWithoutRunningTheCommand() {
+        Replica first = new Replica(mock(AggregateLoader.class));
+        Replica second = new Replica(mock(AggregateLoader.class));
+
+        OrderResponse original = first.service.createOrder(createOrder("key-2"));
+        second.store.syncRecentKeys();
+        OrderResponse replayed = second.service.createOrder(createOrder("key-2"));
+
+        assertThat(replayed).isEqualTo(original);
+        verify(second.aggregateLoader, times(0)).saveEventAndSnapshot(any(), any());
+        assertThat(transactionManager.rollbacks()).isZero();
+    }
+
+    @Test
+    void concurrentDuplicatesOnTwoReplicasApplyOnce() throws Exception {
+        // Hold both executions after their lookups until both have passed them
+        CyclicBarrier bothLookedUp = new CyclicBarrier(2);
+        Replica first = new Replica(waitingAggregateLoader(bothLookedUp));
+        Replica second = new Replica(waitingAggregateLoader(bothLookedUp));
+
+        CompletableFuture<OrderResponse> onFirst =
+                CompletableFuture.supplyAsync(() -> first.service.createOrder(createOrder("key-3")));
+        CompletableFuture<OrderResponse> onSecond =
+                CompletableFuture.supplyAsync(() -> second.service.createOrder(createOrder("key-3")));
+
+        OrderResponse firstResponse = onFirst.get(10, TimeUnit.SECONDS);
+        OrderResponse secondResponse = onSecond.get(10, TimeUnit.SECONDS);
+
+        assertThat(firstResponse).isEqualTo(secondResponse);
+        assertThat(sharedTable.findById("key-3")).get()
+                .satisfies(entity -> assertThat(entity.getAggregateId()).isEqualTo(firstResponse.orderId()));
+        // The winner commits its command, the loser rolls it back and commits the lookup of the recorded response
+        assertThat(transactionManager.rollbacks()).isEqualTo(1);
+        assertThat(transactionManager.commits()).isEqualTo(2);
+    }
+
+    private static AggregateLoader waitingAggregateLoader(CyclicBarrier barrier) {
+        AggregateLoader aggregateLoader = mock(AggregateLoader.class);
+        doAnswer(invocation -> {
+            barrier.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(aggregateLoader).saveEventAndSnapshot(any(), any());
+        return aggregateLoader;
+    }
+
+    private static CreateOrderCommand createOrder(String idempotencyKey) {
+        return new CreateOrderCommand(
+                UUID.fromString("00000000-0000-0000-0000-000000000001"),
+                List.of(new OrderItemDto("SKU-1", "Widget", 2, new BigDecimal("9.99"))),
+                "USD",
+                idempotencyKey);
+    }
+
+    private final class Replica {
+
+        private final AggregateLoader aggregateLoader;
+        private final IdempotencyStore store;
+        private final OrderCommandService service;
+
+        private Replica(AggregateLoader aggregateLoader) {
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
+            this.aggregateLoader = aggregateLoader;
+            this.store = new IdempotencyStore(sharedTable, objectMapper, transactionManager, meterRegistry, shardRouter);
+            ReflectionTestUtils.setField(store, "ttlHours", 24L);
+            ReflectionTestUtils.setField(store, "cacheSize", 100);
+            ReflectionTestUtils.setField(store, "expectedInsertions", 1000L);
+            ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+            ReflectionTestUtils.setField(store, "cleanupBatchSize", 100);
+            store.init();
+
+            this.service = new OrderCommandService(aggregateLoader, store, shardRouter,
+                    new TransactionTemplate(transactionManager), meterRegistry, new CommandStageMetrics(meterRegistry));
+            ReflectionTestUtils.setField(service, "conflictMaxAttempts", 4);
+        }
+    }
+}
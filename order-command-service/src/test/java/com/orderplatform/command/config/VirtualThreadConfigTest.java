@@ -0,0 +1,62 @@
+package com.orderplatform.command.config;
+
+import com.orderplatform.command.infrastructure.sharding.ShardDataSources;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every Hikari pool gets its own borrower limit, sized from that pool; other data sources are left alone.
+ */
+class VirtualThreadConfigTest {
+
+    private final BeanPostProcessor postProcessor =
+            VirtualThreadConfig.concurrencyLimitingDataSourcePostProcessor(new MockEnvironment());
+
+    @Test
+    void hikariPoolIsLimitedToItsOwnSize() {
+        Object limited = postProcessor.postProcessAfterInitialization(pool("primary", 7), "dataSource");
+
+        assertThat(limited).isInstanceOfSatisfying(ConcurrencyLimitingDataSource.class,
+                limiter -> assertThat(limiter.getMaxConcurrency()).isEqualTo(7));
+    }
+
+    @Test
+    void eachShardPoolIsLimitedToItsOwnSize() {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        pools.put("shard-a", pool("shard-a", 4));
+        pools.put("shard-b", pool("shard-b", 12));
+
+        Object limited = postProcessor.postProcessAfterInitialization(new ShardDataSources(pools), "shardDataSources");
+
+        assertThat(((ShardDataSources) limited).dataSources())
+                .hasEntrySatisfying("shard-a", dataSource -> assertThat(dataSource)
+                        .isInstanceOfSatisfying(ConcurrencyLimitingDataSource.class,
+                                limiter -> assertThat(limiter.getMaxConcurrency()).isEqualTo(4)))
+                .hasEntrySatisfying("shard-b", dataSource -> assertThat(dataSource)
+                        .isInstanceOfSatisfying(ConcurrencyLimitingDataSource.class,
+                                limiter -> assertThat(limiter.getMaxConcurrency()).isEqualTo(12)));
+    }
+
+    @Test
+    void otherDataSourcesAreNotWrapped() {
+        DataSource routing = new SimpleDriverDataSource();
+
+        assertThat(postProcessor.postProcessAfterInitialization(routing, "dataSource")).isSameAs(routing);
+    }
+
+    private static HikariDataSource pool(String name, int maximumPoolSize) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        return pool;
+    }
+}
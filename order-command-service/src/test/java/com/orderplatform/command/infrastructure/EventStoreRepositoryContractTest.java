@@ -0,0 +1,224 @@
+package com.orderplatform.command.infrastructure;
+
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.domain.EventPosition;
+import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.command.domain.RecordedEvent;
+import com.orderplatform.domain.events.DomainEvent;
+import com.orderplatform.domain.events.ItemRemovedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link EventStoreRepository} backend must share; one subclass runs it per backend.
+ * <p>
+ * A backend may keep events of earlier tests, so every test works on fresh aggregates and checks
+ * store-wide reads relative to what was there before.
+ */
+public abstract class EventStoreRepositoryContractTest {
+
+    // Microsecond precision, which is what PostgreSQL keeps
+    private static final Instant T0 = Instant.parse("2024-03-01T10:00:00Z");
+
+    protected abstract EventStoreRepository eventStore();
+
+    /**
+     * Transaction in which commands append their events.
+     */
+    protected abstract TransactionTemplate transaction();
+
+    @Test
+    void appendedEventsAreReadInVersionOrder() {
+        UUID aggregateId = UUID.randomUUID();
+
+        append(event(aggregateId, 1, T0), event(aggregateId, 2, T0), event(aggregateId, 3, T0));
+
+        assertThat(versions(eventStore().findByAggregateId(aggregateId))).containsExactly(1L, 2L, 3L);
+        assertThat(versions(eventStore().findByAggregateId(aggregateId, 2, 3))).containsExactly(2L, 3L);
+        assertThat(versions(eventStore().findByAggregateId(aggregateId, 2, 2))).containsExactly(2L);
+        assertThat(eventStore().findByAggregateId(aggregateId, 4, 10)).isEmpty();
+        assertThat(eventStore().findCurrentVersion(aggregateId)).isEqualTo(3);
+    }
+
+    @Test
+    void readEventKeepsItsIdentityAndPayload() {
+        UUID aggregateId = UUID.randomUUID();
+        ItemRemovedEvent appended = event(aggregateId, 1, T0);
+
+        append(appended);
+
+        DomainEvent read = eventStore().findByAggregateId(aggregateId).get(0);
+        assertThat(read).isInstanceOf(ItemRemovedEvent.class);
+        assertThat(read.getEventId()).isEqualTo(appended.getEventId());
+        assertThat(read.getAggregateId()).isEqualTo(aggregateId);
+        assertThat(read.getEventType()).isEqualTo(appended.getEventType());
+        assertThat(read.getOccurredAt()).isEqualTo(T0);
+        assertThat(((ItemRemovedEvent) read).getSku()).isEqualTo(appended.getSku());
+    }
+
+    @Test
+    void unknownAggregateHasNoEvents() {
+        UUID aggregateId = UUID.randomUUID();
+
+        assertThat(eventStore().findByAggregateId(aggregateId)).isEmpty();
+        assertThat(eventStore().findCurrentVersion(aggregateId)).isZero();
+    }
+
+    @Test
+    void appendAtAnotherVersionConflicts() {
+        UUID aggregateId = UUID.randomUUID();
+        append(event(aggregateId, 1, T0));
+
+        assertThatThrownBy(() -> append(event(aggregateId, 1, T0)))
+                .isInstanceOf(ConcurrencyConflictException.class);
+        assertThatThrownBy(() -> append(event(aggregateId, 3, T0)))
+                .isInstanceOf(ConcurrencyConflictException.class);
+        assertThatThrownBy(() -> append(event(UUID.randomUUID(), 2, T0)))
+                .isInstanceOf(ConcurrencyConflictException.class);
+
+        assertThat(versions(eventStore().findByAggregateId(aggregateId))).containsExactly(1L);
+    }
+
+    @Test
+    void transactionRemainsUsableAfterConflict() {
+        UUID aggregateId = UUID.randomUUID();
+        append(event(aggregateId, 1, T0));
+
+        transaction().executeWithoutResult(status -> {
+            assertThatThrownBy(() -> eventStore().append(event(aggregateId, 1, T0)))
+                    .isInstanceOf(ConcurrencyConflictException.class);
+            eventStore().append(event(aggregateId, 2, T0));
+        });
+
+        assertThat(eventStore().findCurrentVersion(aggregateId)).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackAppendIsNotStored() {
+        UUID aggregateId = UUID.randomUUID();
+        EventPosition head = eventStore().headPosition();
+
+        assertThatThrownBy(() -> transaction().executeWithoutResult(status -> {
+            eventStore().append(event(aggregateId, 1, T0));
+            throw new IllegalStateException("command failed");
+        })).hasMessage("command failed");
+
+        assertThat(eventStore().findCurrentVersion(aggregateId)).isZero();
+        assertThat(eventStore().headPosition()).isEqualTo(head);
+        append(event(aggregateId, 1, T0));
+        assertThat(eventStore().findCurrentVersion(aggregateId)).isEqualTo(1);
+    }
+
+    @Test
+    void findsEventsOccurredUntilFromVersion() {
+        UUID aggregateId = UUID.randomUUID();
+        append(event(aggregateId, 1, T0),
+                event(aggregateId, 2, T0.plusSeconds(10)),
+                event(aggregateId, 3, T0.plusSeconds(20)),
+                event(aggregateId, 4, T0.plusSeconds(30)));
+
+        assertThat(versions(eventStore().findByAggregateIdOccurredUntil(aggregateId, 1, T0.plusSeconds(20))))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(versions(eventStore().findByAggregateIdOccurredUntil(aggregateId, 2, T0.plusSeconds(15))))
+                .containsExactly(2L);
+        assertThat(eventStore().findByAggregateIdOccurredUntil(aggregateId, 1, T0.minusSeconds(1))).isEmpty();
+    }
+
+    @Test
+    void replaysEventsInOccurrenceOrder() {
+        // Far from the other tests' timestamps, so only these events fall into the window
+        Instant base = T0.plus(ThreadLocalRandom.current().nextInt(1, 100_000), ChronoUnit.DAYS);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        append(event(first, 1, base.plusSeconds(30)),
+                event(second, 1, base.plusSeconds(10)),
+                event(first, 2, base.plusSeconds(40)),
+                event(second, 2, base.plusSeconds(20)));
+
+        assertThat(occurredAt(ours(eventStore().findAllOrderByOccurredAt(base.plusSeconds(20)), first, second)))
+                .containsExactly(base.plusSeconds(20), base.plusSeconds(30), base.plusSeconds(40));
+        assertThat(occurredAt(ours(eventStore().findByOccurredAtBetween(base.plusSeconds(10), base.plusSeconds(30)),
+                first, second)))
+                .containsExactly(base.plusSeconds(10), base.plusSeconds(20), base.plusSeconds(30));
+    }
+
+    @Test
+    void listsAggregateIdsInUnsignedOrder() {
+        long prefix = ThreadLocalRandom.current().nextLong();
+        // The most significant bit of the low half is set, so signed and unsigned order differ
+        UUID high = new UUID(prefix, 0x8000_0000_0000_0001L);
+        UUID low = new UUID(prefix, 1);
+        UUID middle = new UUID(prefix, 0x7000_0000_0000_0000L);
+        long before = eventStore().countAggregates();
+
+        append(event(high, 1, T0), event(low, 1, T0), event(middle, 1, T0), event(middle, 2, T0));
+
+        UUID from = new UUID(prefix, 0);
+        UUID to = new UUID(prefix, -1);
+        assertThat(eventStore().findAggregateIds(from, to, 10)).containsExactly(low, middle, high);
+        assertThat(eventStore().findAggregateIds(from, to, 2)).containsExactly(low, middle);
+        assertThat(eventStore().findAggregateIds(middle, to, 10)).containsExactly(middle, high);
+        assertThat(eventStore().countAggregates()).isEqualTo(before + 3);
+    }
+
+    @Test
+    void readsCommittedEventsAfterPositionInAppendOrder() {
+        EventPosition head = eventStore().headPosition();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        transaction().executeWithoutResult(status -> {
+            eventStore().append(event(first, 1, T0));
+            eventStore().append(event(second, 1, T0));
+        });
+        append(event(first, 2, T0));
+
+        List<RecordedEvent> recorded = eventStore().readCommittedAfter(head, 10);
+        assertThat(recorded).extracting(event -> event.event().getAggregateId()).containsExactly(first, second, first);
+        assertThat(recorded).extracting(RecordedEvent::position).isSorted().doesNotHaveDuplicates();
+        assertThat(eventStore().headPosition()).isEqualTo(recorded.get(2).position());
+        assertThat(eventStore().readCommittedAfter(eventStore().headPosition(), 10)).isEmpty();
+
+        List<RecordedEvent> page = eventStore().readCommittedAfter(head, 2);
+        assertThat(page).hasSize(2);
+        assertThat(eventStore().readCommittedAfter(page.get(1).position(), 10))
+                .extracting(RecordedEvent::position)
+                .containsExactly(recorded.get(2).position());
+    }
+
+    /**
+     * Appends each event in a transaction of its own, the way a command does.
+     */
+    protected void append(DomainEvent... events) {
+        for (DomainEvent event : events) {
+            transaction().executeWithoutResult(status -> eventStore().append(event));
+        }
+    }
+
+    protected static ItemRemovedEvent event(UUID aggregateId, long version, Instant occurredAt) {
+        return new ItemRemovedEvent(UUID.randomUUID(), aggregateId, version, occurredAt, "SKU-" + version);
+    }
+
+    private static List<Long> versions(List<DomainEvent> events) {
+        return events.stream().map(DomainEvent::getVersion).toList();
+    }
+
+    private static List<Instant> occurredAt(List<DomainEvent> events) {
+        return events.stream().map(DomainEvent::getOccurredAt).toList();
+    }
+
+    private static List<DomainEvent> ours(List<DomainEvent> events, UUID... aggregateIds) {
+        Set<UUID> ids = Set.of(aggregateIds);
+        return events.stream().filter(event -> ids.contains(event.getAggregateId())).toList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.orderplatform.command.infrastructure;
+
+import com.orderplatform.command.domain.EventStoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the event store contract against {@link EventStoreRepositoryImpl} on PostgreSQL, with the
+ * schema created by the Flyway migrations. Skipped where Docker is not available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "app.event-store.backend=jpa",
+        "app.event-relay.enabled=false",
+        "app.commands.async.worker.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class JpaEventStoreRepositoryContractTest extends EventStoreRepositoryContractTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private EventStoreRepository eventStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    protected EventStoreRepository eventStore() {
+        return eventStore;
+    }
+
+    @Override
+    protected TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+}
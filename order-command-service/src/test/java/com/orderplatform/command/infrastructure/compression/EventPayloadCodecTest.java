@@ -0,0 +1,177 @@
+package com.orderplatform.command.infrastructure.compression;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.infrastructure.compression.EventPayloadCodec.EncodedPayload;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import com.orderplatform.domain.Money;
+import com.orderplatform.domain.OrderItem;
+import com.orderplatform.domain.events.ItemRemovedEvent;
+import com.orderplatform.domain.events.ItemsAddedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventPayloadCodecTest {
+
+    private static final int THRESHOLD_BYTES = 1024;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventPayloadCodec codec;
+
+    @BeforeEach
+    void createCodec() {
+        codec = codec(true);
+    }
+
+    @Test
+    void largePayloadRoundTripsThroughLz4() throws Exception {
+        ItemsAddedEvent event = itemsAdded(40);
+        byte[] json = objectMapper.writeValueAsBytes(event);
+        assertThat(json.length).isGreaterThan(THRESHOLD_BYTES);
+
+        EncodedPayload encoded = codec.encode(event.getEventType(), json);
+
+        assertThat(encoded.codec()).isEqualTo(EventPayloadCodec.LZ4);
+        assertThat(encoded.data().length).isLessThan(json.length);
+        EventEntity stored = stored(event.getEventType(), encoded);
+        assertThat(codec.readPayload(stored, ItemsAddedEvent.class)).isEqualTo(event);
+        assertThat(codec.payloadJson(stored)).isEqualTo(new String(json, StandardCharsets.UTF_8));
+        assertThat(meterRegistry.get("event.payload.compression.ratio").summary().count()).isEqualTo(1);
+        assertThat(storedBytes(event.getEventType())).isEqualTo(encoded.data().length);
+    }
+
+    @Test
+    void payloadBelowThresholdStaysJson() throws Exception {
+        ItemRemovedEvent event = new ItemRemovedEvent(UUID.randomUUID(), UUID.randomUUID(), 2, now(), "SKU-1");
+        byte[] json = objectMapper.writeValueAsBytes(event);
+        assertThat(json.length).isLessThan(THRESHOLD_BYTES);
+
+        EncodedPayload encoded = codec.encode(event.getEventType(), json);
+
+        assertThat(encoded.codec()).isEqualTo(EventPayloadCodec.JSON);
+        assertThat(encoded.data()).isEqualTo(json);
+        EventEntity stored = stored(event.getEventType(), encoded);
+        assertThat(codec.readPayload(stored, ItemRemovedEvent.class)).isEqualTo(event);
+        assertThat(objectMapper.readTree(codec.payloadJson(stored))).isEqualTo(objectMapper.readTree(json));
+        assertThat(meterRegistry.find("event.payload.compression.ratio").summary()).isNull();
+        assertThat(storedBytes(event.getEventType())).isEqualTo(json.length);
+    }
+
+    @Test
+    void incompressiblePayloadStaysJson() {
+        byte[] random = new byte[2 * THRESHOLD_BYTES];
+        new Random(7).nextBytes(random);
+        byte[] json = ("{\"noise\":\"" + Base64.getEncoder().encodeToString(random) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(codec.encode("OrderCreatedEvent", json).codec()).isEqualTo(EventPayloadCodec.JSON);
+    }
+
+    @Test
+    void disabledCompressionStoresJson() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(itemsAdded(40));
+
+        EncodedPayload encoded = codec(false).encode("ItemsAddedEvent", json);
+
+        assertThat(encoded.codec()).isEqualTo(EventPayloadCodec.JSON);
+        assertThat(encoded.data()).isEqualTo(json);
+    }
+
+    @Test
+    void readsRowsWrittenBeforeThePayloadCodecColumn() throws Exception {
+        ItemsAddedEvent event = itemsAdded(40);
+        EventEntity legacy = EventEntity.builder()
+                .eventId(event.getEventId())
+                .eventType(event.getEventType())
+                .payload(objectMapper.convertValue(event, new TypeReference<Map<String, Object>>() { }))
+                .payloadCodec(null)
+                .build();
+
+        assertThat(codec.readPayload(legacy, ItemsAddedEvent.class)).isEqualTo(event);
+        assertThat(objectMapper.readTree(codec.payloadJson(legacy))).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(event)));
+    }
+
+    @Test
+    void rejectsUnknownCodec() {
+        EventEntity stored = EventEntity.builder()
+                .eventId(UUID.randomUUID())
+                .eventType("ItemsAddedEvent")
+                .payloadCodec("zstd")
+                .payloadCompressed(new byte[] {0, 0, 0, 1, 0})
+                .build();
+
+        assertThatThrownBy(() -> codec.readPayload(stored, ItemsAddedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown payload codec zstd");
+    }
+
+    @Test
+    void blocksRoundTrip() {
+        byte[] data = "[{\"sku\":\"SKU-1\"},{\"sku\":\"SKU-1\"},{\"sku\":\"SKU-1\"}]".repeat(20).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(codec.decompressBlock(codec.compressBlock(data))).isEqualTo(data);
+        assertThat(codec.decompressBlock(codec.compressBlock(new byte[0]))).isEmpty();
+    }
+
+    /**
+     * The row as {@code appendIfAtVersion} writes it: JSON payloads go to the {@code payload} column,
+     * compressed ones to {@code payload_compressed}.
+     */
+    private EventEntity stored(String eventType, EncodedPayload encoded) throws Exception {
+        boolean json = EventPayloadCodec.JSON.equals(encoded.codec());
+        return EventEntity.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(eventType)
+                .payloadCodec(encoded.codec())
+                .payload(json ? objectMapper.readValue(encoded.data(), new TypeReference<Map<String, Object>>() { }) : null)
+                .payloadCompressed(json ? null : encoded.data())
+                .build();
+    }
+
+    private double storedBytes(String eventType) {
+        return meterRegistry.get("event.payload.bytes").tag("event_type", eventType).tag("form", "stored").counter().count();
+    }
+
+    private EventPayloadCodec codec(boolean enabled) {
+        EventPayloadCodec created = new EventPayloadCodec(objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(created, "enabled", enabled);
+        ReflectionTestUtils.setField(created, "thresholdBytes", THRESHOLD_BYTES);
+        ReflectionTestUtils.setField(created, "minSavings", 0.2);
+        return created;
+    }
+
+    private static ItemsAddedEvent itemsAdded(int itemCount) {
+        Money unitPrice = new Money(new BigDecimal("12.50"), "USD");
+        return new ItemsAddedEvent(UUID.randomUUID(), UUID.randomUUID(), 3, now(),
+                IntStream.range(0, itemCount)
+                        .mapToObj(i -> new OrderItem("SKU-" + i, "Product " + i, 1, unitPrice, unitPrice))
+                        .toList());
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,50 @@
+package com.orderplatform.command.infrastructure.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    private static final int EXPECTED_INSERTIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void neverForgetsAKey() {
+        BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+        IntStream.range(0, EXPECTED_INSERTIONS).forEach(i -> filter.put("present-" + i));
+
+        assertThat(IntStream.range(0, EXPECTED_INSERTIONS).allMatch(i -> filter.mightContain("present-" + i))).isTrue();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRateAtExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+        IntStream.range(0, EXPECTED_INSERTIONS).forEach(i -> filter.put(UUID.nameUUIDFromBytes(("present-" + i).getBytes()).toString()));
+
+        int probes = 200_000;
+        long falsePositives = IntStream.range(0, probes)
+                .filter(i -> filter.mightContain(UUID.nameUUIDFromBytes(("absent-" + i).getBytes()).toString()))
+                .count();
+
+        assertThat(falsePositives / (double) probes).isLessThan(FALSE_POSITIVE_RATE * 1.5);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+
+        assertThat(IntStream.range(0, 10_000).noneMatch(i -> filter.mightContain("key-" + i))).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThatThrownBy(() -> new BloomFilter(0, FALSE_POSITIVE_RATE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(EXPECTED_INSERTIONS, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(EXPECTED_INSERTIONS, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,133 @@
+package com.orderplatform.command.infrastructure.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.config.ShardingProperties;
+import com.orderplatform.command.infrastructure.memory.InMemoryCommandDeduplicationRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class IdempotencyStoreTest {
+
+    private static final UUID ORDER_ID = UUID.fromString("00000000-0000-0000-0000-000000000042");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CommandDeduplicationRepository repository;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = spy(new InMemoryCommandDeduplicationRepository(objectMapper));
+        store = newStore();
+    }
+
+    @Test
+    void unseenKeysAreAnsweredByTheFilterWithoutADatabaseLookup() {
+        assertThat(store.findResponse("never-used", "ApproveOrder", ORDER_ID, Map.class)).isEmpty();
+
+        verify(repository, never()).findById(anyString());
+        assertThat(lookups("filtered")).isEqualTo(1);
+    }
+
+    @Test
+    void recordedKeyIsFoundInCurrentFilterAndCache() {
+        assertThat(store.record("key", ORDER_ID, "ApproveOrder", Map.of("orderId", ORDER_ID.toString()))).isTrue();
+
+        assertThat(store.findResponse("key", "ApproveOrder", ORDER_ID, Map.class))
+                .hasValueSatisfying(response -> assertThat(response).containsEntry("orderId", ORDER_ID.toString()));
+        assertThat(lookups("cached")).isEqualTo(1);
+    }
+
+    @Test
+    void keyStaysInPreviousFilterForOneRotation() {
+        store.record("key", ORDER_ID, "ApproveOrder", Map.of("orderId", ORDER_ID.toString()));
+
+        store.rotateFilters();
+        assertThat(store.findResponse("key", "ApproveOrder", ORDER_ID, Map.class)).isPresent();
+
+        // A second rotation drops the generation holding the key; by then its row is past the TTL
+        store.rotateFilters();
+        assertThat(store.findResponse("key", "ApproveOrder", ORDER_ID, Map.class)).isEmpty();
+        assertThat(lookups("filtered")).isEqualTo(1);
+    }
+
+    @Test
+    void keysRecordedAfterRotationGoToTheNewGeneration() {
+        store.rotateFilters();
+        store.record("key", ORDER_ID, "ApproveOrder", Map.of("orderId", ORDER_ID.toString()));
+
+        store.rotateFilters();
+        assertThat(store.findResponse("key", "ApproveOrder", ORDER_ID, Map.class)).isPresent();
+    }
+
+    @Test
+    void keysOfOtherInstancesAreFoundOnceSynchronized() {
+        repository.insertIfAbsent("remote-key", ORDER_ID, "ApproveOrder",
+                "{\"orderId\":\"" + ORDER_ID + "\"}", Instant.now());
+        assertThat(store.findResponse("remote-key", "ApproveOrder", ORDER_ID, Map.class)).isEmpty();
+
+        store.syncRecentKeys();
+
+        assertThat(store.findResponse("remote-key", "ApproveOrder", ORDER_ID, Map.class)).isPresent();
+        assertThat(lookups("database_hit")).isEqualTo(1);
+    }
+
+    @Test
+    void startupLoadsKeysWithinTheTtl() {
+        repository.insertIfAbsent("old-key", ORDER_ID, "ApproveOrder", "{}", Instant.now().minusSeconds(60));
+
+        IdempotencyStore restarted = newStore();
+
+        assertThat(restarted.findResponse("old-key", "ApproveOrder", ORDER_ID, Map.class)).isPresent();
+    }
+
+    @Test
+    void reportsKeyRecordedConcurrently() {
+        assertThat(store.record("key", ORDER_ID, "ApproveOrder", Map.of())).isTrue();
+
+        assertThat(newStore().record("key", ORDER_ID, "ApproveOrder", Map.of())).isFalse();
+    }
+
+    @Test
+    void rejectsKeyReusedForAnotherCommand() {
+        store.record("key", ORDER_ID, "ApproveOrder", Map.of());
+
+        assertThatThrownBy(() -> store.findResponse("key", "CancelOrder", ORDER_ID, Map.class))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    private IdempotencyStore newStore() {
+        IdempotencyStore newStore = new IdempotencyStore(repository, objectMapper, new ResourcelessTransactionManager(),
+                meterRegistry, new ShardRouter(new ShardingProperties()));
+        ReflectionTestUtils.setField(newStore, "ttlHours", 24L);
+        ReflectionTestUtils.setField(newStore, "cacheSize", 100);
+        ReflectionTestUtils.setField(newStore, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(newStore, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(newStore, "cleanupBatchSize", 100);
+        newStore.init();
+        return newStore;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("idempotency.lookups").tag("result", result).counter().count();
+    }
+}
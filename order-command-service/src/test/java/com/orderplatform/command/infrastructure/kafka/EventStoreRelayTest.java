@@ -0,0 +1,186 @@
+package com.orderplatform.command.infrastructure.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.config.ShardingProperties;
+import com.orderplatform.command.infrastructure.compression.EventPayloadCodec;
+import com.orderplatform.command.infrastructure.persistence.EventEntity;
+import com.orderplatform.command.infrastructure.persistence.EventJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointEntity;
+import com.orderplatform.command.infrastructure.persistence.EventRelayCheckpointJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayFailureEntity;
+import com.orderplatform.command.infrastructure.persistence.EventRelayFailureJpaRepository;
+import com.orderplatform.command.infrastructure.persistence.EventRelayMemberJpaRepository;
+import com.orderplatform.command.infrastructure.sharding.ShardRouter;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import com.orderplatform.events.avro.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * An event the relay cannot convert is recorded instead of dropped, and a requested retry publishes
+ * it once it converts.
+ */
+class EventStoreRelayTest {
+
+    private static final String INSTANCE_ID = "relay-test";
+    private static final String PARTITION = EventStoreRelay.RELAY_NAME + "/0";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final EventJpaRepository eventRepository = mock(EventJpaRepository.class);
+    private final EventRelayCheckpointJpaRepository checkpointRepository = mock(EventRelayCheckpointJpaRepository.class);
+    private final EventRelayMemberJpaRepository memberRepository = mock(EventRelayMemberJpaRepository.class);
+    private final EventRelayFailureJpaRepository failureRepository = mock(EventRelayFailureJpaRepository.class);
+    private final RelayProducers relayProducers = mock(RelayProducers.class);
+    private final MockProducer<String, Object> producer =
+            new MockProducer<>(true, new StringSerializer(), (topic, value) -> new byte[0]);
+    private final EventRelayCheckpointEntity checkpoint = EventRelayCheckpointEntity.builder()
+            .relayName(PARTITION)
+            .lastTransactionId(0L)
+            .lastPosition(0L)
+            .updatedAt(Instant.now())
+            .ownerId(INSTANCE_ID)
+            .build();
+
+    private EventStoreRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        EventPayloadCodec payloadCodec = new EventPayloadCodec(objectMapper, new SimpleMeterRegistry());
+        relay = new EventStoreRelay(eventRepository, checkpointRepository, memberRepository, failureRepository,
+                relayProducers, payloadCodec, new ShardRouter(new ShardingProperties()),
+                new TransactionTemplate(new ResourcelessTransactionManager()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "orderEventsTopic", "order-events");
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "partitions", 1);
+        ReflectionTestUtils.setField(relay, "leaseDurationMs", 15000L);
+        ReflectionTestUtils.setField(relay, "instanceId", INSTANCE_ID);
+        ReflectionTestUtils.setField(relay, "transactionIdPrefix", "test-");
+        ReflectionTestUtils.setField(relay, "backlogCountLimit", 1000);
+        relay.init();
+
+        producer.initTransactions();
+        when(relayProducers.get(anyString())).thenReturn(producer);
+        when(memberRepository.countByHeartbeatAtAfter(any())).thenReturn(1L);
+        when(checkpointRepository.renewLeases(any(), any(), any())).thenReturn(List.of(PARTITION));
+        when(checkpointRepository.lockByRelayName(PARTITION)).thenReturn(Optional.of(checkpoint));
+        when(eventRepository.findCommittedAfterInPartition(anyLong(), anyLong(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(List.of());
+        when(failureRepository.findByRetryRequestedTrueOrderByGlobalPositionAsc()).thenReturn(List.of());
+    }
+
+    @Test
+    void eventThatCannotBeConvertedIsRecordedAndTheRestIsPublished() {
+        EventEntity readable = event(1, EventPayloadCodec.JSON);
+        EventEntity unreadable = event(2, "zstd");
+        EventEntity later = event(3, EventPayloadCodec.JSON);
+        when(eventRepository.findCommittedAfterInPartition(anyLong(), anyLong(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(List.of(readable, unreadable, later), List.of());
+
+        relay.relayEvents();
+
+        assertThat(publishedEventIds()).containsExactly(readable.getEventId().toString(), later.getEventId().toString());
+        ArgumentCaptor<EventRelayFailureEntity> recorded = ArgumentCaptor.forClass(EventRelayFailureEntity.class);
+        verify(failureRepository).save(recorded.capture());
+        assertThat(recorded.getValue().getEventId()).isEqualTo(unreadable.getEventId());
+        assertThat(recorded.getValue().getRelayName()).isEqualTo(PARTITION);
+        assertThat(recorded.getValue().getGlobalPosition()).isEqualTo(2L);
+        assertThat(recorded.getValue().getErrorMessage()).contains("zstd");
+        assertThat(recorded.getValue().isRetryRequested()).isFalse();
+        assertThat(checkpoint.getLastPosition()).isEqualTo(3L);
+    }
+
+    @Test
+    void requestedRetryPublishesTheEventAndForgetsTheFailure() {
+        EventEntity fixed = event(2, EventPayloadCodec.JSON);
+        EventRelayFailureEntity failure = failure(fixed.getEventId(), 2);
+        when(failureRepository.findByRetryRequestedTrueOrderByGlobalPositionAsc()).thenReturn(List.of(failure));
+        when(eventRepository.findById(fixed.getEventId())).thenReturn(Optional.of(fixed));
+
+        relay.relayEvents();
+
+        assertThat(publishedEventIds()).containsExactly(fixed.getEventId().toString());
+        assertThat(producer.transactionCommitted()).isTrue();
+        verify(failureRepository).delete(failure);
+    }
+
+    @Test
+    void retriedEventThatStillFailsKeepsItsRecordWithTheNewError() {
+        EventEntity stillUnreadable = event(2, "zstd");
+        EventRelayFailureEntity failure = failure(stillUnreadable.getEventId(), 2);
+        when(failureRepository.findByRetryRequestedTrueOrderByGlobalPositionAsc()).thenReturn(List.of(failure));
+        when(eventRepository.findById(stillUnreadable.getEventId())).thenReturn(Optional.of(stillUnreadable));
+
+        relay.relayEvents();
+
+        assertThat(producer.history()).isEmpty();
+        verify(failureRepository, never()).delete(any());
+        verify(failureRepository).save(failure);
+        assertThat(failure.isRetryRequested()).isFalse();
+        assertThat(failure.getErrorMessage()).contains("zstd");
+    }
+
+    private List<String> publishedEventIds() {
+        return producer.history().stream()
+                .map(ProducerRecord::value)
+                .map(value -> ((OrderEvent) value).getEventId().toString())
+                .toList();
+    }
+
+    private static EventEntity event(long position, String payloadCodec) {
+        return EventEntity.builder()
+                .eventId(UUID.randomUUID())
+                .aggregateId(UUID.randomUUID())
+                .eventType("OrderCreated")
+                .version(1L)
+                .payload(Map.of("currency", "USD"))
+                .payloadCodec(payloadCodec)
+                .payloadCompressed(EventPayloadCodec.JSON.equals(payloadCodec) ? null : new byte[]{1, 2, 3})
+                .occurredAt(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                .globalPosition(position)
+                .transactionId(position)
+                .build();
+    }
+
+    private static EventRelayFailureEntity failure(UUID eventId, long position) {
+        return EventRelayFailureEntity.builder()
+                .eventId(eventId)
+                .relayName(PARTITION)
+                .globalPosition(position)
+                .errorMessage("Unknown payload codec zstd")
+                .failedAt(Instant.now())
+                .retryRequested(true)
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package com.orderplatform.command.infrastructure.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void createLimiter() {
+        limiter = limiter(true);
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtBaseline() {
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(BASELINE_RTT, limiter.getLimit());
+            assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(previous);
+            previous = limiter.getLimit();
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void growthStopsAtMaxLimit() {
+        for (int i = 0; i < 1_000; i++) {
+            limiter.onSample(BASELINE_RTT, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesAboveTolerance() {
+        limiter.onSample(BASELINE_RTT, 20);
+
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample(4 * BASELINE_RTT, limiter.getLimit());
+            assertThat(limiter.getLimit()).isLessThanOrEqualTo(previous);
+            previous = limiter.getLimit();
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(15);
+    }
+
+    @Test
+    void latencyWithinToleranceDoesNotShrinkTheLimit() {
+        limiter.onSample(BASELINE_RTT, 20);
+        limiter.onSample(BASELINE_RTT * 14 / 10, 20);
+
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void shrinkingStopsAtMinLimit() {
+        limiter.onSample(BASELINE_RTT, 20);
+        // Well within the long window, before the baseline has caught up with the slowdown
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(10 * BASELINE_RTT, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void ignoresLatencyWhileTheLimitIsNotUsed() {
+        limiter.onSample(BASELINE_RTT, 20);
+        limiter.onSample(10 * BASELINE_RTT, 2);
+        limiter.onSample(BASELINE_RTT / 10, 2);
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void rejectsCommandsBeyondTheLimit() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permits.add(limiter.tryAcquire().orElseThrow());
+        }
+
+        assertThat(limiter.tryAcquire()).isEmpty();
+        assertThatThrownBy(() -> limiter.execute(() -> "never runs"))
+                .isInstanceOf(ConcurrencyLimitExceededException.class);
+        assertThat(meterRegistry.get("commands.limiter.rejected").counter().count()).isEqualTo(2);
+
+        permits.get(0).onIgnore();
+        permits.get(0).onIgnore();
+        assertThat(limiter.tryAcquire()).isPresent();
+        assertThat(limiter.tryAcquire()).isEmpty();
+    }
+
+    @Test
+    void poolAndStatementTimeoutsCutTheLimit() {
+        failWith(() -> new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("Connection is not available, request timed out")));
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        failWith(() -> new QueryTimeoutException("canceling statement due to statement timeout"));
+        assertThat(limiter.getLimit()).isEqualTo(16);
+
+        failWith(() -> new IllegalStateException(new SQLTimeoutException("query timed out")));
+        assertThat(limiter.getLimit()).isEqualTo(14);
+
+        assertThat(meterRegistry.get("commands.limiter.dropped").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("commands.limiter.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void lockingFailuresAreContentionNotOverload() {
+        failWith(() -> new OptimisticLockingFailureException("row was updated by another transaction"));
+        failWith(() -> new CannotAcquireLockException("could not obtain lock on row",
+                new SQLTimeoutException("lock timeout")));
+        failWith(() -> new PessimisticLockingFailureException("deadlock detected"));
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+        assertThat(meterRegistry.get("commands.limiter.dropped").counter().count()).isZero();
+        assertThat(meterRegistry.get("commands.limiter.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void otherFailuresLeaveTheLimitAlone() {
+        failWith(() -> new IllegalArgumentException("Items cannot be null or empty"));
+        failWith(() -> new TransientDataAccessResourceException("connection reset"));
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void errorsGiveThePermitBack() {
+        for (int i = 0; i < 25; i++) {
+            assertThatThrownBy(() -> limiter.execute(() -> {
+                throw new StackOverflowError();
+            })).isInstanceOf(StackOverflowError.class);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+        assertThat(meterRegistry.get("commands.limiter.inflight").gauge().value()).isZero();
+        assertThat(limiter.tryAcquire()).isPresent();
+    }
+
+    @Test
+    void disabledLimiterAdmitsEverything() {
+        AdaptiveConcurrencyLimiter disabled = limiter(false);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(disabled.tryAcquire()).isPresent();
+        }
+    }
+
+    private void failWith(Supplier<RuntimeException> error) {
+        RuntimeException thrown = error.get();
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw thrown;
+        })).isSameAs(thrown);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(boolean enabled) {
+        AdaptiveConcurrencyLimiter created = new AdaptiveConcurrencyLimiter(
+                enabled ? meterRegistry : new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(created, "enabled", enabled);
+        ReflectionTestUtils.setField(created, "initialLimit", 20);
+        ReflectionTestUtils.setField(created, "minLimit", 4);
+        ReflectionTestUtils.setField(created, "maxLimit", 50);
+        ReflectionTestUtils.setField(created, "smoothing", 0.2);
+        ReflectionTestUtils.setField(created, "rttTolerance", 1.5);
+        ReflectionTestUtils.setField(created, "longWindow", 600);
+        ReflectionTestUtils.setField(created, "retryAfterSeconds", 1L);
+        created.init();
+        return created;
+    }
+}
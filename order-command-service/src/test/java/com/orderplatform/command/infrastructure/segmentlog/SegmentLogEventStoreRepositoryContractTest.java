@@ -0,0 +1,97 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.domain.EventPosition;
+import com.orderplatform.command.domain.EventStoreRepository;
+import com.orderplatform.command.infrastructure.EventStoreRepositoryContractTest;
+import com.orderplatform.command.infrastructure.subscription.CatchUpSubscriptionManager;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentLogEventStoreRepositoryContractTest extends EventStoreRepositoryContractTest {
+
+    // Small enough that the contract tests roll over to new segments
+    private static final int SEGMENT_SIZE = 1024;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final TransactionTemplate transaction = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    @TempDir
+    Path directory;
+
+    private SegmentLog segmentLog;
+    private SegmentLogEventStoreRepository repository;
+
+    @BeforeEach
+    void open() {
+        reopen();
+    }
+
+    @AfterEach
+    void close() {
+        segmentLog.close();
+    }
+
+    @Override
+    protected EventStoreRepository eventStore() {
+        return repository;
+    }
+
+    @Override
+    protected TransactionTemplate transaction() {
+        return transaction;
+    }
+
+    @Test
+    void indexesAreRebuiltWhenTheLogIsReopened() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        for (int version = 1; version <= 5; version++) {
+            append(event(first, version, Instant.now()), event(second, version, Instant.now()));
+        }
+        EventPosition head = repository.headPosition();
+        assertThat(segmentLog.segmentCount()).isGreaterThan(1);
+
+        segmentLog.close();
+        reopen();
+
+        assertThat(repository.headPosition()).isEqualTo(head);
+        assertThat(repository.findCurrentVersion(first)).isEqualTo(5);
+        assertThat(repository.findByAggregateId(second, 3, 4)).extracting(event -> event.getVersion())
+                .containsExactly(3L, 4L);
+        assertThat(repository.readCommittedAfter(EventPosition.START, 100)).hasSize(10);
+        assertThat(repository.countAggregates()).isEqualTo(2);
+
+        append(event(first, 6, Instant.now()));
+        assertThat(repository.headPosition()).isEqualTo(new EventPosition(0, 11));
+    }
+
+    private void reopen() {
+        segmentLog = SegmentLog.open(directory, SEGMENT_SIZE, Duration.ZERO);
+        repository = new SegmentLogEventStoreRepository(segmentLog, objectMapper,
+                new StaticListableBeanFactory().getBeanProvider(CatchUpSubscriptionManager.class), event -> { },
+                new SimpleMeterRegistry());
+        repository.init();
+    }
+}
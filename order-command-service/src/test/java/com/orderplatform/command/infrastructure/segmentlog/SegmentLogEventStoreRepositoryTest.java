@@ -0,0 +1,176 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderplatform.command.config.SegmentLogProperties;
+import com.orderplatform.command.domain.ConcurrencyConflictException;
+import com.orderplatform.command.domain.EventPosition;
+import com.orderplatform.command.infrastructure.subscription.CatchUpSubscriptionManager;
+import com.orderplatform.command.support.ResourcelessTransactionManager;
+import com.orderplatform.domain.Money;
+import com.orderplatform.domain.Order;
+import com.orderplatform.domain.OrderItem;
+import com.orderplatform.domain.events.ItemRemovedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Appends and snapshot writes of the segment-log backend inside a command transaction.
+ */
+class SegmentLogEventStoreRepositoryTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final TransactionTemplate transaction = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    @TempDir
+    Path directory;
+
+    private SegmentLog segmentLog;
+    private SegmentLogEventStoreRepository repository;
+    private SegmentLogSnapshotRepository snapshots;
+
+    @BeforeEach
+    void open() {
+        segmentLog = SegmentLog.open(directory.resolve("events"), 64 * 1024, Duration.ZERO);
+        repository = new SegmentLogEventStoreRepository(segmentLog, objectMapper,
+                new StaticListableBeanFactory().getBeanProvider(CatchUpSubscriptionManager.class), event -> { }, new SimpleMeterRegistry());
+        repository.init();
+
+        SegmentLogProperties properties = new SegmentLogProperties();
+        properties.setDirectory(directory);
+        snapshots = new SegmentLogSnapshotRepository(properties, objectMapper);
+        ReflectionTestUtils.setField(snapshots, "keepRecent", 3);
+        ReflectionTestUtils.setField(snapshots, "stride", 500L);
+        ReflectionTestUtils.setField(snapshots, "maxSnapshots", 20);
+    }
+
+    @AfterEach
+    void close() {
+        segmentLog.close();
+    }
+
+    @Test
+    void rolledBackAppendLeavesNothingInTheLog() {
+        UUID aggregateId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            repository.append(event(aggregateId, 1));
+            repository.append(event(aggregateId, 2));
+            snapshots.save(aggregateId, order(aggregateId, 2));
+            throw new IllegalStateException("idempotency record failed");
+        })).hasMessage("idempotency record failed");
+
+        assertThat(repository.findCurrentVersion(aggregateId)).isZero();
+        assertThat(repository.headPosition()).isEqualTo(EventPosition.START);
+        assertThat(segmentLog.recordCount()).isZero();
+        assertThat(snapshots.findByAggregateId(aggregateId)).isEmpty();
+
+        repository.append(event(aggregateId, 1));
+        assertThat(repository.findCurrentVersion(aggregateId)).isEqualTo(1);
+    }
+
+    @Test
+    void eventsAndSnapshotAreWrittenWhenTheTransactionCommits() {
+        UUID aggregateId = UUID.randomUUID();
+
+        transaction.executeWithoutResult(status -> {
+            repository.append(event(aggregateId, 1));
+            repository.append(event(aggregateId, 2));
+            snapshots.save(aggregateId, order(aggregateId, 2));
+
+            assertThat(repository.findCurrentVersion(aggregateId)).isZero();
+            assertThat(segmentLog.recordCount()).isZero();
+            assertThat(snapshots.findByAggregateId(aggregateId)).isEmpty();
+        });
+
+        assertThat(repository.findByAggregateId(aggregateId)).extracting(event -> event.getVersion())
+                .containsExactly(1L, 2L);
+        assertThat(repository.headPosition()).isEqualTo(new EventPosition(0, 2));
+        assertThat(repository.readCommittedAfter(EventPosition.START, 10)).hasSize(2);
+        assertThat(snapshots.findByAggregateId(aggregateId)).map(Order::getVersion).contains(2L);
+    }
+
+    @Test
+    void reservedVersionConflictsUntilTheTransactionEnds() {
+        UUID aggregateId = UUID.randomUUID();
+
+        transaction.executeWithoutResult(status -> {
+            repository.append(event(aggregateId, 1));
+
+            assertThatThrownBy(() -> repository.append(event(aggregateId, 1)))
+                    .isInstanceOf(ConcurrencyConflictException.class);
+            // The reservation holds the next version for this transaction only
+            repository.append(event(aggregateId, 2));
+        });
+
+        assertThatThrownBy(() -> repository.append(event(aggregateId, 2)))
+                .isInstanceOf(ConcurrencyConflictException.class);
+        repository.append(event(aggregateId, 3));
+        assertThat(repository.findCurrentVersion(aggregateId)).isEqualTo(3);
+    }
+
+    @Test
+    void failedLogRollsBackInsteadOfCommitting() {
+        UUID aggregateId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            repository.append(event(aggregateId, 1));
+            segmentLog.close();
+        })).isInstanceOf(IllegalStateException.class).hasMessageContaining("is closed");
+
+        assertThat(repository.findCurrentVersion(aggregateId)).isZero();
+    }
+
+    @Test
+    void commitsInterleaveWithoutGapsInPositions() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        transaction.executeWithoutResult(status -> {
+            repository.append(event(first, 1));
+            repository.append(event(second, 1));
+        });
+        repository.append(event(first, 2));
+
+        assertThat(repository.readCommittedAfter(EventPosition.START, 10))
+                .extracting(recorded -> recorded.position().globalPosition())
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    private static ItemRemovedEvent event(UUID aggregateId, long version) {
+        return new ItemRemovedEvent(UUID.randomUUID(), aggregateId, version, Instant.now(), "SKU-" + version);
+    }
+
+    private static Order order(UUID aggregateId, long version) {
+        Money price = new Money(new BigDecimal("10.00"), "USD");
+        Order order = new Order();
+        order.create(aggregateId, UUID.randomUUID(), List.of(new OrderItem("SKU-1", "Product", 1, price, price)), "USD");
+        for (long next = 2; next <= version; next++) {
+            order.apply(new ItemRemovedEvent(UUID.randomUUID(), aggregateId, next, Instant.now(), "SKU-0"));
+        }
+        return order;
+    }
+}
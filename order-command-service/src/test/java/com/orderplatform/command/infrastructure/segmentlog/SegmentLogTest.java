@@ -0,0 +1,175 @@
+package com.orderplatform.command.infrastructure.segmentlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int HEADER_BYTES = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void refusesSegmentsWrittenWithAnotherSegmentSize() throws Exception {
+        try (SegmentLog log = open()) {
+            log.awaitDurable(log.append(bytes("first")));
+        }
+
+        assertThatThrownBy(() -> SegmentLog.open(directory, 2 * SEGMENT_SIZE, Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is 4096 bytes but the configured segment size is 8192 bytes");
+        assertThatThrownBy(() -> SegmentLog.open(directory, SEGMENT_SIZE / 2, Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(Files.size(segment(0))).isEqualTo(SEGMENT_SIZE);
+
+        try (SegmentLog log = open()) {
+            assertThat(bodies(log)).containsExactly("first");
+        }
+    }
+
+    @Test
+    void corruptedRecordEndsTheLogAndIsOverwritten() throws Exception {
+        long second;
+        try (SegmentLog log = open()) {
+            log.append(bytes("first"));
+            second = log.append(bytes("second"));
+            log.awaitDurable(log.append(bytes("third")));
+        }
+        // Flip a byte of the second record's body, so its CRC32C no longer matches
+        int offset = (int) second + HEADER_BYTES;
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer original = ByteBuffer.allocate(1);
+            channel.read(original, offset);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) (original.get(0) ^ 0x01)}), offset);
+        }
+
+        try (SegmentLog log = open()) {
+            assertThat(bodies(log)).containsExactly("first");
+            assertThat(log.recordCount()).isZero();
+
+            long address = log.append(bytes("replacement"));
+            log.awaitDurable(address);
+            assertThat(address).isEqualTo(second);
+        }
+        try (SegmentLog log = open()) {
+            // The third record was cleared with the corrupt one and cannot reappear
+            assertThat(bodies(log)).containsExactly("first", "replacement");
+        }
+    }
+
+    @Test
+    void tornRecordIsCutOffOnReopen() throws Exception {
+        long next;
+        try (SegmentLog log = open()) {
+            long first = log.append(bytes("first"));
+            log.awaitDurable(first);
+            next = first + HEADER_BYTES + "first".length();
+        }
+        // A crash after the body and checksum were written but before the length
+        byte[] body = bytes("torn");
+        ByteBuffer torn = ByteBuffer.allocate(HEADER_BYTES + body.length)
+                .putInt(0).putInt(0x1234_5678).put(body).flip();
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.WRITE)) {
+            channel.write(torn, next);
+        }
+
+        try (SegmentLog log = open()) {
+            assertThat(bodies(log)).containsExactly("first");
+            assertThat(log.append(bytes("after"))).isEqualTo(next);
+        }
+        try (SegmentLog log = open()) {
+            assertThat(bodies(log)).containsExactly("first", "after");
+        }
+    }
+
+    @Test
+    void recordWithLengthButBadChecksumIsCutOffOnReopen() throws Exception {
+        long next;
+        try (SegmentLog log = open()) {
+            long first = log.append(bytes("first"));
+            log.awaitDurable(first);
+            next = first + HEADER_BYTES + "first".length();
+        }
+        byte[] body = bytes("partial");
+        ByteBuffer torn = ByteBuffer.allocate(HEADER_BYTES + 3)
+                .putInt(body.length).putInt(0).put(body, 0, 3).flip();
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.WRITE)) {
+            channel.write(torn, next);
+        }
+
+        try (SegmentLog log = open()) {
+            assertThat(bodies(log)).containsExactly("first");
+            assertThat(log.append(bytes("after"))).isEqualTo(next);
+        }
+    }
+
+    @Test
+    void rollsOverToNewSegmentsWhenRecordsNoLongerFit() {
+        List<String> written = new ArrayList<>();
+        List<Long> addresses = new ArrayList<>();
+        try (SegmentLog log = open()) {
+            for (int i = 0; i < 10; i++) {
+                String body = i + "-" + "x".repeat(1000);
+                written.add(body);
+                addresses.add(log.append(bytes(body)));
+            }
+            log.awaitDurable(addresses.get(addresses.size() - 1));
+
+            // Four records of 1010 bytes fit a 4096-byte segment
+            assertThat(log.segmentCount()).isEqualTo(3);
+            assertThat(addresses).isSorted().doesNotHaveDuplicates();
+            assertThat(addresses.get(4) >>> 32).isEqualTo(1);
+            assertThat((int) (long) addresses.get(4)).isZero();
+            assertThat(string(log.read(addresses.get(9)))).isEqualTo(written.get(9));
+        }
+        assertThat(Files.exists(segment(2))).isTrue();
+
+        try (SegmentLog log = open()) {
+            assertThat(log.segmentCount()).isEqualTo(3);
+            assertThat(bodies(log)).isEqualTo(written);
+            for (int i = 0; i < addresses.size(); i++) {
+                assertThat(string(log.read(addresses.get(i)))).isEqualTo(written.get(i));
+            }
+            assertThat(log.append(bytes("next"))).isGreaterThan(addresses.get(9));
+        }
+    }
+
+    private SegmentLog open() {
+        return SegmentLog.open(directory, SEGMENT_SIZE, Duration.ZERO);
+    }
+
+    private Path segment(int index) {
+        return directory.resolve(String.format("%010d.log", index));
+    }
+
+    private static List<String> bodies(SegmentLog log) {
+        List<String> bodies = new ArrayList<>();
+        log.scan((address, body) -> bodies.add(string(body)));
+        return bodies;
+    }
+
+    private static String string(ByteBuffer body) {
+        byte[] bytes = new byte[body.remaining()];
+        body.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
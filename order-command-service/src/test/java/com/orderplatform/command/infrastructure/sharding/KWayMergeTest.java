@@ -0,0 +1,74 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.orderplatform.command.infrastructure.UuidOrdering.UNSIGNED_UUID_ORDER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KWayMergeTest {
+
+    // The sign bit set in the most significant bits: last in PostgreSQL's order, first for UUID#compareTo
+    private static final UUID HIGH = UUID.fromString("f0000000-0000-0000-0000-000000000001");
+    private static final UUID MIDDLE = UUID.fromString("7fffffff-ffff-ffff-8000-000000000000");
+    private static final UUID LOW = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID LOW_WITH_HIGH_LSB = UUID.fromString("00000000-0000-0000-ffff-000000000000");
+
+    @Test
+    void mergesShardsInUnsignedUuidOrder() {
+        List<UUID> merged = KWayMerge.merge(List.of(
+                List.of(LOW, HIGH),
+                List.of(LOW_WITH_HIGH_LSB, MIDDLE)), UNSIGNED_UUID_ORDER);
+
+        assertThat(merged).containsExactly(LOW, LOW_WITH_HIGH_LSB, MIDDLE, HIGH);
+        assertThat(HIGH.compareTo(LOW)).as("signed order differs").isNegative();
+    }
+
+    @Test
+    void limitKeepsTheSmallestIdsAcrossShards() {
+        Random random = new Random(42);
+        List<List<UUID>> shards = IntStream.range(0, 4)
+                .mapToObj(shard -> IntStream.range(0, 50)
+                        .mapToObj(i -> new UUID(random.nextLong(), random.nextLong()))
+                        .sorted(UNSIGNED_UUID_ORDER)
+                        .toList())
+                .toList();
+        List<UUID> all = new ArrayList<>();
+        shards.forEach(all::addAll);
+        all.sort(UNSIGNED_UUID_ORDER);
+
+        assertThat(KWayMerge.merge(shards, UNSIGNED_UUID_ORDER, 25)).containsExactlyElementsOf(all.subList(0, 25));
+        assertThat(KWayMerge.merge(shards, UNSIGNED_UUID_ORDER)).containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void limitLargerThanResultsReturnsEverything() {
+        assertThat(KWayMerge.merge(List.of(List.of(LOW), List.of(HIGH)), UNSIGNED_UUID_ORDER, 10))
+                .containsExactly(LOW, HIGH);
+    }
+
+    @Test
+    void singleShardIsCutToLimit() {
+        assertThat(KWayMerge.merge(List.of(List.of(LOW, MIDDLE, HIGH)), UNSIGNED_UUID_ORDER, 2))
+                .containsExactly(LOW, MIDDLE);
+    }
+
+    @Test
+    void skipsEmptyShards() {
+        assertThat(KWayMerge.merge(List.of(List.of(), List.of(MIDDLE), List.of()), UNSIGNED_UUID_ORDER, 5))
+                .containsExactly(MIDDLE);
+        assertThat(KWayMerge.<UUID>merge(List.of(), UNSIGNED_UUID_ORDER, 5)).isEmpty();
+    }
+
+    @Test
+    void keepsDuplicatesFromDifferentShards() {
+        assertThat(KWayMerge.merge(List.of(List.of(1, 3, 5), List.of(3, 4)), Comparator.naturalOrder()))
+                .containsExactly(1, 3, 3, 4, 5);
+    }
+}
@@ -0,0 +1,98 @@
+package com.orderplatform.command.infrastructure.sharding;
+
+import com.orderplatform.command.config.ShardingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRouterTest {
+
+    private final ShardRouter router = router("shard-a", "shard-b", "shard-c");
+
+    @Test
+    void routesToTheSameShardsAsPreviousReleases() {
+        // Existing events stay where they were written, so these must never change
+        assertThat(router.shardFor(UUID.fromString("00000000-0000-0000-0000-000000000001"))).isEqualTo("shard-a");
+        assertThat(router.shardFor(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"))).isEqualTo("shard-b");
+        assertThat(router.shardFor(UUID.fromString("a0000000-0000-0000-0000-00000000000a"))).isEqualTo("shard-c");
+        assertThat(router.shardFor(UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff"))).isEqualTo("shard-b");
+        assertThat(router.shardForKey("order-1")).isEqualTo("shard-b");
+        assertThat(router.shardForKey("order-2")).isEqualTo("shard-c");
+        assertThat(router.shardForKey("order-4")).isEqualTo("shard-a");
+    }
+
+    @Test
+    void routingDoesNotDependOnInstanceOrShardListOrder() {
+        ShardRouter restarted = router("shard-c", "shard-a", "shard-b");
+
+        IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID()).forEach(id ->
+                assertThat(restarted.shardFor(id)).isEqualTo(router.shardFor(id)));
+        IntStream.range(0, 1_000).mapToObj(i -> "key-" + i).forEach(key ->
+                assertThat(restarted.shardForKey(key)).isEqualTo(router.shardForKey(key)));
+    }
+
+    @Test
+    void addingAShardOnlyMovesAggregatesToIt() {
+        ShardRouter grown = router("shard-a", "shard-b", "shard-c", "shard-d");
+
+        List<UUID> moved = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID())
+                .filter(id -> !grown.shardFor(id).equals(router.shardFor(id)))
+                .toList();
+
+        assertThat(moved).allSatisfy(id -> assertThat(grown.shardFor(id)).isEqualTo("shard-d"));
+        // About a quarter of the aggregates belong to the new shard
+        assertThat(moved.size()).isBetween(1_500, 3_500);
+    }
+
+    @Test
+    void newAggregatePrefersShardBoundToCurrentThread() {
+        String keyShard = router.shardForKey("order-1");
+        String bound = keyShard.equals("shard-a") ? "shard-c" : "shard-a";
+
+        String chosen = ShardContext.callOn(bound, () -> router.shardForNewAggregate("order-1"));
+
+        assertThat(chosen).isEqualTo(bound);
+        assertThat(ShardContext.currentShard()).isEmpty();
+    }
+
+    @Test
+    void newAggregateWithoutBoundShardFollowsIdempotencyKey() {
+        IntStream.range(0, 100).mapToObj(i -> "key-" + i).forEach(key ->
+                assertThat(router.shardForNewAggregate(key)).isEqualTo(router.shardForKey(key)));
+        assertThat(router.shardForNewAggregate(null)).isIn(router.shardIds());
+    }
+
+    @Test
+    void newIdOnShardRoutesBackToThatShard() {
+        for (String shardId : router.shardIds()) {
+            assertThat(router.shardFor(router.newIdOnShard(shardId))).isEqualTo(shardId);
+        }
+        assertThatThrownBy(() -> router.newIdOnShard("shard-x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unshardedRouterUsesDefaultShard() {
+        ShardRouter single = new ShardRouter(new ShardingProperties());
+
+        assertThat(single.isSharded()).isFalse();
+        assertThat(single.shardFor(UUID.randomUUID())).isEqualTo(ShardingProperties.DEFAULT_SHARD_ID);
+        assertThat(single.shardForNewAggregate(null)).isEqualTo(ShardingProperties.DEFAULT_SHARD_ID);
+    }
+
+    private static ShardRouter router(String... shardIds) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setShards(Arrays.stream(shardIds).map(id -> {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setId(id);
+            return shard;
+        }).toList());
+        return new ShardRouter(properties);
+    }
+}
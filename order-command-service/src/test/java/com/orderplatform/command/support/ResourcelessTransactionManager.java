@@ -0,0 +1,99 @@
+package com.orderplatform.command.support;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs transaction synchronization callbacks without any resource behind the transaction, and
+ * counts how outermost read-write transactions end. A participating transaction that fails marks
+ * the outer one rollback-only, as with a real resource, so committing it then fails.
+ */
+public class ResourcelessTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+
+    public int commits() {
+        return commits.get();
+    }
+
+    public int rollbacks() {
+        return rollbacks.get();
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Transaction((ResourceHolderSupport) TransactionSynchronizationManager.getResource(this));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Transaction) transaction).holder != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ResourceHolderSupport holder = new ResourceHolderSupport() {
+        };
+        holder.setSynchronizedWithTransaction(true);
+        TransactionSynchronizationManager.bindResource(this, holder);
+        ((Transaction) transaction).holder = holder;
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((Transaction) transaction).holder = null;
+        return TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(this, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        if (!status.isReadOnly()) {
+            commits.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        rollbacks.incrementAndGet();
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((Transaction) status.getTransaction()).holder.setRollbackOnly();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    private static final class Transaction implements SmartTransactionObject {
+
+        private ResourceHolderSupport holder;
+
+        private Transaction(ResourceHolderSupport holder) {
+            this.holder = holder;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return holder.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
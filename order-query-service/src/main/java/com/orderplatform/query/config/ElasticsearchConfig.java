@@ -33,6 +33,13 @@ public class ElasticsearchConfig {
     @Value("${elasticsearch.socket-timeout}")
     private int socketTimeout;
 
+    // Bounds concurrent ES requests; callers beyond this queue inside the client instead of opening sockets
+    @Value("${elasticsearch.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${elasticsearch.max-connections-per-route:100}")
+    private int maxConnectionsPerRoute;
+
     @Bean
     public RestClient restClient() {
         BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
@@ -43,7 +50,10 @@ public class ElasticsearchConfig {
 
         return RestClient.builder(new HttpHost(host, port, "http"))
             .setHttpClientConfigCallback(httpClientBuilder ->
-                httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider)
+                httpClientBuilder
+                    .setDefaultCredentialsProvider(credentialsProvider)
+                    .setMaxConnTotal(maxConnections)
+                    .setMaxConnPerRoute(maxConnectionsPerRoute)
             )
             .setRequestConfigCallback(requestConfigBuilder ->
                 requestConfigBuilder
@@ -3,7 +3,15 @@ package com.orderplatform.query.infrastructure.elasticsearch;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch.core.IndexRequest;
 import co.elastic.clients.elasticsearch.core.IndexResponse;
+import com.orderplatform.query.jfr.OrderIndexEvent;
 import com.orderplatform.query.readmodel.OrderReadModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.retry.annotation.Backoff;
@@ -11,6 +19,8 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 
 @Slf4j
 @Component
@@ -19,6 +29,8 @@ public class ElasticsearchSink {
 
     private final ElasticsearchClient elasticsearchClient;
     private final ElasticsearchIndexManager indexManager;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer = GlobalOpenTelemetry.getTracer("com.orderplatform.query");
 
     @Retryable(
         maxAttempts = 3,
@@ -26,7 +38,12 @@ public class ElasticsearchSink {
         retryFor = {IOException.class}
     )
     public void indexOrder(OrderReadModel order) {
-        try {
+        OrderIndexEvent indexEvent = new OrderIndexEvent();
+        indexEvent.begin();
+        // Child of the event's trace when called from the stream processor
+        Span span = tracer.spanBuilder("ElasticsearchSink.indexOrder").startSpan();
+        String result = "failed";
+        try (Scope ignored = span.makeCurrent()) {
             if (order == null || order.getOrderId() == null) {
                 log.warn("Skipping null order or order with null ID");
                 return;
@@ -39,6 +56,8 @@ public class ElasticsearchSink {
             );
 
             IndexResponse response = elasticsearchClient.index(request);
+            result = response.result().jsonValue();
+            recordVisibilityLag(order);
 
             log.debug("Indexed order {} with result: {}", 
                 order.getOrderId(), 
@@ -47,8 +66,34 @@ public class ElasticsearchSink {
 
         } catch (IOException e) {
             log.error("Failed to index order: {}", order.getOrderId(), e);
+            span.recordException(e).setStatus(StatusCode.ERROR);
             throw new RuntimeException("Failed to index order to Elasticsearch", e);
+        } finally {
+            span.setAttribute("elasticsearch.result", result);
+            span.end();
+            if (order != null && order.getOrderId() != null && indexEvent.shouldCommit()) {
+                indexEvent.orderId = order.getOrderId();
+                indexEvent.status = order.getStatus();
+                indexEvent.itemCount = order.getItems() != null ? order.getItems().size() : 0;
+                indexEvent.version = order.getVersion() != null ? order.getVersion() : 0;
+                indexEvent.result = result;
+                indexEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Time from the latest change of the order on the command side until it is searchable.
+     */
+    private void recordVisibilityLag(OrderReadModel order) {
+        if (order.getUpdatedAt() == null) {
+            return;
         }
+        Timer.builder("orders.index.lag")
+                .description("Time from an order event occurring to the order being indexed")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(order.getUpdatedAt(), Instant.now()));
     }
 
     public void deleteOrder(String orderId) {
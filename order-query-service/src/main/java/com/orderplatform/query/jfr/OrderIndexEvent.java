@@ -0,0 +1,37 @@
+package com.orderplatform.query.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * An order read model written to Elasticsearch. Each retry of a failed write is a separate event.
+ */
+@Name("com.orderplatform.OrderIndex")
+@Label("Order Index")
+@Category({"Order Platform", "Query"})
+@Description("Order read model indexed in Elasticsearch")
+@StackTrace(false)
+@Threshold("20 ms")
+public class OrderIndexEvent extends Event {
+
+    @Label("Order Id")
+    public String orderId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Items")
+    public int itemCount;
+
+    @Label("Version")
+    public long version;
+
+    @Label("Result")
+    @Description("Elasticsearch result, or failed")
+    public String result;
+}
@@ -7,21 +7,36 @@ import com.orderplatform.query.readmodel.OrderItemReadModel;
 import com.orderplatform.query.readmodel.OrderReadModel;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.Record;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,7 +44,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderEventProcessor {
 
+    private static final TextMapGetter<Headers> HEADERS_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Headers headers) {
+            List<String> keys = new ArrayList<>();
+            headers.forEach(header -> keys.add(header.key()));
+            return keys;
+        }
+
+        @Override
+        public String get(Headers headers, String key) {
+            Header header = headers != null ? headers.lastHeader(key) : null;
+            return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+        }
+    };
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Tracer tracer = GlobalOpenTelemetry.getTracer("com.orderplatform.query");
     private final ElasticsearchSink elasticsearchSink;
 
     @Value("${kafka.topics.order-events}")
@@ -76,34 +107,67 @@ public class OrderEventProcessor {
         // Convert KTable to KStream for downstream processing
         KStream<String, OrderReadModel> orderStream = orderTable.toStream();
 
-        // Index orders to Elasticsearch
-        orderStream.foreach((key, order) -> {
-            log.debug("Processed order: {} with status: {}", order.getOrderId(), order.getStatus());
-            elasticsearchSink.indexOrder(order);
+        // Index orders to Elasticsearch, continuing the trace of the latest event folded into the order
+        orderStream.process(() -> new Processor<String, OrderReadModel, Void, Void>() {
+            @Override
+            public void process(Record<String, OrderReadModel> record) {
+                OrderReadModel order = record.value();
+                log.debug("Processed order: {} with status: {}", order.getOrderId(), order.getStatus());
+                indexInTrace(order, record.headers());
+            }
         });
 
         return eventStream;
     }
 
+    /**
+     * Indexes the order in a span whose parent is the W3C trace context the event was published
+     * with, so the trace of a command carries on through the read model. The record's headers are
+     * those of the latest event aggregated into the order since the last flush of the state store
+     * cache; orders without trace headers are indexed in a new trace.
+     */
+    private void indexInTrace(OrderReadModel order, Headers headers) {
+        Context parent = W3CTraceContextPropagator.getInstance().extract(Context.root(), headers, HEADERS_GETTER);
+        Span span = tracer.spanBuilder(orderEventsTopic + " process")
+                .setParent(parent)
+                .setSpanKind(SpanKind.CONSUMER)
+                .setAttribute("order.id", String.valueOf(order.getOrderId()))
+                .setAttribute("order.version", order.getVersion() != null ? order.getVersion() : 0L)
+                .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            elasticsearchSink.indexOrder(order);
+        } catch (RuntimeException e) {
+            span.recordException(e).setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
     private OrderReadModel aggregateEvent(String key, OrderEvent event, OrderReadModel aggregate) {
         try {
             log.debug("Aggregating event: {} for order: {}", event.getEventType(), event.getAggregateId());
 
-            switch (event.getEventType()) {
-                case "OrderCreated":
+            // The command side writes event class names; short names are accepted as well
+            switch (event.getEventType().toString()) {
+                case "OrderCreated", "OrderCreatedEvent":
                     return handleOrderCreated(event, aggregate);
-                case "OrderApproved":
+                case "OrderApproved", "OrderApprovedEvent":
                     return handleOrderApproved(event, aggregate);
-                case "OrderRejected":
+                case "OrderRejected", "OrderRejectedEvent":
                     return handleOrderRejected(event, aggregate);
-                case "OrderCanceled":
+                case "OrderCanceled", "OrderCanceledEvent":
                     return handleOrderCanceled(event, aggregate);
-                case "OrderShipped":
+                case "OrderShipped", "OrderShippedEvent":
                     return handleOrderShipped(event, aggregate);
-                case "ItemAdded":
+                case "ItemAdded", "ItemAddedEvent":
                     return handleItemAdded(event, aggregate);
-                case "ItemRemoved":
+                case "ItemRemoved", "ItemRemovedEvent":
                     return handleItemRemoved(event, aggregate);
+                case "ItemsAdded", "ItemsAddedEvent":
+                    return handleItemsAdded(event, aggregate);
+                case "ItemsRemoved", "ItemsRemovedEvent":
+                    return handleItemsRemoved(event, aggregate);
                 default:
                     log.warn("Unknown event type: {}", event.getEventType());
                     return aggregate;
@@ -285,4 +349,66 @@ public class OrderEventProcessor {
 
         return aggregate;
     }
+
+    private OrderReadModel handleItemsAdded(OrderEvent event, OrderReadModel aggregate) throws Exception {
+        ItemsAddedPayload payload = objectMapper.readValue(
+            event.getPayload().toString(),
+            ItemsAddedPayload.class
+        );
+
+        List<OrderItemReadModel> items = new ArrayList<>(aggregate.getItems());
+        for (OrderItemAvro itemAvro : payload.getItems()) {
+            items.add(OrderItemReadModel.builder()
+                .sku(itemAvro.getSku().toString())
+                .productName(itemAvro.getProductName().toString())
+                .quantity(itemAvro.getQuantity())
+                .unitPrice(new BigDecimal(itemAvro.getUnitPrice().toString()))
+                .lineTotal(new BigDecimal(itemAvro.getLineTotal().toString()))
+                .build());
+        }
+        aggregate.setItems(items);
+
+        // Recalculate total amount once for the whole batch
+        BigDecimal totalAmount = items.stream()
+            .map(OrderItemReadModel::getLineTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        aggregate.setTotalAmount(totalAmount);
+
+        Object occurredAtObj = event.getOccurredAt();
+        aggregate.setUpdatedAt(occurredAtObj instanceof Long ? 
+            Instant.ofEpochMilli((Long) occurredAtObj) : (Instant) occurredAtObj);
+            
+        aggregate.setVersion(event.getVersion());
+
+        return aggregate;
+    }
+
+    private OrderReadModel handleItemsRemoved(OrderEvent event, OrderReadModel aggregate) throws Exception {
+        ItemsRemovedPayload payload = objectMapper.readValue(
+            event.getPayload().toString(),
+            ItemsRemovedPayload.class
+        );
+
+        Set<String> skusToRemove = payload.getSkus().stream()
+            .map(CharSequence::toString)
+            .collect(Collectors.toSet());
+        List<OrderItemReadModel> items = aggregate.getItems().stream()
+            .filter(item -> !skusToRemove.contains(item.getSku()))
+            .collect(Collectors.toList());
+        aggregate.setItems(items);
+
+        // Recalculate total amount
+        BigDecimal totalAmount = items.stream()
+            .map(OrderItemReadModel::getLineTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        aggregate.setTotalAmount(totalAmount);
+
+        Object occurredAtObj = event.getOccurredAt();
+        aggregate.setUpdatedAt(occurredAtObj instanceof Long ? 
+            Instant.ofEpochMilli((Long) occurredAtObj) : (Instant) occurredAtObj);
+            
+        aggregate.setVersion(event.getVersion());
+
+        return aggregate;
+    }
 }
@@ -0,0 +1,54 @@
+#!/bin/bash
+
+# Command ingestion benchmark for the order command service
+# Sends the same order workload over REST, gRPC unary calls and a pipelined gRPC stream,
+# one transport after the other, and writes a k6 summary per transport.
+#
+# Usage: ./scripts/load-test-ingestion.sh [rest|grpc|grpc-stream ...]
+# The command service must be built with -P grpc and already be running.
+
+set -e
+
+# Configuration
+TRANSPORTS="${*:-rest grpc grpc-stream}"
+KEYCLOAK_URL="${KEYCLOAK_URL:-http://localhost:8080}"
+REALM="order-platform"
+CLIENT_ID="api-client"
+USERNAME="${KEYCLOAK_USERNAME:-admin@test.com}"
+PASSWORD="${KEYCLOAK_PASSWORD:-test123}"
+RESULTS_DIR="${RESULTS_DIR:-load-test-results}"
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+
+if ! command -v k6 >/dev/null 2>&1; then
+    echo "k6 is required: https://k6.io/docs/get-started/installation/"
+    exit 1
+fi
+
+# Tokens are fetched per run so that they outlive it
+fetch_token() {
+    curl -s -X POST "$KEYCLOAK_URL/realms/$REALM/protocol/openid-connect/token" \
+        -H "Content-Type: application/x-www-form-urlencoded" \
+        -d "grant_type=password" \
+        -d "client_id=$CLIENT_ID" \
+        -d "username=$USERNAME" \
+        -d "password=$PASSWORD" | grep -o '"access_token":"[^"]*"' | cut -d'"' -f4
+}
+
+mkdir -p "$RESULTS_DIR"
+for TRANSPORT in $TRANSPORTS; do
+    TOKEN=$(fetch_token)
+    if [ -z "$TOKEN" ]; then
+        echo "Failed to obtain access token"
+        exit 1
+    fi
+
+    echo "Benchmarking $TRANSPORT"
+    k6 run \
+        -e TOKEN="$TOKEN" \
+        -e TRANSPORT="$TRANSPORT" \
+        -e PROTO_DIR="$SCRIPT_DIR/../order-command-service/src/main/protobuf" \
+        --summary-export "$RESULTS_DIR/ingestion-$TRANSPORT.json" \
+        "$SCRIPT_DIR/load-test/command-ingestion.js"
+done
+
+echo "Summaries written to $RESULTS_DIR/ingestion-*.json; compare commands (rate) and command_duration"
@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# Load test script for Order Platform
+# Compares throughput and latency of the command and query services with
+# platform threads and with virtual threads (spring.threads.virtual.enabled).
+#
+# Usage: ./scripts/load-test.sh [platform|virtual]
+# The services must already be running with VIRTUAL_THREADS_ENABLED matching the mode.
+
+set -e
+
+# Configuration
+MODE="${1:-platform}"
+KEYCLOAK_URL="${KEYCLOAK_URL:-http://localhost:8080}"
+REALM="order-platform"
+CLIENT_ID="api-client"
+USERNAME="${KEYCLOAK_USERNAME:-admin@test.com}"
+PASSWORD="${KEYCLOAK_PASSWORD:-test123}"
+RESULTS_DIR="${RESULTS_DIR:-load-test-results}"
+
+if ! command -v k6 >/dev/null 2>&1; then
+    echo "k6 is required: https://k6.io/docs/get-started/installation/"
+    exit 1
+fi
+
+TOKEN=$(curl -s -X POST "$KEYCLOAK_URL/realms/$REALM/protocol/openid-connect/token" \
+    -H "Content-Type: application/x-www-form-urlencoded" \
+    -d "grant_type=password" \
+    -d "client_id=$CLIENT_ID" \
+    -d "username=$USERNAME" \
+    -d "password=$PASSWORD" | grep -o '"access_token":"[^"]*"' | cut -d'"' -f4)
+
+if [ -z "$TOKEN" ]; then
+    echo "Failed to obtain access token"
+    exit 1
+fi
+
+mkdir -p "$RESULTS_DIR"
+k6 run \
+    -e TOKEN="$TOKEN" \
+    --summary-export "$RESULTS_DIR/summary-$MODE.json" \
+    "$(dirname "$0")/load-test/command-api.js"
+
+echo "Summary written to $RESULTS_DIR/summary-$MODE.json"
@@ -0,0 +1,55 @@
+// k6 load profile for the command and query APIs.
+// Run once with VIRTUAL_THREADS_ENABLED=false and once with true, then compare the summaries.
+import http from 'k6/http';
+import { check } from 'k6';
+import { uuidv4 } from 'https://jslib.k6.io/k6-utils/1.4.0/index.js';
+
+const COMMAND_URL = __ENV.COMMAND_URL || 'http://localhost:8081';
+const QUERY_URL = __ENV.QUERY_URL || 'http://localhost:8082';
+const TOKEN = __ENV.TOKEN;
+
+export const options = {
+    scenarios: {
+        commands: {
+            executor: 'constant-arrival-rate',
+            rate: Number(__ENV.RATE || 500),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 200,
+            maxVUs: Number(__ENV.MAX_VUS || 2000),
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const headers = {
+    'Authorization': `Bearer ${TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+export default function () {
+    const create = http.post(`${COMMAND_URL}/api/v1/orders`, JSON.stringify({
+        customerId: uuidv4(),
+        items: [{ sku: 'SKU-001', productName: 'Load Test Item', quantity: 1, unitPrice: 9.99 }],
+        currency: 'USD',
+        idempotencyKey: uuidv4(),
+    }), { headers, tags: { name: 'createOrder' } });
+    check(create, { 'order created': (r) => r.status === 201 });
+
+    if (create.status === 201) {
+        const orderId = create.json('orderId');
+        const approve = http.post(`${COMMAND_URL}/api/v1/orders/${orderId}/approve`, JSON.stringify({
+            orderId: orderId,
+            approvedBy: uuidv4(),
+            reason: 'load test',
+        }), { headers, tags: { name: 'approveOrder' } });
+        check(approve, { 'order approved': (r) => r.status === 200 });
+    }
+
+    const search = http.get(`${QUERY_URL}/api/v1/orders?status=CREATED&size=20`,
+        { headers, tags: { name: 'searchOrders' } });
+    check(search, { 'search ok': (r) => r.status === 200 });
+}
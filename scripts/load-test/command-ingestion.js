@@ -0,0 +1,159 @@
+// k6 throughput benchmark of command ingestion: the same order workload sent over the REST API,
+// gRPC unary calls and a pipelined gRPC stream. Run once per transport and compare the
+// commands/s and command_duration of the summaries; see scripts/load-test-ingestion.sh.
+//
+// Every order gets CreateOrder, ITEMS_PER_ORDER AddItem commands and ApproveOrder. REST and unary
+// VUs wait for each reply; a stream VU keeps ORDERS_PER_STREAM orders going on one stream and only
+// waits for the acks at the end.
+import http from 'k6/http';
+import grpc from 'k6/net/grpc';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+import { uuidv4 } from 'https://jslib.k6.io/k6-utils/1.4.0/index.js';
+
+const TRANSPORT = __ENV.TRANSPORT || 'rest';
+const COMMAND_URL = __ENV.COMMAND_URL || 'http://localhost:8081';
+const GRPC_ADDRESS = __ENV.GRPC_ADDRESS || 'localhost:9091';
+const TOKEN = __ENV.TOKEN;
+const ITEMS_PER_ORDER = Number(__ENV.ITEMS_PER_ORDER || 5);
+const ORDERS_PER_STREAM = Number(__ENV.ORDERS_PER_STREAM || 50);
+const SERVICE = 'orderplatform.command.v1.OrderCommands';
+
+export const options = {
+    scenarios: {
+        ingestion: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 50),
+            duration: __ENV.DURATION || '2m',
+            tags: { transport: TRANSPORT },
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        command_errors: ['count<100'],
+    },
+};
+
+const commands = new Counter('commands');
+const commandErrors = new Counter('command_errors');
+const commandDuration = new Trend('command_duration', true);
+
+const client = new grpc.Client();
+client.load([__ENV.PROTO_DIR || '../../order-command-service/src/main/protobuf'], 'order_commands.proto');
+
+const headers = {
+    'Authorization': `Bearer ${TOKEN}`,
+    'Content-Type': 'application/json',
+};
+const metadata = { authorization: `Bearer ${TOKEN}` };
+
+function newItem(index) {
+    return { sku: `SKU-${index}`, productName: 'Load Test Item', quantity: 1, unitPrice: '9.99' };
+}
+
+function createOrderRequest() {
+    return { customerId: uuidv4(), items: [newItem(0)], currency: 'USD', idempotencyKey: uuidv4() };
+}
+
+function followUps(orderId) {
+    const requests = [];
+    for (let index = 1; index <= ITEMS_PER_ORDER; index++) {
+        requests.push({ addItem: { orderId, item: newItem(index), idempotencyKey: uuidv4() } });
+    }
+    requests.push({ approveOrder: { orderId, approvedBy: uuidv4(), reason: 'load test', idempotencyKey: uuidv4() } });
+    return requests;
+}
+
+function record(ok, started) {
+    commands.add(1);
+    commandDuration.add(Date.now() - started);
+    if (!ok) {
+        commandErrors.add(1);
+    }
+    return ok;
+}
+
+function restOrder() {
+    let started = Date.now();
+    const create = http.post(`${COMMAND_URL}/api/v1/orders`, JSON.stringify(createOrderRequest()),
+        { headers, tags: { name: 'createOrder' } });
+    if (!record(check(create, { 'order created': (r) => r.status === 201 }), started)) {
+        return;
+    }
+    const orderId = create.json('orderId');
+    for (const request of followUps(orderId)) {
+        started = Date.now();
+        const response = request.addItem
+            ? http.post(`${COMMAND_URL}/api/v1/orders/${orderId}/items`, JSON.stringify({
+                ...request.addItem.item, orderId, idempotencyKey: request.addItem.idempotencyKey,
+            }), { headers, tags: { name: 'addItem' } })
+            : http.post(`${COMMAND_URL}/api/v1/orders/${orderId}/approve`, JSON.stringify(request.approveOrder),
+                { headers, tags: { name: 'approveOrder' } });
+        record(check(response, { 'command applied': (r) => r.status === 200 }), started);
+    }
+}
+
+function unaryOrder() {
+    let started = Date.now();
+    const create = client.invoke(`${SERVICE}/CreateOrder`, createOrderRequest(), { metadata });
+    if (!record(check(create, { 'order created': (r) => r.status === grpc.StatusOK }), started)) {
+        return;
+    }
+    for (const request of followUps(create.message.orderId)) {
+        started = Date.now();
+        const response = request.addItem
+            ? client.invoke(`${SERVICE}/AddItem`, request.addItem, { metadata })
+            : client.invoke(`${SERVICE}/ApproveOrder`, request.approveOrder, { metadata });
+        record(check(response, { 'command applied': (r) => r.status === grpc.StatusOK }), started);
+    }
+}
+
+function streamOrders() {
+    const stream = new grpc.Stream(client, `${SERVICE}/StreamCommands`, { metadata });
+    const sentAt = new Map();
+    let sequence = 0;
+    let pending = 0;
+
+    const send = (command) => {
+        const correlationId = `${__VU}-${sequence++}`;
+        sentAt.set(correlationId, Date.now());
+        pending++;
+        stream.write({ correlationId, ...command });
+    };
+
+    stream.on('data', (ack) => {
+        pending--;
+        const ok = record(check(ack, { 'command acked': (a) => !a.error }), sentAt.get(ack.correlationId));
+        sentAt.delete(ack.correlationId);
+        // Follow-ups are sent as soon as the order exists; the server keeps them in order per order
+        if (ok && ack.order && ack.order.version === '1') {
+            followUps(ack.order.orderId).forEach(send);
+        }
+        if (pending === 0) {
+            stream.end();
+        }
+    });
+    stream.on('error', (error) => {
+        commandErrors.add(1);
+        console.error(`Stream failed: ${error.message}`);
+    });
+
+    for (let index = 0; index < ORDERS_PER_STREAM; index++) {
+        send({ createOrder: createOrderRequest() });
+    }
+}
+
+export default function () {
+    if (TRANSPORT === 'rest') {
+        restOrder();
+        return;
+    }
+    if (__ITER === 0) {
+        client.connect(GRPC_ADDRESS, { plaintext: true });
+    }
+    if (TRANSPORT === 'grpc-stream') {
+        streamOrders();
+    } else {
+        unaryOrder();
+    }
+}
@@ -0,0 +1,66 @@
+#!/bin/bash
+
+# Measures the startup of a service container with and without Spring AOT and the AppCDS archive
+# Usage: scripts/measure-startup.sh <order-command-service|order-query-service|api-gateway> [runs]
+#
+# The infrastructure the service depends on must already be running (docker-compose up -d).
+# Reports per run the time Spring Boot logs for startup and the time from starting the container
+# to the first HTTP response, then the averages of both. OTEL_JAVAAGENT_ENABLED=false measures
+# without the OpenTelemetry agent.
+
+set -e
+
+SERVICE="${1:?Usage: $0 <order-command-service|order-query-service|api-gateway> [runs]}"
+RUNS="${2:-5}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-300}"
+
+case "$SERVICE" in
+    order-command-service) PORT=8081 ;;
+    order-query-service) PORT=8082 ;;
+    api-gateway) PORT=8080 ;;
+    *) echo "Unknown service: $SERVICE" >&2; exit 1 ;;
+esac
+
+measure() {
+    local mode="$1"
+    for run in $(seq 1 "$RUNS"); do
+        docker-compose rm -sf "$SERVICE" > /dev/null 2>&1
+
+        local start
+        start=$(date +%s%N)
+        STARTUP_OPTIMIZATIONS="$mode" docker-compose up -d --no-deps "$SERVICE" > /dev/null 2>&1
+
+        # Any response counts, whatever the health of the dependencies
+        until curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; do
+            if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )); then
+                echo "$SERVICE did not respond within ${TIMEOUT_SECONDS}s" >&2
+                exit 1
+            fi
+            sleep 0.1
+        done
+        local first_request_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+
+        local started_seconds
+        started_seconds=$(docker-compose logs --no-log-prefix "$SERVICE" \
+            | grep -o 'Started [A-Za-z]* in [0-9.]* seconds' | tail -1 | awk '{print $4}')
+
+        echo "$mode $run ${started_seconds:-?} $first_request_ms"
+    done
+}
+
+echo "Measuring $SERVICE over $RUNS runs per mode"
+{
+    measure off
+    measure on
+} | awk '
+    { printf "%-4s run %-3s started in %6s s   first request after %6d ms\n", $1, $2, $3, $4
+      started[$1] += $3; first[$1] += $4; runs[$1]++ }
+    END {
+      print ""
+      for (mode in runs)
+        printf "%-4s average: started in %.2f s, first request after %d ms\n",
+               mode, started[mode] / runs[mode], first[mode] / runs[mode]
+    }'
+
+# Leave the service running with the optimizations, as docker-compose starts it
+STARTUP_OPTIMIZATIONS=on docker-compose up -d --no-deps "$SERVICE" > /dev/null 2>&1
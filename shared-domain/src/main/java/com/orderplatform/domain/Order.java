@@ -5,7 +5,9 @@ import lombok.Getter;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -234,6 +236,97 @@ public class Order {
         return event;
     }
     
+    /**
+     * Adds several items to the order in a single event. Every SKU must be new to the order
+     * and listed once; all items are validated first, so either every item is added or none is.
+     */
+    public ItemsAddedEvent addItems(List<OrderItem> newItems) {
+        if (status != OrderStatus.CREATED) {
+            throw new InvalidOrderStateException(
+                String.format("Cannot add items to order in %s status", status));
+        }
+        if (newItems == null || newItems.isEmpty()) {
+            throw new IllegalArgumentException("Items cannot be null or empty");
+        }
+        
+        Set<String> present = new HashSet<>();
+        items.forEach(item -> present.add(item.sku()));
+        Set<String> requested = new HashSet<>();
+        for (OrderItem item : newItems) {
+            if (item == null) {
+                throw new IllegalArgumentException("Item cannot be null");
+            }
+            if (!requested.add(item.sku())) {
+                throw new IllegalArgumentException(
+                    String.format("SKU %s is listed more than once", item.sku()));
+            }
+            if (present.contains(item.sku())) {
+                throw new IllegalArgumentException(
+                    String.format("Item with SKU %s is already in order", item.sku()));
+            }
+            if (!item.unitPrice().currency().equals(currency)) {
+                throw new IllegalArgumentException(
+                    String.format("Item %s currency %s does not match order currency %s",
+                        item.sku(), item.unitPrice().currency(), currency));
+            }
+        }
+        
+        Instant now = Instant.now();
+        ItemsAddedEvent event = new ItemsAddedEvent(
+            UUID.randomUUID(),
+            orderId,
+            version + 1,
+            now,
+            List.copyOf(newItems)
+        );
+        
+        apply(event);
+        return event;
+    }
+    
+    /**
+     * Removes several items from the order in a single event. Every SKU must be in the order
+     * and listed once, otherwise nothing is removed.
+     */
+    public ItemsRemovedEvent removeItems(List<String> skus) {
+        if (status != OrderStatus.CREATED) {
+            throw new InvalidOrderStateException(
+                String.format("Cannot remove items from order in %s status", status));
+        }
+        if (skus == null || skus.isEmpty()) {
+            throw new IllegalArgumentException("SKUs cannot be null or empty");
+        }
+        
+        Set<String> present = new HashSet<>();
+        items.forEach(item -> present.add(item.sku()));
+        Set<String> requested = new HashSet<>();
+        for (String sku : skus) {
+            if (sku == null || sku.isBlank()) {
+                throw new IllegalArgumentException("SKU cannot be null or empty");
+            }
+            if (!requested.add(sku)) {
+                throw new IllegalArgumentException(
+                    String.format("SKU %s is listed more than once", sku));
+            }
+            if (!present.contains(sku)) {
+                throw new IllegalArgumentException(
+                    String.format("Item with SKU %s not found in order", sku));
+            }
+        }
+        
+        Instant now = Instant.now();
+        ItemsRemovedEvent event = new ItemsRemovedEvent(
+            UUID.randomUUID(),
+            orderId,
+            version + 1,
+            now,
+            List.copyOf(skus)
+        );
+        
+        apply(event);
+        return event;
+    }
+    
     /**
      * Applies an event to mutate the aggregate state.
      */
@@ -246,6 +339,8 @@ public class Order {
             case OrderShippedEvent e -> applyOrderShipped(e);
             case ItemAddedEvent e -> applyItemAdded(e);
             case ItemRemovedEvent e -> applyItemRemoved(e);
+            case ItemsAddedEvent e -> applyItemsAdded(e);
+            case ItemsRemovedEvent e -> applyItemsRemoved(e);
             default -> throw new IllegalArgumentException("Unknown event type: " + event.getClass());
         }
     }
@@ -300,6 +395,21 @@ public class Order {
         this.updatedAt = event.getOccurredAt();
     }
     
+    private void applyItemsAdded(ItemsAddedEvent event) {
+        this.items.addAll(event.getItems());
+        this.totalAmount = calculateTotal();
+        this.version = event.getVersion();
+        this.updatedAt = event.getOccurredAt();
+    }
+    
+    private void applyItemsRemoved(ItemsRemovedEvent event) {
+        Set<String> removed = new HashSet<>(event.getSkus());
+        this.items.removeIf(item -> removed.contains(item.sku()));
+        this.totalAmount = calculateTotal();
+        this.version = event.getVersion();
+        this.updatedAt = event.getOccurredAt();
+    }
+    
     private Money calculateTotal() {
         if (items.isEmpty()) {
             return new Money(java.math.BigDecimal.ZERO, currency);
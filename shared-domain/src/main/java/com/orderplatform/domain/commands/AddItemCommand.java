@@ -4,6 +4,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -27,5 +28,8 @@ public record AddItemCommand(
     
     @NotNull(message = "Unit price is required")
     @DecimalMin(value = "0.01", message = "Unit price must be at least 0.01")
-    BigDecimal unitPrice
+    BigDecimal unitPrice,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
 ) {}
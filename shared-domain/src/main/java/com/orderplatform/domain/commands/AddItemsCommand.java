@@ -0,0 +1,25 @@
+package com.orderplatform.domain.commands;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command to add several items to an order at once. Either all items are added or none.
+ */
+public record AddItemsCommand(
+    
+    @NotNull(message = "Order ID is required")
+    UUID orderId,
+    
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "Cannot add more than 500 items at once")
+    List<@Valid OrderItemDto> items,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
+) {}
@@ -1,6 +1,7 @@
 package com.orderplatform.domain.commands;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.util.UUID;
 
@@ -15,5 +16,8 @@ public record ApproveOrderCommand(
     @NotNull(message = "Approved by is required")
     UUID approvedBy,
     
-    String reason
+    String reason,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
 ) {}
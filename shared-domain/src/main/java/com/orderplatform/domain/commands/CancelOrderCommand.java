@@ -1,6 +1,7 @@
 package com.orderplatform.domain.commands;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.util.UUID;
 
@@ -15,5 +16,8 @@ public record CancelOrderCommand(
     @NotNull(message = "Canceled by is required")
     UUID canceledBy,
     
-    String reason
+    String reason,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
 ) {}
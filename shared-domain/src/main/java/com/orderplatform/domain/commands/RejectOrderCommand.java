@@ -2,6 +2,7 @@ package com.orderplatform.domain.commands;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.util.UUID;
 
@@ -17,5 +18,8 @@ public record RejectOrderCommand(
     UUID rejectedBy,
     
     @NotBlank(message = "Rejection reason is required")
-    String reason
+    String reason,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
 ) {}
@@ -2,6 +2,7 @@ package com.orderplatform.domain.commands;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.util.UUID;
 
@@ -14,5 +15,8 @@ public record RemoveItemCommand(
     UUID orderId,
     
     @NotBlank(message = "SKU is required")
-    String sku
+    String sku,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
 ) {}
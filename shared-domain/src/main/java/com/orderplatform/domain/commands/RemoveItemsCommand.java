@@ -0,0 +1,25 @@
+package com.orderplatform.domain.commands;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command to remove several items from an order at once. Either all items are removed or none.
+ */
+public record RemoveItemsCommand(
+    
+    @NotNull(message = "Order ID is required")
+    UUID orderId,
+    
+    @NotEmpty(message = "At least one SKU is required")
+    @Size(max = 500, message = "Cannot remove more than 500 items at once")
+    List<@NotBlank(message = "SKU is required") String> skus,
+    
+    @Size(max = 255, message = "Idempotency key cannot exceed 255 characters")
+    String idempotencyKey
+) {}
@@ -0,0 +1,26 @@
+package com.orderplatform.domain.events;
+
+import com.orderplatform.domain.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event emitted when several items are added to an order in one command.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemsAddedEvent implements DomainEvent {
+    
+    private UUID eventId;
+    private UUID aggregateId;
+    private long version;
+    private Instant occurredAt;
+    
+    private List<OrderItem> items;
+}
@@ -0,0 +1,25 @@
+package com.orderplatform.domain.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event emitted when several items are removed from an order in one command.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemsRemovedEvent implements DomainEvent {
+    
+    private UUID eventId;
+    private UUID aggregateId;
+    private long version;
+    private Instant occurredAt;
+    
+    private List<String> skus;
+}
@@ -0,0 +1,112 @@
+package com.orderplatform.domain;
+
+import com.orderplatform.domain.events.ItemsAddedEvent;
+import com.orderplatform.domain.events.ItemsRemovedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderTest {
+
+    private Order order;
+
+    @BeforeEach
+    void createOrder() {
+        order = new Order();
+        order.create(UUID.randomUUID(), UUID.randomUUID(), List.of(item("SKU-1", "USD"), item("SKU-2", "USD")), "USD");
+    }
+
+    @Test
+    void addItemsAddsEveryItemInOneEvent() {
+        ItemsAddedEvent event = order.addItems(List.of(item("SKU-3", "USD"), item("SKU-4", "USD")));
+
+        assertThat(event.getVersion()).isEqualTo(2);
+        assertThat(order.getItems()).extracting(OrderItem::sku).containsExactly("SKU-1", "SKU-2", "SKU-3", "SKU-4");
+        assertThat(order.getTotalAmount()).isEqualTo(new Money(new BigDecimal("40.00"), "USD"));
+    }
+
+    @Test
+    void addItemsRejectsSkuListedTwiceInTheBatch() {
+        assertRejectedWithoutChange(() -> order.addItems(List.of(item("SKU-3", "USD"), item("SKU-3", "USD"))),
+                "SKU SKU-3 is listed more than once");
+    }
+
+    @Test
+    void addItemsRejectsSkuAlreadyInTheOrder() {
+        assertRejectedWithoutChange(() -> order.addItems(List.of(item("SKU-3", "USD"), item("SKU-2", "USD"))),
+                "Item with SKU SKU-2 is already in order");
+    }
+
+    @Test
+    void addItemsRejectsWholeBatchWhenOneItemHasAnotherCurrency() {
+        assertRejectedWithoutChange(() -> order.addItems(List.of(item("SKU-3", "USD"), item("SKU-4", "EUR"))),
+                "Item SKU-4 currency EUR does not match order currency USD");
+    }
+
+    @Test
+    void addItemsRejectsEmptyBatch() {
+        assertRejectedWithoutChange(() -> order.addItems(List.of()), "Items cannot be null or empty");
+    }
+
+    @Test
+    void addItemsRequiresCreatedStatus() {
+        order.approve(UUID.randomUUID(), "ok");
+
+        assertThatThrownBy(() -> order.addItems(List.of(item("SKU-3", "USD"))))
+                .isInstanceOf(InvalidOrderStateException.class);
+        assertThat(order.getItems()).hasSize(2);
+    }
+
+    @Test
+    void removeItemsRemovesEveryItemInOneEvent() {
+        order.addItems(List.of(item("SKU-3", "USD")));
+
+        ItemsRemovedEvent event = order.removeItems(List.of("SKU-1", "SKU-3"));
+
+        assertThat(event.getVersion()).isEqualTo(3);
+        assertThat(order.getItems()).extracting(OrderItem::sku).containsExactly("SKU-2");
+        assertThat(order.getTotalAmount()).isEqualTo(new Money(new BigDecimal("10.00"), "USD"));
+    }
+
+    @Test
+    void removeItemsRejectsSkuListedTwice() {
+        assertRejectedWithoutChange(() -> order.removeItems(List.of("SKU-1", "SKU-1")),
+                "SKU SKU-1 is listed more than once");
+    }
+
+    @Test
+    void removeItemsRejectsWholeBatchWhenOneSkuIsMissing() {
+        assertRejectedWithoutChange(() -> order.removeItems(List.of("SKU-1", "SKU-9")),
+                "Item with SKU SKU-9 not found in order");
+    }
+
+    @Test
+    void removeItemsRejectsBlankSku() {
+        assertRejectedWithoutChange(() -> order.removeItems(List.of("SKU-1", " ")), "SKU cannot be null or empty");
+    }
+
+    private void assertRejectedWithoutChange(Runnable command, String message) {
+        List<OrderItem> itemsBefore = List.copyOf(order.getItems());
+        Money totalBefore = order.getTotalAmount();
+        long versionBefore = order.getVersion();
+
+        assertThatThrownBy(command::run)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(message);
+
+        assertThat(order.getItems()).isEqualTo(itemsBefore);
+        assertThat(order.getTotalAmount()).isEqualTo(totalBefore);
+        assertThat(order.getVersion()).isEqualTo(versionBefore);
+    }
+
+    private static OrderItem item(String sku, String currency) {
+        Money unitPrice = new Money(new BigDecimal("10.00"), currency);
+        return new OrderItem(sku, "Product " + sku, 1, unitPrice, unitPrice);
+    }
+}
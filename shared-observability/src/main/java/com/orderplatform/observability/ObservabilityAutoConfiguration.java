@@ -0,0 +1,30 @@
+package com.orderplatform.observability;
+
+import com.orderplatform.observability.logging.LoggingMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Instrumentation shared by the services, picked up by every service that has this module on its
+ * classpath.
+ */
+@AutoConfiguration
+public class ObservabilityAutoConfiguration {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnMissingBean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LoggingMetrics loggingMetrics() {
+        return new LoggingMetrics();
+    }
+}
@@ -0,0 +1,37 @@
+package com.orderplatform.observability.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops. With {@code neverBlock} an event is dropped
+ * when the queue is full; below {@code discardingThreshold} free slots INFO and lower events are
+ * discarded to keep room for warnings and errors.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder queueFull = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Mirrors the checks of the base class, which drops silently; the counts are approximate under contention
+        int remaining = getRemainingCapacity();
+        if (remaining < getDiscardingThreshold() && isDiscardable(event)) {
+            discarded.increment();
+        } else if (remaining == 0 && isNeverBlock()) {
+            queueFull.increment();
+        }
+        super.append(event);
+    }
+
+    public long discardedCount() {
+        return discarded.sum();
+    }
+
+    public long queueFullCount() {
+        return queueFull.sum();
+    }
+}
@@ -0,0 +1,54 @@
+package com.orderplatform.observability.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the drop counts of the sampled asynchronous logging pipeline configured in
+ * {@code logback-spring.xml} as {@code logging.events.dropped{reason}}, and the async queue depth as
+ * {@code logging.queue.size}.
+ */
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+
+        context.getTurboFilterList().stream()
+                .filter(SamplingTurboFilter.class::isInstance)
+                .map(SamplingTurboFilter.class::cast)
+                .forEach(filter -> dropped(registry, "sampled", filter, SamplingTurboFilter::droppedCount));
+
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof CountingAsyncAppender async) {
+                dropped(registry, "discarded", async, CountingAsyncAppender::discardedCount);
+                dropped(registry, "queue_full", async, CountingAsyncAppender::queueFullCount);
+                Gauge.builder("logging.queue.size", async, CountingAsyncAppender::getNumberOfElementsInQueue)
+                        .description("Log events waiting in the async appender queue")
+                        .tag("appender", async.getName())
+                        .register(registry);
+            }
+        }
+    }
+
+    private static <T> void dropped(MeterRegistry registry, String reason, T source,
+                                    ToDoubleFunction<T> count) {
+        FunctionCounter.builder("logging.events.dropped", source, count)
+                .description("Log events dropped by sampling or because the async queue was full")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
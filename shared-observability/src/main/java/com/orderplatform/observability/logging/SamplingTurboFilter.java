@@ -0,0 +1,91 @@
+package com.orderplatform.observability.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rate-limits log statements per logger before a logging event is created, so statements over the
+ * budget cost neither message formatting nor a slot in the async queue.
+ * <p>
+ * Every logger gets {@code eventsPerSecond} statements per second at {@code maxLevel} and below, with
+ * bursts of up to one second's worth. Statements above {@code maxLevel} (by default WARN and ERROR)
+ * are never sampled. Dropped statements are counted in {@link #droppedCount()}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private Level maxLevel = Level.INFO;
+    private int eventsPerSecond = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isDebugEnabled() and friends pass no format; they must not use up the budget
+        if (format == null || level.toInt() > maxLevel.toInt() || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (buckets.computeIfAbsent(logger.getName(), name -> new Bucket()).tryAcquire()) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.increment();
+        return FilterReply.DENY;
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+
+    public void setEventsPerSecond(int eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+
+    @Override
+    public void start() {
+        if (eventsPerSecond <= 0) {
+            addError("eventsPerSecond must be positive, was " + eventsPerSecond);
+            return;
+        }
+        super.start();
+    }
+
+    /**
+     * Token bucket holding up to one second's worth of events.
+     */
+    private final class Bucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long costNanos = NANOS_PER_SECOND / eventsPerSecond;
+        private long nextFreeNanos = System.nanoTime() - NANOS_PER_SECOND;
+
+        boolean tryAcquire() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                long start = Math.max(nextFreeNanos, now - NANOS_PER_SECOND);
+                if (start + costNanos > now) {
+                    return false;
+                }
+                nextFreeNanos = start + costNanos;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}